@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Locates the input files of the benchmarks, which are run from the root directory of the project.
+ */
+public final class BenchmarkFiles {
+    private static final String TEST_RESOURCES = "mapsforge-map-reader/src/test/resources/";
+
+    /**
+     * Creates an empty temporary directory, to be deleted with {@link #delete(File)}.
+     */
+    public static File createTempDirectory(String prefix) throws IOException {
+        File directory = File.createTempFile(prefix, "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("could not create directory: " + directory);
+        }
+        return directory;
+    }
+
+    /**
+     * Deletes a file or a directory with its content.
+     */
+    public static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * @param name the name of a test map of the map reader, e.g. {@code with_data}, or the path of any other file.
+     */
+    public static File getMapFile(String name) {
+        return getFile(name, "output.map");
+    }
+
+    /**
+     * @param name the name of a test map of the map reader, e.g. {@code with_data}, or the path of any other file.
+     * @return the OSM XML file the test map was generated from, or the given file.
+     */
+    public static File getOsmFile(String name) {
+        return getFile(name, "input.xml");
+    }
+
+    private static File getFile(String name, String testFileName) {
+        File file = new File(name);
+        if (!file.isFile()) {
+            file = new File(TEST_RESOURCES + name, testFileName);
+        }
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("file not found: " + name);
+        }
+        return file;
+    }
+
+    private BenchmarkFiles() {
+        throw new IllegalStateException();
+    }
+}
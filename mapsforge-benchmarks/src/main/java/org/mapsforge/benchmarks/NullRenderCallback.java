@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.benchmarks;
+
+import org.mapsforge.core.graphics.Bitmap;
+import org.mapsforge.core.graphics.Curve;
+import org.mapsforge.core.graphics.Display;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Position;
+import org.mapsforge.core.graphics.SymbolOrientation;
+import org.mapsforge.core.graphics.TextOrientation;
+import org.mapsforge.core.model.Rectangle;
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.layer.renderer.PolylineContainer;
+import org.mapsforge.map.rendertheme.RenderCallback;
+import org.mapsforge.map.rendertheme.RenderContext;
+
+/**
+ * A {@link RenderCallback} which ignores everything, so that benchmarks only measure the matching of the render theme.
+ */
+public class NullRenderCallback implements RenderCallback {
+    @Override
+    public void renderArea(RenderContext renderContext, Paint fill, Paint stroke, int level, PolylineContainer way) {
+    }
+
+    @Override
+    public void renderAreaCaption(RenderContext renderContext, Display display, int priority, String caption, float horizontalOffset, float verticalOffset, Paint fill, Paint stroke, Position position, int maxTextWidth, PolylineContainer way) {
+    }
+
+    @Override
+    public void renderAreaSymbol(RenderContext renderContext, Display display, int priority, Bitmap symbol, PolylineContainer way) {
+    }
+
+    @Override
+    public void renderPointOfInterestCaption(RenderContext renderContext, Display display, int priority, String caption, float horizontalOffset, float verticalOffset, Paint fill, Paint stroke, Position position, int maxTextWidth, PointOfInterest poi) {
+    }
+
+    @Override
+    public void renderPointOfInterestCircle(RenderContext renderContext, float radius, Paint fill, Paint stroke, int level, PointOfInterest poi) {
+    }
+
+    @Override
+    public void renderPointOfInterestSymbol(RenderContext renderContext, Display display, int priority, Rectangle boundary, Bitmap symbol, PointOfInterest poi) {
+    }
+
+    @Override
+    public void renderWay(RenderContext renderContext, Paint stroke, float dy, Curve curveStyle, int level, PolylineContainer way) {
+    }
+
+    @Override
+    public void renderWaySymbol(RenderContext renderContext, Display display, int priority, Bitmap symbol, float dy, Rectangle boundary, boolean repeat, float repeatGap, float repeatStart, SymbolOrientation symbolOrientation, PolylineContainer way) {
+    }
+
+    @Override
+    public void renderWayText(RenderContext renderContext, Display display, int priority, String text, float dy, Paint fill, Paint stroke, boolean repeat, float repeatGap, float repeatStart, TextOrientation textOrientation, PolylineContainer way) {
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.hills;
+
+import org.mapsforge.benchmarks.BenchmarkFiles;
+import org.mapsforge.core.util.MercatorProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of one HGT file to a hill shading bitmap by the different shading algorithms.
+ * <p/>
+ * The HGT file N46E010 is generated with a synthetic terrain, so no elevation data has to be downloaded; its
+ * resolution is 3 (1201x1201 points) or 1 (3601x3601 points) arc second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HillShadingBenchmark {
+    private static final int LATITUDE = 46;
+    private static final int LONGITUDE = 10;
+
+    @Param({"simple", "standard", "hires", "adaptive"})
+    public String algorithm;
+
+    @Param({"1201", "3601"})
+    public int axisLength;
+
+    @Param({"10", "14"})
+    public int zoomLevel;
+
+    private File directory;
+    private HgtFileInfo hgtFileInfo;
+    private double pxPerLat;
+    private double pxPerLon;
+    private ShadingAlgorithm shadingAlgorithm;
+
+    private static ShadingAlgorithm createAlgorithm(String name) {
+        if ("simple".equals(name)) {
+            return new SimpleClasyHillShading();
+        } else if ("standard".equals(name)) {
+            return new StandardClasyHillShading();
+        } else if ("hires".equals(name)) {
+            return new HiResClasyHillShading();
+        } else if ("adaptive".equals(name)) {
+            return new AdaptiveClasyHillShading();
+        }
+        throw new IllegalArgumentException("unknown algorithm: " + name);
+    }
+
+    private static void writeHgtFile(File file, int axisLength) throws IOException {
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            for (int y = 0; y < axisLength; ++y) {
+                for (int x = 0; x < axisLength; ++x) {
+                    // hills and valleys of a few kilometers, in big endian like real HGT files
+                    double u = 12.0 * x / axisLength;
+                    double v = 12.0 * y / axisLength;
+                    double elevation = 1500 + 600 * Math.sin(u) * Math.cos(v) + 200 * Math.sin(3.7 * u + 1.3 * v);
+                    outputStream.writeShort((short) elevation);
+                }
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = BenchmarkFiles.createTempDirectory("hillshading");
+        File file = new File(this.directory, "N" + LATITUDE + "E0" + LONGITUDE + ".hgt");
+        writeHgtFile(file, this.axisLength);
+        this.hgtFileInfo = new HgtFileInfo(new DemFileFS(file), LATITUDE, LONGITUDE, LATITUDE + 1, LONGITUDE + 1, file.length());
+
+        // as computed when rendering a tile, see Hillshading
+        long mapSize = MercatorProjection.getMapSize((byte) this.zoomLevel, 256);
+        this.pxPerLat = MercatorProjection.latitudeToPixelY(LATITUDE, mapSize) - MercatorProjection.latitudeToPixelY(LATITUDE + 1, mapSize);
+        this.pxPerLon = MercatorProjection.longitudeToPixelX(LONGITUDE + 1, mapSize) - MercatorProjection.longitudeToPixelX(LONGITUDE, mapSize);
+        this.shadingAlgorithm = createAlgorithm(this.algorithm);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.shadingAlgorithm instanceof AThreadedHillShading) {
+            ((AThreadedHillShading) this.shadingAlgorithm).interruptAndDestroy();
+        }
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public ShadingAlgorithm.RawShadingResult transform() {
+        ShadingAlgorithm.RawShadingResult result = this.shadingAlgorithm.transformToByteBuffer(this.hgtFileInfo, 1,
+                this.zoomLevel, this.pxPerLat, this.pxPerLon);
+        if (result == null) {
+            throw new IllegalStateException("shading failed: " + this.hgtFileInfo);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.mapsforge.benchmarks.BenchmarkFiles;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.layer.cache.InMemoryTileCache;
+import org.mapsforge.map.model.DisplayModel;
+import org.mapsforge.map.reader.MapFile;
+import org.mapsforge.map.rendertheme.internal.MapsforgeThemes;
+import org.mapsforge.map.rendertheme.rule.RenderThemeFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DatabaseRenderer#executeJob} end to end with the {@link AwtGraphicFactory}: reading the map data,
+ * matching the render theme, drawing the ways and placing the labels, into an in-memory tile cache.
+ * <p/>
+ * Every invocation renders the next tile of the 3x3 tiles around the center of the map, so the labels of the
+ * neighbouring tiles are taken into account like when the map is displayed. A real extract can be passed as path,
+ * e.g. {@code -p mapFile=/path/to/berlin.map}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseRendererBenchmark {
+    private static final int BLOCK_SIZE = 3;
+
+    @Param({"with_data"})
+    public String mapFile;
+
+    @Param({"DEFAULT", "OSMARENDER"})
+    public String theme;
+
+    @Param({"8", "14"})
+    public byte zoomLevel;
+
+    private DatabaseRenderer databaseRenderer;
+    private MapFile file;
+    private RenderThemeFuture renderThemeFuture;
+    private RendererJob[] rendererJobs;
+    private int tileIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        DisplayModel displayModel = new DisplayModel();
+        this.renderThemeFuture = new RenderThemeFuture(AwtGraphicFactory.INSTANCE, MapsforgeThemes.valueOf(this.theme), displayModel);
+        this.renderThemeFuture.run();
+        this.renderThemeFuture.get();
+
+        this.file = new MapFile(BenchmarkFiles.getMapFile(this.mapFile));
+        this.databaseRenderer = new DatabaseRenderer(this.file, AwtGraphicFactory.INSTANCE,
+                new InMemoryTileCache(BLOCK_SIZE * BLOCK_SIZE), null, true, false, null);
+
+        LatLong center = this.file.boundingBox().getCenterPoint();
+        int centerX = MercatorProjection.longitudeToTileX(center.longitude, this.zoomLevel);
+        int centerY = MercatorProjection.latitudeToTileY(center.latitude, this.zoomLevel);
+        int maxTileNumber = Tile.getMaxTileNumber(this.zoomLevel);
+        this.rendererJobs = new RendererJob[BLOCK_SIZE * BLOCK_SIZE];
+        for (int i = 0; i < this.rendererJobs.length; ++i) {
+            int tileX = Math.min(Math.max(centerX + i % BLOCK_SIZE - BLOCK_SIZE / 2, 0), maxTileNumber);
+            int tileY = Math.min(Math.max(centerY + i / BLOCK_SIZE - BLOCK_SIZE / 2, 0), maxTileNumber);
+            Tile tile = new Tile(tileX, tileY, this.zoomLevel, displayModel.getTileSize());
+            this.rendererJobs[i] = new RendererJob(tile, this.file, this.renderThemeFuture, displayModel, 1, false, false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.databaseRenderer.tileCache.destroy();
+        this.file.close();
+        this.renderThemeFuture.decrementRefCount();
+    }
+
+    @Benchmark
+    public int executeJob() {
+        RendererJob rendererJob = this.rendererJobs[this.tileIndex];
+        this.tileIndex = (this.tileIndex + 1) % this.rendererJobs.length;
+        TileBitmap bitmap = this.databaseRenderer.executeJob(rendererJob);
+        if (bitmap == null) {
+            throw new IllegalStateException("rendering failed: " + rendererJob.tile);
+        }
+        int width = bitmap.getWidth();
+        bitmap.decrementRefCount();
+        return width;
+    }
+}
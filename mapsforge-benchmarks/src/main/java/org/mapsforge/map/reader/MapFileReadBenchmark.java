@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.reader;
+
+import org.mapsforge.benchmarks.BenchmarkFiles;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.datastore.MapReadResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MapFile#readMapData(Tile)} for the tile at the center of the map.
+ * <p/>
+ * The zoom levels select the amount of data per tile: a tile at zoom level 8 covers the whole test maps (dense), one
+ * at zoom level 14 only a small part of them. The bundled test maps are small, a real extract can be passed as path,
+ * e.g. {@code -p mapFile=/path/to/berlin.map}. The index cache of the map file is warm after the first read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapFileReadBenchmark {
+    @Param({"with_data", "double_delta_encoding"})
+    public String mapFile;
+
+    @Param({"false", "true"})
+    public boolean memoryMapped;
+
+    @Param({"8", "11", "14"})
+    public byte zoomLevel;
+
+    private MapFile file;
+    private Tile tile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.file = new MapFile(BenchmarkFiles.getMapFile(this.mapFile), null, this.memoryMapped);
+        LatLong center = this.file.boundingBox().getCenterPoint();
+        this.tile = new Tile(MercatorProjection.longitudeToTileX(center.longitude, this.zoomLevel),
+                MercatorProjection.latitudeToTileY(center.latitude, this.zoomLevel), this.zoomLevel, 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.file.close();
+    }
+
+    @Benchmark
+    public MapReadResult readMapData() {
+        return this.file.readMapData(this.tile);
+    }
+
+    @Benchmark
+    public MapReadResult readPoiData() {
+        return this.file.readPoiData(this.tile);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.mapsforge.benchmarks.NullRenderCallback;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.Parameters;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.datastore.MultiMapDataStore;
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.datastore.Way;
+import org.mapsforge.map.layer.renderer.PolylineContainer;
+import org.mapsforge.map.layer.renderer.RendererJob;
+import org.mapsforge.map.model.DisplayModel;
+import org.mapsforge.map.rendertheme.RenderCallback;
+import org.mapsforge.map.rendertheme.RenderContext;
+import org.mapsforge.map.rendertheme.internal.MapsforgeThemes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching ways and POIs against the bundled render themes with and without the pre-compiled rule index.
+ * <p/>
+ * With a cold cache the matching caches are cleared at the beginning of every invocation, so every lookup evaluates
+ * the rules. With a warm cache the lookups are answered by the matching caches, as for most elements of a tile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderThemeMatchingBenchmark {
+    private static final String[][] TAGS = {
+            {"highway", "motorway", "trunk", "primary", "secondary", "tertiary", "residential", "service", "track", "path", "footway", "cycleway", "unclassified"},
+            {"building", "yes", "house", "residential", "garage", "barn"},
+            {"landuse", "forest", "farmland", "meadow", "residential", "industrial", "grass", "orchard", "vineyard"},
+            {"natural", "wood", "water", "scrub", "heath", "wetland", "peak", "tree"},
+            {"waterway", "river", "stream", "canal", "ditch", "drain"},
+            {"railway", "rail", "abandoned", "station", "level_crossing"},
+            {"amenity", "parking", "school", "restaurant", "place_of_worship", "bench", "fuel"},
+            {"leisure", "park", "pitch", "playground", "garden"},
+            {"place", "village", "hamlet", "town", "city", "locality"},
+            {"boundary", "administrative", "protected_area"},
+            {"tunnel", "yes", "culvert"},
+            {"bridge", "yes"},
+            {"layer", "-1", "1", "2"},
+            {"oneway", "yes", "-1"},
+            {"tracktype", "grade1", "grade2", "grade3"},
+            {"surface", "asphalt", "gravel", "unpaved", "ground"},
+    };
+    private static final byte[] ZOOM_LEVELS = {10, 12, 14, 16, 18};
+    private static final int ELEMENTS_PER_ZOOM_LEVEL = 200;
+
+    @Param({"DEFAULT", "OSMARENDER"})
+    public String theme;
+
+    @Param({"true", "false"})
+    public boolean ruleIndex;
+
+    @Param({"cold", "warm"})
+    public String cache;
+
+    private final List<PolylineContainer> closedWays = new ArrayList<>();
+    private final List<PolylineContainer> linearWays = new ArrayList<>();
+    private final List<PointOfInterest> pois = new ArrayList<>();
+    private final List<RenderContext> poiRenderContexts = new ArrayList<>();
+    private final RenderCallback renderCallback = new NullRenderCallback();
+    private RenderTheme renderTheme;
+    private final List<RenderContext> wayRenderContexts = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Parameters.RULE_INDEX = this.ruleIndex;
+
+        DisplayModel displayModel = new DisplayModel();
+        RenderThemeFuture renderThemeFuture = new RenderThemeFuture(AwtGraphicFactory.INSTANCE,
+                MapsforgeThemes.valueOf(this.theme), displayModel);
+        renderThemeFuture.run();
+        this.renderTheme = renderThemeFuture.get();
+
+        Random random = new Random(42);
+        for (byte zoomLevel : ZOOM_LEVELS) {
+            Tile tile = new Tile(0, 0, zoomLevel, displayModel.getTileSize());
+            RenderContext renderContext = new RenderContext(new RendererJob(tile,
+                    new MultiMapDataStore(MultiMapDataStore.DataPolicy.RETURN_ALL), renderThemeFuture, displayModel,
+                    1f, false, false), AwtGraphicFactory.INSTANCE);
+            for (int i = 0; i < ELEMENTS_PER_ZOOM_LEVEL; ++i) {
+                LatLong[][] latLongs = {{new LatLong(1, 1), new LatLong(1.001, 1.001), new LatLong(1, 1.001), new LatLong(1, 1)}};
+                this.closedWays.add(new PolylineContainer(new Way((byte) 0, randomTags(random), latLongs, null), tile, tile));
+                this.linearWays.add(new PolylineContainer(new Way((byte) 0, randomTags(random), latLongs, null), tile, tile));
+                this.wayRenderContexts.add(renderContext);
+                this.pois.add(new PointOfInterest((byte) 0, randomTags(random), new LatLong(1, 1)));
+                this.poiRenderContexts.add(renderContext);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (RenderContext renderContext : this.wayRenderContexts) {
+            renderContext.destroy();
+        }
+        this.renderTheme.destroy();
+        Parameters.RULE_INDEX = true;
+    }
+
+    @Benchmark
+    public void matchNodes() {
+        clearCaches();
+        for (int i = 0, n = this.pois.size(); i < n; ++i) {
+            this.renderTheme.matchNode(this.renderCallback, this.poiRenderContexts.get(i), this.pois.get(i));
+        }
+    }
+
+    @Benchmark
+    public void matchWays() {
+        clearCaches();
+        for (int i = 0, n = this.linearWays.size(); i < n; ++i) {
+            this.renderTheme.matchLinearWay(this.renderCallback, this.wayRenderContexts.get(i), this.linearWays.get(i));
+            this.renderTheme.matchClosedWay(this.renderCallback, this.wayRenderContexts.get(i), this.closedWays.get(i));
+        }
+    }
+
+    private void clearCaches() {
+        if ("cold".equals(this.cache)) {
+            this.renderTheme.clearMatchingCaches();
+        }
+    }
+
+    /**
+     * Creates one to four random tags, using frequent OSM keys with both common and rare values.
+     */
+    private static List<Tag> randomTags(Random random) {
+        int count = 1 + random.nextInt(4);
+        List<Tag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            String[] values = TAGS[random.nextInt(TAGS.length)];
+            String value = random.nextInt(10) == 0 ? "value" + random.nextInt(1000) : values[1 + random.nextInt(values.length - 1)];
+            tags.add(new Tag(values[0], value));
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.util;
+
+import org.mapsforge.core.graphics.Bitmap;
+import org.mapsforge.core.graphics.Color;
+import org.mapsforge.core.graphics.Display;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Position;
+import org.mapsforge.core.mapelements.MapElementContainer;
+import org.mapsforge.core.mapelements.SymbolContainer;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.core.model.Rotation;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LayerUtil#collisionFreeOrdered} with captions and symbols randomly placed on an area of 3x3 tiles,
+ * like the labels collected for a tile and its neighbours.
+ * <p/>
+ * The input list is sorted by the method, so every invocation works on a copy of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollisionFreeOrderedBenchmark {
+    private static final GraphicFactory GRAPHIC_FACTORY = AwtGraphicFactory.INSTANCE;
+    private static final int AREA_SIZE = 3 * 256;
+
+    @Param({"100", "1000", "5000"})
+    public int elements;
+
+    @Param({"0", "30"})
+    public float rotation;
+
+    private final List<MapElementContainer> input = new ArrayList<>();
+    private Rotation mapRotation;
+    private Bitmap symbol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.mapRotation = new Rotation(this.rotation, AREA_SIZE / 2f, AREA_SIZE / 2f);
+        this.symbol = GRAPHIC_FACTORY.createBitmap(16, 16);
+
+        Paint paintFront = GRAPHIC_FACTORY.createPaint();
+        paintFront.setColor(Color.BLACK);
+        paintFront.setTextSize(14);
+        Paint paintBack = GRAPHIC_FACTORY.createPaint(paintFront);
+        paintBack.setColor(Color.WHITE);
+        paintBack.setStrokeWidth(2);
+
+        Random random = new Random(42);
+        for (int i = 0; i < this.elements; ++i) {
+            Point point = new Point(random.nextDouble() * AREA_SIZE, random.nextDouble() * AREA_SIZE);
+            Display display = random.nextInt(10) == 0 ? Display.ALWAYS : Display.IFSPACE;
+            int priority = random.nextInt(100);
+            if (random.nextBoolean()) {
+                this.input.add(new SymbolContainer(point, display, priority, null, this.symbol, true));
+            } else {
+                this.input.add(GRAPHIC_FACTORY.createPointTextContainer(point, 0, 0, display, priority,
+                        "Label " + i, paintFront, paintBack, null, Position.CENTER, 200));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.symbol.decrementRefCount();
+    }
+
+    @Benchmark
+    public List<MapElementContainer> collisionFreeOrdered() {
+        return LayerUtil.collisionFreeOrdered(new ArrayList<>(this.input), this.mapRotation);
+    }
+}
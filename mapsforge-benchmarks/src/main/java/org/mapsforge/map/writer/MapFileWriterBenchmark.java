@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.writer;
+
+import org.mapsforge.benchmarks.BenchmarkFiles;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.map.writer.model.MapWriterConfiguration;
+import org.mapsforge.map.writer.util.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.osmosis.core.container.v0_6.EntityContainer;
+import org.openstreetmap.osmosis.core.domain.v0_6.Bound;
+import org.openstreetmap.osmosis.core.domain.v0_6.Entity;
+import org.openstreetmap.osmosis.core.domain.v0_6.Node;
+import org.openstreetmap.osmosis.core.domain.v0_6.Relation;
+import org.openstreetmap.osmosis.core.domain.v0_6.Way;
+import org.openstreetmap.osmosis.core.task.v0_6.Sink;
+import org.openstreetmap.osmosis.xml.common.CompressionMethod;
+import org.openstreetmap.osmosis.xml.v0_6.XmlReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MapFileWriter#writeFile} with the RAM data processor, including loading the entities into it.
+ * <p/>
+ * The OSM XML file is parsed once per trial, so the XML parsing of osmosis is not measured. The bundled test extracts
+ * are small, a real extract can be passed as path, e.g. {@code -p osmFile=/path/to/monaco.osm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapFileWriterBenchmark {
+    @Param({"with_data"})
+    public String osmFile;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private BoundingBox boundingBox;
+    private File directory;
+    private final List<Entity> entities = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = BenchmarkFiles.createTempDirectory("mapwriter");
+
+        XmlReader xmlReader = new XmlReader(BenchmarkFiles.getOsmFile(this.osmFile), false, CompressionMethod.None);
+        xmlReader.setSink(new Sink() {
+            @Override
+            public void close() {
+                // nothing to do here
+            }
+
+            @Override
+            public void complete() {
+                // nothing to do here
+            }
+
+            @Override
+            public void initialize(Map<String, Object> metadata) {
+                // nothing to do here
+            }
+
+            @Override
+            public void process(EntityContainer entityContainer) {
+                Entity entity = entityContainer.getEntity();
+                if (entity instanceof Bound) {
+                    Bound bound = (Bound) entity;
+                    MapFileWriterBenchmark.this.boundingBox = new BoundingBox(bound.getBottom(), bound.getLeft(),
+                            bound.getTop(), bound.getRight());
+                } else {
+                    MapFileWriterBenchmark.this.entities.add(entity);
+                }
+            }
+        });
+        xmlReader.run();
+
+        if (this.boundingBox == null) {
+            throw new IllegalArgumentException("no bounds in OSM file: " + this.osmFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public long writeFile() throws IOException {
+        // the defaults of the osmosis plugin, see MapFileWriterFactory
+        MapWriterConfiguration configuration = new MapWriterConfiguration();
+        configuration.setWriterVersion("benchmark");
+        configuration.setFileSpecificationVersion(3);
+        configuration.loadTagMappingFile(null);
+        configuration.setBboxConfiguration(this.boundingBox);
+        configuration.addZoomIntervalConfiguration(null);
+        configuration.setPolygonClipping(true);
+        configuration.setWayClipping(true);
+        configuration.setSimplification(Constants.DEFAULT_SIMPLIFICATION_FACTOR);
+        configuration.setSimplificationMaxZoom((byte) Constants.DEFAULT_SIMPLIFICATION_MAX_ZOOM);
+        configuration.setDataProcessorType(Constants.DEFAULT_PARAM_TYPE);
+        configuration.setBboxEnlargement(Constants.DEFAULT_PARAM_BBOX_ENLARGEMENT);
+        configuration.addEncodingChoice(Constants.DEFAULT_PARAM_ENCODING);
+        configuration.setThreads(this.threads);
+        configuration.setOutputFile(new File(this.directory, "output.map"));
+        configuration.validate();
+
+        RAMTileBasedDataProcessor dataProcessor = RAMTileBasedDataProcessor.newInstance(configuration);
+        for (Entity entity : this.entities) {
+            if (entity instanceof Node) {
+                dataProcessor.addNode((Node) entity);
+            } else if (entity instanceof Way) {
+                dataProcessor.addWay((Way) entity);
+            } else if (entity instanceof Relation) {
+                dataProcessor.addRelation((Relation) entity);
+            }
+        }
+        dataProcessor.complete();
+
+        try {
+            MapFileWriter.writeFile(configuration, dataProcessor);
+        } finally {
+            MapFileWriter.release();
+            dataProcessor.close();
+        }
+        return configuration.getOutputFile().length();
+    }
+}
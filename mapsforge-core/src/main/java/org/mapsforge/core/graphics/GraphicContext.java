@@ -7,6 +7,7 @@
  * Copyright 2019 Adrian Batzill
  * Copyright 2019 mg4gh
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -47,6 +48,20 @@ public interface GraphicContext {
 
     void drawLines(Point[][] coordinates, float dy, Paint paint);
 
+    /**
+     * Draws independent line segments.
+     * <p/>
+     * The default implementation draws every segment with {@link #drawLine(int, int, int, int, Paint)},
+     * implementations should draw all segments in one call.
+     *
+     * @param lines the line segments as x0, y0, x1, y1 quadruples.
+     */
+    default void drawLines(float[] lines, Paint paint) {
+        for (int i = 0; i + 3 < lines.length; i += 4) {
+            drawLine(Math.round(lines[i]), Math.round(lines[i + 1]), Math.round(lines[i + 2]), Math.round(lines[i + 3]), paint);
+        }
+    }
+
     void drawPathText(String text, Path path, Paint paint);
 
     void drawText(String text, int x, int y, Paint paint);
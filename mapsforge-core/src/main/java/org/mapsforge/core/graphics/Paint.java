@@ -3,6 +3,7 @@
  * Copyright 2014 Ludwig M Brinckmann
  * Copyright 2016-2017 devemux86
  * Copyright 2024-2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -32,6 +33,14 @@ public interface Paint {
 
     Rectangle getTextBounds(String text);
 
+    /**
+     * @return true if this paint draws with a bitmap shader, i.e. if {@link #setBitmapShaderShift(Point)} has an effect.
+     * The default implementation returns false, so the bitmap shader is set again for every way.
+     */
+    default boolean hasBitmapShader() {
+        return false;
+    }
+
     int getTextHeight(String text);
 
     int getTextWidth(String text);
@@ -42,6 +51,10 @@ public interface Paint {
 
     void setBitmapShader(Bitmap bitmap);
 
+    /**
+     * Shifts the bitmap shader of this paint. Since this modifies the paint, threads sharing it need to draw with
+     * their own copy from {@link GraphicFactory#createPaint(Paint)}.
+     */
     void setBitmapShaderShift(Point origin);
 
     void setColor(Color color);
@@ -366,6 +366,43 @@ public class BoundingBox implements Serializable {
         return this.intersects(new BoundingBox(tmpMinLat, tmpMinLon, tmpMaxLat, tmpMaxLon));
     }
 
+    /**
+     * Returns if an area built from the coordinates intersects with a bias towards
+     * returning true. Works like {@link #intersectsArea(LatLong[][])}.
+     *
+     * @param coordinates the points that define an area, as interleaved latitude/longitude pairs
+     * @return false if there is no intersection, true if there could be an intersection
+     */
+    public boolean intersectsArea(double[][] coordinates) {
+        if (coordinates.length == 0 || coordinates[0].length == 0) {
+            return false;
+        }
+        for (double[] outer : coordinates) {
+            for (int i = 0; i < outer.length; i += 2) {
+                if (this.contains(outer[i], outer[i + 1])) {
+                    // if any of the points is inside the bbox return early
+                    return true;
+                }
+            }
+        }
+
+        // no fast solution, so accumulate boundary points
+        double tmpMinLat = coordinates[0][0];
+        double tmpMinLon = coordinates[0][1];
+        double tmpMaxLat = coordinates[0][0];
+        double tmpMaxLon = coordinates[0][1];
+
+        for (double[] outer : coordinates) {
+            for (int i = 0; i < outer.length; i += 2) {
+                tmpMinLat = Math.min(tmpMinLat, outer[i]);
+                tmpMaxLat = Math.max(tmpMaxLat, outer[i]);
+                tmpMinLon = Math.min(tmpMinLon, outer[i + 1]);
+                tmpMaxLon = Math.max(tmpMaxLon, outer[i + 1]);
+            }
+        }
+        return this.intersects(new BoundingBox(tmpMinLat, tmpMinLon, tmpMaxLat, tmpMaxLon));
+    }
+
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
@@ -193,6 +193,17 @@ public final class LatLongUtils {
         return latLongs[0].distance(latLongs[latLongs.length - 1]) < 0.000000001;
     }
 
+    /**
+     * Find if the given way is closed, i.e. its first and last coordinates are equal.
+     *
+     * @param coordinates the way coordinates as interleaved latitude/longitude pairs
+     * @return true if the first and last coordinates are equal, false otherwise
+     */
+    public static boolean isClosedWay(double[] coordinates) {
+        int last = coordinates.length - 2;
+        return Math.hypot(coordinates[last + 1] - coordinates[1], coordinates[last] - coordinates[0]) < 0.000000001;
+    }
+
     /**
      * Calculates the amount of degrees of latitude for a given distance in meters.
      *
@@ -85,6 +85,11 @@ public final class Parameters {
      */
     public static boolean ROTATION_MATRIX = true;
 
+    /**
+     * Match render theme rules with a pre-compiled index, which only visits the rules that can possibly match.
+     */
+    public static boolean RULE_INDEX = true;
+
     /**
      * If square frame buffer is enabled, the frame buffer allocated for drawing will be
      * large enough for drawing in either orientation, so no change is needed when the device
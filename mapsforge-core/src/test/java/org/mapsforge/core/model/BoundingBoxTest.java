@@ -2,6 +2,7 @@
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014 Christian Pesch
  * Copyright 2015 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -242,6 +243,29 @@ public class BoundingBoxTest {
         Assert.assertEquals(MAX_LONGITUDE - MIN_LONGITUDE, boundingBox.getLongitudeSpan(), 0);
     }
 
+    @Test
+    public void intersectsAreaTest() {
+        BoundingBox boundingBox = new BoundingBox(MIN_LATITUDE, MIN_LONGITUDE, MAX_LATITUDE, MAX_LONGITUDE);
+
+        LatLong[][] inside = {{new LatLong(0, 0), new LatLong(MIN_LATITUDE, MIN_LONGITUDE), new LatLong(0, 1)}};
+        LatLong[][] around = {{new LatLong(MIN_LATITUDE - 1, MIN_LONGITUDE - 1),
+                new LatLong(MAX_LATITUDE + 1, MAX_LONGITUDE + 1)}};
+        LatLong[][] outside = {{new LatLong(-4, -3), new LatLong(-2, -1)}, {new LatLong(-3, -2)}};
+
+        Assert.assertTrue(boundingBox.intersectsArea(inside));
+        Assert.assertTrue(boundingBox.intersectsArea(around));
+        Assert.assertFalse(boundingBox.intersectsArea(outside));
+        Assert.assertFalse(boundingBox.intersectsArea(new LatLong[0][]));
+
+        // Same results for the packed coordinates
+        Assert.assertTrue(boundingBox.intersectsArea(new double[][]{{0, 0, MIN_LATITUDE, MIN_LONGITUDE, 0, 1}}));
+        Assert.assertTrue(boundingBox.intersectsArea(new double[][]{{MIN_LATITUDE - 1, MIN_LONGITUDE - 1,
+                MAX_LATITUDE + 1, MAX_LONGITUDE + 1}}));
+        Assert.assertFalse(boundingBox.intersectsArea(new double[][]{{-4, -3, -2, -1}, {-3, -2}}));
+        Assert.assertFalse(boundingBox.intersectsArea(new double[0][]));
+        Assert.assertFalse(boundingBox.intersectsArea(new double[][]{{}}));
+    }
+
     @Test
     public void intersectsTest() {
         BoundingBox boundingBox1 = new BoundingBox(MIN_LATITUDE, MIN_LONGITUDE, MAX_LATITUDE, MAX_LONGITUDE);
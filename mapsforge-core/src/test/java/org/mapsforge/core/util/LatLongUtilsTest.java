@@ -1,6 +1,7 @@
 /*
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014-2016 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -103,6 +104,20 @@ public class LatLongUtilsTest {
         Assert.assertEquals(DEGREES, degrees, 0);
     }
 
+    @Test
+    public void isClosedWayTest() {
+        LatLong[] closed = {new LatLong(1, 2), new LatLong(3, 4), new LatLong(1, 2)};
+        LatLong[] open = {new LatLong(1, 2), new LatLong(3, 4), new LatLong(1, 2.001)};
+        Assert.assertTrue(LatLongUtils.isClosedWay(closed));
+        Assert.assertFalse(LatLongUtils.isClosedWay(open));
+
+        // Same results for the packed coordinates
+        Assert.assertTrue(LatLongUtils.isClosedWay(new double[]{1, 2, 3, 4, 1, 2}));
+        Assert.assertFalse(LatLongUtils.isClosedWay(new double[]{1, 2, 3, 4, 1, 2.001}));
+        Assert.assertFalse(LatLongUtils.isClosedWay(new double[]{1, 2, 3, 4, 1.001, 2}));
+        Assert.assertTrue(LatLongUtils.isClosedWay(new double[]{1, 2}));
+    }
+
     @Test
     public void validateLatitudeTest() {
         LatLongUtils.validateLatitude(LatLongUtils.LATITUDE_MAX);
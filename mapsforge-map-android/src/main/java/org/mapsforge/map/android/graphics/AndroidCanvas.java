@@ -198,6 +198,15 @@ class AndroidCanvas implements Canvas {
         this.canvas.drawLines(lines, AndroidGraphicFactory.getPaint(paint));
     }
 
+    @Override
+    public void drawLines(float[] lines, Paint paint) {
+        if (paint.isTransparent()) {
+            return;
+        }
+
+        this.canvas.drawLines(lines, AndroidGraphicFactory.getPaint(paint));
+    }
+
     @Override
     public void drawPathText(String text, Path path, Paint paint) {
         if (text == null || text.trim().isEmpty()) {
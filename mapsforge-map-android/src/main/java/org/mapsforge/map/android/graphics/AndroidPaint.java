@@ -4,6 +4,7 @@
  * Copyright 2015-2020 devemux86
  * Copyright 2019 Matthew Egeler
  * Copyright 2024-2025 Sublimis / Urban Biker
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -159,6 +160,8 @@ class AndroidPaint implements Paint {
     // needed to record size of bitmap shader to compute the shift
     private int shaderWidth;
     private int shaderHeight;
+    // needed to give copies their own shader, which carries the shift
+    private android.graphics.Bitmap shaderBitmap;
 
     // Avoid creating unnecessary objects
     private final Rect rect = new Rect();
@@ -172,7 +175,14 @@ class AndroidPaint implements Paint {
     }
 
     AndroidPaint(Paint paint) {
-        this.paint = new android.graphics.Paint(((AndroidPaint) paint).paint);
+        AndroidPaint ap = (AndroidPaint) paint;
+        this.paint = new android.graphics.Paint(ap.paint);
+        this.shaderWidth = ap.shaderWidth;
+        this.shaderHeight = ap.shaderHeight;
+        this.shaderBitmap = ap.shaderBitmap;
+        if (this.shaderBitmap != null && this.paint.getShader() != null) {
+            this.paint.setShader(new BitmapShader(this.shaderBitmap, TileMode.REPEAT, TileMode.REPEAT));
+        }
     }
 
     @Override
@@ -202,6 +212,11 @@ class AndroidPaint implements Paint {
         return (int) this.paint.measureText(text);
     }
 
+    @Override
+    public boolean hasBitmapShader() {
+        return this.paint.getShader() != null;
+    }
+
     @Override
     public boolean isTransparent() {
         return this.paint.getShader() == null && this.paint.getAlpha() == 0;
@@ -225,6 +240,7 @@ class AndroidPaint implements Paint {
 
         this.shaderWidth = bitmap.getWidth();
         this.shaderHeight = bitmap.getHeight();
+        this.shaderBitmap = androidBitmap;
         if (!AndroidGraphicFactory.KEEP_RESOURCE_BITMAPS) {
             // there is an problem when bitmaps are recycled too early on honeycomb and up,
             // where shaders are corrupted. This problem does of course not arise if
@@ -1,6 +1,7 @@
 /*
  * Copyright 2022 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -42,6 +43,11 @@ public class DemFileAndroidContent implements DemFile {
         return entry.size;
     }
 
+    @Override
+    public long getLastModified() {
+        return entry.lastModified;
+    }
+
     @Override
     public InputStream openInputStream(int bufferSize) throws IOException {
         InputStream output = rawStream();
@@ -1,5 +1,6 @@
 /*
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -57,6 +58,11 @@ public class DemFileZipEntryAndroidContent implements DemFile {
         return zipEntrySize;
     }
 
+    @Override
+    public long getLastModified() {
+        return contentResolverEntry.lastModified;
+    }
+
     @Override
     public InputStream openInputStream(int bufferSize) throws IOException {
         return rawStream(bufferSize);
@@ -1,6 +1,7 @@
 /*
  * Copyright 2022 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -146,12 +147,18 @@ public class DemFolderAndroidContent implements DemFolder {
         final String name;
         final boolean isDir;
         final long size;
+        final long lastModified;
 
         public Entry(Uri uri, String name, boolean isDir, long size) {
+            this(uri, name, isDir, size, 0);
+        }
+
+        public Entry(Uri uri, String name, boolean isDir, long size, long lastModified) {
             this.uri = uri;
             this.name = name;
             this.isDir = isDir;
             this.size = size;
+            this.lastModified = lastModified;
         }
 
         @Override
@@ -182,6 +189,7 @@ public class DemFolderAndroidContent implements DemFolder {
                 DocumentsContract.Document.COLUMN_DISPLAY_NAME,
                 DocumentsContract.Document.COLUMN_MIME_TYPE,
                 DocumentsContract.Document.COLUMN_SIZE,
+                DocumentsContract.Document.COLUMN_LAST_MODIFIED,
         };
 
         Cursor c = null;
@@ -194,10 +202,11 @@ public class DemFolderAndroidContent implements DemFolder {
                 String name = c.getString(1);
                 String mimeType = c.getString(2);
                 long size = c.getLong(3);
+                long lastModified = c.isNull(4) ? 0 : c.getLong(4);
 
                 Uri uri = DocumentsContract.buildDocumentUriUsingTree(dirUri, fileDocId);
                 boolean isDir = DocumentsContract.Document.MIME_TYPE_DIR.equals(mimeType);
-                result.add(new Entry(uri, name, isDir, size));
+                result.add(new Entry(uri, name, isDir, size, lastModified));
             }
 
             return result;
@@ -216,6 +216,11 @@ class AwtCanvas implements Canvas {
         // Not used
     }
 
+    @Override
+    public void drawLines(float[] lines, Paint paint) {
+        // Not used
+    }
+
     @Override
     public void drawPathText(String text, Path path, Paint paint) {
         if (text == null || text.trim().isEmpty()) {
@@ -3,6 +3,7 @@
  * Copyright 2014-2017 devemux86
  * Copyright 2014 Ludwig M Brinckmann
  * Copyright 2024-2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -152,6 +153,9 @@ public class AwtPaint implements Paint {
         this.strokeWidth = ap.strokeWidth;
         this.textSize = ap.textSize;
         this.strokeDasharray = ap.strokeDasharray;
+        this.texturePaint = ap.texturePaint;
+        this.shaderWidth = ap.shaderWidth;
+        this.shaderHeight = ap.shaderHeight;
     }
 
     @Override
@@ -194,6 +198,11 @@ public class AwtPaint implements Paint {
         return fontMetrics.stringWidth(text);
     }
 
+    @Override
+    public boolean hasBitmapShader() {
+        return this.texturePaint != null;
+    }
+
     @Override
     public boolean isTransparent() {
         return this.texturePaint == null && this.color.getAlpha() == 0;
@@ -1,5 +1,6 @@
 /*
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -19,8 +20,27 @@ import org.junit.Test;
 import org.mapsforge.core.graphics.Bitmap;
 import org.mapsforge.core.graphics.Color;
 import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.model.Point;
 
 public class AwtPaintTest {
+    @Test
+    public void copyBitmapShaderTest() {
+        Paint paint = new AwtPaint();
+        Assert.assertFalse(paint.hasBitmapShader());
+        Assert.assertFalse(AwtGraphicFactory.INSTANCE.createPaint(paint).hasBitmapShader());
+
+        paint.setBitmapShader(AwtGraphicFactory.INSTANCE.createBitmap(10, 10));
+        Assert.assertTrue(paint.hasBitmapShader());
+
+        // shifting a copy leaves the original paint unchanged
+        Paint copy = AwtGraphicFactory.INSTANCE.createPaint(paint);
+        Assert.assertTrue(copy.hasBitmapShader());
+        copy.setBitmapShaderShift(new Point(3, 4));
+        Assert.assertEquals(0, ((AwtPaint) paint).texturePaint.getAnchorRect().getX(), 0);
+        Assert.assertEquals(-3, ((AwtPaint) copy).texturePaint.getAnchorRect().getX(), 0);
+        Assert.assertEquals(-4, ((AwtPaint) copy).texturePaint.getAnchorRect().getY(), 0);
+    }
+
     @Test
     public void isTransparentTest() {
         Paint paint = new AwtPaint();
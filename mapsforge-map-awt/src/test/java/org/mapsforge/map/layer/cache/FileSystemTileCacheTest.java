@@ -343,4 +343,49 @@ public class FileSystemTileCacheTest {
 
         tileCache2.destroy();
     }
+
+    @Test
+    public void writeBehindTest() {
+        writeBehind(2);
+        // direct handoff to the writer threads
+        writeBehind(0);
+    }
+
+    private void writeBehind(int writeQueueSize) {
+        int tileSize = TILE_SIZES[0];
+        TileSource tileSource = OpenStreetMapMapnik.INSTANCE;
+        Job[] job = new Job[8];
+
+        FileSystemTileCache tileCache1 = new FileSystemTileCache(job.length, this.cacheDirectory, GRAPHIC_FACTORY, true, 2, writeQueueSize);
+        for (int i = 0; i < job.length; i++) {
+            job[i] = new DownloadJob(new Tile(i, 0, (byte) 4, tileSize), tileSource);
+            TileBitmap bitmap = GRAPHIC_FACTORY.createTileBitmap(tileSize, false);
+            tileCache1.put(job[i], bitmap);
+
+            // the tile is available while it is being written
+            Assert.assertTrue(tileCache1.containsKey(job[i]));
+            verifyEquals(bitmap, tileCache1.get(job[i]));
+        }
+
+        // all tiles are on disk after destroying a persistent cache
+        tileCache1.destroy();
+        FileSystemTileCache tileCache2 = new FileSystemTileCache(job.length, this.cacheDirectory, GRAPHIC_FACTORY, false, 2, writeQueueSize);
+        for (int i = 0; i < job.length; i++) {
+            Assert.assertTrue(new File(this.cacheDirectory, job[i].getKey() + FileSystemTileCache.FILE_EXTENSION).isFile());
+        }
+
+        // the purge discards the queued tiles
+        for (int i = 0; i < job.length; i++) {
+            tileCache2.put(job[i], GRAPHIC_FACTORY.createTileBitmap(tileSize, false));
+        }
+        tileCache2.purge();
+        tileCache2.flush();
+        for (int i = 0; i < job.length; i++) {
+            Assert.assertFalse(tileCache2.containsKey(job[i]));
+            Assert.assertNull(tileCache2.get(job[i]));
+        }
+
+        tileCache2.destroy();
+        Assert.assertFalse(this.cacheDirectory.exists());
+    }
 }
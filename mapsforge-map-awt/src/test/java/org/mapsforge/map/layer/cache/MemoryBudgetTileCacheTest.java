@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.layer.download.DownloadJob;
+import org.mapsforge.map.layer.download.tilesource.OpenStreetMapMapnik;
+import org.mapsforge.map.layer.queue.Job;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class MemoryBudgetTileCacheTest {
+    private static final GraphicFactory GRAPHIC_FACTORY = AwtGraphicFactory.INSTANCE;
+
+    private static Job createJob(int tileX, int tileSize) {
+        return new DownloadJob(new Tile(tileX, 0, (byte) 10, tileSize), OpenStreetMapMapnik.INSTANCE);
+    }
+
+    /**
+     * @return a job which falls into the same segment as every other job created here.
+     */
+    private static Job createCollidingJob(int tileX) {
+        return new Job(new Tile(tileX, 0, (byte) 10, 256), false) {
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    public void budgetTest() {
+        // a single segment holding four 256 pixel tiles
+        MemoryBudgetTileCache tileCache = new MemoryBudgetTileCache(4 * 256 * 256 * 4);
+        Assert.assertEquals(4, tileCache.getCapacity());
+
+        for (int i = 0; i < 4; ++i) {
+            tileCache.put(createJob(i, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        }
+        Assert.assertEquals(4 * 256 * 256 * 4, tileCache.getBytes());
+
+        // a 512 pixel tile takes the place of the four least recently used 256 pixel tiles
+        tileCache.get(createJob(0, 256));
+        tileCache.put(createJob(4, 512), GRAPHIC_FACTORY.createTileBitmap(512, true));
+        Assert.assertTrue(tileCache.containsKey(createJob(4, 512)));
+        for (int i = 0; i < 4; ++i) {
+            Assert.assertFalse(tileCache.containsKey(createJob(i, 256)));
+        }
+        Assert.assertEquals(512 * 512 * 4, tileCache.getBytes());
+        Assert.assertEquals(1, tileCache.getCapacity());
+
+        tileCache.setMaxBytes(0);
+        Assert.assertFalse(tileCache.containsKey(createJob(4, 512)));
+        Assert.assertEquals(0, tileCache.getBytes());
+
+        tileCache.put(createJob(0, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        Assert.assertFalse(tileCache.containsKey(createJob(0, 256)));
+
+        try {
+            tileCache.setMaxBytes(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+    }
+
+    @Test
+    public void collidingTilesTest() {
+        // a cache of 60 tiles is split into several segments
+        MemoryBudgetTileCache tileCache = new MemoryBudgetTileCache(60 * 256 * 256 * 4);
+        for (int i = 0; i < 60; ++i) {
+            tileCache.put(createCollidingJob(i), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        }
+
+        // tiles in a single segment can use the whole budget
+        for (int i = 0; i < 60; ++i) {
+            Assert.assertTrue(tileCache.containsKey(createCollidingJob(i)));
+        }
+        Assert.assertEquals(60 * 256 * 256 * 4, tileCache.getBytes());
+
+        // only the least recently used tile of the whole cache is evicted
+        tileCache.put(createJob(60, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        Assert.assertFalse(tileCache.containsKey(createCollidingJob(0)));
+        for (int i = 1; i < 60; ++i) {
+            Assert.assertTrue(tileCache.containsKey(createCollidingJob(i)));
+        }
+        Assert.assertTrue(tileCache.containsKey(createJob(60, 256)));
+        Assert.assertEquals(60 * 256 * 256 * 4, tileCache.getBytes());
+    }
+
+    @Test
+    public void oversizedTileTest() {
+        MemoryBudgetTileCache tileCache = new MemoryBudgetTileCache(256 * 256 * 4);
+        tileCache.put(createJob(0, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        Assert.assertTrue(tileCache.containsKey(createJob(0, 256)));
+
+        // a tile larger than the whole budget is not kept
+        tileCache.put(createJob(1, 512), GRAPHIC_FACTORY.createTileBitmap(512, false));
+        Assert.assertFalse(tileCache.containsKey(createJob(0, 256)));
+        Assert.assertFalse(tileCache.containsKey(createJob(1, 512)));
+        Assert.assertEquals(0, tileCache.getBytes());
+    }
+
+    @Test
+    public void workingSetTest() {
+        MemoryBudgetTileCache tileCache = new MemoryBudgetTileCache(3 * 256 * 256 * 4);
+        for (int i = 0; i < 3; ++i) {
+            tileCache.put(createJob(i, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        }
+
+        // the working set is kept although it is the least recently used tile
+        Set<Job> workingSet = Collections.synchronizedSet(new HashSet<Job>());
+        workingSet.add(createJob(0, 256));
+        tileCache.setWorkingSet(workingSet);
+        tileCache.get(createJob(2, 256));
+        tileCache.get(createJob(1, 256));
+
+        tileCache.put(createJob(3, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+        Assert.assertTrue(tileCache.containsKey(createJob(0, 256)));
+        Assert.assertTrue(tileCache.containsKey(createJob(1, 256)));
+        Assert.assertFalse(tileCache.containsKey(createJob(2, 256)));
+        Assert.assertTrue(tileCache.containsKey(createJob(3, 256)));
+
+        // the working set is evicted last
+        tileCache.setMaxBytes(256 * 256 * 4);
+        Assert.assertTrue(tileCache.containsKey(createJob(0, 256)));
+        Assert.assertFalse(tileCache.containsKey(createJob(1, 256)));
+        Assert.assertFalse(tileCache.containsKey(createJob(3, 256)));
+        tileCache.setMaxBytes(0);
+        Assert.assertFalse(tileCache.containsKey(createJob(0, 256)));
+        tileCache.setMaxBytes(3 * 256 * 256 * 4);
+        tileCache.put(createJob(3, 256), GRAPHIC_FACTORY.createTileBitmap(256, false));
+
+        TileBitmap bitmap = tileCache.get(createJob(3, 256));
+        Assert.assertNotNull(bitmap);
+        tileCache.destroy();
+        Assert.assertFalse(tileCache.containsKey(createJob(3, 256)));
+        Assert.assertEquals(0, tileCache.getBytes());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.layer.download.DownloadJob;
+import org.mapsforge.map.layer.download.tilesource.OpenStreetMapMapnik;
+import org.mapsforge.map.layer.queue.Job;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class PackFileTileCacheTest {
+    private static final GraphicFactory GRAPHIC_FACTORY = AwtGraphicFactory.INSTANCE;
+    private static final int TILE_SIZE = 256;
+    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+
+    private static Job createJob(int tileX) {
+        return new DownloadJob(new Tile(tileX, 0, (byte) 10, TILE_SIZE), OpenStreetMapMapnik.INSTANCE);
+    }
+
+    private static TileBitmap createBitmap() {
+        return GRAPHIC_FACTORY.createTileBitmap(TILE_SIZE, false);
+    }
+
+    private static void verifyTile(TileCache tileCache, Job job) {
+        Assert.assertTrue(tileCache.containsKey(job));
+        TileBitmap bitmap = tileCache.get(job);
+        Assert.assertNotNull(bitmap);
+        Assert.assertEquals(TILE_SIZE, bitmap.getWidth());
+        Assert.assertEquals(TILE_SIZE, bitmap.getHeight());
+    }
+
+    private final File cacheDirectory = new File(TMP_DIR, getClass().getSimpleName() + System.currentTimeMillis());
+
+    @After
+    public void afterTest() {
+        File[] files = this.cacheDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.cacheDirectory.delete();
+    }
+
+    @Test
+    public void lruTest() {
+        PackFileTileCache tileCache = new PackFileTileCache(2, this.cacheDirectory, GRAPHIC_FACTORY, false);
+        Assert.assertEquals(2, tileCache.getCapacity());
+
+        tileCache.put(createJob(0), createBitmap());
+        tileCache.put(createJob(1), createBitmap());
+        verifyTile(tileCache, createJob(0));
+        verifyTile(tileCache, createJob(1));
+
+        // the least recently used tile is evicted
+        tileCache.get(createJob(0));
+        tileCache.put(createJob(2), createBitmap());
+        verifyTile(tileCache, createJob(0));
+        Assert.assertFalse(tileCache.containsKey(createJob(1)));
+        Assert.assertNull(tileCache.get(createJob(1)));
+        verifyTile(tileCache, createJob(2));
+
+        tileCache.purge();
+        Assert.assertFalse(tileCache.containsKey(createJob(0)));
+        Assert.assertNull(tileCache.get(createJob(2)));
+        Assert.assertEquals(0, tileCache.getPackLength());
+
+        tileCache.destroy();
+        Assert.assertFalse(new File(this.cacheDirectory, PackFileTileCache.PACK_FILE).exists());
+    }
+
+    @Test
+    public void compactionTest() throws IOException {
+        PackFileTileCache tileCache = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+        for (int i = 0; i < 10; ++i) {
+            tileCache.put(createJob(i), createBitmap());
+        }
+        long packLength = tileCache.getPackLength();
+
+        tileCache.compact();
+        Assert.assertTrue(tileCache.getPackLength() * 3 <= packLength);
+        for (int i = 7; i < 10; ++i) {
+            verifyTile(tileCache, createJob(i));
+        }
+
+        // tiles added after the compaction are appended to the new pack file
+        tileCache.put(createJob(10), createBitmap());
+        verifyTile(tileCache, createJob(10));
+        tileCache.destroy();
+    }
+
+    @Test
+    public void backgroundCompactionTest() throws InterruptedException {
+        PackFileTileCache tileCache = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+
+        // overwritten tiles leave dead records until a compaction is triggered in the background
+        long maxPackLength = 0;
+        long deadline = System.currentTimeMillis() + 60000;
+        while (tileCache.getPackLength() >= maxPackLength && System.currentTimeMillis() < deadline) {
+            maxPackLength = tileCache.getPackLength();
+            for (int i = 0; i < 3; ++i) {
+                tileCache.put(createJob(i), createBitmap());
+            }
+            // tiles stay readable while the compaction copies them
+            for (int i = 0; i < 3; ++i) {
+                verifyTile(tileCache, createJob(i));
+            }
+        }
+        Assert.assertTrue(tileCache.getPackLength() < maxPackLength);
+
+        // the tiles written during the compaction have been moved to the new pack file
+        tileCache.destroy();
+        PackFileTileCache tileCache2 = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+        for (int i = 0; i < 3; ++i) {
+            verifyTile(tileCache2, createJob(i));
+        }
+        tileCache2.destroy();
+    }
+
+    @Test
+    public void persistentCacheTest() throws IOException {
+        PackFileTileCache tileCache1 = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+        for (int i = 0; i < 4; ++i) {
+            tileCache1.put(createJob(i), createBitmap());
+        }
+        tileCache1.destroy();
+        Assert.assertTrue(new File(this.cacheDirectory, PackFileTileCache.INDEX_FILE).isFile());
+
+        // the index is loaded with the LRU order of the previous instance
+        PackFileTileCache tileCache2 = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+        Assert.assertFalse(tileCache2.containsKey(createJob(0)));
+        for (int i = 1; i < 4; ++i) {
+            verifyTile(tileCache2, createJob(i));
+        }
+
+        // tiles added without writing the index are recovered from the pack file, an incomplete record is dropped
+        tileCache2.put(createJob(4), createBitmap());
+        tileCache2.put(createJob(5), createBitmap());
+        RandomAccessFile packFile = new RandomAccessFile(new File(this.cacheDirectory, PackFileTileCache.PACK_FILE), "rw");
+        try {
+            packFile.setLength(packFile.length() - 10);
+        } finally {
+            packFile.close();
+        }
+
+        PackFileTileCache tileCache3 = new PackFileTileCache(3, this.cacheDirectory, GRAPHIC_FACTORY, true);
+        Assert.assertFalse(tileCache3.containsKey(createJob(1)));
+        verifyTile(tileCache3, createJob(2));
+        verifyTile(tileCache3, createJob(3));
+        verifyTile(tileCache3, createJob(4));
+        Assert.assertFalse(tileCache3.containsKey(createJob(5)));
+        tileCache3.destroy();
+        tileCache2.destroy();
+    }
+}
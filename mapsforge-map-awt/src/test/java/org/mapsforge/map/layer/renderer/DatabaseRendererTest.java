@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.datastore.MapDataStore;
+import org.mapsforge.map.datastore.MapReadResult;
+import org.mapsforge.map.datastore.Way;
+import org.mapsforge.map.layer.cache.InMemoryTileCache;
+import org.mapsforge.map.model.DisplayModel;
+import org.mapsforge.map.model.FixedTileSizeDisplayModel;
+import org.mapsforge.map.rendertheme.internal.MapsforgeThemes;
+import org.mapsforge.map.rendertheme.rule.RenderThemeFuture;
+import org.mapsforge.map.util.RenderMetrics;
+import org.mapsforge.map.util.RenderStatistics;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DatabaseRendererTest {
+    private static final GraphicFactory GRAPHIC_FACTORY = AwtGraphicFactory.INSTANCE;
+    private static final int TILE_SIZE = 256;
+    private static final byte ZOOM_LEVEL = 14;
+    private static final Tile UPPER_LEFT = new Tile(8188, 5460, ZOOM_LEVEL, TILE_SIZE);
+    private static final Tile LOWER_RIGHT = new Tile(8191, 5463, ZOOM_LEVEL, TILE_SIZE);
+
+    /**
+     * Returns a road and a forest crossing the borders of the tiles, independent of the requested area.
+     */
+    private static class WayMapDataStore extends MapDataStore {
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public BoundingBox boundingBox() {
+            return new BoundingBox(-85, -180, 85, 180);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public long getDataTimestamp(Tile tile) {
+            return 0;
+        }
+
+        @Override
+        public MapReadResult readMapData(Tile tile) {
+            return readMapData(tile, tile);
+        }
+
+        @Override
+        public MapReadResult readMapData(Tile upperLeft, Tile lowerRight) {
+            this.reads.incrementAndGet();
+            BoundingBox boundingBox = Tile.getBoundingBox(UPPER_LEFT, LOWER_RIGHT).extendMargin(1.5f);
+            LatLong[][] road = new LatLong[][]{{
+                    new LatLong(boundingBox.maxLatitude, boundingBox.minLongitude),
+                    new LatLong(boundingBox.getCenterPoint().latitude, boundingBox.getCenterPoint().longitude + boundingBox.getLongitudeSpan() / 7),
+                    new LatLong(boundingBox.minLatitude, boundingBox.maxLongitude)}};
+            LatLong[][] forest = new LatLong[][]{{
+                    new LatLong(boundingBox.maxLatitude, boundingBox.getCenterPoint().longitude),
+                    new LatLong(boundingBox.getCenterPoint().latitude, boundingBox.maxLongitude),
+                    new LatLong(boundingBox.minLatitude, boundingBox.getCenterPoint().longitude),
+                    new LatLong(boundingBox.getCenterPoint().latitude + boundingBox.getLatitudeSpan() / 9, boundingBox.minLongitude),
+                    new LatLong(boundingBox.maxLatitude, boundingBox.getCenterPoint().longitude)}};
+            MapReadResult mapReadResult = new MapReadResult();
+            mapReadResult.ways.add(new Way((byte) 5, Collections.singletonList(new Tag("landuse", "forest")), forest, null));
+            mapReadResult.ways.add(new Way((byte) 5, Arrays.asList(new Tag("highway", "primary")), road, null));
+            return mapReadResult;
+        }
+
+        @Override
+        public MapReadResult readPoiData(Tile tile) {
+            return new MapReadResult();
+        }
+
+        @Override
+        public LatLong startPosition() {
+            return new LatLong(0, 0);
+        }
+
+        @Override
+        public Byte startZoomLevel() {
+            return ZOOM_LEVEL;
+        }
+
+        @Override
+        public boolean supportsTile(Tile tile) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsFullTile(Tile tile) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsArea(BoundingBox boundingBox, byte zoomLevel) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsFullArea(BoundingBox boundingBox, byte zoomLevel) {
+            return true;
+        }
+    }
+
+    private static int countDifferentPixels(TileBitmap bitmap1, TileBitmap bitmap2) {
+        BufferedImage image1 = AwtGraphicFactory.getBitmap(bitmap1);
+        BufferedImage image2 = AwtGraphicFactory.getBitmap(bitmap2);
+        int differentPixels = 0;
+        for (int y = 0; y < TILE_SIZE; ++y) {
+            for (int x = 0; x < TILE_SIZE; ++x) {
+                int rgb1 = image1.getRGB(x, y);
+                int rgb2 = image2.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    if (Math.abs(((rgb1 >>> shift) & 0xff) - ((rgb2 >>> shift) & 0xff)) > 2) {
+                        ++differentPixels;
+                        break;
+                    }
+                }
+            }
+        }
+        return differentPixels;
+    }
+
+    @Test
+    public void metatileTest() {
+        DisplayModel displayModel = new FixedTileSizeDisplayModel(TILE_SIZE);
+        RenderThemeFuture renderThemeFuture = new RenderThemeFuture(GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT, displayModel);
+        renderThemeFuture.run();
+        WayMapDataStore mapDataStore = new WayMapDataStore();
+
+        InMemoryTileCache metatileCache = new InMemoryTileCache(16);
+        DatabaseRenderer metatileRenderer = new DatabaseRenderer(mapDataStore, GRAPHIC_FACTORY, metatileCache, null, true, false, null);
+        Tile tile = new Tile(8191, 5462, ZOOM_LEVEL, TILE_SIZE);
+        RendererJob rendererJob = new RendererJob(tile, mapDataStore, renderThemeFuture, displayModel, 1, false, false);
+        Map<Tile, TileBitmap> metatile = metatileRenderer.executeMetatileJob(rendererJob, 4);
+        Assert.assertEquals(1, mapDataStore.reads.get());
+
+        // the aligned block containing the tile
+        Assert.assertNotNull(metatile);
+        Assert.assertEquals(16, metatile.size());
+        Assert.assertEquals(UPPER_LEFT, metatile.keySet().iterator().next());
+        Assert.assertTrue(metatile.containsKey(tile));
+
+        // the map data is the same for the whole block, so the slices match tiles rendered one by one
+        InMemoryTileCache tileCache = new InMemoryTileCache(16);
+        DatabaseRenderer renderer = new DatabaseRenderer(mapDataStore, GRAPHIC_FACTORY, tileCache, null, true, false, null);
+        for (Map.Entry<Tile, TileBitmap> entry : metatile.entrySet()) {
+            Assert.assertTrue(metatileCache.containsKey(rendererJob.otherTile(entry.getKey())));
+            mapDataStore.reads.set(0);
+            RendererJob tileJob = rendererJob.otherTile(entry.getKey());
+            TileBitmap bitmap = renderer.executeJob(tileJob);
+            Assert.assertEquals(TILE_SIZE, entry.getValue().getWidth());
+            Assert.assertEquals(TILE_SIZE, entry.getValue().getHeight());
+            Assert.assertEquals(1, mapDataStore.reads.get());
+            // allow for anti-aliasing differences along the clipped edges
+            Assert.assertTrue(entry.getKey().toString(), countDifferentPixels(entry.getValue(), bitmap) < TILE_SIZE);
+            entry.getValue().decrementRefCount();
+            bitmap.decrementRefCount();
+        }
+
+        try {
+            metatileRenderer.executeMetatileJob(rendererJob, 3);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+        renderThemeFuture.decrementRefCount();
+    }
+
+    @Test
+    public void renderMetricsTest() {
+        DisplayModel displayModel = new FixedTileSizeDisplayModel(TILE_SIZE);
+        RenderThemeFuture renderThemeFuture = new RenderThemeFuture(GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT, displayModel);
+        renderThemeFuture.run();
+        WayMapDataStore mapDataStore = new WayMapDataStore();
+        DatabaseRenderer renderer = new DatabaseRenderer(mapDataStore, GRAPHIC_FACTORY, new InMemoryTileCache(16), null, true, false, null);
+        RenderStatistics renderStatistics = new RenderStatistics();
+        renderer.setRenderMetrics(renderStatistics);
+
+        RendererJob rendererJob = new RendererJob(UPPER_LEFT, mapDataStore, renderThemeFuture, displayModel, 1, false, false);
+        renderer.executeJob(rendererJob).decrementRefCount();
+        for (RenderMetrics.Stage stage : new RenderMetrics.Stage[]{RenderMetrics.Stage.READ_MAP_DATA, RenderMetrics.Stage.MATCH_THEME,
+                RenderMetrics.Stage.HILLSHADING, RenderMetrics.Stage.DRAW_WAYS, RenderMetrics.Stage.LABELS,
+                RenderMetrics.Stage.CACHE_PUT, RenderMetrics.Stage.TOTAL}) {
+            Assert.assertEquals(stage.toString(), 1, renderStatistics.getCount(stage));
+            Assert.assertTrue(renderStatistics.getTotalNanos(stage) <= renderStatistics.getTotalNanos(RenderMetrics.Stage.TOTAL));
+        }
+        Assert.assertEquals(0, renderStatistics.getCount(RenderMetrics.Stage.ENCODE));
+        Assert.assertTrue(renderStatistics.getDrawnLines() + renderStatistics.getDrawnPaths() > 0);
+
+        // a metatile is measured like a single tile
+        Map<Tile, TileBitmap> metatile = renderer.executeMetatileJob(rendererJob, 2);
+        for (TileBitmap bitmap : metatile.values()) {
+            bitmap.decrementRefCount();
+        }
+        Assert.assertEquals(2, renderStatistics.getCount(RenderMetrics.Stage.READ_MAP_DATA));
+        Assert.assertEquals(2, renderStatistics.getCount(RenderMetrics.Stage.TOTAL));
+
+        renderer.setRenderMetrics(null);
+        renderer.executeJob(rendererJob.otherTile(LOWER_RIGHT)).decrementRefCount();
+        Assert.assertEquals(2, renderStatistics.getCount(RenderMetrics.Stage.TOTAL));
+        renderThemeFuture.decrementRefCount();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.datastore.MapDataStore;
+import org.mapsforge.map.datastore.MapReadResult;
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.layer.cache.TileStore;
+import org.mapsforge.map.layer.download.DownloadJob;
+import org.mapsforge.map.layer.download.tilesource.OpenStreetMapMapnik;
+import org.mapsforge.map.model.FixedTileSizeDisplayModel;
+import org.mapsforge.map.rendertheme.internal.MapsforgeThemes;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TileSeederTest {
+    private static final BoundingBox BOUNDING_BOX = new BoundingBox(-20, -20, 20, 20);
+    private static final GraphicFactory GRAPHIC_FACTORY = AwtGraphicFactory.INSTANCE;
+    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+    private static final byte ZOOM_LEVEL_MAX = 6;
+    private static final byte ZOOM_LEVEL_MIN = 3;
+
+    /**
+     * Returns a named place near the upper left corner of every tile, so that labels cross the tile borders.
+     */
+    private static class PlaceMapDataStore extends MapDataStore {
+        final AtomicInteger reads = new AtomicInteger();
+        volatile TileSeeder seeder;
+        volatile int cancelAfter = Integer.MAX_VALUE;
+
+        @Override
+        public BoundingBox boundingBox() {
+            return new BoundingBox(-85, -180, 85, 180);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public long getDataTimestamp(Tile tile) {
+            return 0;
+        }
+
+        @Override
+        public MapReadResult readMapData(Tile tile) {
+            if (this.reads.incrementAndGet() == this.cancelAfter) {
+                this.seeder.cancel();
+            }
+            BoundingBox boundingBox = tile.getBoundingBox();
+            LatLong position = new LatLong(boundingBox.maxLatitude - boundingBox.getLatitudeSpan() / 20,
+                    boundingBox.minLongitude + boundingBox.getLongitudeSpan() / 20);
+            List<Tag> tags = Arrays.asList(new Tag("place", "city"), new Tag("name", "Place " + tile.tileX + "/" + tile.tileY));
+            MapReadResult mapReadResult = new MapReadResult();
+            mapReadResult.pois.add(new PointOfInterest((byte) 0, tags, position));
+            return mapReadResult;
+        }
+
+        @Override
+        public MapReadResult readPoiData(Tile tile) {
+            return readMapData(tile);
+        }
+
+        @Override
+        public LatLong startPosition() {
+            return new LatLong(0, 0);
+        }
+
+        @Override
+        public Byte startZoomLevel() {
+            return 3;
+        }
+
+        @Override
+        public boolean supportsTile(Tile tile) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsFullTile(Tile tile) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsArea(BoundingBox boundingBox, byte zoomLevel) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsFullArea(BoundingBox boundingBox, byte zoomLevel) {
+            return true;
+        }
+    }
+
+    private static int getTileCount() {
+        int tiles = 0;
+        for (byte zoomLevel = ZOOM_LEVEL_MIN; zoomLevel <= ZOOM_LEVEL_MAX; ++zoomLevel) {
+            int columns = MercatorProjection.longitudeToTileX(BOUNDING_BOX.maxLongitude, zoomLevel)
+                    - MercatorProjection.longitudeToTileX(BOUNDING_BOX.minLongitude, zoomLevel) + 1;
+            int rows = MercatorProjection.latitudeToTileY(BOUNDING_BOX.minLatitude, zoomLevel)
+                    - MercatorProjection.latitudeToTileY(BOUNDING_BOX.maxLatitude, zoomLevel) + 1;
+            tiles += columns * rows;
+        }
+        return tiles;
+    }
+
+    private static long getRenderedTiles(TileSeeder seeder) {
+        long tiles = 0;
+        for (TileSeeder.ZoomLevelStatistics statistics : seeder.getStatistics()) {
+            Assert.assertEquals(0, statistics.failedTiles);
+            tiles += statistics.tiles;
+        }
+        return tiles;
+    }
+
+    private static void verifyTiles(TileStore tileStore) {
+        for (byte zoomLevel = ZOOM_LEVEL_MIN; zoomLevel <= ZOOM_LEVEL_MAX; ++zoomLevel) {
+            int tileLeft = MercatorProjection.longitudeToTileX(BOUNDING_BOX.minLongitude, zoomLevel);
+            int tileRight = MercatorProjection.longitudeToTileX(BOUNDING_BOX.maxLongitude, zoomLevel);
+            int tileTop = MercatorProjection.latitudeToTileY(BOUNDING_BOX.maxLatitude, zoomLevel);
+            int tileBottom = MercatorProjection.latitudeToTileY(BOUNDING_BOX.minLatitude, zoomLevel);
+            for (int tileX = tileLeft; tileX <= tileRight; ++tileX) {
+                for (int tileY = tileTop; tileY <= tileBottom; ++tileY) {
+                    Tile tile = new Tile(tileX, tileY, zoomLevel, 256);
+                    Assert.assertTrue(tile.toString(), tileStore.containsKey(new DownloadJob(tile, OpenStreetMapMapnik.INSTANCE)));
+                }
+            }
+        }
+    }
+
+    private final File directory = new File(TMP_DIR, getClass().getSimpleName() + System.currentTimeMillis());
+
+    @After
+    public void afterTest() {
+        delete(this.directory);
+    }
+
+    @Test
+    public void seedTest() {
+        TileStore tileStore = new TileStore(new File(this.directory, "tiles"), ".png", GRAPHIC_FACTORY, true);
+        TileSeeder seeder = new TileSeeder(new PlaceMapDataStore(), GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT,
+                new FixedTileSizeDisplayModel(256), tileStore, 4);
+        final List<TileSeeder.ZoomLevelStatistics> finished = new ArrayList<>();
+        seeder.setListener(new TileSeeder.Listener() {
+            @Override
+            public void onZoomLevelFinished(TileSeeder.ZoomLevelStatistics statistics) {
+                finished.add(statistics);
+            }
+        });
+
+        Assert.assertTrue(seeder.seed(BOUNDING_BOX, ZOOM_LEVEL_MIN, ZOOM_LEVEL_MAX));
+        Assert.assertEquals(ZOOM_LEVEL_MAX - ZOOM_LEVEL_MIN + 1, finished.size());
+        for (int i = 0; i < finished.size(); ++i) {
+            Assert.assertEquals(ZOOM_LEVEL_MIN + i, finished.get(i).zoomLevel);
+            Assert.assertTrue(finished.get(i).complete);
+        }
+        Assert.assertEquals(getTileCount(), getRenderedTiles(seeder));
+        verifyTiles(tileStore);
+    }
+
+    @Test
+    public void metatileTest() {
+        TileStore tileStore = new TileStore(new File(this.directory, "tiles"), ".png", GRAPHIC_FACTORY, true);
+        TileSeeder seeder = new TileSeeder(new PlaceMapDataStore(), GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT,
+                new FixedTileSizeDisplayModel(256), tileStore, 2);
+        seeder.setMetatileSize(4);
+
+        Assert.assertTrue(seeder.seed(BOUNDING_BOX, ZOOM_LEVEL_MIN, ZOOM_LEVEL_MAX));
+        Assert.assertTrue(getRenderedTiles(seeder) >= getTileCount());
+        verifyTiles(tileStore);
+
+        try {
+            seeder.setMetatileSize(6);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+    }
+
+    @Test
+    public void resumeTest() {
+        File progressFile = new File(this.directory, "progress");
+        TileStore tileStore = new TileStore(new File(this.directory, "tiles"), ".png", GRAPHIC_FACTORY, true);
+        PlaceMapDataStore mapDataStore = new PlaceMapDataStore();
+
+        TileSeeder seeder1 = new TileSeeder(mapDataStore, GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT,
+                new FixedTileSizeDisplayModel(256), tileStore, 2);
+        seeder1.setProgressFile(progressFile);
+        mapDataStore.seeder = seeder1;
+        mapDataStore.cancelAfter = getTileCount() / 2;
+        Assert.assertFalse(seeder1.seed(BOUNDING_BOX, ZOOM_LEVEL_MIN, ZOOM_LEVEL_MAX));
+        Assert.assertTrue(seeder1.isCancelled());
+        Assert.assertTrue(progressFile.isFile());
+        List<TileSeeder.ZoomLevelStatistics> statistics = seeder1.getStatistics();
+        Assert.assertFalse(statistics.get(statistics.size() - 1).complete);
+        long renderedTiles = getRenderedTiles(seeder1);
+        Assert.assertTrue(renderedTiles < getTileCount());
+
+        // the second run starts with the first row that has not been completed
+        TileSeeder seeder2 = new TileSeeder(mapDataStore, GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT,
+                new FixedTileSizeDisplayModel(256), tileStore, 2);
+        seeder2.setProgressFile(progressFile);
+        mapDataStore.cancelAfter = Integer.MAX_VALUE;
+        Assert.assertTrue(seeder2.seed(BOUNDING_BOX, ZOOM_LEVEL_MIN, ZOOM_LEVEL_MAX));
+        Assert.assertEquals(statistics.get(statistics.size() - 1).zoomLevel, seeder2.getStatistics().get(0).zoomLevel);
+        long resumedTiles = getRenderedTiles(seeder2);
+        Assert.assertTrue(resumedTiles < getTileCount());
+        Assert.assertTrue(renderedTiles + resumedTiles >= getTileCount());
+        verifyTiles(tileStore);
+
+        // a completed seeding is not repeated
+        TileSeeder seeder3 = new TileSeeder(mapDataStore, GRAPHIC_FACTORY, MapsforgeThemes.DEFAULT,
+                new FixedTileSizeDisplayModel(256), tileStore, 2);
+        seeder3.setProgressFile(progressFile);
+        Assert.assertTrue(seeder3.seed(BOUNDING_BOX, ZOOM_LEVEL_MIN, ZOOM_LEVEL_MAX));
+        Assert.assertTrue(seeder3.getStatistics().isEmpty());
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.Parameters;
+import org.mapsforge.map.awt.graphics.AwtGraphicFactory;
+import org.mapsforge.map.datastore.MultiMapDataStore;
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.datastore.Way;
+import org.mapsforge.map.layer.renderer.PolylineContainer;
+import org.mapsforge.map.layer.renderer.RendererJob;
+import org.mapsforge.map.model.DisplayModel;
+import org.mapsforge.map.rendertheme.RenderCallback;
+import org.mapsforge.map.rendertheme.RenderContext;
+import org.mapsforge.map.rendertheme.internal.MapsforgeThemes;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RuleIndexTest {
+    private static final List<List<Tag>> TAGS = Arrays.asList(
+            Arrays.asList(new Tag("highway", "primary"), new Tag("name", "Main Street")),
+            Arrays.asList(new Tag("highway", "residential"), new Tag("oneway", "yes")),
+            Arrays.asList(new Tag("highway", "footway"), new Tag("tunnel", "yes")),
+            Arrays.asList(new Tag("railway", "rail"), new Tag("bridge", "yes")),
+            Arrays.asList(new Tag("building", "yes"), new Tag("addr:housenumber", "12")),
+            Arrays.asList(new Tag("landuse", "forest")),
+            Arrays.asList(new Tag("natural", "water"), new Tag("name", "Lake")),
+            Arrays.asList(new Tag("waterway", "river")),
+            Arrays.asList(new Tag("amenity", "parking"), new Tag("area", "yes")),
+            Arrays.asList(new Tag("place", "city"), new Tag("name", "Berlin")),
+            Arrays.asList(new Tag("amenity", "restaurant"), new Tag("name", "Restaurant")),
+            Arrays.asList(new Tag("leisure", "park"), new Tag("unknown", "value")));
+
+    /**
+     * Records every render callback as a string, so that the results of two matching runs can be compared.
+     */
+    private static RenderCallback createRecorder(final List<String> calls) {
+        return (RenderCallback) Proxy.newProxyInstance(RuleIndexTest.class.getClassLoader(),
+                new Class<?>[]{RenderCallback.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        StringBuilder call = new StringBuilder(method.getName());
+                        for (Object arg : args) {
+                            call.append(',');
+                            if (arg instanceof String || arg instanceof Number || arg instanceof Enum) {
+                                call.append(arg);
+                            } else {
+                                call.append(arg == null ? "null" : arg.getClass().getSimpleName());
+                            }
+                        }
+                        calls.add(call.toString());
+                        return null;
+                    }
+                });
+    }
+
+    private static List<String> match(RenderTheme renderTheme, RenderContext renderContext, List<Tag> tags,
+                                      int kind, boolean ruleIndex) {
+        boolean previous = Parameters.RULE_INDEX;
+        Parameters.RULE_INDEX = ruleIndex;
+        try {
+            renderTheme.clearMatchingCaches();
+            List<String> calls = new ArrayList<>();
+            RenderCallback renderCallback = createRecorder(calls);
+            Tile tile = renderContext.rendererJob.tile;
+            if (kind == 0) {
+                renderTheme.matchNode(renderCallback, renderContext,
+                        new PointOfInterest((byte) 0, tags, new LatLong(1, 1)));
+            } else {
+                Way way = new Way((byte) 0, tags, new LatLong[][]{{new LatLong(1, 1), new LatLong(1.001, 1.001),
+                        new LatLong(1, 1.001), new LatLong(1, 1)}}, null);
+                PolylineContainer polylineContainer = new PolylineContainer(way, tile, tile);
+                if (kind == 1) {
+                    renderTheme.matchLinearWay(renderCallback, renderContext, polylineContainer);
+                } else {
+                    renderTheme.matchClosedWay(renderCallback, renderContext, polylineContainer);
+                }
+            }
+            return calls;
+        } finally {
+            Parameters.RULE_INDEX = previous;
+        }
+    }
+
+    @Test
+    public void indexMatchesLinearTest() throws Exception {
+        DisplayModel displayModel = new DisplayModel();
+        RenderThemeFuture renderThemeFuture = new RenderThemeFuture(AwtGraphicFactory.INSTANCE,
+                MapsforgeThemes.DEFAULT, displayModel);
+        renderThemeFuture.run();
+        RenderTheme renderTheme = renderThemeFuture.get();
+
+        for (byte zoomLevel = 0; zoomLevel <= 22; ++zoomLevel) {
+            Tile tile = new Tile(0, 0, zoomLevel, 256);
+            RendererJob rendererJob = new RendererJob(tile, new MultiMapDataStore(MultiMapDataStore.DataPolicy.RETURN_ALL),
+                    renderThemeFuture, displayModel, 1, false, false);
+            RenderContext renderContext = new RenderContext(rendererJob, AwtGraphicFactory.INSTANCE);
+            for (List<Tag> tags : TAGS) {
+                for (int kind = 0; kind < 3; ++kind) {
+                    Assert.assertEquals(tags + " at zoom " + zoomLevel,
+                            match(renderTheme, renderContext, tags, kind, false),
+                            match(renderTheme, renderContext, tags, kind, true));
+                }
+            }
+            renderContext.destroy();
+        }
+
+        renderTheme.destroy();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.reader;
+
+import org.mapsforge.core.util.LRUCache;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for decoded map file blocks with a fixed size and LRU policy.
+ * <p/>
+ * Like the {@link IndexCache} it is split into independently locked segments, so that it can be shared by all
+ * threads reading from the same map file.
+ */
+class BlockCache {
+    /**
+     * Maximum number of independently locked segments.
+     */
+    private static final int SEGMENTS = 16;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<BlockCacheEntryKey, DecodedBlock>[] segments;
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newSegments(int numberOfSegments) {
+        return (Map<K, V>[]) new Map<?, ?>[numberOfSegments];
+    }
+
+    /**
+     * @param capacity the maximum number of decoded blocks in the cache.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    BlockCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+
+        // each segment should still hold a handful of blocks
+        int numberOfSegments = Math.max(1, Math.min(SEGMENTS, capacity / 4));
+        this.segments = newSegments(numberOfSegments);
+        for (int i = 0; i < numberOfSegments; ++i) {
+            int segmentCapacity = capacity / numberOfSegments + (i < capacity % numberOfSegments ? 1 : 0);
+            this.segments[i] = new LRUCache<>(segmentCapacity);
+        }
+    }
+
+    /**
+     * Destroy the cache at the end of its lifetime.
+     */
+    void destroy() {
+        for (Map<BlockCacheEntryKey, DecodedBlock> segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @param key the key of the block.
+     * @return the cached block or null if the block is not cached.
+     */
+    DecodedBlock get(BlockCacheEntryKey key) {
+        Map<BlockCacheEntryKey, DecodedBlock> segment = getSegment(key);
+        DecodedBlock decodedBlock;
+        synchronized (segment) {
+            decodedBlock = segment.get(key);
+        }
+        if (decodedBlock == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return decodedBlock;
+    }
+
+    /**
+     * @return the number of lookups which found a cached block.
+     */
+    long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of lookups which did not find a cached block.
+     */
+    long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @param key          the key of the block.
+     * @param decodedBlock the decoded block.
+     */
+    void put(BlockCacheEntryKey key, DecodedBlock decodedBlock) {
+        Map<BlockCacheEntryKey, DecodedBlock> segment = getSegment(key);
+        synchronized (segment) {
+            segment.put(key, decodedBlock);
+        }
+    }
+
+    private Map<BlockCacheEntryKey, DecodedBlock> getSegment(BlockCacheEntryKey key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.segments[(hash & Integer.MAX_VALUE) % this.segments.length];
+    }
+}
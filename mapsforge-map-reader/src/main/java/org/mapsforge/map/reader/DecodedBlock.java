@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.reader;
+
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.datastore.Way;
+
+import java.util.List;
+
+/**
+ * An immutable container for the unfiltered content of one block at one query zoom level.
+ * <p/>
+ * The tile bitmask of every way is kept, so that the block can be filtered for each requested tile.
+ */
+class DecodedBlock {
+    final List<PointOfInterest> pois;
+    final int[] tileBitmasks;
+    final List<Way> ways;
+
+    DecodedBlock(List<PointOfInterest> pois, List<Way> ways, int[] tileBitmasks) {
+        this.pois = pois;
+        this.ways = ways;
+        this.tileBitmasks = tileBitmasks;
+    }
+}
@@ -27,6 +27,10 @@ import java.util.Map;
 
 /**
  * A cache for database index blocks with a fixed size and LRU policy.
+ * <p/>
+ * The cache is split into independently locked segments, so that concurrent readers of the same map file only
+ * contend when they access index blocks in the same segment. Index blocks are read with positional reads, which do
+ * not modify the position of the shared file channel.
  */
 class IndexCache {
     /**
@@ -39,8 +43,18 @@ class IndexCache {
      */
     private static final int SIZE_OF_INDEX_BLOCK = INDEX_ENTRIES_PER_BLOCK * SubFileParameter.BYTES_PER_INDEX_ENTRY;
 
-    private final Map<IndexCacheEntryKey, byte[]> map;
+    /**
+     * Maximum number of independently locked segments.
+     */
+    private static final int SEGMENTS = 16;
+
     private final FileChannel fileChannel;
+    private final Map<IndexCacheEntryKey, byte[]>[] segments;
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newSegments(int numberOfSegments) {
+        return (Map<K, V>[]) new Map<?, ?>[numberOfSegments];
+    }
 
     /**
      * @param inputChannel the map file from which the index should be read and cached.
@@ -48,15 +62,29 @@ class IndexCache {
      * @throws IllegalArgumentException if the capacity is negative.
      */
     IndexCache(FileChannel inputChannel, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
         this.fileChannel = inputChannel;
-        this.map = new LRUCache<IndexCacheEntryKey, byte[]>(capacity);
+
+        // each segment should still hold a handful of index blocks
+        int numberOfSegments = Math.max(1, Math.min(SEGMENTS, capacity / 4));
+        this.segments = newSegments(numberOfSegments);
+        for (int i = 0; i < numberOfSegments; ++i) {
+            int segmentCapacity = capacity / numberOfSegments + (i < capacity % numberOfSegments ? 1 : 0);
+            this.segments[i] = new LRUCache<>(segmentCapacity);
+        }
     }
 
     /**
      * Destroy the cache at the end of its lifetime.
      */
     void destroy() {
-        this.map.clear();
+        for (Map<IndexCacheEntryKey, byte[]> segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
     }
 
     /**
@@ -81,7 +109,11 @@ class IndexCache {
         IndexCacheEntryKey indexCacheEntryKey = new IndexCacheEntryKey(subFileParameter, indexBlockNumber);
 
         // check for cached index block
-        byte[] indexBlock = this.map.get(indexCacheEntryKey);
+        Map<IndexCacheEntryKey, byte[]> segment = getSegment(indexCacheEntryKey);
+        byte[] indexBlock;
+        synchronized (segment) {
+            indexBlock = segment.get(indexCacheEntryKey);
+        }
         if (indexBlock == null) {
             // cache miss, seek to the correct index block in the file and read it
             long indexBlockPosition = subFileParameter.indexStartAddress + indexBlockNumber * SIZE_OF_INDEX_BLOCK;
@@ -91,15 +123,15 @@ class IndexCache {
             indexBlock = new byte[indexBlockSize];
             ByteBuffer indexBlockWrapper = ByteBuffer.wrap(indexBlock, 0, indexBlockSize);
 
-            synchronized (this.fileChannel) {
-                this.fileChannel.position(indexBlockPosition);
-                if (this.fileChannel.read(indexBlockWrapper) != indexBlockSize) {
-                    throw new IOException("could not read index block with size: " + indexBlockSize);
-                }
+            // the block is read outside of any lock, a concurrent miss on the same block only costs a second read
+            if (ReadBuffer.readFully(this.fileChannel, indexBlockWrapper, indexBlockPosition) != indexBlockSize) {
+                throw new IOException("could not read index block with size: " + indexBlockSize);
             }
 
             // put the index block in the map
-            this.map.put(indexCacheEntryKey, indexBlock);
+            synchronized (segment) {
+                segment.put(indexCacheEntryKey, indexBlock);
+            }
         }
 
         // calculate the address of the index entry inside the index block
@@ -109,4 +141,10 @@ class IndexCache {
         // return the real index entry
         return Deserializer.getFiveBytesLong(indexBlock, addressInIndexBlock);
     }
+
+    private Map<IndexCacheEntryKey, byte[]> getSegment(IndexCacheEntryKey indexCacheEntryKey) {
+        int hash = indexCacheEntryKey.hashCode();
+        hash ^= hash >>> 16;
+        return this.segments[(hash & Integer.MAX_VALUE) % this.segments.length];
+    }
 }
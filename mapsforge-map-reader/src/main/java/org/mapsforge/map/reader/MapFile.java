@@ -49,6 +49,10 @@ import java.util.logging.Logger;
  * <p/>
  * The readMapData method is now thread safe, but care should be taken that not too much data is
  * read at the same time (keep simultaneous requests to minimum)
+ * <p/>
+ * Optionally the whole file can be memory mapped, blocks are then decoded directly from the mapping
+ * without copying them onto the heap. Closing the map file drops the mapping, but Java releases it only when the
+ * garbage collector runs, until then the file may stay locked on Windows.
  *
  * @see <a href="https://github.com/mapsforge/mapsforge/blob/master/docs/Specification-Binary-Map-File.md">Specification</a>
  */
@@ -176,10 +180,12 @@ public class MapFile extends MapDataStore {
     public static boolean wayFilterEnabled = true;
     public static int wayFilterDistance = 20;
 
+    private volatile BlockCache blockCache;
     private final IndexCache databaseIndexCache;
     private final long fileSize;
     private final FileChannel inputChannel;
     private final MapFileHeader mapFileHeader;
+    private final MemoryMappedFile memoryMappedFile;
     private final long timestamp;
 
     private byte zoomLevelMin = 0;
@@ -191,6 +197,7 @@ public class MapFile extends MapDataStore {
         fileSize = 0;
         inputChannel = null;
         mapFileHeader = null;
+        memoryMappedFile = null;
         timestamp = System.currentTimeMillis();
     }
 
@@ -212,6 +219,18 @@ public class MapFile extends MapDataStore {
      * @throws MapFileException if the given map file is null or invalid.
      */
     public MapFile(File mapFile, String language) {
+        this(mapFile, language, false);
+    }
+
+    /**
+     * Opens the given map file, reads its header data and validates them.
+     *
+     * @param mapFile      the map file.
+     * @param language     the language to use (may be null).
+     * @param memoryMapped true to memory map the whole file, false to read blocks via the file channel.
+     * @throws MapFileException if the given map file is null or invalid.
+     */
+    public MapFile(File mapFile, String language, boolean memoryMapped) {
         super(language);
         if (mapFile == null) {
             throw new MapFileException("mapFile must not be null");
@@ -236,6 +255,7 @@ public class MapFile extends MapDataStore {
             this.mapFileHeader = new MapFileHeader();
             this.mapFileHeader.readHeader(readBuffer, this.fileSize);
             this.databaseIndexCache = new IndexCache(this.inputChannel, INDEX_CACHE_SIZE);
+            this.memoryMappedFile = memoryMapped ? new MemoryMappedFile(this.inputChannel, Parameters.MAXIMUM_BUFFER_SIZE) : null;
 
             this.timestamp = mapFile.lastModified();
         } catch (Exception e) {
@@ -286,6 +306,7 @@ public class MapFile extends MapDataStore {
             this.mapFileHeader = new MapFileHeader();
             this.mapFileHeader.readHeader(readBuffer, this.fileSize);
             this.databaseIndexCache = new IndexCache(this.inputChannel, INDEX_CACHE_SIZE);
+            this.memoryMappedFile = null;
 
             this.timestamp = lastModified;
         } catch (Exception e) {
@@ -324,6 +345,18 @@ public class MapFile extends MapDataStore {
      * @throws MapFileException if the given map file channel is null or invalid.
      */
     public MapFile(FileChannel mapFileChannel, long lastModified, String language) {
+        this(mapFileChannel, lastModified, language, false);
+    }
+
+    /**
+     * Opens the given map file channel, reads its header data and validates them.
+     *
+     * @param mapFileChannel the map file channel.
+     * @param language       the language to use (may be null).
+     * @param memoryMapped   true to memory map the whole file, false to read blocks via the file channel.
+     * @throws MapFileException if the given map file channel is null or invalid.
+     */
+    public MapFile(FileChannel mapFileChannel, long lastModified, String language, boolean memoryMapped) {
         super(language);
         if (mapFileChannel == null) {
             throw new MapFileException("mapFileChannel must not be null");
@@ -336,6 +369,7 @@ public class MapFile extends MapDataStore {
             this.mapFileHeader = new MapFileHeader();
             this.mapFileHeader.readHeader(readBuffer, this.fileSize);
             this.databaseIndexCache = new IndexCache(this.inputChannel, INDEX_CACHE_SIZE);
+            this.memoryMappedFile = memoryMapped ? new MemoryMappedFile(this.inputChannel, Parameters.MAXIMUM_BUFFER_SIZE) : null;
 
             this.timestamp = lastModified;
         } catch (Exception e) {
@@ -383,9 +417,15 @@ public class MapFile extends MapDataStore {
      */
     private void closeFileChannel() {
         try {
+            if (this.blockCache != null) {
+                this.blockCache.destroy();
+            }
             if (this.databaseIndexCache != null) {
                 this.databaseIndexCache.destroy();
             }
+            if (this.memoryMappedFile != null) {
+                this.memoryMappedFile.close();
+            }
             if (this.inputChannel != null) {
                 this.inputChannel.close();
             }
@@ -394,7 +434,7 @@ public class MapFile extends MapDataStore {
         }
     }
 
-    private void decodeWayNodesDoubleDelta(LatLong[] waySegment, double tileLatitude, double tileLongitude, ReadBuffer readBuffer) {
+    private void decodeWayNodesDoubleDelta(double[] waySegment, double tileLatitude, double tileLongitude, ReadBuffer readBuffer) {
         // get the first way node latitude offset (VBE-S)
         double wayNodeLatitude = tileLatitude
                 + LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
@@ -404,12 +444,13 @@ public class MapFile extends MapDataStore {
                 + LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
 
         // store the first way node
-        waySegment[0] = new LatLong(wayNodeLatitude, wayNodeLongitude);
+        waySegment[0] = wayNodeLatitude;
+        waySegment[1] = wayNodeLongitude;
 
         double previousSingleDeltaLatitude = 0;
         double previousSingleDeltaLongitude = 0;
 
-        for (int wayNodesIndex = 1; wayNodesIndex < waySegment.length; ++wayNodesIndex) {
+        for (int wayNodesIndex = 2; wayNodesIndex < waySegment.length; wayNodesIndex += 2) {
             // get the way node latitude double-delta offset (VBE-S)
             double doubleDeltaLatitude = LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
 
@@ -431,14 +472,15 @@ public class MapFile extends MapDataStore {
                 wayNodeLongitude = LatLongUtils.LONGITUDE_MAX;
             }
 
-            waySegment[wayNodesIndex] = new LatLong(wayNodeLatitude, wayNodeLongitude);
+            waySegment[wayNodesIndex] = wayNodeLatitude;
+            waySegment[wayNodesIndex + 1] = wayNodeLongitude;
 
             previousSingleDeltaLatitude = singleDeltaLatitude;
             previousSingleDeltaLongitude = singleDeltaLongitude;
         }
     }
 
-    private void decodeWayNodesSingleDelta(LatLong[] waySegment, double tileLatitude, double tileLongitude, ReadBuffer readBuffer) {
+    private void decodeWayNodesSingleDelta(double[] waySegment, double tileLatitude, double tileLongitude, ReadBuffer readBuffer) {
         // get the first way node latitude single-delta offset (VBE-S)
         double wayNodeLatitude = tileLatitude
                 + LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
@@ -448,9 +490,10 @@ public class MapFile extends MapDataStore {
                 + LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
 
         // store the first way node
-        waySegment[0] = new LatLong(wayNodeLatitude, wayNodeLongitude);
+        waySegment[0] = wayNodeLatitude;
+        waySegment[1] = wayNodeLongitude;
 
-        for (int wayNodesIndex = 1; wayNodesIndex < waySegment.length; ++wayNodesIndex) {
+        for (int wayNodesIndex = 2; wayNodesIndex < waySegment.length; wayNodesIndex += 2) {
             // get the way node latitude offset (VBE-S)
             wayNodeLatitude = wayNodeLatitude + LatLongUtils.microdegreesToDegrees(readBuffer.readSignedInt());
 
@@ -466,10 +509,61 @@ public class MapFile extends MapDataStore {
                 wayNodeLongitude = LatLongUtils.LONGITUDE_MAX;
             }
 
-            waySegment[wayNodesIndex] = new LatLong(wayNodeLatitude, wayNodeLongitude);
+            waySegment[wayNodesIndex] = wayNodeLatitude;
+            waySegment[wayNodesIndex + 1] = wayNodeLongitude;
         }
     }
 
+    /**
+     * Filters a decoded block for the requested area, as if it had been read for this request.
+     */
+    private PoiWayBundle filterBlock(DecodedBlock decodedBlock, QueryParameters queryParameters,
+                                     SubFileParameter subFileParameter, BoundingBox boundingBox) {
+        boolean filterRequired = queryParameters.queryZoomLevel > subFileParameter.baseZoomLevel;
+
+        List<PointOfInterest> pois = decodedBlock.pois;
+        if (filterRequired) {
+            pois = new ArrayList<>();
+            for (PointOfInterest poi : decodedBlock.pois) {
+                if (boundingBox.contains(poi.position)) {
+                    pois.add(poi);
+                }
+            }
+        }
+
+        List<Way> ways = new ArrayList<>();
+        BoundingBox wayFilterBbox = filterRequired && wayFilterEnabled ? boundingBox.extendMeters(wayFilterDistance) : null;
+        for (int i = 0; i < decodedBlock.ways.size(); ++i) {
+            // check if the way is inside the requested tile
+            if (queryParameters.useTileBitmask && (queryParameters.queryTileBitmask & decodedBlock.tileBitmasks[i]) == 0) {
+                continue;
+            }
+            Way way = decodedBlock.ways.get(i);
+            if (wayFilterBbox != null && !wayFilterBbox.intersectsArea(way.coordinates)) {
+                continue;
+            }
+            ways.add(way);
+        }
+
+        return new PoiWayBundle(pois, ways);
+    }
+
+    /**
+     * @return the number of block cache lookups which found a decoded block.
+     */
+    public long getBlockCacheHits() {
+        BlockCache blockCache = this.blockCache;
+        return blockCache != null ? blockCache.getHits() : 0;
+    }
+
+    /**
+     * @return the number of block cache lookups which had to read and decode a block.
+     */
+    public long getBlockCacheMisses() {
+        BlockCache blockCache = this.blockCache;
+        return blockCache != null ? blockCache.getMisses() : 0;
+    }
+
     /**
      * Returns the creation timestamp of the map file.
      *
@@ -506,9 +600,17 @@ public class MapFile extends MapDataStore {
         return null;
     }
 
-    private PoiWayBundle processBlock(QueryParameters queryParameters, SubFileParameter subFileParameter,
+    /**
+     * Decodes a block.
+     *
+     * @param filterRequired true to filter the content by the bounding box.
+     * @param tileBitmasks   if not null, ways are not filtered by the query tile bitmask and the tile bitmask of every
+     *                       returned way is added to this list instead.
+     */
+    private DecodedBlock processBlock(QueryParameters queryParameters, SubFileParameter subFileParameter,
                                       BoundingBox boundingBox, double tileLatitude, double tileLongitude,
-                                      Selector selector, ReadBuffer readBuffer) {
+                                      Selector selector, ReadBuffer readBuffer, boolean filterRequired,
+                                      List<Integer> tileBitmasks) {
         if (!processBlockSignature(readBuffer)) {
             return null;
         }
@@ -532,8 +634,6 @@ public class MapFile extends MapDataStore {
             return null;
         }
 
-        boolean filterRequired = queryParameters.queryZoomLevel > subFileParameter.baseZoomLevel;
-
         List<PointOfInterest> pois = processPOIs(tileLatitude, tileLongitude, poisOnQueryZoomLevel, boundingBox, filterRequired, readBuffer);
         if (pois == null) {
             return null;
@@ -553,13 +653,20 @@ public class MapFile extends MapDataStore {
             readBuffer.setBufferPosition(firstWayOffset);
 
             ways = processWays(queryParameters, waysOnQueryZoomLevel, boundingBox,
-                    filterRequired, tileLatitude, tileLongitude, selector, readBuffer);
+                    filterRequired, tileLatitude, tileLongitude, selector, readBuffer, tileBitmasks);
             if (ways == null) {
                 return null;
             }
         }
 
-        return new PoiWayBundle(pois, ways);
+        int[] tileBitmasksArray = null;
+        if (tileBitmasks != null) {
+            tileBitmasksArray = new int[tileBitmasks.size()];
+            for (int i = 0; i < tileBitmasksArray.length; ++i) {
+                tileBitmasksArray[i] = tileBitmasks.get(i);
+            }
+        }
+        return new DecodedBlock(pois, ways, tileBitmasksArray);
     }
 
     /**
@@ -643,13 +750,32 @@ public class MapFile extends MapDataStore {
                     return null;
                 }
 
-                // seek to the current block in the map file
-                // read the current block into the buffer
-                ReadBuffer readBuffer = new ReadBuffer(inputChannel);
-                if (!readBuffer.readFromFile(subFileParameter.startAddress + currentBlockPointer, currentBlockSize)) {
-                    // skip the current block
-                    LOGGER.warning("reading current block has failed: " + currentBlockSize);
-                    return null;
+                BlockCache blockCache = this.blockCache;
+                BlockCacheEntryKey blockCacheEntryKey = null;
+                if (blockCache != null) {
+                    // reuse the block if it has already been decoded for another request
+                    blockCacheEntryKey = new BlockCacheEntryKey(subFileParameter, blockNumber, queryParameters.queryZoomLevel, selector);
+                    DecodedBlock decodedBlock = blockCache.get(blockCacheEntryKey);
+                    if (decodedBlock != null) {
+                        mapFileReadResult.add(filterBlock(decodedBlock, queryParameters, subFileParameter, boundingBox));
+                        continue;
+                    }
+                }
+
+                ReadBuffer readBuffer = null;
+                if (this.memoryMappedFile != null) {
+                    // decode the current block directly from the mapping
+                    readBuffer = this.memoryMappedFile.getReadBuffer(subFileParameter.startAddress + currentBlockPointer, currentBlockSize);
+                }
+                if (readBuffer == null) {
+                    // seek to the current block in the map file
+                    // read the current block into the buffer
+                    readBuffer = new ReadBuffer(inputChannel);
+                    if (!readBuffer.readFromFile(subFileParameter.startAddress + currentBlockPointer, currentBlockSize)) {
+                        // skip the current block
+                        LOGGER.warning("reading current block has failed: " + currentBlockSize);
+                        return null;
+                    }
                 }
 
                 // calculate the top-left coordinates of the underlying tile
@@ -659,12 +785,23 @@ public class MapFile extends MapDataStore {
                         subFileParameter.baseZoomLevel);
 
                 try {
-                    PoiWayBundle poiWayBundle = processBlock(queryParameters, subFileParameter, boundingBox,
-                            tileLatitude, tileLongitude, selector, readBuffer);
-                    if (poiWayBundle != null) {
-                        mapFileReadResult.add(poiWayBundle);
+                    if (blockCacheEntryKey != null) {
+                        // decode the whole block once, it is filtered for each request
+                        DecodedBlock decodedBlock = processBlock(queryParameters, subFileParameter, boundingBox,
+                                tileLatitude, tileLongitude, selector, readBuffer, false, new ArrayList<Integer>());
+                        if (decodedBlock != null) {
+                            blockCache.put(blockCacheEntryKey, decodedBlock);
+                            mapFileReadResult.add(filterBlock(decodedBlock, queryParameters, subFileParameter, boundingBox));
+                        }
+                    } else {
+                        boolean filterRequired = queryParameters.queryZoomLevel > subFileParameter.baseZoomLevel;
+                        DecodedBlock decodedBlock = processBlock(queryParameters, subFileParameter, boundingBox,
+                                tileLatitude, tileLongitude, selector, readBuffer, filterRequired, null);
+                        if (decodedBlock != null) {
+                            mapFileReadResult.add(new PoiWayBundle(decodedBlock.pois, decodedBlock.ways));
+                        }
                     }
-                } catch (ArrayIndexOutOfBoundsException e) {
+                } catch (IndexOutOfBoundsException e) {
                     LOGGER.log(Level.SEVERE, e.toString(), e);
                 }
             }
@@ -747,7 +884,7 @@ public class MapFile extends MapDataStore {
         return pois;
     }
 
-    private LatLong[][] processWayDataBlock(double tileLatitude, double tileLongitude, boolean doubleDeltaEncoding, ReadBuffer readBuffer) {
+    private double[][] processWayDataBlock(double tileLatitude, double tileLongitude, boolean doubleDeltaEncoding, ReadBuffer readBuffer) {
         // get and check the number of way coordinate blocks (VBE-U)
         int numberOfWayCoordinateBlocks = readBuffer.readUnsignedInt();
         if (numberOfWayCoordinateBlocks < 1 || numberOfWayCoordinateBlocks > Short.MAX_VALUE) {
@@ -756,7 +893,7 @@ public class MapFile extends MapDataStore {
         }
 
         // create the array which will store the different way coordinate blocks
-        LatLong[][] wayCoordinates = new LatLong[numberOfWayCoordinateBlocks][];
+        double[][] wayCoordinates = new double[numberOfWayCoordinateBlocks][];
 
         // read the way coordinate blocks
         for (int coordinateBlock = 0; coordinateBlock < numberOfWayCoordinateBlocks; ++coordinateBlock) {
@@ -770,8 +907,8 @@ public class MapFile extends MapDataStore {
                 return null;
             }
 
-            // create the array which will store the current way segment
-            LatLong[] waySegment = new LatLong[numberOfWayNodes];
+            // create the array which will store the current way segment as latitude/longitude pairs
+            double[] waySegment = new double[2 * numberOfWayNodes];
 
             if (doubleDeltaEncoding) {
                 decodeWayNodesDoubleDelta(waySegment, tileLatitude, tileLongitude, readBuffer);
@@ -787,7 +924,7 @@ public class MapFile extends MapDataStore {
 
     private List<Way> processWays(QueryParameters queryParameters, int numberOfWays, BoundingBox boundingBox,
                                   boolean filterRequired, double tileLatitude, double tileLongitude,
-                                  Selector selector, ReadBuffer readBuffer) {
+                                  Selector selector, ReadBuffer readBuffer, List<Integer> tileBitmasks) {
         List<Way> ways = new ArrayList<>();
         Tag[] wayTags = this.mapFileHeader.getMapFileInfo().wayTags;
 
@@ -810,9 +947,13 @@ public class MapFile extends MapDataStore {
                 return null;
             }
 
-            if (queryParameters.useTileBitmask) {
+            int tileBitmask = 0;
+            if (tileBitmasks != null) {
+                // get the way tile bitmask (2 bytes), it is kept with the way
+                tileBitmask = readBuffer.readShort();
+            } else if (queryParameters.useTileBitmask) {
                 // get the way tile bitmask (2 bytes)
-                int tileBitmask = readBuffer.readShort();
+                tileBitmask = readBuffer.readShort();
                 // check if the way is inside the requested tile
                 if ((queryParameters.queryTileBitmask & tileBitmask) == 0) {
                     // skip the rest of the way and continue with the next way
@@ -876,7 +1017,7 @@ public class MapFile extends MapDataStore {
             }
 
             for (int wayDataBlock = 0; wayDataBlock < wayDataBlocks; ++wayDataBlock) {
-                LatLong[][] wayNodes = processWayDataBlock(tileLatitude, tileLongitude, featureWayDoubleDeltaEncoding, readBuffer);
+                double[][] wayNodes = processWayDataBlock(tileLatitude, tileLongitude, featureWayDoubleDeltaEncoding, readBuffer);
                 if (wayNodes != null) {
                     if (filterRequired && wayFilterEnabled && !wayFilterBbox.intersectsArea(wayNodes)) {
                         continue;
@@ -884,10 +1025,13 @@ public class MapFile extends MapDataStore {
                     if (Selector.ALL == selector || featureName || featureHouseNumber || featureRef || wayAsLabelTagFilter(tags)) {
                         LatLong labelLatLong = null;
                         if (labelPosition != null) {
-                            labelLatLong = new LatLong(wayNodes[0][0].latitude + LatLongUtils.microdegreesToDegrees(labelPosition[1]),
-                                    wayNodes[0][0].longitude + LatLongUtils.microdegreesToDegrees(labelPosition[0]));
+                            labelLatLong = new LatLong(wayNodes[0][0] + LatLongUtils.microdegreesToDegrees(labelPosition[1]),
+                                    wayNodes[0][1] + LatLongUtils.microdegreesToDegrees(labelPosition[0]));
                         }
                         ways.add(new Way(layer, tags, wayNodes, labelLatLong));
+                        if (tileBitmasks != null) {
+                            tileBitmasks.add(tileBitmask);
+                        }
                     }
                 }
             }
@@ -1039,6 +1183,22 @@ public class MapFile extends MapDataStore {
         return zoomTable;
     }
 
+    /**
+     * Sets the capacity of the cache for decoded blocks, which is shared by all threads reading from this map file.
+     * <p/>
+     * At zoom levels above the base zoom level of a sub-file, every block covers several tiles. With the cache
+     * enabled, a block is decoded once and only filtered for each further tile.
+     *
+     * @param capacity the maximum number of decoded blocks in the cache, 0 disables the cache.
+     */
+    public void setBlockCacheSize(int capacity) {
+        BlockCache oldBlockCache = this.blockCache;
+        this.blockCache = capacity > 0 ? new BlockCache(capacity) : null;
+        if (oldBlockCache != null) {
+            oldBlockCache.destroy();
+        }
+    }
+
     /**
      * Restricts returns of data to zoom level range specified. This can be used to restrict
      * the use of this map data base when used in MultiMapDatabase settings.
@@ -1103,7 +1263,7 @@ public class MapFile extends MapDataStore {
      * POIS: only poi data, no ways (new after 0.6.0)
      * NAMED: poi data and ways that have a name (new after 0.6.0)
      */
-    private enum Selector {
+    enum Selector {
         /** All data */
         ALL,
         /** Only POI data */
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A read-only memory mapping of a whole map file.
+ * <p/>
+ * A single {@link MappedByteBuffer} is limited to 2 GB, so larger files are covered by several mappings. Consecutive
+ * mappings overlap by the maximum block size, which guarantees that every block lies completely inside one mapping
+ * and can be decoded without copying it.
+ * <p/>
+ * Java offers no way to unmap a file explicitly. After {@link #close()} the mappings are no longer reachable from
+ * here, the address space is released and the file is unlocked (which matters on Windows) once the garbage
+ * collector has collected them.
+ */
+class MemoryMappedFile {
+    /**
+     * Default distance in bytes between the start of two consecutive mappings.
+     */
+    static final long DEFAULT_CHUNK_SIZE = 1L << 30;
+
+    private final long chunkSize;
+    private final MappedByteBuffer[] mappings;
+    private final int overlap;
+
+    /**
+     * @param fileChannel the channel of the map file.
+     * @param overlap     the maximum size of a block which must be readable from a single mapping.
+     * @throws IOException if the file cannot be mapped.
+     */
+    MemoryMappedFile(FileChannel fileChannel, int overlap) throws IOException {
+        this(fileChannel, DEFAULT_CHUNK_SIZE, overlap);
+    }
+
+    /**
+     * @param fileChannel the channel of the map file.
+     * @param chunkSize   the distance in bytes between the start of two consecutive mappings.
+     * @param overlap     the maximum size of a block which must be readable from a single mapping.
+     * @throws IOException if the file cannot be mapped.
+     */
+    MemoryMappedFile(FileChannel fileChannel, long chunkSize, int overlap) throws IOException {
+        if (chunkSize <= 0 || chunkSize + overlap > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+
+        long fileSize = fileChannel.size();
+        int numberOfMappings = (int) Math.max(1, (fileSize + chunkSize - 1) / chunkSize);
+        this.mappings = new MappedByteBuffer[numberOfMappings];
+        for (int i = 0; i < numberOfMappings; ++i) {
+            long position = i * chunkSize;
+            long size = Math.min(chunkSize + overlap, fileSize - position);
+            this.mappings[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        }
+    }
+
+    /**
+     * Drops the references to all mappings, later reads are no longer served from the mapping.
+     */
+    void close() {
+        Arrays.fill(this.mappings, null);
+    }
+
+    /**
+     * @return the number of mappings covering the file.
+     */
+    int getNumberOfMappings() {
+        return this.mappings.length;
+    }
+
+    /**
+     * Returns a read buffer which decodes the given region of the file directly from the mapping.
+     *
+     * @param offset the offset of the region, measured in bytes from the beginning of the file.
+     * @param length the length of the region in bytes.
+     * @return the read buffer or null if the region cannot be served from a single mapping or the file is closed.
+     */
+    ReadBuffer getReadBuffer(long offset, int length) {
+        int index = (int) (offset / this.chunkSize);
+        if (offset < 0 || length < 0 || length > this.overlap || index >= this.mappings.length) {
+            return null;
+        }
+
+        MappedByteBuffer mapping = this.mappings[index];
+        int position = (int) (offset - index * this.chunkSize);
+        if (mapping == null || position + length > mapping.capacity()) {
+            return null;
+        }
+
+        // the duplicate has its own position and limit, so concurrent readers do not interfere
+        ByteBuffer slice = mapping.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return new ReadBuffer(slice.slice());
+    }
+}
@@ -33,16 +33,21 @@ import java.util.logging.Logger;
 
 /**
  * Reads from a {@link RandomAccessFile} into a buffer and decodes the data.
+ * <p/>
+ * The data can also be decoded directly from an existing {@link ByteBuffer}, e.g. a slice of a memory mapped file,
+ * in which case no data is copied.
  */
 public class ReadBuffer {
 
     private static final String CHARSET_UTF8 = "UTF-8";
     private static final Logger LOGGER = Logger.getLogger(ReadBuffer.class.getName());
 
+    private ByteBuffer buffer;
     private byte[] bufferData;
     private int bufferPosition;
     private ByteBuffer bufferWrapper;
     private final FileChannel inputChannel;
+    private byte[] stringData;
 
     private final List<Integer> tagIds = new ArrayList<>();
 
@@ -50,13 +55,23 @@ public class ReadBuffer {
         this.inputChannel = inputChannel;
     }
 
+    /**
+     * Creates a read buffer which decodes the given data without copying it.
+     *
+     * @param buffer the data, big-endian, starting at index 0.
+     */
+    ReadBuffer(ByteBuffer buffer) {
+        this.inputChannel = null;
+        this.buffer = buffer;
+    }
+
     /**
      * Returns one byte from the read buffer.
      *
      * @return the byte value.
      */
     public byte readByte() {
-        return this.bufferData[this.bufferPosition++];
+        return this.buffer.get(this.bufferPosition++);
     }
 
     /**
@@ -79,26 +94,9 @@ public class ReadBuffer {
      * @throws IOException if an error occurs while reading the file.
      */
     public boolean readFromFile(int length) throws IOException {
-        // ensure that the read buffer is large enough
-        if (this.bufferData == null || this.bufferData.length < length) {
-            // ensure that the read buffer is not too large
-            if (length > Parameters.MAXIMUM_BUFFER_SIZE) {
-                LOGGER.warning("invalid read length: " + length);
-                return false;
-            }
-            try {
-                this.bufferData = new byte[length];
-            } catch (Throwable t) {
-                LOGGER.log(Level.SEVERE, t.toString(), t);
-                return false;
-            }
-            this.bufferWrapper = ByteBuffer.wrap(this.bufferData, 0, length);
+        if (!prepareBuffer(length)) {
+            return false;
         }
-
-        // reset the buffer position and read the data into the buffer
-        this.bufferPosition = 0;
-        this.bufferWrapper.clear();
-
         return this.inputChannel.read(this.bufferWrapper) == length;
     }
 
@@ -112,6 +110,19 @@ public class ReadBuffer {
      * @throws IOException if an error occurs while reading the file.
      */
     public boolean readFromFile(long offset, int length) throws IOException {
+        if (!prepareBuffer(length)) {
+            return false;
+        }
+        return readFully(this.inputChannel, this.bufferWrapper, offset) == length;
+    }
+
+    /**
+     * Ensures that the read buffer can hold the given amount of bytes and resets the internal buffer position.
+     *
+     * @param length the amount of bytes which will be read from the file.
+     * @return true if the buffer is ready, false otherwise.
+     */
+    private boolean prepareBuffer(int length) {
         // ensure that the read buffer is large enough
         if (this.bufferData == null || this.bufferData.length < length) {
             // ensure that the read buffer is not too large
@@ -125,17 +136,37 @@ public class ReadBuffer {
                 LOGGER.log(Level.SEVERE, t.toString(), t);
                 return false;
             }
-            this.bufferWrapper = ByteBuffer.wrap(this.bufferData, 0, length);
+            this.bufferWrapper = ByteBuffer.wrap(this.bufferData);
         }
 
-        // reset the buffer position and read the data into the buffer
+        // reset the buffer position and limit the buffer to the requested data
         this.bufferPosition = 0;
         this.bufferWrapper.clear();
+        this.bufferWrapper.limit(length);
+        this.buffer = this.bufferWrapper;
+        return true;
+    }
 
-        synchronized (this.inputChannel) {
-            this.inputChannel.position(offset);
-            return this.inputChannel.read(this.bufferWrapper) == length;
+    /**
+     * Reads from the given channel at an absolute position until the buffer is full or the end of the channel is
+     * reached. The position of the channel itself is not modified, so concurrent callers do not need to synchronize.
+     *
+     * @param channel the channel to read from.
+     * @param buffer  the buffer to read into.
+     * @param offset  the file position at which the transfer is to begin.
+     * @return the number of bytes read.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    static int readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
         }
+        return total;
     }
 
     /**
@@ -147,7 +178,7 @@ public class ReadBuffer {
      */
     public int readInt() {
         this.bufferPosition += 4;
-        return Deserializer.getInt(this.bufferData, this.bufferPosition - 4);
+        return this.buffer.getInt(this.bufferPosition - 4);
     }
 
     /**
@@ -159,7 +190,7 @@ public class ReadBuffer {
      */
     public long readLong() {
         this.bufferPosition += 8;
-        return Deserializer.getLong(this.bufferData, this.bufferPosition - 8);
+        return this.buffer.getLong(this.bufferPosition - 8);
     }
 
     /**
@@ -171,7 +202,7 @@ public class ReadBuffer {
      */
     public int readShort() {
         this.bufferPosition += 2;
-        return Deserializer.getShort(this.bufferData, this.bufferPosition - 2);
+        return this.buffer.getShort(this.bufferPosition - 2);
     }
 
     /**
@@ -187,18 +218,19 @@ public class ReadBuffer {
         byte variableByteShift = 0;
 
         // check if the continuation bit is set
-        while ((this.bufferData[this.bufferPosition] & 0x80) != 0) {
-            variableByteDecode |= (this.bufferData[this.bufferPosition++] & 0x7f) << variableByteShift;
+        byte data;
+        while (((data = this.buffer.get(this.bufferPosition++)) & 0x80) != 0) {
+            variableByteDecode |= (data & 0x7f) << variableByteShift;
             variableByteShift += 7;
         }
 
         // read the six data bits from the last byte
-        if ((this.bufferData[this.bufferPosition] & 0x40) != 0) {
+        if ((data & 0x40) != 0) {
             // negative
-            return -(variableByteDecode | ((this.bufferData[this.bufferPosition++] & 0x3f) << variableByteShift));
+            return -(variableByteDecode | ((data & 0x3f) << variableByteShift));
         }
         // positive
-        return variableByteDecode | ((this.bufferData[this.bufferPosition++] & 0x3f) << variableByteShift);
+        return variableByteDecode | ((data & 0x3f) << variableByteShift);
     }
 
     List<Tag> readTags(Tag[] tagsArray, byte numberOfTags) {
@@ -256,13 +288,14 @@ public class ReadBuffer {
         byte variableByteShift = 0;
 
         // check if the continuation bit is set
-        while ((this.bufferData[this.bufferPosition] & 0x80) != 0) {
-            variableByteDecode |= (this.bufferData[this.bufferPosition++] & 0x7f) << variableByteShift;
+        byte data;
+        while (((data = this.buffer.get(this.bufferPosition++)) & 0x80) != 0) {
+            variableByteDecode |= (data & 0x7f) << variableByteShift;
             variableByteShift += 7;
         }
 
         // read the seven data bits from the last byte
-        return variableByteDecode | (this.bufferData[this.bufferPosition++] << variableByteShift);
+        return variableByteDecode | (data << variableByteShift);
     }
 
     /**
@@ -281,10 +314,21 @@ public class ReadBuffer {
      * @return the UTF-8 decoded string (may be null).
      */
     public String readUTF8EncodedString(int stringLength) {
-        if (stringLength > 0 && this.bufferPosition + stringLength <= this.bufferData.length) {
+        if (stringLength > 0 && this.bufferPosition + stringLength <= this.buffer.limit()) {
             this.bufferPosition += stringLength;
             try {
-                return new String(this.bufferData, this.bufferPosition - stringLength, stringLength, CHARSET_UTF8);
+                if (this.buffer.hasArray()) {
+                    return new String(this.buffer.array(), this.buffer.arrayOffset() + this.bufferPosition - stringLength,
+                            stringLength, CHARSET_UTF8);
+                }
+                // copy from a direct buffer into a reusable array
+                if (this.stringData == null || this.stringData.length < stringLength) {
+                    this.stringData = new byte[Math.max(stringLength, 64)];
+                }
+                for (int i = 0; i < stringLength; ++i) {
+                    this.stringData[i] = this.buffer.get(this.bufferPosition - stringLength + i);
+                }
+                return new String(this.stringData, 0, stringLength, CHARSET_UTF8);
             } catch (UnsupportedEncodingException e) {
                 throw new IllegalStateException(e);
             }
@@ -304,7 +348,7 @@ public class ReadBuffer {
      * @return the current size of the read buffer.
      */
     int getBufferSize() {
-        return this.bufferData.length;
+        return this.buffer.limit();
     }
 
     /**
@@ -27,6 +27,11 @@ import org.mapsforge.map.reader.header.MapFileInfo;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class MapFileWithDataTest {
     private static final File MAP_FILE = new File("src/test/resources/with_data/output.map");
@@ -69,7 +74,7 @@ public class MapFileWithDataTest {
         LatLong latLong3 = new LatLong(0.08, 0.00);
         LatLong[][] latLongsExpected = new LatLong[][]{{latLong1, latLong2, latLong3}};
 
-        assertLatLongsEquals(latLongsExpected, way.latLongs);
+        assertLatLongsEquals(latLongsExpected, way.getLatLongs());
         Assert.assertEquals(3, way.tags.size());
         Assert.assertTrue(way.tags.contains(new Tag("highway=motorway")));
         Assert.assertTrue(way.tags.contains(new Tag("name=ÄÖÜ")));
@@ -99,4 +104,85 @@ public class MapFileWithDataTest {
 
         mapFile.close();
     }
+
+    @Test
+    public void executeMemoryMappedQueryTest() {
+        MapFile mapFile = new MapFile(MAP_FILE, null, true);
+
+        for (byte zoomLevel = ZOOM_LEVEL_MIN; zoomLevel <= ZOOM_LEVEL_MAX; ++zoomLevel) {
+            int tileX = MercatorProjection.longitudeToTileX(0.04, zoomLevel);
+            int tileY = MercatorProjection.latitudeToTileY(0.04, zoomLevel);
+            Tile tile = new Tile(tileX, tileY, zoomLevel, 256);
+
+            MapReadResult mapReadResult = mapFile.readMapData(tile);
+
+            Assert.assertEquals(1, mapReadResult.pois.size());
+            Assert.assertEquals(1, mapReadResult.ways.size());
+
+            checkPointOfInterest(new ArrayList<>(mapReadResult.pois).get(0));
+            checkWay(new ArrayList<>(mapReadResult.ways).get(0));
+        }
+
+        mapFile.close();
+    }
+
+    @Test
+    public void executeBlockCacheQueryTest() {
+        MapFile mapFile = new MapFile(MAP_FILE);
+        mapFile.setBlockCacheSize(16);
+
+        for (int pass = 0; pass < 2; ++pass) {
+            for (byte zoomLevel = ZOOM_LEVEL_MIN; zoomLevel <= ZOOM_LEVEL_MAX; ++zoomLevel) {
+                int tileX = MercatorProjection.longitudeToTileX(0.04, zoomLevel);
+                int tileY = MercatorProjection.latitudeToTileY(0.04, zoomLevel);
+                Tile tile = new Tile(tileX, tileY, zoomLevel, 256);
+
+                MapReadResult mapReadResult = mapFile.readMapData(tile);
+
+                Assert.assertEquals(1, mapReadResult.pois.size());
+                Assert.assertEquals(1, mapReadResult.ways.size());
+
+                checkPointOfInterest(new ArrayList<>(mapReadResult.pois).get(0));
+                checkWay(new ArrayList<>(mapReadResult.ways).get(0));
+            }
+        }
+
+        // the second pass is served completely from the cache
+        Assert.assertTrue(mapFile.getBlockCacheMisses() > 0);
+        Assert.assertEquals(mapFile.getBlockCacheMisses(), mapFile.getBlockCacheHits());
+
+        mapFile.close();
+    }
+
+    @Test
+    public void executeConcurrentQueryTest() throws Exception {
+        final MapFile mapFile = new MapFile(MAP_FILE);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            futures.add(executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (byte zoomLevel = ZOOM_LEVEL_MIN; zoomLevel <= ZOOM_LEVEL_MAX; ++zoomLevel) {
+                        int tileX = MercatorProjection.longitudeToTileX(0.04, zoomLevel);
+                        int tileY = MercatorProjection.latitudeToTileY(0.04, zoomLevel);
+                        MapReadResult mapReadResult = mapFile.readMapData(new Tile(tileX, tileY, zoomLevel, 256));
+
+                        Assert.assertEquals(1, mapReadResult.pois.size());
+                        Assert.assertEquals(1, mapReadResult.ways.size());
+                        checkPointOfInterest(new ArrayList<>(mapReadResult.pois).get(0));
+                        checkWay(new ArrayList<>(mapReadResult.ways).get(0));
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        mapFile.close();
+    }
 }
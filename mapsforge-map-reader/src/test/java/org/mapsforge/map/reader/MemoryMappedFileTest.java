@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+public class MemoryMappedFileTest {
+    private static final File MAP_FILE = new File("src/test/resources/with_data/output.map");
+
+    @Test
+    public void getReadBufferTest() throws IOException {
+        FileInputStream fileInputStream = new FileInputStream(MAP_FILE);
+        FileChannel fileChannel = fileInputStream.getChannel();
+        try {
+            int fileSize = (int) fileChannel.size();
+
+            // use tiny mappings to cover the file with several overlapping chunks
+            MemoryMappedFile memoryMappedFile = new MemoryMappedFile(fileChannel, 64, 32);
+            Assert.assertEquals((fileSize + 63) / 64, memoryMappedFile.getNumberOfMappings());
+
+            for (int offset = 0; offset + 32 <= fileSize; ++offset) {
+                ReadBuffer mapped = memoryMappedFile.getReadBuffer(offset, 32);
+                ReadBuffer copied = new ReadBuffer(fileChannel);
+                Assert.assertTrue(copied.readFromFile(offset, 32));
+
+                for (int i = 0; i < 32; ++i) {
+                    Assert.assertEquals(copied.readByte(), mapped.readByte());
+                }
+            }
+
+            // regions larger than the overlap or beyond the end of the file are not served
+            Assert.assertNull(memoryMappedFile.getReadBuffer(0, 33));
+            Assert.assertNull(memoryMappedFile.getReadBuffer(fileSize - 8, 16));
+
+            // a closed file is not served from the mappings any more
+            memoryMappedFile.close();
+            Assert.assertNull(memoryMappedFile.getReadBuffer(0, 32));
+        } finally {
+            fileChannel.close();
+        }
+    }
+}
@@ -53,10 +53,14 @@ import org.mapsforge.map.writer.util.PolyLabel;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -102,6 +106,89 @@ public final class MapFileWriter {
         }
     }
 
+    /**
+     * The buffers used to serialize a single tile, one set is allocated per worker thread.
+     * <p/>
+     * The buffers start small and grow up to their maximum size when a tile does not fit,
+     * so the memory of a worker follows the largest tile it has processed.
+     */
+    private static class TileBuffers {
+        ByteBuffer poiDataBuffer = ByteBuffer.allocate(INITIAL_TILE_BUFFER_SIZE);
+        ByteBuffer tileBuffer = ByteBuffer.allocate(INITIAL_TILE_BUFFER_SIZE);
+        final ByteBuffer wayBuffer = ByteBuffer.allocate(WAY_BUFFER_SIZE);
+        ByteBuffer wayDataBuffer = ByteBuffer.allocate(INITIAL_TILE_BUFFER_SIZE);
+
+        private static ByteBuffer grow(ByteBuffer buffer, int maxSize) {
+            int size = (int) Math.min(2L * buffer.capacity(), maxSize);
+            return size > buffer.capacity() ? ByteBuffer.allocate(size) : buffer;
+        }
+
+        /**
+         * @return false if the buffers have reached their maximum size.
+         */
+        boolean grow() {
+            if (this.poiDataBuffer.capacity() == POI_DATA_BUFFER_SIZE && this.tileBuffer.capacity() == TILE_BUFFER_SIZE
+                    && this.wayDataBuffer.capacity() == WAY_DATA_BUFFER_SIZE) {
+                return false;
+            }
+            this.poiDataBuffer = grow(this.poiDataBuffer, POI_DATA_BUFFER_SIZE);
+            this.tileBuffer = grow(this.tileBuffer, TILE_BUFFER_SIZE);
+            this.wayDataBuffer = grow(this.wayDataBuffer, WAY_DATA_BUFFER_SIZE);
+            return true;
+        }
+    }
+
+    private static class TileProcessingCallable implements Callable<byte[]> {
+        private final MapWriterConfiguration configuration;
+        private final TileBasedDataProcessor dataProcessor;
+        private final LoadingCache<TDWay, Geometry> jtsGeometryCache;
+        private final TileCoordinate tileCoordinate;
+        private final TileData tileData;
+        private final int zoomIntervalIndex;
+
+        /**
+         * @param configuration     the {@link MapWriterConfiguration}
+         * @param tileCoordinate    the {@link TileCoordinate}
+         * @param tileData          the {@link TileData} of the tile
+         * @param dataProcessor     the {@link TileBasedDataProcessor}
+         * @param jtsGeometryCache  the {@link LoadingCache} for {@link Geometry} objects
+         * @param zoomIntervalIndex the index of the zoom interval
+         */
+        TileProcessingCallable(MapWriterConfiguration configuration, TileCoordinate tileCoordinate, TileData tileData,
+                               TileBasedDataProcessor dataProcessor, LoadingCache<TDWay, Geometry> jtsGeometryCache,
+                               int zoomIntervalIndex) {
+            super();
+            this.configuration = configuration;
+            this.tileCoordinate = tileCoordinate;
+            this.tileData = tileData;
+            this.dataProcessor = dataProcessor;
+            this.jtsGeometryCache = jtsGeometryCache;
+            this.zoomIntervalIndex = zoomIntervalIndex;
+        }
+
+        @Override
+        public byte[] call() {
+            TileBuffers buffers = TILE_BUFFERS.get();
+            while (true) {
+                try {
+                    processTile(this.configuration, this.tileCoordinate, this.tileData, this.dataProcessor,
+                            this.jtsGeometryCache, this.zoomIntervalIndex, buffers.tileBuffer, buffers.poiDataBuffer,
+                            buffers.wayDataBuffer, buffers.wayBuffer);
+                    break;
+                } catch (BufferOverflowException e) {
+                    // tile too large for the current buffers, process it again with larger ones
+                    if (!buffers.grow()) {
+                        throw e;
+                    }
+                }
+            }
+            if (buffers.tileBuffer.position() == 0) {
+                return EMPTY_TILE;
+            }
+            return Arrays.copyOf(buffers.tileBuffer.array(), buffers.tileBuffer.position());
+        }
+    }
+
     private static class WayPreprocessingCallable implements Callable<WayPreprocessingResult> {
         private final MapWriterConfiguration configuration;
         private final LoadingCache<TDWay, Geometry> jtsGeometryCache;
@@ -271,6 +358,8 @@ public final class MapFileWriter {
 
     static final Logger LOGGER = Logger.getLogger(MapFileWriter.class.getName());
 
+    static final int INITIAL_TILE_BUFFER_SIZE = 0x100000; // 1MB
+
     static final int MIN_TILE_BUFFER_SIZE = 0xF00000; // 15MB
 
     static final int POI_DATA_BUFFER_SIZE = 0xA00000; // 10MB
@@ -334,6 +423,8 @@ public final class MapFileWriter {
 
     private static final int DUMMY_INT = 0xf0f0f0f0;
 
+    private static final byte[] EMPTY_TILE = new byte[0];
+
     private static final long DUMMY_LONG = 0xf0f0f0f0f0f0f0f0L;
 
     private static ExecutorService EXECUTOR_SERVICE;
@@ -345,8 +436,20 @@ public final class MapFileWriter {
     private static final String PROJECTION = "Mercator";
     private static final int SIZE_ZOOMINTERVAL_CONFIGURATION = 19;
 
+    private static final ThreadLocal<TileBuffers> TILE_BUFFERS = new ThreadLocal<TileBuffers>() {
+        @Override
+        protected TileBuffers initialValue() {
+            return new TileBuffers();
+        }
+    };
+
     private static final TileInfo TILE_INFO = TileInfo.getInstance();
 
+    /**
+     * Maximum number of processed tiles per thread waiting to be written, bounds the memory of the writer stage.
+     */
+    private static final int TILES_IN_FLIGHT_PER_THREAD = 4;
+
     private static final int tileSize = 256; // needed for optimal simplification, but set to constant here TODO
 
     private static final Charset UTF8_CHARSET = StandardCharsets.UTF_8;
@@ -827,17 +930,15 @@ public final class MapFileWriter {
     }
 
     private static void processTile(MapWriterConfiguration configuration, TileCoordinate tileCoordinate,
-                                    TileBasedDataProcessor dataProcessor, LoadingCache<TDWay, Geometry> jtsGeometryCache,
-                                    int zoomIntervalIndex, ByteBuffer tileBuffer, ByteBuffer poiDataBuffer, ByteBuffer wayDataBuffer,
+                                    TileData currentTile, TileBasedDataProcessor dataProcessor,
+                                    LoadingCache<TDWay, Geometry> jtsGeometryCache, int zoomIntervalIndex,
+                                    ByteBuffer tileBuffer, ByteBuffer poiDataBuffer, ByteBuffer wayDataBuffer,
                                     ByteBuffer wayBuffer) {
         tileBuffer.clear();
         poiDataBuffer.clear();
         wayDataBuffer.clear();
         wayBuffer.clear();
 
-        final TileData currentTile = dataProcessor.getTile(zoomIntervalIndex, tileCoordinate.getX(),
-                tileCoordinate.getY());
-
         final int currentTileLat = LatLongUtils.degreesToMicrodegrees(MercatorProjection.tileYToLatitude(
                 tileCoordinate.getY(), tileCoordinate.getZoomlevel()));
         final int currentTileLon = LatLongUtils.degreesToMicrodegrees(MercatorProjection.tileXToLongitude(
@@ -885,40 +986,32 @@ public final class MapFileWriter {
 
                 List<TDWay> ways = waysByZoomlevel.get(Byte.valueOf(zoomlevel));
                 if (ways != null) {
-                    List<WayPreprocessingCallable> callables = new ArrayList<>();
+                    // tiles are processed in parallel, so the ways of a single tile are processed sequentially
                     for (TDWay way : ways) {
-                        if (!way.isInvalid()) {
-                            callables.add(new WayPreprocessingCallable(way, tileCoordinate, tileAsGeometry,
-                                    maxZoomCurrentInterval, jtsGeometryCache, configuration));
+                        if (way.isInvalid()) {
+                            continue;
                         }
-                    }
-                    try {
-                        List<Future<WayPreprocessingResult>> futures = EXECUTOR_SERVICE.invokeAll(callables);
-                        for (Future<WayPreprocessingResult> wprFuture : futures) {
-                            WayPreprocessingResult wpr;
-                            try {
-                                wpr = wprFuture.get();
-                            } catch (ExecutionException e) {
-                                LOGGER.log(Level.WARNING, "error in parallel preprocessing of ways", e);
-                                continue;
-                            }
-                            if (wpr != null) {
-                                wayBuffer.clear();
-                                // increment count of ways on this zoom level
-                                entitiesPerZoomLevel[indexEntitiesPerZoomLevelTable][1]++;
-                                if (configuration.isDebugStrings()) {
-                                    writeWaySignature(wpr.getWay(), wayDataBuffer);
-                                }
-                                processWay(wpr, wpr.getWay(), currentTileLat, currentTileLon, wayBuffer);
-                                // write size of way to way data buffer
-                                wayDataBuffer.put(Serializer.getVariableByteUnsigned(wayBuffer.position()));
-                                // write way data to way data buffer
-                                wayDataBuffer.put(wayBuffer.array(), 0, wayBuffer.position());
+                        WayPreprocessingResult wpr;
+                        try {
+                            wpr = new WayPreprocessingCallable(way, tileCoordinate, tileAsGeometry,
+                                    maxZoomCurrentInterval, jtsGeometryCache, configuration).call();
+                        } catch (RuntimeException e) {
+                            LOGGER.log(Level.WARNING, "error in preprocessing of way " + way.getId(), e);
+                            continue;
+                        }
+                        if (wpr != null) {
+                            wayBuffer.clear();
+                            // increment count of ways on this zoom level
+                            entitiesPerZoomLevel[indexEntitiesPerZoomLevelTable][1]++;
+                            if (configuration.isDebugStrings()) {
+                                writeWaySignature(wpr.getWay(), wayDataBuffer);
                             }
+                            processWay(wpr, wpr.getWay(), currentTileLat, currentTileLon, wayBuffer);
+                            // write size of way to way data buffer
+                            wayDataBuffer.put(Serializer.getVariableByteUnsigned(wayBuffer.position()));
+                            // write way data to way data buffer
+                            wayDataBuffer.put(wayBuffer.array(), 0, wayBuffer.position());
                         }
-                    } catch (InterruptedException e) {
-                        LOGGER.log(Level.WARNING, "error in parallel preprocessing of ways", e);
-                        throw new RuntimeException(e);
                     }
                 }
             }
@@ -968,10 +1061,6 @@ public final class MapFileWriter {
                 + (configuration.isDebugStrings() ? DEBUG_INDEX_START_STRING.getBytes(UTF8_CHARSET).length : 0);
 
         final ByteBuffer indexBuffer = ByteBuffer.allocate(indexBufferSize);
-        final ByteBuffer tileBuffer = ByteBuffer.allocate(TILE_BUFFER_SIZE);
-        final ByteBuffer wayDataBuffer = ByteBuffer.allocate(WAY_DATA_BUFFER_SIZE);
-        final ByteBuffer wayBuffer = ByteBuffer.allocate(WAY_BUFFER_SIZE);
-        final ByteBuffer poiDataBuffer = ByteBuffer.allocate(POI_DATA_BUFFER_SIZE);
 
         final ByteBuffer multipleTilesBuffer = ByteBuffer.allocate(TILES_BUFFER_SIZE);
 
@@ -983,29 +1072,47 @@ public final class MapFileWriter {
         long currentSubfileOffset = indexBufferSize;
         randomAccessFile.seek(startPositionSubfile + indexBufferSize);
 
-        for (int tileY = upperLeft.getY(); tileY < upperLeft.getY() + lengthY; tileY++) {
-            for (int tileX = upperLeft.getX(); tileX < upperLeft.getX() + lengthX; tileX++) {
-                TileCoordinate tileCoordinate = new TileCoordinate(tileX, tileY, baseZoomCurrentInterval);
-
-                processIndexEntry(tileCoordinate, indexBuffer, currentSubfileOffset);
-                processTile(configuration, tileCoordinate, dataStore, jtsGeometryCache, zoomIntervalIndex, tileBuffer,
-                        poiDataBuffer, wayDataBuffer, wayBuffer);
-                currentSubfileOffset += tileBuffer.position();
-
-                writeTile(multipleTilesBuffer, tileBuffer, randomAccessFile);
+        // tiles are processed in parallel into their own byte arrays, the results are written in index order,
+        // at most maxTilesInFlight processed tiles are kept in memory at any time
+        final int maxTilesInFlight = Math.max(1, configuration.getThreads()) * TILES_IN_FLIGHT_PER_THREAD;
+        final Deque<Future<byte[]>> tilesInFlight = new ArrayDeque<>(maxTilesInFlight);
+        final Deque<TileCoordinate> tileCoordinatesInFlight = new ArrayDeque<>(maxTilesInFlight);
+
+        try {
+            for (int tileY = upperLeft.getY(); tileY < upperLeft.getY() + lengthY; tileY++) {
+                for (int tileX = upperLeft.getX(); tileX < upperLeft.getX() + lengthX; tileX++) {
+                    TileCoordinate tileCoordinate = new TileCoordinate(tileX, tileY, baseZoomCurrentInterval);
+
+                    // the data stores are not thread-safe, so the tile data is retrieved here,
+                    // synchronized with the workers loading inner ways of multipolygons
+                    TileData tileData;
+                    synchronized (dataStore) {
+                        tileData = dataStore.getTile(zoomIntervalIndex, tileX, tileY);
+                    }
+                    tilesInFlight.addLast(EXECUTOR_SERVICE.submit(new TileProcessingCallable(configuration,
+                            tileCoordinate, tileData, dataStore, jtsGeometryCache, zoomIntervalIndex)));
+                    tileCoordinatesInFlight.addLast(tileCoordinate);
 
-                if (++processedTiles % amountOfTilesInPercentStep == 0) {
-                    if (processedTiles == amountTiles) {
-                        LOGGER.info("written 100% of sub file for zoom interval " + (zoomIntervalIndex + 1) + " (" + dataStore.getZoomIntervalConfiguration().toString(zoomIntervalIndex) + ")");
-                    } else {
-                        LOGGER.info("written " + Math.round(processedTiles / amountOfTilesInPercentStep / PROGRESS_PERCENT_STEP * 100)
-                                + "% of sub file for zoom interval " + (zoomIntervalIndex + 1) + " (" + dataStore.getZoomIntervalConfiguration().toString(zoomIntervalIndex) + ")");
+                    if (tilesInFlight.size() < maxTilesInFlight) {
+                        continue;
                     }
-                }
 
-                // TODO accounting for progress information
-            } // end for loop over tile columns
-        } // /end for loop over tile rows
+                    currentSubfileOffset = writeNextTile(tilesInFlight, tileCoordinatesInFlight, indexBuffer,
+                            multipleTilesBuffer, currentSubfileOffset, randomAccessFile);
+                    logProgress(++processedTiles, amountTiles, amountOfTilesInPercentStep, zoomIntervalIndex, dataStore);
+                } // end for loop over tile columns
+            } // /end for loop over tile rows
+
+            while (!tilesInFlight.isEmpty()) {
+                currentSubfileOffset = writeNextTile(tilesInFlight, tileCoordinatesInFlight, indexBuffer,
+                        multipleTilesBuffer, currentSubfileOffset, randomAccessFile);
+                logProgress(++processedTiles, amountTiles, amountOfTilesInPercentStep, zoomIntervalIndex, dataStore);
+            }
+        } finally {
+            for (Future<byte[]> future : tilesInFlight) {
+                future.cancel(true);
+            }
+        }
 
         // write remaining tiles
         if (multipleTilesBuffer.position() > 0) {
@@ -1019,6 +1126,45 @@ public final class MapFileWriter {
         return currentSubfileOffset;
     }
 
+    /**
+     * Waits for the oldest tile in flight and writes it together with its index entry.
+     *
+     * @return the offset in the sub file after the written tile.
+     */
+    private static long writeNextTile(Deque<Future<byte[]>> tilesInFlight, Deque<TileCoordinate> tileCoordinatesInFlight,
+                                      ByteBuffer indexBuffer, ByteBuffer multipleTilesBuffer, long currentSubfileOffset,
+                                      RandomAccessFile randomAccessFile) throws IOException {
+        Future<byte[]> future = tilesInFlight.removeFirst();
+        TileCoordinate tileCoordinate = tileCoordinatesInFlight.removeFirst();
+
+        byte[] tile;
+        try {
+            tile = future.get();
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "error in parallel processing of tiles", e);
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "error in parallel processing of tile " + tileCoordinate, e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+
+        processIndexEntry(tileCoordinate, indexBuffer, currentSubfileOffset);
+        writeTile(multipleTilesBuffer, tile, randomAccessFile);
+        return currentSubfileOffset + tile.length;
+    }
+
+    private static void logProgress(int processedTiles, int amountTiles, double amountOfTilesInPercentStep,
+                                    int zoomIntervalIndex, TileBasedDataProcessor dataStore) {
+        if (processedTiles % amountOfTilesInPercentStep == 0) {
+            if (processedTiles == amountTiles) {
+                LOGGER.info("written 100% of sub file for zoom interval " + (zoomIntervalIndex + 1) + " (" + dataStore.getZoomIntervalConfiguration().toString(zoomIntervalIndex) + ")");
+            } else {
+                LOGGER.info("written " + Math.round(processedTiles / amountOfTilesInPercentStep / PROGRESS_PERCENT_STEP * 100)
+                        + "% of sub file for zoom interval " + (zoomIntervalIndex + 1) + " (" + dataStore.getZoomIntervalConfiguration().toString(zoomIntervalIndex) + ")");
+            }
+        }
+    }
+
     private static void writeSubfileMetaDataToContainerHeader(ZoomIntervalConfiguration zoomIntervalConfiguration,
                                                               int i, long startIndexOfSubfile, long subfileSize, ByteBuffer buffer) {
         // HEADER META DATA FOR SUB FILE
@@ -1034,10 +1180,10 @@ public final class MapFileWriter {
         buffer.putLong(subfileSize);
     }
 
-    private static void writeTile(ByteBuffer multipleTilesBuffer, ByteBuffer tileBuffer,
+    private static void writeTile(ByteBuffer multipleTilesBuffer, byte[] tile,
                                   RandomAccessFile randomAccessFile) throws IOException {
         // add tile to tiles buffer
-        multipleTilesBuffer.put(tileBuffer.array(), 0, tileBuffer.position());
+        multipleTilesBuffer.put(tile);
 
         // if necessary, allocate new buffer
         if (multipleTilesBuffer.remaining() < MIN_TILE_BUFFER_SIZE) {
@@ -1,6 +1,7 @@
 /*
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2015 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -17,50 +18,130 @@ package org.mapsforge.map.writer;
 
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mapsforge.map.writer.model.MapWriterConfiguration;
 import org.mapsforge.map.writer.model.TileBasedDataProcessor;
+import org.openstreetmap.osmosis.core.domain.v0_6.CommonEntityData;
+import org.openstreetmap.osmosis.core.domain.v0_6.Node;
+import org.openstreetmap.osmosis.core.domain.v0_6.Tag;
+import org.openstreetmap.osmosis.core.domain.v0_6.Way;
+import org.openstreetmap.osmosis.core.domain.v0_6.WayNode;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Random;
 
 public class MapFileWriterTest {
-    private MapWriterConfiguration configuration;
-    private TileBasedDataProcessor dataProcessor;
+    private static final int OFFSET_DATE = 36;
 
-    @Before
-    public void setUp() {
-        this.configuration = new MapWriterConfiguration();
-        // this.configuration.addOutputFile(getStringArgument(taskConfig, PARAM_OUTFILE,
+    private static CommonEntityData entityData(long id, Tag... tags) {
+        return new CommonEntityData(id, 1, new Date(0), null, 0, Arrays.asList(tags));
+    }
+
+    // the tag mapping can be loaded only once
+    private static MapWriterConfiguration configuration;
+
+    @BeforeClass
+    public static void setUpClass() {
+        configuration = new MapWriterConfiguration();
+        // configuration.addOutputFile(getStringArgument(taskConfig, PARAM_OUTFILE,
         // Constants.DEFAULT_PARAM_OUTFILE));
-        this.configuration.setWriterVersion("test");
-        this.configuration.loadTagMappingFile("src/test/resources/tag-mapping.xml");
-        this.configuration.addMapStartPosition("52.455882,13.297244");
-        this.configuration.addMapStartZoom("14");
-        this.configuration.addBboxConfiguration("52,13,53,14");
-        this.configuration.addZoomIntervalConfiguration("5,0,7,10,8,11,14,12,18");
-        this.configuration.setComment("i love mapsforge");
-        this.configuration.setDebugStrings(false);
-        this.configuration.setPolygonClipping(true);
-        this.configuration.setWayClipping(true);
-        this.configuration.setSimplification(0.00001);
-        this.configuration.setDataProcessorType("ram");
-        this.configuration.setBboxEnlargement(10);
+        configuration.setWriterVersion("test");
+        configuration.loadTagMappingFile("src/test/resources/tag-mapping.xml");
+        configuration.addMapStartPosition("52.455882,13.297244");
+        configuration.addMapStartZoom("14");
+        configuration.addBboxConfiguration("52,13,53,14");
+        configuration.addZoomIntervalConfiguration("5,0,7,10,8,11,14,12,18");
+        configuration.setComment("i love mapsforge");
+        configuration.setDebugStrings(false);
+        configuration.setPolygonClipping(true);
+        configuration.setWayClipping(true);
+        configuration.setSimplification(0.00001);
+        configuration.setDataProcessorType("ram");
+        configuration.setBboxEnlargement(10);
         List<String> preferredLanguages = new ArrayList<>(2);
         preferredLanguages.add("en");
         preferredLanguages.add("de");
-        this.configuration.setPreferredLanguages(preferredLanguages);
-        this.configuration.addEncodingChoice("auto");
-        this.configuration.validate();
+        configuration.setPreferredLanguages(preferredLanguages);
+        configuration.addEncodingChoice("auto");
+        configuration.validate();
+    }
+
+    private TileBasedDataProcessor dataProcessor;
+
+    @Before
+    public void setUp() {
+        this.dataProcessor = RAMTileBasedDataProcessor.newInstance(configuration);
+    }
+
+    /**
+     * Writes random POIs and areas with the given number of threads.
+     *
+     * @return the map file without the date of creation.
+     */
+    private byte[] writeFile(int threads) throws IOException {
+        File file = File.createTempFile("mapfilewriter", ".map");
+        file.deleteOnExit();
+        configuration.setOutputFile(file);
+        configuration.setThreads(threads);
+        TileBasedDataProcessor dataProcessor = RAMTileBasedDataProcessor.newInstance(configuration);
+
+        Random random = new Random(42);
+        long nodeId = 1;
+        for (int i = 0; i < 500; i++) {
+            dataProcessor.addNode(new Node(entityData(nodeId++, new Tag("amenity", "university"),
+                    new Tag("name", "poi " + i)), 52 + random.nextDouble(), 13 + random.nextDouble()));
+        }
+        for (int i = 0; i < 200; i++) {
+            double lat = 52 + random.nextDouble() * 0.95;
+            double lon = 13 + random.nextDouble() * 0.95;
+            double size = random.nextDouble() * 0.05;
+            List<WayNode> wayNodes = new ArrayList<>();
+            for (int j = 0; j < 8; j++) {
+                double angle = j * Math.PI / 4;
+                dataProcessor.addNode(new Node(entityData(nodeId), lat + size * Math.sin(angle),
+                        lon + size * Math.cos(angle)));
+                wayNodes.add(new WayNode(nodeId++));
+            }
+            wayNodes.add(wayNodes.get(0));
+            dataProcessor.addWay(new Way(entityData(i + 1, new Tag("natural", "beach")), wayNodes));
+        }
+        // all tags are used, so the optimized tag mapping keeps the header length
+        List<WayNode> coastline = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            dataProcessor.addNode(new Node(entityData(nodeId), 52.5 + 0.01 * (i % 2), 13 + 0.1 * i));
+            coastline.add(new WayNode(nodeId++));
+        }
+        dataProcessor.addWay(new Way(entityData(1000, new Tag("natural", "coastline")), coastline));
+        dataProcessor.complete();
+
+        MapFileWriter.writeFile(configuration, dataProcessor);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Assert.assertTrue(file.delete());
+        Arrays.fill(bytes, OFFSET_DATE, OFFSET_DATE + 8, (byte) 0);
+        return bytes;
+    }
+
+    @Test
+    public void testWriteFileThreads() throws IOException {
+        byte[] expected = writeFile(1);
 
-        this.dataProcessor = RAMTileBasedDataProcessor.newInstance(this.configuration);
+        // tiles are processed in parallel, but written in the same order
+        Assert.assertArrayEquals(expected, writeFile(4));
+        Assert.assertArrayEquals(expected, writeFile(Runtime.getRuntime().availableProcessors()));
     }
 
     @Test
     public void testWriteHeaderBuffer() {
         ByteBuffer headerBuffer = ByteBuffer.allocate(MapFileWriter.HEADER_BUFFER_SIZE);
-        int headerLength = MapFileWriter.writeHeaderBuffer(this.configuration, this.dataProcessor, headerBuffer);
+        int headerLength = MapFileWriter.writeHeaderBuffer(configuration, this.dataProcessor, headerBuffer);
 
         // expected header length
         // 20 + 4 + 4 + 8 + 8 + 16 + 2
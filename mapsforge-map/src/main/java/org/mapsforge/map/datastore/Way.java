@@ -2,6 +2,7 @@
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014-2015 Ludwig M Brinckmann
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -17,6 +18,7 @@
 package org.mapsforge.map.datastore;
 
 import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Point;
 import org.mapsforge.core.model.Tag;
 
 import java.util.Arrays;
@@ -25,6 +27,9 @@ import java.util.Objects;
 
 /**
  * An immutable container for all data associated with a single way or area (closed way).
+ * <p/>
+ * The way nodes are stored in a packed form, as one array of interleaved latitude/longitude
+ * pairs per way segment, to avoid allocating an object per node.
  */
 public class Way implements Comparable<Way> {
     /**
@@ -33,9 +38,9 @@ public class Way implements Comparable<Way> {
     public final LatLong labelPosition;
 
     /**
-     * The geographical coordinates of the way nodes.
+     * The geographical coordinates of the way nodes, as interleaved latitude/longitude pairs per way segment.
      */
-    public final LatLong[][] latLongs;
+    public final double[][] coordinates;
 
     /**
      * The layer of this way + 5 (to avoid negative values).
@@ -47,13 +52,34 @@ public class Way implements Comparable<Way> {
      */
     public final List<Tag> tags;
 
-    public Way(byte layer, List<Tag> tags, LatLong[][] latLongs, LatLong labelPosition) {
+    /**
+     * The way nodes as {@link LatLong} objects, created on the first call of {@link #getLatLongs()}.
+     */
+    private volatile LatLong[][] latLongs;
+
+    public Way(byte layer, List<Tag> tags, double[][] coordinates, LatLong labelPosition) {
         this.layer = layer;
         this.tags = tags;
-        this.latLongs = latLongs;
+        this.coordinates = coordinates;
         this.labelPosition = labelPosition;
     }
 
+    public Way(byte layer, List<Tag> tags, LatLong[][] latLongs, LatLong labelPosition) {
+        this(layer, tags, toCoordinates(latLongs), labelPosition);
+    }
+
+    private static double[][] toCoordinates(LatLong[][] latLongs) {
+        double[][] coordinates = new double[latLongs.length][];
+        for (int i = 0; i < latLongs.length; i++) {
+            coordinates[i] = new double[latLongs[i].length * 2];
+            for (int j = 0; j < latLongs[i].length; j++) {
+                coordinates[i][2 * j] = latLongs[i][j].latitude;
+                coordinates[i][2 * j + 1] = latLongs[i][j].longitude;
+            }
+        }
+        return coordinates;
+    }
+
     @Override
     public int compareTo(Way other) {
         if (this == other) {
@@ -70,7 +96,7 @@ public class Way implements Comparable<Way> {
             return retVal;
         }
 
-        retVal = Integer.compare(this.latLongs.length, other.latLongs.length);
+        retVal = Integer.compare(this.coordinates.length, other.coordinates.length);
         if (retVal != 0) {
             return retVal;
         }
@@ -98,14 +124,16 @@ public class Way implements Comparable<Way> {
             }
         }
 
-        for (int i = 0; i < this.latLongs.length; i++) {
-            retVal = Integer.compare(this.latLongs[i].length, other.latLongs[i].length);
+        for (int i = 0; i < this.coordinates.length; i++) {
+            retVal = Integer.compare(this.coordinates[i].length, other.coordinates[i].length);
             if (retVal != 0) {
                 return retVal;
             }
 
-            for (int j = 0; j < this.latLongs[i].length; j++) {
-                retVal = this.latLongs[i][j].compareTo(other.latLongs[i][j]);
+            for (int j = 0; j < this.coordinates[i].length; j += 2) {
+                // same order as LatLong.compareTo
+                retVal = Point.compareCoord(this.coordinates[i][j + 1], this.coordinates[i][j],
+                        other.coordinates[i][j + 1], other.coordinates[i][j]);
                 if (retVal != 0) {
                     return retVal;
                 }
@@ -120,11 +148,36 @@ public class Way implements Comparable<Way> {
         if (this == o) return true;
         if (!(o instanceof Way)) return false;
         Way way = (Way) o;
-        return layer == way.layer && Objects.equals(labelPosition, way.labelPosition) && Objects.deepEquals(latLongs, way.latLongs) && Objects.equals(tags, way.tags);
+        return layer == way.layer && Objects.equals(labelPosition, way.labelPosition) && Arrays.deepEquals(coordinates, way.coordinates) && Objects.equals(tags, way.tags);
+    }
+
+    /**
+     * Returns the way nodes as {@link LatLong} objects, replacing the former public {@code latLongs} field.
+     * <p/>
+     * The array is created on the first call and shared by later calls, prefer {@link #coordinates}
+     * in performance sensitive code.
+     *
+     * @return the geographical coordinates of the way nodes.
+     * @deprecated use {@link #coordinates}.
+     */
+    @Deprecated
+    public LatLong[][] getLatLongs() {
+        LatLong[][] latLongs = this.latLongs;
+        if (latLongs == null) {
+            latLongs = new LatLong[this.coordinates.length][];
+            for (int i = 0; i < this.coordinates.length; i++) {
+                latLongs[i] = new LatLong[this.coordinates[i].length / 2];
+                for (int j = 0; j < latLongs[i].length; j++) {
+                    latLongs[i][j] = new LatLong(this.coordinates[i][2 * j], this.coordinates[i][2 * j + 1]);
+                }
+            }
+            this.latLongs = latLongs;
+        }
+        return latLongs;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(labelPosition, Arrays.deepHashCode(latLongs), layer, tags);
+        return Objects.hash(labelPosition, Arrays.deepHashCode(coordinates), layer, tags);
     }
 }
@@ -1,5 +1,6 @@
 /*
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -42,9 +43,23 @@ public class ElevationAPI {
     protected final ElevationCache elevationCache;
     protected final DemFolder demFolder;
 
+    /**
+     * HGT files are converted before sampling, so voids are filled. Memory mapping is opt-in,
+     * see {@link #ElevationAPI(DemFolder, boolean)}.
+     */
     public ElevationAPI(DemFolder demFolder) {
+        this(demFolder, false);
+    }
+
+    /**
+     * @param memoryMapping If {@code true}, uncompressed HGT files on the file system are memory-mapped and sampled
+     *                      directly, instead of converting the whole file before sampling the first point.
+     *                      Zipped files are always converted. In contrast to converted files, voids in mapped files are
+     *                      not filled, so points near them are reported as missing data.
+     */
+    public ElevationAPI(DemFolder demFolder, boolean memoryMapping) {
         this.demFolder = demFolder;
-        this.elevationCache = new ElevationCache(demFolder, CacheMinCount, CacheMaxCount, CacheMaxBytes);
+        this.elevationCache = new ElevationCache(demFolder, CacheMinCount, CacheMaxCount, CacheMaxBytes, memoryMapping);
     }
 
     /**
@@ -168,27 +183,13 @@ public class ElevationAPI {
         final int hgtLat = (int) Math.floor(lat);
         final int hgtLon = (int) Math.floor(lon);
 
-        ElevationBitmap elevationBitmap = null;
-
-        if (elevationBitmapRef[0] != null) {
-            elevationBitmap = elevationBitmapRef[0];
-        } else {
-            try {
-                elevationBitmap = (ElevationBitmap) this.elevationCache.getHillshadingBitmap(hgtLat, hgtLon, 0, 0, 0, 0);
-            } catch (Exception ignored) {
-            }
-
-            if (elevationBitmap != null) {
-                elevationBitmapRef[0] = elevationBitmap;
-            }
-        }
+        final ElevationBitmap elevationBitmap = getElevationBitmap(hgtLat, hgtLon, elevationBitmapRef);
 
         if (elevationBitmap != null) {
             final int width = elevationBitmap.width;
             final int height = elevationBitmap.height;
-            final byte[] buffer = elevationBitmap.buffer;
 
-            if (buffer != null) {
+            if (elevationBitmap.hasData()) {
                 // Always positive values, taken from the lower-left corner towards upper-right corner
                 final double latFract = lat - hgtLat;
                 final double lonFract = lon - hgtLon;
@@ -316,35 +317,29 @@ public class ElevationAPI {
             xSpill = 1 + x - width;
         }
 
+        // Rows are counted from the north edge
         if (y < 0) {
-            hgtLat -= Hillshading.ShadingLatStep;
+            hgtLat += Hillshading.ShadingLatStep;
             ySpill = y;
         } else if (y >= height) {
-            hgtLat += Hillshading.ShadingLatStep;
+            hgtLat -= Hillshading.ShadingLatStep;
             ySpill = 1 + y - height;
         }
 
-        ElevationBitmap elevationBitmap = null;
+        final ElevationBitmap elevationBitmap;
 
         if (xSpill != 0 || ySpill != 0) {
-            try {
-                elevationBitmap = (ElevationBitmap) this.elevationCache.getHillshadingBitmap(hgtLat, hgtLon, 0, 0, 0, 0);
-            } catch (Exception ignored) {
-            }
-
-            if (elevationBitmap != null) {
-                elevationBitmapRef[0] = elevationBitmap;
-            }
+            // Neighboring file, the reference keeps the file of the point being interpolated
+            elevationBitmap = getElevationBitmap(hgtLat, hgtLon, null);
         } else {
-            elevationBitmap = elevationBitmapRef[0];
+            elevationBitmap = getElevationBitmap(hgtLat, hgtLon, elevationBitmapRef);
         }
 
         if (elevationBitmap != null) {
             width = elevationBitmap.width;
             height = elevationBitmap.height;
-            final byte[] buffer = elevationBitmap.buffer;
 
-            if (buffer != null) {
+            if (elevationBitmap.hasData()) {
                 if (xSpill < 0) {
                     x = xSpill + width;
                 } else if (xSpill > 0) {
@@ -357,30 +352,35 @@ public class ElevationAPI {
                     y = ySpill - 1;
                 }
 
-                retVal = getPoint(x, y, buffer, width);
+                retVal = elevationBitmap.getPoint(x, y);
             }
         }
 
         return retVal;
     }
 
-    protected short getPoint(final int x, final int y, final byte[] buffer, final int width) {
-        short retVal = INVALID_VALUE;
+    /**
+     * @param elevationBitmapRef Reference to the most recently used elevation data, reused if it covers the requested
+     *                           HGT file and updated otherwise, may be {@code null}.
+     * @return Elevation data of the HGT file whose south-west corner is at the given coordinates, or {@code null} if data is missing.
+     */
+    protected ElevationBitmap getElevationBitmap(int hgtLat, int hgtLon, final ElevationBitmap[] elevationBitmapRef) {
+        ElevationBitmap elevationBitmap = elevationBitmapRef == null ? null : elevationBitmapRef[0];
 
-        final int index = (x + width * y) * ElevationAlgorithm.OUTPUT_ELEMENT_SIZE;
+        if (elevationBitmap == null || false == elevationBitmap.covers(hgtLat, hgtLon)) {
+            elevationBitmap = null;
 
-        if (index < buffer.length - 1) {
-            retVal = getShortFromBytes(buffer, index);
-        }
-
-        return retVal;
-    }
+            try {
+                elevationBitmap = this.elevationCache.getElevationBitmap(hgtLat, hgtLon);
+            } catch (Exception ignored) {
+            }
 
-    protected short getShortFromBytes(final byte[] buffer, final int index) {
-        final int read1 = buffer[index];
-        final int read2 = buffer[index + 1];
+            if (elevationBitmap != null && elevationBitmapRef != null) {
+                elevationBitmapRef[0] = elevationBitmap;
+            }
+        }
 
-        return (short) ((read1 << 8) | (read2 & 0xff));
+        return elevationBitmap;
     }
 
     public static boolean isValid(double a) {
@@ -1,5 +1,6 @@
 /*
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -26,16 +27,46 @@ public class ElevationBitmap extends BaseBitmap implements HillshadingBitmap {
     public byte[] buffer;
     public int width;
     public int height;
+    public BoundingBox area;
 
-    // ***************************
-    // Methods below are not used.
-    // ***************************
+    /**
+     * @return Whether this is the data of the HGT file whose south-west corner is at the given coordinates.
+     */
+    public boolean covers(int hgtLat, int hgtLon) {
+        return area != null && area.minLatitude == hgtLat && area.minLongitude == hgtLon;
+    }
+
+    /**
+     * @return Whether elevation data is available.
+     */
+    public boolean hasData() {
+        return buffer != null;
+    }
+
+    /**
+     * @param x Column, counted from the west edge.
+     * @param y Row, counted from the north edge.
+     * @return Elevation in meters, or {@link ElevationAPI#INVALID_VALUE} if the point is outside of the data.
+     */
+    public short getPoint(int x, int y) {
+        final int index = (x + width * y) * ElevationAlgorithm.OUTPUT_ELEMENT_SIZE;
+
+        if (index >= 0 && index < buffer.length - 1) {
+            return (short) ((buffer[index] << 8) | (buffer[index + 1] & 0xff));
+        }
+
+        return ElevationAPI.INVALID_VALUE;
+    }
 
     @Override
     public BoundingBox getAreaRect() {
-        return null;
+        return area;
     }
 
+    // ***************************
+    // Methods below are not used.
+    // ***************************
+
     @Override
     public int getPadding() {
         return 0;
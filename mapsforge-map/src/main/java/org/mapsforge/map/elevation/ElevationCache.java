@@ -1,5 +1,6 @@
 /*
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -14,12 +15,108 @@
  */
 package org.mapsforge.map.elevation;
 
+import org.mapsforge.map.layer.hills.DemFileFS;
 import org.mapsforge.map.layer.hills.DemFolder;
 import org.mapsforge.map.layer.hills.HgtCache;
+import org.mapsforge.map.layer.hills.HgtFileInfo;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ElevationCache extends HgtCache {
+    private static final Logger LOGGER = Logger.getLogger(ElevationCache.class.getName());
+
+    /**
+     * Maximum number of memory-mapped HGT files, to bound the use of address space (about 25 MB per 1" HGT file).
+     * Mappings beyond that are released by the garbage collector once they are no longer referenced.
+     */
+    public static final int MappedFilesMaxCount = 64;
+
+    protected final boolean memoryMapping;
+    protected final Map<HgtFileInfo, MappedElevationBitmap> mappedFiles = new LinkedHashMap<HgtFileInfo, MappedElevationBitmap>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<HgtFileInfo, MappedElevationBitmap> eldest) {
+            return size() > MappedFilesMaxCount;
+        }
+    };
 
     public ElevationCache(DemFolder demFolder, int cacheMinCount, int cacheMaxCount, long cacheMaxBytes) {
+        this(demFolder, cacheMinCount, cacheMaxCount, cacheMaxBytes, false);
+    }
+
+    /**
+     * @param memoryMapping Whether uncompressed HGT files on the file system should be memory-mapped instead of converted.
+     */
+    public ElevationCache(DemFolder demFolder, int cacheMinCount, int cacheMaxCount, long cacheMaxBytes, boolean memoryMapping) {
         super(demFolder, new ElevationFactory(), 0, new ElevationAlgorithm(), cacheMinCount, cacheMaxCount, cacheMaxBytes);
+        this.memoryMapping = memoryMapping;
+    }
+
+    /**
+     * @return Elevation data of the HGT file whose south-west corner is at the given coordinates, or {@code null} if there is none.
+     * Uncompressed files are memory-mapped if enabled, other files are converted and cached.
+     */
+    public ElevationBitmap getElevationBitmap(int northInt, int eastInt) throws InterruptedException, ExecutionException {
+        if (memoryMapping) {
+            final HgtFileInfo hgtFileInfo = getHgtFileInfo(northInt, eastInt);
+
+            if (hgtFileInfo == null) {
+                return null;
+            }
+
+            if (hgtFileInfo.getFile() instanceof DemFileFS && hgtFileInfo.getAxisLen() > 0 && isFileNameHgt(hgtFileInfo.getFile().getName())) {
+                final ElevationBitmap output = getMappedElevationBitmap(hgtFileInfo);
+
+                if (output != null) {
+                    return output;
+                }
+            }
+        }
+
+        return (ElevationBitmap) getHillshadingBitmap(northInt, eastInt, 0, 0, 0, 0);
+    }
+
+    protected MappedElevationBitmap getMappedElevationBitmap(HgtFileInfo hgtFileInfo) {
+        MappedElevationBitmap output;
+
+        synchronized (mappedFiles) {
+            output = mappedFiles.get(hgtFileInfo);
+        }
+
+        if (output == null) {
+            try {
+                output = MappedElevationBitmap.map(((DemFileFS) hgtFileInfo.getFile()).getFile(), hgtFileInfo.getAxisLen(), hgtFileInfo);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "could not map " + hgtFileInfo.getFile().getName(), e);
+                return null;
+            }
+
+            synchronized (mappedFiles) {
+                final MappedElevationBitmap existing = mappedFiles.get(hgtFileInfo);
+
+                if (existing != null) {
+                    output = existing;
+                } else {
+                    mappedFiles.put(hgtFileInfo, output);
+                }
+            }
+        }
+
+        return output;
+    }
+
+    @Override
+    public void interruptAndDestroy() {
+        super.interruptAndDestroy();
+
+        synchronized (mappedFiles) {
+            mappedFiles.clear();
+        }
     }
 }
@@ -1,5 +1,6 @@
 /*
  * Copyright 2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -44,6 +45,7 @@ public class ElevationFactory implements GraphicFactory {
         elevationBitmap.buffer = buffer;
         elevationBitmap.width = width;
         elevationBitmap.height = height;
+        elevationBitmap.area = area;
 
         return elevationBitmap;
     }
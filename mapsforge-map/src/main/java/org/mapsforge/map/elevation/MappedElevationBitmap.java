@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.elevation;
+
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.util.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Elevation data sampled directly from a memory-mapped, uncompressed HGT file.
+ * <p>
+ * HGT files store big-endian {@code short} values row by row from north to south, with one more row and column than
+ * {@link #width} and {@link #height}, since the last row and column are shared with the neighboring files.
+ * Reading is thread-safe.
+ */
+public class MappedElevationBitmap extends ElevationBitmap {
+
+    protected final ShortBuffer data;
+    protected final int rowLength;
+
+    /**
+     * @param data    The elevation data, in the byte order of the HGT file.
+     * @param axisLen Number of unit elements along one side, one less than the number of values in a row.
+     * @param area    The area covered by the HGT file.
+     */
+    public MappedElevationBitmap(ShortBuffer data, int axisLen, BoundingBox area) {
+        this.data = data;
+        this.area = area;
+        this.rowLength = axisLen + 1;
+        this.width = axisLen;
+        this.height = axisLen;
+    }
+
+    /**
+     * Maps an uncompressed HGT file into memory. The mapping stays valid after this returns and is released when the
+     * returned object is garbage collected.
+     */
+    public static MappedElevationBitmap map(File file, int axisLen, BoundingBox area) throws IOException {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            final FileChannel channel = randomAccessFile.getChannel();
+            // ByteBuffer default order is big-endian, as in HGT files
+            return new MappedElevationBitmap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asShortBuffer(), axisLen, area);
+        } finally {
+            IOUtils.closeQuietly(randomAccessFile);
+        }
+    }
+
+    @Override
+    public boolean hasData() {
+        return true;
+    }
+
+    @Override
+    public short getPoint(int x, int y) {
+        if (x < 0 || y < 0 || x >= rowLength || y >= rowLength) {
+            return ElevationAPI.INVALID_VALUE;
+        }
+
+        return data.get(y * rowLength + x);
+    }
+}
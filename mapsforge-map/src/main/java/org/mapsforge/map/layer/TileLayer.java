@@ -4,6 +4,7 @@
  * Copyright 2015-2019 devemux86
  * Copyright 2019 cpt1gl0
  * Copyright 2019 mg4gh
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -36,6 +37,7 @@ import org.mapsforge.map.model.DisplayModel;
 import org.mapsforge.map.model.MapViewPosition;
 import org.mapsforge.map.util.LayerUtil;
 import org.mapsforge.map.util.MapPositionUtil;
+import org.mapsforge.map.util.RenderMetrics;
 
 import java.util.HashSet;
 import java.util.List;
@@ -51,6 +53,7 @@ public abstract class TileLayer<T extends Job> extends Layer {
     private final MapViewPosition mapViewPosition;
     private final Matrix matrix;
     private Parameters.ParentTilesRendering parentTilesRendering = Parameters.PARENT_TILES_RENDERING;
+    private volatile RenderMetrics renderMetrics;
 
     public TileLayer(TileCache tileCache, MapViewPosition mapViewPosition, Matrix matrix, boolean isTransparent) {
         this(tileCache, mapViewPosition, matrix, isTransparent, true);
@@ -103,6 +106,10 @@ public abstract class TileLayer<T extends Job> extends Layer {
             Tile tile = tilePosition.tile;
             T job = createJob(tile);
             TileBitmap bitmap = this.tileCache.getImmediately(job);
+            final RenderMetrics renderMetrics = this.renderMetrics;
+            if (renderMetrics != null) {
+                renderMetrics.onCacheLookup(bitmap != null);
+            }
 
             if (bitmap == null) {
                 if (this.hasJobQueue && !this.tileCache.containsKey(job)) {
@@ -189,6 +196,7 @@ public abstract class TileLayer<T extends Job> extends Layer {
         super.setDisplayModel(displayModel);
         if (displayModel != null && this.hasJobQueue) {
             this.jobQueue = new JobQueue<>(this.mapViewPosition, this.displayModel);
+            this.jobQueue.setRenderMetrics(this.renderMetrics);
         } else {
             this.jobQueue = null;
         }
@@ -305,6 +313,10 @@ public abstract class TileLayer<T extends Job> extends Layer {
         return getCachedParentTile(parentTile, level - 1);
     }
 
+    public RenderMetrics getRenderMetrics() {
+        return this.renderMetrics;
+    }
+
     public TileCache getTileCache() {
         return this.tileCache;
     }
@@ -313,6 +325,25 @@ public abstract class TileLayer<T extends Job> extends Layer {
         this.alpha = Math.max(0, Math.min(1, alpha));
     }
 
+    /**
+     * Sets the listener receiving the measurements of this layer: the tile cache lookups while drawing, the size of
+     * the job queue and the dropped jobs, the encoding of tiles by a {@link FileSystemTileCache} (also as second level
+     * of a {@link TwoLevelTileCache}) and, for rendering layers, the durations of the rendering stages.
+     *
+     * @param renderMetrics the listener, or null to disable the measurements.
+     */
+    public synchronized void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+        if (this.jobQueue != null) {
+            this.jobQueue.setRenderMetrics(renderMetrics);
+        }
+        TileCache fileSystemTileCache = this.tileCache instanceof TwoLevelTileCache
+                ? ((TwoLevelTileCache) this.tileCache).getSecondLevelTileCache() : this.tileCache;
+        if (fileSystemTileCache instanceof FileSystemTileCache) {
+            ((FileSystemTileCache) fileSystemTileCache).setRenderMetrics(renderMetrics);
+        }
+    }
+
     public void setParentTilesRendering(Parameters.ParentTilesRendering parentTilesRendering) {
         this.parentTilesRendering = parentTilesRendering;
     }
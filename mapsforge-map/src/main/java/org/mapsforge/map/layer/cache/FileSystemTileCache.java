@@ -3,6 +3,7 @@
  * Copyright 2014-2015 Ludwig M Brinckmann
  * Copyright 2014 mvglasow <michael -at- vonglasow.com>
  * Copyright 2014, 2015 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -24,6 +25,7 @@ import org.mapsforge.core.util.IOUtils;
 import org.mapsforge.map.layer.queue.Job;
 import org.mapsforge.map.model.common.Observable;
 import org.mapsforge.map.model.common.Observer;
+import org.mapsforge.map.util.RenderMetrics;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -31,8 +33,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -47,8 +58,9 @@ import java.util.logging.Logger;
  * {@link org.mapsforge.map.layer.labels.LabelLayer} (experimental) or disable persistence as described in
  * {@link #FileSystemTileCache(int, File, GraphicFactory, boolean)}.
  * <p/>
- * Note: previously the FileSystemTileCache utilized threading to speed up response times. This is not the
- * case anymore and the constructors have been removed.
+ * By default tiles are compressed and written on the thread calling {@link #put(Job, TileBitmap)}. In write-behind
+ * mode (see {@link #FileSystemTileCache(int, File, GraphicFactory, boolean, int, int)}) this is done by a small pool of
+ * writer threads instead, and tiles waiting to be written are served from memory.
  */
 public class FileSystemTileCache implements TileCache {
     static final String FILE_EXTENSION = ".tile";
@@ -149,11 +161,16 @@ public class FileSystemTileCache implements TileCache {
     }
 
     private final File cacheDirectory;
+    private volatile int generation;
     private final GraphicFactory graphicFactory;
     private FileWorkingSetCache<String> lruCache;
     private final ReentrantReadWriteLock lock;
     private final Observable observable;
+    private final Map<String, TileBitmap> pendingBitmaps;
+    private int pendingWrites;
     private final boolean persistent;
+    private volatile RenderMetrics renderMetrics;
+    private final ThreadPoolExecutor writeExecutor;
 
     /**
      * Compatibility constructor that creates a non-threaded, non-persistent FSTC.
@@ -184,6 +201,31 @@ public class FileSystemTileCache implements TileCache {
      * @throws IllegalArgumentException if the capacity is negative.
      */
     public FileSystemTileCache(int capacity, File cacheDirectory, GraphicFactory graphicFactory, boolean persistent) {
+        this(capacity, cacheDirectory, graphicFactory, persistent, 0, 0);
+    }
+
+    /**
+     * Creates a new FileSystemTileCache which compresses and writes tiles asynchronously.
+     * <p/>
+     * Tiles are handed over to {@code writerThreads} background threads through a queue holding at most
+     * {@code writeQueueSize} tiles. Until a tile has been written, it is served from memory. When the queue is full,
+     * the thread calling {@link #put(Job, TileBitmap)} writes the tile itself, which slows down producers to the rate
+     * the disk can sustain. A queue size of 0 hands each tile directly to an idle writer thread, without queueing
+     * it. {@link #destroy()} waits for all queued tiles of a persistent cache to be written.
+     *
+     * @param capacity       the maximum number of entries in this cache.
+     * @param cacheDirectory the directory where cached tiles will be stored.
+     * @param graphicFactory the graphicFactory implementation to use.
+     * @param persistent     if cache data will be kept between instances
+     * @param writerThreads  the number of writer threads, 0 to write tiles synchronously.
+     * @param writeQueueSize the maximum number of tiles waiting for a writer thread, 0 for a direct handoff.
+     * @throws IllegalArgumentException if the capacity, the number of writer threads or the queue size is negative.
+     */
+    public FileSystemTileCache(int capacity, File cacheDirectory, GraphicFactory graphicFactory, boolean persistent,
+                               int writerThreads, int writeQueueSize) {
+        if (writerThreads < 0 || writeQueueSize < 0) {
+            throw new IllegalArgumentException("invalid write-behind configuration: " + writerThreads + ", " + writeQueueSize);
+        }
         this.observable = new Observable();
         this.persistent = persistent;
         this.lruCache = new FileWorkingSetCache<>(capacity);
@@ -201,18 +243,47 @@ public class FileSystemTileCache implements TileCache {
             this.cacheDirectory = null;
         }
         this.graphicFactory = graphicFactory;
+        this.pendingBitmaps = new HashMap<>();
+        this.writeExecutor = writerThreads > 0 ? createWriteExecutor(writerThreads, writeQueueSize) : null;
+    }
+
+    private static ThreadPoolExecutor createWriteExecutor(int writerThreads, int writeQueueSize) {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "FileSystemTileCache-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        // a full queue or a shut down executor makes the caller write the tile itself
+        RejectedExecutionHandler callerRuns = new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                runnable.run();
+            }
+        };
+        BlockingQueue<Runnable> queue = writeQueueSize > 0 ? new ArrayBlockingQueue<Runnable>(writeQueueSize)
+                : new SynchronousQueue<Runnable>();
+        return new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                queue, threadFactory, callerRuns);
     }
 
     @Override
     public boolean containsKey(Job key) {
         try {
             lock.readLock().lock();
-            // if we are using a threaded cache we return true if the tile is still in the
-            // queue to reduce double rendering
-            return this.lruCache.containsKey(key.getKey());
+            if (this.lruCache.containsKey(key.getKey())) {
+                return true;
+            }
         } finally {
             lock.readLock().unlock();
         }
+        // if we are using a threaded cache we return true if the tile is still in the
+        // queue to reduce double rendering
+        synchronized (this.pendingBitmaps) {
+            return this.pendingBitmaps.containsKey(key.getKey());
+        }
     }
 
     /**
@@ -221,7 +292,7 @@ public class FileSystemTileCache implements TileCache {
      * Applications are expected to call this method when they no longer require the cache.
      * <p/>
      * If the cache is not persistent, calling this method is equivalent to calling {@link #purge()}. If the cache is
-     * persistent, it does nothing.
+     * persistent, it waits until all tiles queued in write-behind mode have been written.
      * <p/>
      * Beginning with 0.5.1, accessing the cache after calling {@code destroy()} is discouraged. In order to empty the
      * cache and force all tiles to be re-rendered or re-requested from the source, use {@link #purge()} instead.
@@ -230,12 +301,43 @@ public class FileSystemTileCache implements TileCache {
      */
     @Override
     public void destroy() {
+        if (this.writeExecutor != null) {
+            if (!this.persistent) {
+                // discard the queued tiles instead of writing them
+                purge();
+            }
+            flush();
+            this.writeExecutor.shutdown();
+        }
         if (!this.persistent)
             purge();
     }
 
+    /**
+     * Waits until all tiles queued in write-behind mode have been written to disk.
+     */
+    public void flush() {
+        synchronized (this.pendingBitmaps) {
+            while (this.pendingWrites > 0) {
+                try {
+                    this.pendingBitmaps.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
     @Override
     public TileBitmap get(Job key) {
+        synchronized (this.pendingBitmaps) {
+            TileBitmap pendingBitmap = this.pendingBitmaps.get(key.getKey());
+            if (pendingBitmap != null) {
+                pendingBitmap.incrementRefCount();
+                return pendingBitmap;
+            }
+        }
 
         File file;
         try {
@@ -313,10 +415,15 @@ public class FileSystemTileCache implements TileCache {
     public void purge() {
         try {
             this.lock.writeLock().lock();
+            // tiles queued before the purge are no longer added to the cache
+            ++this.generation;
             this.lruCache.clear();
         } finally {
             this.lock.writeLock().unlock();
         }
+        synchronized (this.pendingBitmaps) {
+            this.pendingBitmaps.clear();
+        }
 
         deleteDirectory(this.cacheDirectory);
     }
@@ -333,10 +440,23 @@ public class FileSystemTileCache implements TileCache {
             return;
         }
 
-        storeData(key, bitmap);
+        if (this.writeExecutor != null) {
+            storeDataAsync(key, bitmap);
+        } else {
+            storeData(key, bitmap, this.generation);
+        }
         this.observable.notifyObservers();
     }
 
+    /**
+     * Sets the listener receiving the duration of compressing every tile written to the file system.
+     *
+     * @param renderMetrics the listener, or null to disable the measurements.
+     */
+    public void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+    }
+
     @Override
     public void setWorkingSet(Set<Job> workingSet) {
         Set<String> workingSetInteger = new HashSet<String>();
@@ -381,22 +501,36 @@ public class FileSystemTileCache implements TileCache {
     /**
      * stores the bitmap data on disk with filename key
      *
-     * @param key    filename
-     * @param bitmap tile image
+     * @param key        filename
+     * @param bitmap     tile image
+     * @param generation the generation of the cache when the tile was added, a purge in between discards the tile
      */
-    private void storeData(Job key, TileBitmap bitmap) {
+    private void storeData(Job key, TileBitmap bitmap, int generation) {
         OutputStream outputStream = null;
         try {
+            if (generation != this.generation) {
+                return;
+            }
             File file = getOutputFile(key);
             if (file == null) {
                 // if the file cannot be written, silently return
                 return;
             }
             outputStream = new FileOutputStream(file);
+            final RenderMetrics renderMetrics = this.renderMetrics;
+            final long start = renderMetrics != null ? System.nanoTime() : 0;
             bitmap.compress(outputStream);
+            if (renderMetrics != null) {
+                renderMetrics.onStage(RenderMetrics.Stage.ENCODE, System.nanoTime() - start);
+            }
             try {
                 lock.writeLock().lock();
-                if (this.lruCache.put(key.getKey(), file) != null) {
+                if (generation != this.generation) {
+                    outputStream.close();
+                    if (!file.delete()) {
+                        LOGGER.severe("could not delete file: " + file);
+                    }
+                } else if (this.lruCache.put(key.getKey(), file) != null) {
                     LOGGER.warning("overwriting cached entry: " + key.getKey());
                 }
             } finally {
@@ -411,7 +545,9 @@ public class FileSystemTileCache implements TileCache {
             // most likely cause is that the disk is full, just disable the
             // cache otherwise
             // more and more exceptions will be thrown.
-            this.destroy();
+            if (!this.persistent) {
+                purge();
+            }
             try {
                 lock.writeLock().lock();
                 this.lruCache = new FileWorkingSetCache<String>(0);
@@ -424,4 +560,38 @@ public class FileSystemTileCache implements TileCache {
 
     }
 
+    /**
+     * Queues the bitmap to be stored on disk by a writer thread, it is served from memory until then.
+     *
+     * @param key    filename
+     * @param bitmap tile image
+     */
+    private void storeDataAsync(final Job key, final TileBitmap bitmap) {
+        final String cacheKey = key.getKey();
+        final int generation = this.generation;
+        bitmap.incrementRefCount();
+        synchronized (this.pendingBitmaps) {
+            this.pendingBitmaps.put(cacheKey, bitmap);
+            ++this.pendingWrites;
+        }
+
+        this.writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    storeData(key, bitmap, generation);
+                } finally {
+                    synchronized (FileSystemTileCache.this.pendingBitmaps) {
+                        if (FileSystemTileCache.this.pendingBitmaps.get(cacheKey) == bitmap) {
+                            FileSystemTileCache.this.pendingBitmaps.remove(cacheKey);
+                        }
+                        if (--FileSystemTileCache.this.pendingWrites == 0) {
+                            FileSystemTileCache.this.pendingBitmaps.notifyAll();
+                        }
+                    }
+                    bitmap.decrementRefCount();
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.cache;
+
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.map.layer.queue.Job;
+import org.mapsforge.map.model.common.Observable;
+import org.mapsforge.map.model.common.Observer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A thread-safe cache for tile images which is bounded by the memory used by the bitmaps instead of the number of
+ * tiles, so that layers with different tile sizes or transparency can share a budget.
+ * <p/>
+ * The cache is split into independently locked segments, each with an LRU order, so that threads only contend when
+ * they access tiles in the same segment. The budget is shared by all segments: when it is exceeded, the least
+ * recently used tile of the whole cache is evicted, skipping the tiles of the working set as long as there are other
+ * tiles. Bitmaps are reference counted like in {@link InMemoryTileCache}.
+ */
+public class MemoryBudgetTileCache implements TileCache {
+    private static final Logger LOGGER = Logger.getLogger(MemoryBudgetTileCache.class.getName());
+
+    /**
+     * The estimated size of a 256 pixel tile, used when no tiles have been cached yet.
+     */
+    private static final int DEFAULT_TILE_BYTES = 256 * 256 * 4;
+
+    /**
+     * Maximum number of independently locked segments.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * A cached bitmap together with its size and the time of its last access.
+     */
+    private static final class CacheEntry {
+        final TileBitmap bitmap;
+        final int bytes;
+        long lastAccess;
+
+        CacheEntry(TileBitmap bitmap, int bytes) {
+            this.bitmap = bitmap;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * An LRU map of tiles.
+     */
+    private static final class Segment {
+        final LinkedHashMap<Job, CacheEntry> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * @return the least recently used entry which is not in the given working set, or null.
+         */
+        Map.Entry<Job, CacheEntry> eldest(Set<Job> workingSet) {
+            for (Map.Entry<Job, CacheEntry> mapEntry : this.map.entrySet()) {
+                if (!workingSet.contains(mapEntry.getKey())) {
+                    return mapEntry;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long maxBytes;
+    private final Observable observable;
+    private final Segment[] segments;
+    private volatile Set<Job> workingSet = Collections.emptySet();
+
+    /**
+     * @param maxBytes the maximum number of bytes used by the cached bitmaps.
+     * @throws IllegalArgumentException if maxBytes is negative.
+     */
+    public MemoryBudgetTileCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        // a small cache is searched for the eldest tile in fewer segments
+        int numberOfSegments = (int) Math.max(1, Math.min(SEGMENTS, maxBytes / (4L * DEFAULT_TILE_BYTES)));
+        this.segments = new Segment[numberOfSegments];
+        for (int i = 0; i < numberOfSegments; ++i) {
+            this.segments[i] = new Segment();
+        }
+        this.observable = new Observable();
+        setMaxBytes(maxBytes);
+    }
+
+    @Override
+    public boolean containsKey(Job key) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            return segment.map.containsKey(key);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        purge();
+    }
+
+    @Override
+    public TileBitmap get(Job key) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            CacheEntry entry = segment.map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            entry.lastAccess = this.clock.incrementAndGet();
+            entry.bitmap.incrementRefCount();
+            return entry.bitmap;
+        }
+    }
+
+    /**
+     * @return the number of bytes used by the cached bitmaps.
+     */
+    public long getBytes() {
+        return this.bytes.get();
+    }
+
+    /**
+     * @return the approximate number of tiles fitting into this cache, based on the average size of the cached tiles.
+     */
+    @Override
+    public int getCapacity() {
+        int count = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                count += segment.map.size();
+            }
+        }
+        long bytes = this.bytes.get();
+        long tileBytes = count > 0 ? Math.max(1, bytes / count) : DEFAULT_TILE_BYTES;
+        return (int) Math.min(Integer.MAX_VALUE, getMaxBytes() / tileBytes);
+    }
+
+    @Override
+    public int getCapacityFirstLevel() {
+        return getCapacity();
+    }
+
+    @Override
+    public TileBitmap getImmediately(Job key) {
+        return get(key);
+    }
+
+    /**
+     * @return the maximum number of bytes used by the cached bitmaps.
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    @Override
+    public void purge() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                for (CacheEntry entry : segment.map.values()) {
+                    this.bytes.addAndGet(-entry.bytes);
+                    entry.bitmap.decrementRefCount();
+                }
+                segment.map.clear();
+            }
+        }
+    }
+
+    @Override
+    public void put(Job key, TileBitmap bitmap) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        } else if (bitmap == null) {
+            throw new IllegalArgumentException("bitmap must not be null");
+        }
+
+        CacheEntry entry = new CacheEntry(bitmap, getSizeInBytes(key, bitmap));
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            bitmap.incrementRefCount();
+            entry.lastAccess = this.clock.incrementAndGet();
+            CacheEntry old = segment.map.put(key, entry);
+            if (old != null) {
+                LOGGER.warning("overwriting cached entry: " + key);
+                this.bytes.addAndGet(-old.bytes);
+                old.bitmap.decrementRefCount();
+            }
+            this.bytes.addAndGet(entry.bytes);
+        }
+        trimToBudget();
+        this.observable.notifyObservers();
+    }
+
+    /**
+     * Sets the new budget of this cache. If the cached bitmaps use more memory than the new budget allows, tiles are
+     * discarded based on the cache policy.
+     *
+     * @param maxBytes the new maximum number of bytes used by the cached bitmaps.
+     * @throws IllegalArgumentException if maxBytes is negative.
+     */
+    public void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        trimToBudget();
+    }
+
+    /**
+     * Sets the working set, whose tiles are only evicted when the budget cannot be met by evicting other tiles.
+     */
+    @Override
+    public void setWorkingSet(Set<Job> jobs) {
+        Set<Job> workingSet;
+        synchronized (jobs) {
+            workingSet = new HashSet<>(jobs);
+        }
+        this.workingSet = workingSet;
+    }
+
+    @Override
+    public void addObserver(final Observer observer) {
+        this.observable.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(final Observer observer) {
+        this.observable.removeObserver(observer);
+    }
+
+    /**
+     * Estimates the memory used by a tile bitmap. The default assumes 4 bytes per pixel, which overestimates opaque
+     * tiles stored with 2 bytes per pixel on Android.
+     *
+     * @param key    the job of the tile.
+     * @param bitmap the tile bitmap.
+     * @return the size of the bitmap in bytes.
+     */
+    protected int getSizeInBytes(Job key, TileBitmap bitmap) {
+        return bitmap.getWidth() * bitmap.getHeight() * 4;
+    }
+
+    /**
+     * Evicts the least recently used tile of the whole cache.
+     *
+     * @param workingSet the tiles which must not be evicted.
+     * @return false if there is no tile to evict.
+     */
+    private boolean evictEldest(Set<Job> workingSet) {
+        Segment eldestSegment = null;
+        long eldestAccess = Long.MAX_VALUE;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                Map.Entry<Job, CacheEntry> mapEntry = segment.eldest(workingSet);
+                if (mapEntry != null && mapEntry.getValue().lastAccess < eldestAccess) {
+                    eldestAccess = mapEntry.getValue().lastAccess;
+                    eldestSegment = segment;
+                }
+            }
+        }
+        if (eldestSegment == null) {
+            return false;
+        }
+
+        synchronized (eldestSegment) {
+            // another thread may have trimmed the cache or used the tile in the meantime
+            Map.Entry<Job, CacheEntry> mapEntry = eldestSegment.eldest(workingSet);
+            if (mapEntry != null && this.bytes.get() > this.maxBytes) {
+                CacheEntry entry = mapEntry.getValue();
+                eldestSegment.map.remove(mapEntry.getKey());
+                this.bytes.addAndGet(-entry.bytes);
+                entry.bitmap.decrementRefCount();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evicts the least recently used tiles until the cache fits its budget, a tile larger than the whole budget is not
+     * kept either.
+     */
+    private void trimToBudget() {
+        while (this.bytes.get() > this.maxBytes) {
+            if (!evictEldest(this.workingSet) && !evictEldest(Collections.<Job>emptySet())) {
+                return;
+            }
+        }
+    }
+
+    private Segment getSegment(Job key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.segments[(hash & Integer.MAX_VALUE) % this.segments.length];
+    }
+}
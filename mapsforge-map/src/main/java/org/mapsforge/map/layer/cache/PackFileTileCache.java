@@ -0,0 +1,746 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.cache;
+
+import org.mapsforge.core.graphics.CorruptedInputStreamException;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.util.IOUtils;
+import org.mapsforge.core.util.WorkingSetCache;
+import org.mapsforge.map.layer.queue.Job;
+import org.mapsforge.map.model.common.Observable;
+import org.mapsforge.map.model.common.Observer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A thread-safe tile cache with a fixed size and LRU policy, which stores all tiles in a single append-only pack
+ * file instead of one file per tile.
+ * <p/>
+ * Each record in the pack file holds the tile key, the time it was stored and the compressed tile. The position of
+ * every live record is kept in memory and, for a persistent cache, written to an index file on {@link #destroy()},
+ * so that the next instance can load it with a single sequential read. Records appended after the index was written
+ * (e.g. after a crash) are recovered by scanning the tail of the pack file.
+ * <p/>
+ * Evicted and overwritten tiles leave dead records in the pack file. When they take up more space than the live
+ * tiles, the pack file is compacted on a background thread by copying the live records into a new pack file.
+ * Records never change once written, so the copy runs without blocking readers or writers, only the final
+ * replacement of the pack file takes the write lock.
+ * <p/>
+ * The cache follows the same contract as {@link FileSystemTileCache} and can be used as the second level of a
+ * {@link TwoLevelTileCache}.
+ */
+public class PackFileTileCache implements TileCache {
+    static final String INDEX_FILE = "tiles.idx";
+    static final String PACK_FILE = "tiles.pack";
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final int INDEX_MAGIC = 0x4d465449;
+    private static final int INDEX_VERSION = 1;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final Logger LOGGER = Logger.getLogger(PackFileTileCache.class.getName());
+
+    /**
+     * Dead records are only compacted once they take up at least this many bytes.
+     */
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    /**
+     * The size of a record header, excluding the key: key length, timestamp and data length.
+     */
+    private static final int RECORD_HEADER_SIZE = 2 + 8 + 4;
+
+    /**
+     * The position of a live record in the pack file.
+     */
+    private static final class PackEntry {
+        final int length;
+        final long offset;
+        final int recordLength;
+        final long timestamp;
+
+        PackEntry(long offset, int length, int recordLength, long timestamp) {
+            this.offset = offset;
+            this.length = length;
+            this.recordLength = recordLength;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * The in-memory index of the pack file in LRU order, which accounts for the space of evicted records.
+     */
+    private final class PackIndex extends WorkingSetCache<String, PackEntry> {
+        private static final long serialVersionUID = 1L;
+
+        PackIndex(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PackEntry> eldest) {
+            if (size() > this.capacity) {
+                PackFileTileCache.this.deadBytes += eldest.getValue().recordLength;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final File cacheDirectory;
+    private FileChannel channel;
+    private final ThreadPoolExecutor compactionExecutor;
+    private final Object compactionLock = new Object();
+    private boolean compactionScheduled;
+    private long deadBytes;
+    /**
+     * Incremented when the pack file is purged or closed, which invalidates a running compaction.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+    private final GraphicFactory graphicFactory;
+    private final PackIndex index;
+    private final ReentrantReadWriteLock lock;
+    private final Observable observable;
+    private long packLength;
+    private RandomAccessFile packFile;
+    private final boolean persistent;
+
+    /**
+     * Creates a new PackFileTileCache.
+     * <p/>
+     * A persistent cache serves the tiles stored in {@code cacheDirectory} by previous instances and keeps them on
+     * {@link #destroy()}. A non-persistent cache starts empty and deletes its files on {@link #destroy()}.
+     *
+     * @param capacity       the maximum number of entries in this cache.
+     * @param cacheDirectory the directory where the pack and index files will be stored.
+     * @param graphicFactory the graphicFactory implementation to use.
+     * @param persistent     if cache data will be kept between instances
+     * @throws IllegalArgumentException if the capacity is negative or the cache directory cannot be used.
+     */
+    public PackFileTileCache(int capacity, File cacheDirectory, GraphicFactory graphicFactory, boolean persistent) {
+        if (cacheDirectory == null || (!cacheDirectory.exists() && !cacheDirectory.mkdirs())
+                || !cacheDirectory.isDirectory() || !cacheDirectory.canWrite()) {
+            throw new IllegalArgumentException("invalid cache directory: " + cacheDirectory);
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.graphicFactory = graphicFactory;
+        this.index = new PackIndex(capacity);
+        this.lock = new ReentrantReadWriteLock();
+        this.observable = new Observable();
+        this.persistent = persistent;
+        this.compactionExecutor = createCompactionExecutor();
+
+        try {
+            if (!this.persistent) {
+                deleteFiles();
+            }
+            openPackFile();
+            if (this.persistent) {
+                load();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot open cache: " + cacheDirectory, e);
+        }
+    }
+
+    private static ThreadPoolExecutor createCompactionExecutor() {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PackFileTileCache-compaction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public boolean containsKey(Job key) {
+        synchronized (this.index) {
+            return this.index.containsKey(key.getKey());
+        }
+    }
+
+    /**
+     * Destroys this cache.
+     * <p/>
+     * A persistent cache writes its index and closes the pack file, a non-persistent cache deletes its files.
+     * A running compaction is abandoned.
+     */
+    @Override
+    public void destroy() {
+        this.compactionExecutor.shutdown();
+        this.generation.incrementAndGet();
+        // the compaction stops copying once it sees the new generation
+        synchronized (this.compactionLock) {
+            this.lock.writeLock().lock();
+            try {
+                if (this.channel == null) {
+                    return;
+                }
+                if (this.persistent) {
+                    writeIndex();
+                }
+                IOUtils.closeQuietly(this.packFile);
+                this.channel = null;
+                this.packFile = null;
+                if (!this.persistent) {
+                    deleteFiles();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public TileBitmap get(Job key) {
+        byte[] data;
+        PackEntry entry;
+        this.lock.readLock().lock();
+        try {
+            synchronized (this.index) {
+                entry = this.index.get(key.getKey());
+            }
+            if (entry == null || this.channel == null) {
+                return null;
+            }
+            data = new byte[entry.length];
+            readFully(this.channel, ByteBuffer.wrap(data), entry.offset);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            return null;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        try {
+            TileBitmap result = this.graphicFactory.createTileBitmap(new ByteArrayInputStream(data), key.tile.tileSize, key.hasAlpha);
+            result.setTimestamp(entry.timestamp);
+            return result;
+        } catch (CorruptedInputStreamException e) {
+            // returning null ensures the tile will be loaded from another source
+            remove(key.getKey(), entry);
+            LOGGER.log(Level.WARNING, "invalid tile in pack file " + key.getKey(), e);
+            return null;
+        } catch (IOException e) {
+            remove(key.getKey(), entry);
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.index.capacity;
+    }
+
+    @Override
+    public int getCapacityFirstLevel() {
+        return getCapacity();
+    }
+
+    @Override
+    public TileBitmap getImmediately(Job key) {
+        return get(key);
+    }
+
+    /**
+     * Whether the cache is persistent.
+     */
+    public boolean isPersistent() {
+        return this.persistent;
+    }
+
+    /**
+     * Purges this cache.
+     * <p/>
+     * Calls to {@link #get(Job)} issued after purging will not return any tiles added before the purge operation.
+     * Purging also truncates the pack file, freeing up disk space.
+     */
+    @Override
+    public void purge() {
+        this.lock.writeLock().lock();
+        try {
+            this.generation.incrementAndGet();
+            synchronized (this.index) {
+                this.index.clear();
+                this.deadBytes = 0;
+            }
+            this.packLength = 0;
+            if (this.channel != null) {
+                this.channel.truncate(0);
+            }
+            File indexFile = new File(this.cacheDirectory, INDEX_FILE);
+            if (indexFile.exists() && !indexFile.delete()) {
+                LOGGER.severe("could not delete file: " + indexFile);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Job key, TileBitmap bitmap) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        } else if (bitmap == null) {
+            throw new IllegalArgumentException("bitmap must not be null");
+        }
+
+        if (getCapacity() == 0) {
+            return;
+        }
+
+        boolean compactionNeeded = false;
+        try {
+            // the tile is compressed before taking the lock, so readers are not blocked by it
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            bitmap.compress(outputStream);
+            byte[] data = outputStream.toByteArray();
+            byte[] keyBytes = key.getKey().getBytes(CHARSET);
+            long timestamp = System.currentTimeMillis();
+
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + data.length);
+            record.putShort((short) keyBytes.length);
+            record.put(keyBytes);
+            record.putLong(timestamp);
+            record.putInt(data.length);
+            record.put(data);
+            record.flip();
+
+            this.lock.writeLock().lock();
+            try {
+                if (this.channel == null) {
+                    return;
+                }
+                long recordOffset = this.packLength;
+                writeFully(this.channel, record, recordOffset);
+                this.packLength += record.capacity();
+                PackEntry entry = new PackEntry(recordOffset + RECORD_HEADER_SIZE + keyBytes.length, data.length,
+                        record.capacity(), timestamp);
+                synchronized (this.index) {
+                    PackEntry previous = this.index.put(key.getKey(), entry);
+                    if (previous != null) {
+                        this.deadBytes += previous.recordLength;
+                    }
+                    compactionNeeded = !this.compactionScheduled && this.deadBytes >= MIN_COMPACTION_BYTES
+                            && this.deadBytes > this.packLength - this.deadBytes;
+                    if (compactionNeeded) {
+                        this.compactionScheduled = true;
+                    }
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "cannot store tile " + key.getKey(), e);
+        }
+        if (compactionNeeded) {
+            scheduleCompaction();
+        }
+        this.observable.notifyObservers();
+    }
+
+    @Override
+    public void setWorkingSet(Set<Job> workingSet) {
+        Set<String> workingSetKeys = new HashSet<>();
+        synchronized (workingSet) {
+            for (Job job : workingSet) {
+                workingSetKeys.add(job.getKey());
+            }
+        }
+        synchronized (this.index) {
+            this.index.setWorkingSet(workingSetKeys);
+        }
+    }
+
+    @Override
+    public void addObserver(final Observer observer) {
+        this.observable.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(final Observer observer) {
+        this.observable.removeObserver(observer);
+    }
+
+    /**
+     * Copies all live records into a new pack file in LRU order and replaces the old pack file with it.
+     * <p/>
+     * The live records are copied without holding the lock. Records appended in the meantime are moved to the end of
+     * the new pack file, while holding the write lock, when the pack file is replaced. The compaction is abandoned if
+     * the cache is purged or destroyed while copying.
+     */
+    void compact() throws IOException {
+        synchronized (this.compactionLock) {
+            FileChannel source;
+            long sourceLength;
+            int startGeneration;
+            List<String> keys;
+            List<PackEntry> entries;
+            this.lock.readLock().lock();
+            try {
+                if (this.channel == null) {
+                    return;
+                }
+                source = this.channel;
+                sourceLength = this.packLength;
+                startGeneration = this.generation.get();
+                synchronized (this.index) {
+                    keys = new ArrayList<>(this.index.keySet());
+                    entries = new ArrayList<>(this.index.values());
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+
+            File compactedFile = new File(this.cacheDirectory, PACK_FILE + ".tmp");
+            RandomAccessFile compactedPackFile = new RandomAccessFile(compactedFile, "rw");
+            try {
+                compactedPackFile.setLength(0);
+                FileChannel compactedChannel = compactedPackFile.getChannel();
+                Map<PackEntry, PackEntry> compactedEntries = new IdentityHashMap<>();
+                long position = 0;
+                try {
+                    for (PackEntry entry : entries) {
+                        if (this.generation.get() != startGeneration) {
+                            break;
+                        }
+                        int headerLength = entry.recordLength - entry.length;
+                        ByteBuffer record = ByteBuffer.allocate(entry.recordLength);
+                        readFully(source, record, entry.offset - headerLength);
+                        record.flip();
+                        writeFully(compactedChannel, record, position);
+                        compactedEntries.put(entry, new PackEntry(position + headerLength, entry.length,
+                                entry.recordLength, entry.timestamp));
+                        position += entry.recordLength;
+                    }
+                } catch (IOException e) {
+                    // a purge truncates and a destroy closes the pack file while copying
+                    if (this.generation.get() == startGeneration) {
+                        throw e;
+                    }
+                }
+
+                this.lock.writeLock().lock();
+                try {
+                    if (this.generation.get() != startGeneration || this.channel != source) {
+                        return;
+                    }
+                    replacePackFile(compactedPackFile, compactedEntries, position, sourceLength);
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            } finally {
+                IOUtils.closeQuietly(compactedPackFile);
+                if (compactedFile.exists() && !compactedFile.delete()) {
+                    LOGGER.severe("could not delete file: " + compactedFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the size of the pack file in bytes.
+     */
+    long getPackLength() {
+        this.lock.readLock().lock();
+        try {
+            return this.packLength;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void deleteFiles() {
+        for (String name : new String[]{PACK_FILE, INDEX_FILE, PACK_FILE + ".tmp"}) {
+            File file = new File(this.cacheDirectory, name);
+            if (file.exists() && !file.delete()) {
+                LOGGER.severe("could not delete file: " + file);
+            }
+        }
+    }
+
+    /**
+     * Loads the index file, if there is a valid one, and scans the part of the pack file it does not cover.
+     */
+    private void load() throws IOException {
+        long scanOffset = 0;
+        File indexFile = new File(this.cacheDirectory, INDEX_FILE);
+        if (indexFile.isFile()) {
+            DataInputStream inputStream = null;
+            try {
+                inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+                if (inputStream.readInt() != INDEX_MAGIC || inputStream.readInt() != INDEX_VERSION) {
+                    throw new IOException("invalid index file: " + indexFile);
+                }
+                long indexedLength = inputStream.readLong();
+                long indexedDeadBytes = inputStream.readLong();
+                int count = inputStream.readInt();
+                if (indexedLength > this.packLength) {
+                    throw new IOException("index file does not match pack file: " + indexFile);
+                }
+                for (int i = 0; i < count; ++i) {
+                    String key = inputStream.readUTF();
+                    long offset = inputStream.readLong();
+                    int length = inputStream.readInt();
+                    int recordLength = inputStream.readInt();
+                    long timestamp = inputStream.readLong();
+                    this.index.put(key, new PackEntry(offset, length, recordLength, timestamp));
+                }
+                this.deadBytes += indexedDeadBytes;
+                scanOffset = indexedLength;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "rebuilding index from pack file", e);
+                this.index.clear();
+                this.deadBytes = 0;
+                scanOffset = 0;
+            } finally {
+                IOUtils.closeQuietly(inputStream);
+            }
+        }
+        scan(scanOffset);
+    }
+
+    private void openPackFile() throws IOException {
+        this.packFile = new RandomAccessFile(new File(this.cacheDirectory, PACK_FILE), "rw");
+        this.channel = this.packFile.getChannel();
+        this.packLength = this.channel.size();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void remove(String key, PackEntry entry) {
+        synchronized (this.index) {
+            if (this.index.get(key) == entry) {
+                this.index.remove(key);
+                this.deadBytes += entry.recordLength;
+            }
+        }
+    }
+
+    /**
+     * Adds the records from the given offset to the end of the pack file to the index. A partially written record at
+     * the end of the pack file is cut off.
+     */
+    private void scan(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2);
+        while (offset < this.packLength) {
+            header.clear();
+            try {
+                readFully(this.channel, header, offset);
+                int keyLength = header.getShort(0) & 0xffff;
+                ByteBuffer keyAndData = ByteBuffer.allocate(keyLength + 8 + 4);
+                readFully(this.channel, keyAndData, offset + 2);
+                String key = new String(keyAndData.array(), 0, keyLength, CHARSET);
+                long timestamp = keyAndData.getLong(keyLength);
+                int length = keyAndData.getInt(keyLength + 8);
+                int recordLength = RECORD_HEADER_SIZE + keyLength + length;
+                if (length < 0 || offset + recordLength > this.packLength) {
+                    throw new EOFException();
+                }
+                PackEntry previous = this.index.put(key, new PackEntry(offset + recordLength - length, length, recordLength, timestamp));
+                if (previous != null) {
+                    this.deadBytes += previous.recordLength;
+                }
+                offset += recordLength;
+            } catch (EOFException e) {
+                LOGGER.warning("truncating incomplete record in pack file at " + offset);
+                this.channel.truncate(offset);
+                this.packLength = offset;
+            }
+        }
+    }
+
+    /**
+     * Moves the records appended after {@code sourceLength} to the end of the compacted pack file and replaces the
+     * pack file with it. Must be called while holding the write lock.
+     */
+    private void replacePackFile(RandomAccessFile compactedPackFile, Map<PackEntry, PackEntry> compactedEntries,
+                                 long compactedLength, long sourceLength) throws IOException {
+        FileChannel compactedChannel = compactedPackFile.getChannel();
+        long tailOffset = compactedLength - sourceLength;
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        for (long offset = sourceLength; offset < this.packLength; offset += buffer.capacity()) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), this.packLength - offset));
+            readFully(this.channel, buffer, offset);
+            buffer.flip();
+            writeFully(compactedChannel, buffer, offset + tailOffset);
+        }
+        compactedChannel.force(false);
+        IOUtils.closeQuietly(compactedPackFile);
+
+        // the index file describes the old pack file, after a crash the new one has to be scanned instead
+        File indexFile = new File(this.cacheDirectory, INDEX_FILE);
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("cannot delete index file: " + indexFile);
+        }
+
+        File packFile = new File(this.cacheDirectory, PACK_FILE);
+        File compactedFile = new File(this.cacheDirectory, PACK_FILE + ".tmp");
+        IOUtils.closeQuietly(this.packFile);
+        boolean deleted = !packFile.exists() || packFile.delete();
+        if (!deleted || !compactedFile.renameTo(packFile)) {
+            if (deleted) {
+                // the old records are gone, continue with an empty pack file
+                synchronized (this.index) {
+                    this.index.clear();
+                    this.deadBytes = 0;
+                }
+            }
+            try {
+                openPackFile();
+            } catch (IOException e) {
+                // without a pack file the cache stays closed
+                this.channel = null;
+                this.packFile = null;
+                synchronized (this.index) {
+                    this.index.clear();
+                }
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+            throw new IOException("cannot replace pack file: " + packFile);
+        }
+        openPackFile();
+
+        // entries which have been removed or replaced while copying stay dead, setting the values keeps the LRU order
+        synchronized (this.index) {
+            long liveBytes = 0;
+            for (Map.Entry<String, PackEntry> mapEntry : this.index.entrySet()) {
+                PackEntry entry = mapEntry.getValue();
+                PackEntry compactedEntry = compactedEntries.get(entry);
+                if (compactedEntry == null) {
+                    // appended while copying
+                    compactedEntry = new PackEntry(entry.offset + tailOffset, entry.length, entry.recordLength,
+                            entry.timestamp);
+                }
+                mapEntry.setValue(compactedEntry);
+                liveBytes += compactedEntry.recordLength;
+            }
+            this.deadBytes = this.packLength - liveBytes;
+        }
+        if (this.persistent) {
+            writeIndex();
+        }
+    }
+
+    private void scheduleCompaction() {
+        try {
+            this.compactionExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compact();
+                    } catch (IOException e) {
+                        LOGGER.log(Level.SEVERE, e.toString(), e);
+                    } finally {
+                        synchronized (PackFileTileCache.this.index) {
+                            PackFileTileCache.this.compactionScheduled = false;
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the cache has been destroyed
+            synchronized (this.index) {
+                this.compactionScheduled = false;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Writes the index in LRU order to a temporary file and replaces the index file with it.
+     */
+    private void writeIndex() throws IOException {
+        File indexFile = new File(this.cacheDirectory, INDEX_FILE);
+        File tmpFile = new File(this.cacheDirectory, INDEX_FILE + ".tmp");
+        this.channel.force(false);
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try {
+            outputStream.writeInt(INDEX_MAGIC);
+            outputStream.writeInt(INDEX_VERSION);
+            outputStream.writeLong(this.packLength);
+            synchronized (this.index) {
+                outputStream.writeLong(this.deadBytes);
+                outputStream.writeInt(this.index.size());
+                for (Map.Entry<String, PackEntry> mapEntry : this.index.entrySet()) {
+                    PackEntry entry = mapEntry.getValue();
+                    outputStream.writeUTF(mapEntry.getKey());
+                    outputStream.writeLong(entry.offset);
+                    outputStream.writeInt(entry.length);
+                    outputStream.writeInt(entry.recordLength);
+                    outputStream.writeLong(entry.timestamp);
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+        }
+        if ((indexFile.exists() && !indexFile.delete()) || !tmpFile.renameTo(indexFile)) {
+            throw new IOException("cannot replace index file: " + indexFile);
+        }
+    }
+}
@@ -3,6 +3,7 @@
  * Copyright 2014 Ludwig M Brinckmann
  * Copyright 2019 mg4gh
  * Copyright 2022 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -26,8 +27,10 @@ import org.mapsforge.map.model.common.Observer;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -35,12 +38,16 @@ import java.util.logging.Logger;
  * A "tilecache" storing map tiles that is prepopulated and never removes any files.
  * This tile store uses the standard TMS directory layout of zoomlevel/y/x . To support
  * a different directory structure override the findFile method.
+ * <p/>
+ * A writable tile store additionally saves every tile that is put into it, e.g. by the {@code TileSeeder} when
+ * pre-rendering a region. Existing tiles are replaced, but tiles are never removed.
  */
 public class TileStore implements TileCache {
 
     private final File rootDirectory;
     private final GraphicFactory graphicFactory;
     private final String suffix;
+    private final boolean writable;
 
     private static final Logger LOGGER = Logger.getLogger(TileStore.class.getName());
 
@@ -51,12 +58,32 @@ public class TileStore implements TileCache {
      * @throws IllegalArgumentException if the root directory cannot be a tile store
      */
     public TileStore(File rootDirectory, String suffix, GraphicFactory graphicFactory) {
+        this(rootDirectory, suffix, graphicFactory, false);
+    }
+
+    /**
+     * @param rootDirectory  the directory where cached tiles will be stored, created if it does not exist and the
+     *                       store is writable.
+     * @param suffix         the suffix for stored tiles, must match the format written by the graphic factory
+     *                       (e.g. ".png") if the store is writable.
+     * @param graphicFactory the mapsforge graphic factory to create tile data instances.
+     * @param writable       true if tiles put into this store should be saved.
+     * @throws IllegalArgumentException if the root directory cannot be a tile store
+     */
+    public TileStore(File rootDirectory, String suffix, GraphicFactory graphicFactory, boolean writable) {
         this.rootDirectory = rootDirectory;
         this.graphicFactory = graphicFactory;
         this.suffix = suffix;
+        this.writable = writable;
+        if (writable && this.rootDirectory != null && !this.rootDirectory.exists()) {
+            this.rootDirectory.mkdirs();
+        }
         if (this.rootDirectory == null || !this.rootDirectory.isDirectory() || !this.rootDirectory.canRead()) {
             throw new IllegalArgumentException("Root directory must be readable");
         }
+        if (writable && !this.rootDirectory.canWrite()) {
+            throw new IllegalArgumentException("Root directory must be writable");
+        }
     }
 
     @Override
@@ -117,9 +144,37 @@ public class TileStore implements TileCache {
         // no-op
     }
 
+    /**
+     * Saves the tile if this store is writable. The tile is written to a temporary file first, so that readers never
+     * see a partially written tile. Not synchronized, as tiles are written to distinct files.
+     */
     @Override
-    public synchronized void put(Job key, TileBitmap bitmap) {
-        // no-op
+    public void put(Job key, TileBitmap bitmap) {
+        if (!this.writable) {
+            return;
+        }
+        File directory = new File(new File(this.rootDirectory, Byte.toString(key.tile.zoomLevel)), Long.toString(key.tile.tileX));
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            LOGGER.warning("Failed to create directory " + directory.getAbsolutePath());
+            return;
+        }
+        File file = new File(directory, Long.toString(key.tile.tileY) + this.suffix);
+        File tmpFile = new File(directory, Long.toString(key.tile.tileY) + this.suffix + ".tmp" + Thread.currentThread().getId());
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tmpFile);
+            bitmap.compress(outputStream);
+            outputStream.close();
+            outputStream = null;
+            if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+                LOGGER.warning("Failed to write file " + file.getAbsolutePath());
+                tmpFile.delete();
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write file " + file.getAbsolutePath() + ": " + e.getMessage());
+            IOUtils.closeQuietly(outputStream);
+            tmpFile.delete();
+        }
     }
 
     protected File findFile(Job key) {
@@ -1,6 +1,7 @@
 /*
  * Copyright 2022 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -42,6 +43,14 @@ public interface DemFile {
      */
     long getSize();
 
+    /**
+     * @return Time of the last modification in milliseconds since the epoch, or 0 if unknown.
+     * The default implementation returns 0, a file is then identified by its name and size only.
+     */
+    default long getLastModified() {
+        return 0;
+    }
+
     /**
      * @param bufferSize Buffered input stream buffer size, can be useful to optimize I/O read performance
      * @return Buffered stream.
@@ -1,6 +1,7 @@
 /*
  * Copyright 2022 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -29,6 +30,10 @@ public class DemFileFS implements DemFile {
         this.file = file;
     }
 
+    public File getFile() {
+        return file;
+    }
+
     @Override
     public String getName() {
         return file.getName();
@@ -39,6 +44,11 @@ public class DemFileFS implements DemFile {
         return file.length();
     }
 
+    @Override
+    public long getLastModified() {
+        return file.lastModified();
+    }
+
     @Override
     public InputStream openInputStream(int bufferSize) throws IOException {
         return new BufferedInputStream(rawStream(), bufferSize);
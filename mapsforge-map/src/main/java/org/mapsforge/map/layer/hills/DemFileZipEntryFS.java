@@ -1,5 +1,6 @@
 /*
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -43,6 +44,11 @@ public class DemFileZipEntryFS implements DemFile {
         return zipEntrySize;
     }
 
+    @Override
+    public long getLastModified() {
+        return zipFile.lastModified();
+    }
+
     @Override
     public InputStream openInputStream(int bufferSize) throws IOException {
         InputStream output = null;
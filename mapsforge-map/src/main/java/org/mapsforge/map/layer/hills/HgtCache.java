@@ -2,6 +2,7 @@
  * Copyright 2017-2022 usrusr
  * Copyright 2019 devemux86
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -64,6 +65,7 @@ public class HgtCache {
 
     protected final GraphicFactory graphicsFactory;
     protected final Lru lruCache;
+    protected final HgtDiskCache diskCache;
     protected final LazyFuture<Map<TileKey, HgtFileInfo>> hgtFiles;
     protected final BlockingSumLimiter blockingSumLimiter = new BlockingSumLimiter();
 
@@ -72,7 +74,15 @@ public class HgtCache {
     protected final AtomicReference<HillShadingThreadPool> ThreadPool = new AtomicReference<>(null);
 
     public HgtCache(DemFolder demFolder, GraphicFactory graphicsFactory, int padding, ShadingAlgorithm algorithm, int cacheMinCount, int cacheMaxCount, long cacheMaxBytes) {
+        this(demFolder, graphicsFactory, padding, algorithm, cacheMinCount, cacheMaxCount, cacheMaxBytes, null);
+    }
+
+    /**
+     * @param diskCache Optional persistent cache for the computed shading, may be null.
+     */
+    public HgtCache(DemFolder demFolder, GraphicFactory graphicsFactory, int padding, ShadingAlgorithm algorithm, int cacheMinCount, int cacheMaxCount, long cacheMaxBytes, HgtDiskCache diskCache) {
         this.demFolder = demFolder;
+        this.diskCache = diskCache;
         this.graphicsFactory = graphicsFactory;
         this.shadingAlgorithm = algorithm;
         this.padding = padding;
@@ -194,6 +204,13 @@ public class HgtCache {
         return output;
     }
 
+    /**
+     * @return The HGT file whose south-west corner is at the given coordinates, or {@code null} if there is none.
+     */
+    protected HgtFileInfo getHgtFileInfo(int northInt, int eastInt) throws InterruptedException, ExecutionException {
+        return hgtFiles.get().get(new TileKey(northInt, eastInt));
+    }
+
     /**
      * @return Whether the zoom level is supported on the lat/lon coordinates.
      */
@@ -377,7 +394,17 @@ public class HgtCache {
         public HillshadingBitmap calculate() {
             HillshadingBitmap output = null;
 
-            final ShadingAlgorithm.RawShadingResult raw = shadingAlgorithm.transformToByteBuffer(this.hgtFileInfo, this.padding, this.zoomLevel, this.pxPerLat, this.pxPerLon);
+            ShadingAlgorithm.RawShadingResult raw = null;
+            if (diskCache != null) {
+                raw = diskCache.get(this.hgtFileInfo, shadingAlgorithm, getCacheTag());
+            }
+            if (raw == null) {
+                raw = shadingAlgorithm.transformToByteBuffer(this.hgtFileInfo, this.padding, this.zoomLevel, this.pxPerLat, this.pxPerLon);
+
+                if (raw != null && diskCache != null) {
+                    diskCache.put(this.hgtFileInfo, shadingAlgorithm, getCacheTag(), raw);
+                }
+            }
 
             if (raw != null) {
                 output = graphicsFactory.createMonoBitmap(raw.width, raw.height, raw.bytes, raw.padding, this.hgtFileInfo, this.color);
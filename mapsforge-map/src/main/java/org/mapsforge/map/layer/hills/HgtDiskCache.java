@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.hills;
+
+import org.mapsforge.core.util.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache for the output of {@link ShadingAlgorithm#transformToByteBuffer}, so that the shading of an HGT file
+ * is computed only once across evictions from the {@link HgtCache} memory cache and across restarts.
+ * <p>
+ * An entry is identified by the DEM file (name, size and last modification time), the shading algorithm and the
+ * {@link ShadingAlgorithm#getCacheTag cache tag}. Entries of a DEM file that has changed are recomputed and replaced.
+ * A last modification time of 0 means it is unknown, such a DEM file is identified by its name and size only.
+ * The algorithm is identified by its class and {@link Object#hashCode()}, so only algorithms that implement
+ * {@code hashCode} consistently across runs (like the ones in this package) benefit from the cache; other entries
+ * are simply evicted over time.
+ * <p>
+ * When the total size of the cache exceeds its limit, the least recently used files are deleted.
+ * The cache directory should not be shared with other data.
+ */
+public class HgtDiskCache {
+    private static final Logger LOGGER = Logger.getLogger(HgtDiskCache.class.getName());
+
+    static final String FILE_EXTENSION = ".shading";
+    private static final int MAGIC = 0x4d534843; // "MSHC"
+    private static final String TMP_EXTENSION = ".tmp";
+    private static final int VERSION = 1;
+
+    private final File directory;
+    private final long maxBytes;
+    private long sizeBytes = -1;
+
+    /**
+     * @param directory the directory for the cache files, created if it does not exist.
+     * @param maxBytes  the maximum total size of the cache files.
+     * @throws IllegalArgumentException if the directory cannot be created or is not writable, or if maxBytes is
+     *                                  negative.
+     */
+    public HgtDiskCache(File directory, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("could not create directory: " + directory);
+        } else if (!directory.isDirectory() || !directory.canWrite()) {
+            throw new IllegalArgumentException("not a writable directory: " + directory);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached shading, or null if there is no valid entry.
+     */
+    public ShadingAlgorithm.RawShadingResult get(HgtFileInfo hgtFileInfo, ShadingAlgorithm algorithm, long cacheTag) {
+        final File file = getFile(hgtFileInfo, algorithm, cacheTag);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION
+                    || !hgtFileInfo.getFile().getName().equals(inputStream.readUTF())
+                    || inputStream.readLong() != hgtFileInfo.getFile().getSize()
+                    || !isSameLastModified(inputStream.readLong(), hgtFileInfo.getFile().getLastModified())
+                    || inputStream.readLong() != getAlgorithmKey(algorithm)
+                    || inputStream.readLong() != cacheTag) {
+                // outdated entry, replaced by the next put
+                return null;
+            }
+            final int width = inputStream.readInt();
+            final int height = inputStream.readInt();
+            final int padding = inputStream.readInt();
+            final byte[] bytes = new byte[inputStream.readInt()];
+            inputStream.readFully(bytes);
+
+            // least recently used files are deleted first
+            file.setLastModified(System.currentTimeMillis());
+            return new ShadingAlgorithm.RawShadingResult(bytes, width, height, padding);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "could not read " + file, e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * @return the total size of the cache files.
+     */
+    public synchronized long getSizeBytes() {
+        if (this.sizeBytes < 0) {
+            this.sizeBytes = 0;
+            for (File file : listFiles()) {
+                this.sizeBytes += file.length();
+            }
+        }
+        return this.sizeBytes;
+    }
+
+    /**
+     * Stores the shading of an HGT file, replacing an existing entry. Entries larger than the cache are not stored.
+     */
+    public void put(HgtFileInfo hgtFileInfo, ShadingAlgorithm algorithm, long cacheTag, ShadingAlgorithm.RawShadingResult raw) {
+        final File file = getFile(hgtFileInfo, algorithm, cacheTag);
+        if (raw.bytes.length > this.maxBytes) {
+            return;
+        }
+
+        final File tmpFile = new File(file.getPath() + TMP_EXTENSION + Thread.currentThread().getId());
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeUTF(hgtFileInfo.getFile().getName());
+            outputStream.writeLong(hgtFileInfo.getFile().getSize());
+            outputStream.writeLong(hgtFileInfo.getFile().getLastModified());
+            outputStream.writeLong(getAlgorithmKey(algorithm));
+            outputStream.writeLong(cacheTag);
+            outputStream.writeInt(raw.width);
+            outputStream.writeInt(raw.height);
+            outputStream.writeInt(raw.padding);
+            outputStream.writeInt(raw.bytes.length);
+            outputStream.write(raw.bytes);
+            outputStream.close();
+            outputStream = null;
+
+            synchronized (this) {
+                final long oldLength = file.length();
+                final long newLength = tmpFile.length();
+                if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+                    throw new IOException("could not rename " + tmpFile + " to " + file);
+                }
+                this.sizeBytes = getSizeBytes() - oldLength + newLength;
+                trimToSize();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "could not write " + file, e);
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                tmpFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Deletes all cache files.
+     */
+    public synchronized void purge() {
+        for (File file : listFiles()) {
+            if (!file.delete()) {
+                LOGGER.warning("could not delete " + file);
+            }
+        }
+        this.sizeBytes = -1;
+    }
+
+    private static long getAlgorithmKey(ShadingAlgorithm algorithm) {
+        return 31L * algorithm.getClass().getName().hashCode() + algorithm.hashCode();
+    }
+
+    /**
+     * A last modification time of 0 is unknown and matches any other time.
+     */
+    private static boolean isSameLastModified(long cached, long current) {
+        return cached == current || cached == 0 || current == 0;
+    }
+
+    private File getFile(HgtFileInfo hgtFileInfo, ShadingAlgorithm algorithm, long cacheTag) {
+        final String name = hgtFileInfo.getFile().getName().replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(this.directory, name + '_' + Long.toHexString(getAlgorithmKey(algorithm))
+                + '_' + Long.toHexString(cacheTag) + FILE_EXTENSION);
+    }
+
+    private File[] listFiles() {
+        final File[] files = this.directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_EXTENSION)) {
+                files[count++] = file;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+
+    private void trimToSize() {
+        if (this.sizeBytes <= this.maxBytes) {
+            return;
+        }
+        final File[] files = listFiles();
+        final long[] lastModified = new long[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            lastModified[i] = files[i].lastModified();
+        }
+        final Integer[] order = new Integer[files.length];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Long.compare(lastModified[i1], lastModified[i2]);
+            }
+        });
+
+        this.sizeBytes = 0;
+        for (File file : files) {
+            this.sizeBytes += file.length();
+        }
+        for (int i = 0; i < order.length && this.sizeBytes > this.maxBytes; ++i) {
+            final File file = files[order[i]];
+            final long length = file.length();
+            if (file.delete()) {
+                this.sizeBytes -= length;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 /*
  * Copyright 2017-2022 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -45,6 +46,7 @@ public class MemoryCachingHgtReaderTileSource implements ShadeTileSource {
     private HgtCache currentCache;
     private DemFolder demFolder;
     private ShadingAlgorithm algorithm;
+    private HgtDiskCache diskCache;
 
     /**
      * 2024-10: This no longer affects performance as much as before, so it simply should be set to {@code true}.
@@ -81,7 +83,7 @@ public class MemoryCachingHgtReaderTileSource implements ShadeTileSource {
         if (isNewCacheNeeded()) {
             synchronized (graphicsFactory) {
                 if (isNewCacheNeeded()) {
-                    this.currentCache = new HgtCache(demFolder, graphicsFactory, padding, algorithm, CacheMinCount, CacheMaxCount, CacheMaxBytes);
+                    this.currentCache = new HgtCache(demFolder, graphicsFactory, padding, algorithm, CacheMinCount, CacheMaxCount, CacheMaxBytes, diskCache);
                 }
             }
         }
@@ -92,7 +94,8 @@ public class MemoryCachingHgtReaderTileSource implements ShadeTileSource {
     protected boolean isNewCacheNeeded() {
         return (this.currentCache == null
                 || !demFolder.equals(this.currentCache.demFolder)
-                || !algorithm.equals(this.currentCache.shadingAlgorithm));
+                || !algorithm.equals(this.currentCache.shadingAlgorithm)
+                || diskCache != this.currentCache.diskCache);
     }
 
     @Override
@@ -148,6 +151,20 @@ public class MemoryCachingHgtReaderTileSource implements ShadeTileSource {
         this.demFolder = demFolder;
     }
 
+    public HgtDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Sets an optional persistent cache for the computed shading, so that shading survives evictions from the memory
+     * cache and restarts. Shading is recomputed only when the DEM files, the algorithm or the display parameters change.
+     *
+     * @param diskCache the disk cache, or null to disable it.
+     */
+    public void setDiskCache(HgtDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
     public int getCacheMaxCount() {
         return CacheMaxCount;
     }
@@ -2,6 +2,7 @@
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014 Ludwig M Brinckmann
  * Copyright 2016 ksaihtam
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -16,43 +17,91 @@
  */
 package org.mapsforge.map.layer.queue;
 
+import org.mapsforge.core.model.MapPosition;
 import org.mapsforge.map.model.DisplayModel;
 import org.mapsforge.map.model.MapViewPosition;
+import org.mapsforge.map.util.RenderMetrics;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A queue of jobs ordered by their distance to the current map position.
+ * <p/>
+ * Adding a job does not take the queue lock: jobs are deduplicated through hash lookups and handed over to the
+ * workers via a concurrent queue, so the thread drawing the map does not contend with the workers. The workers
+ * score the new jobs when they take the next one, and only rescore all queued jobs when the map position has
+ * changed since the last scheduling. Waiting workers are woken by signals instead of polling.
+ */
 public class JobQueue<T extends Job> {
     private static final int QUEUE_CAPACITY = 128;
 
-    private final List<T> assignedJobs = new LinkedList<>();
+    private final Set<T> assignedJobs = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+    private final Condition available;
     private final DisplayModel displayModel;
     private boolean isInterrupted;
+    private final ReentrantLock lock = new ReentrantLock();
     private final MapViewPosition mapViewPosition;
-    private final List<QueueItem<T>> queueItems = new LinkedList<>();
-    private boolean scheduleNeeded;
+    private final Queue<QueueItem<T>> pendingItems = new ConcurrentLinkedQueue<>();
+    private final Map<T, QueueItem<T>> queuedJobs = new ConcurrentHashMap<>();
+    private final TreeSet<QueueItem<T>> queueItems;
+    private volatile RenderMetrics renderMetrics;
+    private MapPosition scheduledMapPosition;
+    private int scheduledTileSize;
+    private long sequence;
+    private final AtomicInteger waitingWorkers = new AtomicInteger();
 
     public JobQueue(MapViewPosition mapViewPosition, DisplayModel displayModel) {
         this.mapViewPosition = mapViewPosition;
         this.displayModel = displayModel;
+        this.available = this.lock.newCondition();
+        // jobs with the same priority are taken in the order they were added
+        this.queueItems = new TreeSet<>(new Comparator<QueueItem<T>>() {
+            @Override
+            public int compare(QueueItem<T> queueItem1, QueueItem<T> queueItem2) {
+                int result = QueueItemComparator.INSTANCE.compare(queueItem1, queueItem2);
+                if (result != 0) {
+                    return result;
+                }
+                return queueItem1.sequence < queueItem2.sequence ? -1 : (queueItem1.sequence == queueItem2.sequence ? 0 : 1);
+            }
+        });
     }
 
-    public synchronized void add(T job) {
-        if (!this.assignedJobs.contains(job)) {
-            QueueItem<T> queueItem = new QueueItem<>(job);
-            if (!this.queueItems.contains(queueItem)) {
-                this.queueItems.add(queueItem);
-                this.scheduleNeeded = true;
-                this.notifyWorkers();
-            }
+    public void add(T job) {
+        if (this.assignedJobs.contains(job)) {
+            return;
+        }
+        QueueItem<T> queueItem = new QueueItem<>(job);
+        if (this.queuedJobs.putIfAbsent(job, queueItem) != null) {
+            return;
+        }
+        if (this.assignedJobs.contains(job)) {
+            // the job has been assigned concurrently, the stale item is skipped by the workers
+            this.queuedJobs.remove(job, queueItem);
+            return;
+        }
+        this.pendingItems.offer(queueItem);
+        if (this.waitingWorkers.get() > 0) {
+            notifyWorkers();
         }
     }
 
     /**
      * Returns the most important entry from this queue. The method blocks while this queue is empty.
      */
-    public synchronized T get() throws InterruptedException {
+    public T get() throws InterruptedException {
         return get(Integer.MAX_VALUE);
     }
 
@@ -64,57 +113,128 @@ public class JobQueue<T extends Job> {
      *                    are already so many jobs assigned, the queue will block. This is to ensure
      *                    that the scheduling will continue to work.
      */
-    public synchronized T get(int maxAssigned) throws InterruptedException {
-        while (this.queueItems.isEmpty() || this.assignedJobs.size() >= maxAssigned) {
-            this.wait(200);
-            if (this.isInterrupted) {
-                this.isInterrupted = false;
-                return null;
+    public T get(int maxAssigned) throws InterruptedException {
+        this.lock.lock();
+        try {
+            schedule();
+            while (this.queueItems.isEmpty() || this.assignedJobs.size() >= maxAssigned) {
+                if (this.isInterrupted) {
+                    this.isInterrupted = false;
+                    return null;
+                }
+                // announce the waiting worker before checking for new jobs, so that no wakeup from add is lost
+                this.waitingWorkers.incrementAndGet();
+                try {
+                    if (this.pendingItems.isEmpty() || this.assignedJobs.size() >= maxAssigned) {
+                        this.available.await();
+                    }
+                } finally {
+                    this.waitingWorkers.decrementAndGet();
+                }
+                if (this.isInterrupted) {
+                    this.isInterrupted = false;
+                    return null;
+                }
+                schedule();
             }
-        }
 
-        if (this.scheduleNeeded) {
-            this.scheduleNeeded = false;
-            schedule(displayModel.getTileSize());
+            T job = this.queueItems.pollFirst().object;
+            this.assignedJobs.add(job);
+            this.queuedJobs.remove(job);
+            final RenderMetrics renderMetrics = this.renderMetrics;
+            if (renderMetrics != null) {
+                renderMetrics.onQueueSize(this.queueItems.size());
+            }
+            return job;
+        } finally {
+            this.lock.unlock();
         }
-
-        T job = this.queueItems.remove(0).object;
-        this.assignedJobs.add(job);
-        return job;
     }
 
-    public synchronized void interrupt() {
-        this.isInterrupted = true;
-        notifyWorkers();
+    public void interrupt() {
+        this.lock.lock();
+        try {
+            this.isInterrupted = true;
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
     }
 
-    public synchronized void notifyWorkers() {
-        this.notifyAll();
+    public void notifyWorkers() {
+        this.lock.lock();
+        try {
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
     }
 
-    public synchronized void remove(T job) {
+    public void remove(T job) {
         this.assignedJobs.remove(job);
         this.notifyWorkers();
     }
 
-    private void schedule(int tileSize) {
-        QueueItemScheduler.schedule(this.queueItems, this.mapViewPosition.getMapPosition(), tileSize);
-        Collections.sort(this.queueItems, QueueItemComparator.INSTANCE);
+    /**
+     * Moves the pending jobs into the ordered queue. All queued jobs are only rescored if the map position has
+     * changed since the last call, new jobs are scored individually.
+     */
+    private void schedule() {
+        if (this.pendingItems.isEmpty() && this.queueItems.isEmpty()) {
+            return;
+        }
+
+        MapPosition mapPosition = this.mapViewPosition.getMapPosition();
+        int tileSize = this.displayModel.getTileSize();
+        if (!mapPosition.equals(this.scheduledMapPosition) || tileSize != this.scheduledTileSize) {
+            this.scheduledMapPosition = mapPosition;
+            this.scheduledTileSize = tileSize;
+            List<QueueItem<T>> rescheduledItems = new ArrayList<>(this.queueItems);
+            this.queueItems.clear();
+            QueueItemScheduler.schedule(rescheduledItems, mapPosition, tileSize);
+            this.queueItems.addAll(rescheduledItems);
+        }
+
+        QueueItem<T> queueItem;
+        while ((queueItem = this.pendingItems.poll()) != null) {
+            if (this.queuedJobs.get(queueItem.object) != queueItem) {
+                continue;
+            }
+            queueItem.sequence = this.sequence++;
+            QueueItemScheduler.schedule(Collections.singletonList(queueItem), mapPosition, tileSize);
+            this.queueItems.add(queueItem);
+        }
+
         trimToSize();
     }
 
+    /**
+     * Sets the listener receiving the queue size whenever a job is taken and the number of jobs dropped because the
+     * queue was full.
+     *
+     * @param renderMetrics the listener, or null to disable the measurements.
+     */
+    public void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+    }
+
     /**
      * @return the current number of entries in this queue.
      */
-    public synchronized int size() {
-        return this.queueItems.size();
+    public int size() {
+        return this.queuedJobs.size();
     }
 
     private void trimToSize() {
-        int queueSize = this.queueItems.size();
-
-        while (queueSize > QUEUE_CAPACITY) {
-            this.queueItems.remove(--queueSize);
+        int droppedJobs = 0;
+        while (this.queueItems.size() > QUEUE_CAPACITY) {
+            QueueItem<T> queueItem = this.queueItems.pollLast();
+            this.queuedJobs.remove(queueItem.object, queueItem);
+            ++droppedJobs;
+        }
+        final RenderMetrics renderMetrics = this.renderMetrics;
+        if (droppedJobs > 0 && renderMetrics != null) {
+            renderMetrics.onJobsDropped(droppedJobs);
         }
     }
 }
@@ -17,6 +17,10 @@ package org.mapsforge.map.layer.queue;
 class QueueItem<T extends Job> {
     final T object;
     private double priority;
+    /**
+     * Position in the order the items were queued, used to keep equally important items in that order.
+     */
+    long sequence;
 
     QueueItem(T object) {
         this.object = object;
@@ -5,6 +5,7 @@
  * Copyright 2017 usrusr
  * Copyright 2020 Adrian Batzill
  * Copyright 2024-2025 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -28,36 +29,54 @@ import org.mapsforge.core.model.Tile;
 import org.mapsforge.core.util.Parameters;
 import org.mapsforge.map.rendertheme.RenderContext;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
 
 public class CanvasRasterer {
     private final RenderContext renderContext;
     private final Canvas canvas;
+    private final GraphicFactory graphicFactory;
     private final Path path;
     private final Matrix symbolMatrix;
 
     /**
-     * This will count paths vs. lines usage for performance diagnostics
+     * Copies of the shared render theme paints with a bitmap shader, shifted to the origin of the rendered tile.
+     * They belong to this rasterer only, so drawing with them needs no synchronization.
      */
-    private final boolean DEBUG_COUNTS = false;
-    private final AtomicInteger linesCount = DEBUG_COUNTS ? new AtomicInteger() : null;
-    private final AtomicInteger pathsCount = DEBUG_COUNTS ? new AtomicInteger() : null;
+    private Map<Paint, Paint> shiftedPaints;
 
+    /**
+     * Paths vs. lines usage for performance diagnostics, reported through
+     * {@link org.mapsforge.map.util.RenderMetrics#onWaysDrawn(int, int)}.
+     */
+    private int linesCount;
+    private int pathsCount;
 
     public CanvasRasterer(RenderContext renderContext, GraphicFactory graphicFactory) {
         this.renderContext = renderContext;
         this.canvas = graphicFactory.createCanvas();
+        this.graphicFactory = graphicFactory;
         this.path = graphicFactory.createPath();
         this.symbolMatrix = graphicFactory.createMatrix();
     }
 
     public void destroy() {
         this.canvas.destroy();
+    }
 
-        if (DEBUG_COUNTS) {
-            System.out.println("LINES: " + linesCount.get() + "  PATHS: " + pathsCount.get());
-        }
+    /**
+     * @return the number of ways drawn as line segments.
+     */
+    public int getLinesCount() {
+        return this.linesCount;
+    }
+
+    /**
+     * @return the number of ways drawn as paths.
+     */
+    public int getPathsCount() {
+        return this.pathsCount;
     }
 
     /**
@@ -129,59 +148,58 @@ public class CanvasRasterer {
         }
     }
 
-    private void drawPath(ShapePaintContainer shapePaintContainer, Point[][] coordinates, float dy) {
+    /**
+     * @param coordinates the absolute pixel coordinates as interleaved x/y pairs per way segment.
+     * @param origin      the origin of the tile, which is subtracted from the coordinates.
+     */
+    private void drawPath(ShapePaintContainer shapePaintContainer, double[][] coordinates, Point origin, float dy) {
         if (shapePaintContainer.curveStyle == Curve.CUBIC) {
             // When cubic, paths must be used.
-            makeCubicPath(coordinates, dy, this.path);
+            makeCubicPath(coordinates, origin, dy, this.path);
             drawPath(shapePaintContainer);
         } else if (shapePaintContainer.paint.isComplexStyle()) {
             // When complex (e.g. filled) style, paths must be used.
-            makeLinesPath(coordinates, dy, this.path);
+            makeLinesPath(coordinates, origin, dy, this.path);
             drawPath(shapePaintContainer);
         } else {
             // When neither cubic nor complex style, use lines (esp. on Android):
             //   * To prevent libhwui.so "null pointer dereference" SIGSEGV crashes.
             //   * For performance.
-            drawLines(shapePaintContainer, coordinates, dy);
+            drawLines(shapePaintContainer, makeLines(coordinates, origin, dy));
         }
     }
 
     private void drawPath(ShapePaintContainer shapePaintContainer) {
         if (!this.path.isEmpty()) {
-            if (Parameters.NUMBER_OF_THREADS > 1) {
-                // Make sure setting the shader shift and actual drawing is synchronized,
-                // since the paint object is shared between multiple threads.
-                synchronized (shapePaintContainer.paint) {
-                    final RenderContext renderContext = this.renderContext;
-                    shapePaintContainer.paint.setBitmapShaderShift(renderContext.rendererJob.tile.getOrigin());
-                    this.canvas.drawPath(this.path, shapePaintContainer.paint);
-                }
-            } else {
-                this.canvas.drawPath(this.path, shapePaintContainer.paint);
-            }
-
-            if (DEBUG_COUNTS) {
-                pathsCount.incrementAndGet();
-            }
+            this.canvas.drawPath(this.path, getShiftedPaint(shapePaintContainer.paint));
+            ++this.pathsCount;
         }
     }
 
-    private void drawLines(ShapePaintContainer shapePaintContainer, Point[][] coordinates, float dy) {
-        if (Parameters.NUMBER_OF_THREADS > 1) {
-            // Make sure setting the shader shift and actual drawing is synchronized,
-            // since the paint object is shared between multiple threads.
-            synchronized (shapePaintContainer.paint) {
-                final RenderContext renderContext = this.renderContext;
-                shapePaintContainer.paint.setBitmapShaderShift(renderContext.rendererJob.tile.getOrigin());
-                this.canvas.drawLines(coordinates, dy, shapePaintContainer.paint);
-            }
-        } else {
-            this.canvas.drawLines(coordinates, dy, shapePaintContainer.paint);
-        }
+    private void drawLines(ShapePaintContainer shapePaintContainer, float[] lines) {
+        this.canvas.drawLines(lines, getShiftedPaint(shapePaintContainer.paint));
+        ++this.linesCount;
+    }
 
-        if (DEBUG_COUNTS) {
-            linesCount.incrementAndGet();
+    /**
+     * With multiple threads, the render theme paints are shared, so a paint with a bitmap shader is copied once per
+     * rasterer and shifted to the tile origin instead of shifting and drawing under a lock.
+     * Single-threaded rendering shifts the theme paints directly in the render instructions.
+     */
+    private Paint getShiftedPaint(Paint paint) {
+        if (Parameters.NUMBER_OF_THREADS == 1 || !paint.hasBitmapShader()) {
+            return paint;
+        }
+        if (this.shiftedPaints == null) {
+            this.shiftedPaints = new IdentityHashMap<>();
         }
+        Paint shiftedPaint = this.shiftedPaints.get(paint);
+        if (shiftedPaint == null) {
+            shiftedPaint = this.graphicFactory.createPaint(paint);
+            shiftedPaint.setBitmapShaderShift(this.renderContext.rendererJob.tile.getOrigin());
+            this.shiftedPaints.put(paint, shiftedPaint);
+        }
+        return shiftedPaint;
     }
 
     public void drawShapePaintContainer(ShapePaintContainer shapePaintContainer) {
@@ -197,28 +215,29 @@ public class CanvasRasterer {
                 break;
             case POLYLINE:
                 PolylineContainer polylineContainer = (PolylineContainer) shapeContainer;
-                drawPath(shapePaintContainer, polylineContainer.getCoordinatesRelativeToOrigin(), shapePaintContainer.dy);
+                drawPath(shapePaintContainer, polylineContainer.getPackedCoordinatesAbsolute(),
+                        polylineContainer.getUpperLeft().getOrigin(), shapePaintContainer.dy);
                 break;
         }
     }
 
-    private static void makeCubicPath(Point[][] coordinates, float dy, Path path) {
+    private static void makeCubicPath(double[][] coordinates, Point origin, float dy, Path path) {
         path.clear();
 
-        for (Point[] innerList : coordinates) {
-            final Point[] points = dy == 0f ? innerList : RendererUtils.parallelPath(innerList, dy);
-            if (points.length >= 2) {
-                float[] p1 = new float[]{(float) points[0].x, (float) points[0].y};
+        for (double[] innerList : coordinates) {
+            final double[] points = dy == 0f ? innerList : RendererUtils.parallelPath(innerList, dy);
+            if (points.length >= 4) {
+                float[] p1 = new float[]{(float) (points[0] - origin.x), (float) (points[1] - origin.y)};
                 float[] p2 = new float[]{0.0f, 0.0f};
                 float[] p3 = new float[]{0.0f, 0.0f};
 
                 // add first point
                 path.moveTo(p1[0], p1[1]);
 
-                for (int i = 1; i < points.length; ++i) {
+                for (int i = 2; i < points.length; i += 2) {
                     // get ending coordinates
-                    p3[0] = (float) points[i].x;
-                    p3[1] = (float) points[i].y;
+                    p3[0] = (float) (points[i] - origin.x);
+                    p3[1] = (float) (points[i + 1] - origin.y);
                     p2[0] = 0.5f * (p1[0] + p3[0]);
                     p2[1] = 0.5f * (p1[1] + p3[1]);
 
@@ -236,16 +255,50 @@ public class CanvasRasterer {
         }
     }
 
-    private static void makeLinesPath(Point[][] coordinates, float dy, Path path) {
+    /**
+     * Creates the line segments as x0, y0, x1, y1 quadruples relative to the origin.
+     */
+    private static float[] makeLines(double[][] coordinates, Point origin, float dy) {
+        int pointsCount = 0;
+        for (double[] points : coordinates) {
+            if (points.length >= 4) {
+                pointsCount += 2 * (points.length - 2);
+            }
+        }
+        final float[] lines = new float[pointsCount];
+
+        int ptr = 0;
+        for (double[] innerList : coordinates) {
+            final double[] points = dy == 0f ? innerList : RendererUtils.parallelPath(innerList, dy);
+            if (points.length >= 4) {
+                float x = (float) (points[0] - origin.x);
+                float y = (float) (points[1] - origin.y);
+
+                for (int i = 2; i < points.length; i += 2) {
+                    lines[ptr] = x;
+                    lines[ptr + 1] = y;
+                    x = (float) (points[i] - origin.x);
+                    y = (float) (points[i + 1] - origin.y);
+                    lines[ptr + 2] = x;
+                    lines[ptr + 3] = y;
+
+                    ptr += 4;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static void makeLinesPath(double[][] coordinates, Point origin, float dy, Path path) {
         path.clear();
 
-        for (Point[] innerList : coordinates) {
-            final Point[] points = dy == 0f ? innerList : RendererUtils.parallelPath(innerList, dy);
-            if (points.length >= 2) {
-                path.moveTo((float) points[0].x, (float) points[0].y);
+        for (double[] innerList : coordinates) {
+            final double[] points = dy == 0f ? innerList : RendererUtils.parallelPath(innerList, dy);
+            if (points.length >= 4) {
+                path.moveTo((float) (points[0] - origin.x), (float) (points[1] - origin.y));
 
-                for (int i = 1; i < points.length; ++i) {
-                    path.lineTo((float) points[i].x, (float) points[i].y);
+                for (int i = 2; i < points.length; i += 2) {
+                    path.lineTo((float) (points[i] - origin.x), (float) (points[i + 1] - origin.y));
                 }
             }
         }
@@ -4,6 +4,7 @@
  * Copyright 2014-2016 devemux86
  * Copyright 2017 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -18,6 +19,8 @@
  */
 package org.mapsforge.map.layer.renderer;
 
+import org.mapsforge.core.graphics.Bitmap;
+import org.mapsforge.core.graphics.Canvas;
 import org.mapsforge.core.graphics.Color;
 import org.mapsforge.core.graphics.GraphicFactory;
 import org.mapsforge.core.graphics.TileBitmap;
@@ -33,12 +36,17 @@ import org.mapsforge.map.layer.labels.LabelStore;
 import org.mapsforge.map.layer.labels.MapDataStoreLabelStore;
 import org.mapsforge.map.layer.labels.TileBasedLabelStore;
 import org.mapsforge.map.rendertheme.RenderContext;
+import org.mapsforge.map.util.CollisionIndex;
 import org.mapsforge.map.util.LayerUtil;
+import org.mapsforge.map.util.RenderMetrics;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -52,6 +60,7 @@ public class DatabaseRenderer extends StandardRenderer {
     protected final boolean renderLabels;
     protected final TileCache tileCache;
     protected final TileDependencies tileDependencies;
+    private volatile RenderMetrics renderMetrics;
 
     /**
      * Constructs a new DatabaseRenderer.
@@ -84,6 +93,8 @@ public class DatabaseRenderer extends StandardRenderer {
      * @param rendererJob the job that should be executed.
      */
     public TileBitmap executeJob(RendererJob rendererJob) {
+        final RenderMetrics renderMetrics = this.renderMetrics;
+        final long start = startStage(renderMetrics);
         TileBitmap output = null;
         RenderContext renderContext = null;
         try {
@@ -93,8 +104,11 @@ public class DatabaseRenderer extends StandardRenderer {
                 TileBitmap bitmap = null;
 
                 if (this.mapDataStore != null) {
+                    long stageStart = startStage(renderMetrics);
                     MapReadResult mapReadResult = this.mapDataStore.readMapData(rendererJob.tile);
+                    stageStart = endStage(renderMetrics, RenderMetrics.Stage.READ_MAP_DATA, stageStart);
                     processReadMapData(renderContext, mapReadResult);
+                    endStage(renderMetrics, RenderMetrics.Stage.MATCH_THEME, stageStart);
                 }
 
                 if (!rendererJob.labelsOnly) {
@@ -105,10 +119,15 @@ public class DatabaseRenderer extends StandardRenderer {
                         renderContext.canvasRasterer.fill(renderContext.renderTheme.getMapBackground());
                     }
 
+                    long stageStart = startStage(renderMetrics);
                     renderContext.renderTheme.matchHillShadings(renderContext, this.hillsRenderConfig);
+                    stageStart = endStage(renderMetrics, RenderMetrics.Stage.HILLSHADING, stageStart);
                     renderContext.drawWays();
+                    endStage(renderMetrics, RenderMetrics.Stage.DRAW_WAYS, stageStart);
+                    reportWaysDrawn(renderMetrics, renderContext);
                 }
 
+                long stageStart = startStage(renderMetrics);
                 if (this.renderLabels) {
                     processLabels(renderContext);
                 }
@@ -116,6 +135,7 @@ public class DatabaseRenderer extends StandardRenderer {
                     // store elements for this tile in the label cache
                     ((TileBasedLabelStore) this.labelStore).storeMapItems(rendererJob.tile, renderContext.getLabels());
                 }
+                endStage(renderMetrics, RenderMetrics.Stage.LABELS, stageStart);
 
                 if (!rendererJob.labelsOnly && renderContext.renderTheme.hasMapBackgroundOutside() && this.mapDataStore != null) {
                     // blank out all areas outside of map
@@ -140,10 +160,129 @@ public class DatabaseRenderer extends StandardRenderer {
             }
             if (!rendererJob.labelsOnly && output != null) {
                 if (tileCache != null) {
+                    final long stageStart = startStage(renderMetrics);
                     tileCache.put(rendererJob, output);
+                    endStage(renderMetrics, RenderMetrics.Stage.CACHE_PUT, stageStart);
                 }
                 removeTileInProgress(rendererJob.tile);
             }
+            endStage(renderMetrics, RenderMetrics.Stage.TOTAL, start);
+        }
+
+        return output;
+    }
+
+    /**
+     * Renders a metatile, the aligned block of metatileSize x metatileSize tiles containing the tile of the job. The
+     * map data is read once for the whole block, the render theme is matched once and everything is drawn onto one
+     * canvas, which is then sliced into the tiles of the block. All tiles are put into the tile cache.
+     * <p/>
+     * Labels are placed once for the whole metatile, so they are consistent across the tile borders inside it. Across
+     * metatile borders the same dependencies are used as between single tiles, so neighbouring tiles must always be
+     * rendered with the same metatile size.
+     *
+     * @param rendererJob  the job for any tile of the metatile, must not be a labels only job.
+     * @param metatileSize the number of tiles along each side of the metatile, a power of two. At low zoom levels the
+     *                     metatile is clipped to the size of the world.
+     * @return the rendered tiles in row-major order, or null if rendering failed. The caller must decrement the
+     * reference count of every bitmap.
+     * @throws IllegalArgumentException if the metatile size is not a power of two or the job is a labels only job.
+     */
+    public Map<Tile, TileBitmap> executeMetatileJob(RendererJob rendererJob, int metatileSize) {
+        if (metatileSize < 1 || (metatileSize & (metatileSize - 1)) != 0) {
+            throw new IllegalArgumentException("metatileSize must be a power of two: " + metatileSize);
+        } else if (rendererJob.labelsOnly) {
+            throw new IllegalArgumentException("labels only jobs cannot be rendered as metatiles");
+        }
+
+        Tile tile = rendererJob.tile;
+        if (metatileSize == 1) {
+            TileBitmap bitmap = executeJob(rendererJob);
+            if (bitmap == null) {
+                return null;
+            }
+            Map<Tile, TileBitmap> tiles = new LinkedHashMap<>(1);
+            tiles.put(tile, bitmap);
+            return tiles;
+        }
+
+        int maxTileNumber = Tile.getMaxTileNumber(tile.zoomLevel);
+        Tile upperLeft = new Tile(tile.tileX / metatileSize * metatileSize, tile.tileY / metatileSize * metatileSize,
+                tile.zoomLevel, tile.tileSize);
+        Tile lowerRight = new Tile(Math.min(upperLeft.tileX + metatileSize - 1, maxTileNumber),
+                Math.min(upperLeft.tileY + metatileSize - 1, maxTileNumber), tile.zoomLevel, tile.tileSize);
+        RendererJob metatileJob = rendererJob.otherTile(upperLeft);
+
+        final RenderMetrics renderMetrics = this.renderMetrics;
+        final long start = startStage(renderMetrics);
+        Map<Tile, TileBitmap> output = null;
+        Bitmap bitmap = null;
+        RenderContext renderContext = null;
+        try {
+            renderContext = new RenderContext(metatileJob, lowerRight, graphicFactory);
+            bitmap = this.graphicFactory.createBitmap(renderContext.getWidth(), renderContext.getHeight(), rendererJob.hasAlpha);
+            renderContext.canvasRasterer.setCanvasBitmap(bitmap);
+
+            if (renderBitmap(renderContext)) {
+                if (this.mapDataStore != null) {
+                    long stageStart = startStage(renderMetrics);
+                    MapReadResult mapReadResult = this.mapDataStore.readMapData(upperLeft, lowerRight);
+                    stageStart = endStage(renderMetrics, RenderMetrics.Stage.READ_MAP_DATA, stageStart);
+                    processReadMapData(renderContext, mapReadResult);
+                    endStage(renderMetrics, RenderMetrics.Stage.MATCH_THEME, stageStart);
+                }
+
+                if (!rendererJob.hasAlpha && rendererJob.displayModel.getBackgroundColor() != renderContext.renderTheme.getMapBackground()) {
+                    renderContext.canvasRasterer.fill(renderContext.renderTheme.getMapBackground());
+                }
+                long stageStart = startStage(renderMetrics);
+                renderContext.renderTheme.matchHillShadings(renderContext, this.hillsRenderConfig);
+                stageStart = endStage(renderMetrics, RenderMetrics.Stage.HILLSHADING, stageStart);
+                renderContext.drawWays();
+                stageStart = endStage(renderMetrics, RenderMetrics.Stage.DRAW_WAYS, stageStart);
+                reportWaysDrawn(renderMetrics, renderContext);
+
+                if (this.renderLabels) {
+                    processLabels(renderContext);
+                }
+                if (this.labelStore instanceof TileBasedLabelStore) {
+                    storeMetatileLabels((TileBasedLabelStore) this.labelStore, renderContext);
+                }
+                endStage(renderMetrics, RenderMetrics.Stage.LABELS, stageStart);
+
+                if (renderContext.renderTheme.hasMapBackgroundOutside() && this.mapDataStore != null) {
+                    // blank out all areas outside of map
+                    Rectangle insideArea = this.mapDataStore.boundingBox().getPositionRelativeToTile(upperLeft);
+                    if (!rendererJob.hasAlpha) {
+                        renderContext.canvasRasterer.fillOutsideAreas(renderContext.renderTheme.getMapBackgroundOutside(), insideArea);
+                    } else {
+                        renderContext.canvasRasterer.fillOutsideAreas(Color.TRANSPARENT, insideArea);
+                    }
+                }
+            } else if (!rendererJob.hasAlpha) {
+                // outside of map area with background defined
+                renderContext.canvasRasterer.fill(renderContext.renderTheme.getMapBackgroundOutside());
+            }
+
+            output = sliceMetatile(bitmap, metatileJob, lowerRight);
+        } catch (Exception e) {
+            LOGGER.warning(e.toString());
+        } finally {
+            if (renderContext != null) {
+                renderContext.destroy();
+            }
+            if (bitmap != null) {
+                bitmap.decrementRefCount();
+            }
+            if (output != null && tileCache != null) {
+                final long stageStart = startStage(renderMetrics);
+                for (Map.Entry<Tile, TileBitmap> entry : output.entrySet()) {
+                    tileCache.put(metatileJob.otherTile(entry.getKey()), entry.getValue());
+                }
+                endStage(renderMetrics, RenderMetrics.Stage.CACHE_PUT, stageStart);
+            }
+            removeTileInProgress(upperLeft);
+            endStage(renderMetrics, RenderMetrics.Stage.TOTAL, start);
         }
 
         return output;
@@ -153,6 +292,19 @@ public class DatabaseRenderer extends StandardRenderer {
         return this.mapDataStore;
     }
 
+    public RenderMetrics getRenderMetrics() {
+        return this.renderMetrics;
+    }
+
+    /**
+     * Sets the listener receiving the durations of the rendering stages of every job.
+     *
+     * @param renderMetrics the listener, or null to disable the measurements.
+     */
+    public void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+    }
+
     protected void removeTileInProgress(Tile tile) {
         this.tileDependencies.removeTileInProgress(tile);
     }
@@ -172,6 +324,117 @@ public class DatabaseRenderer extends StandardRenderer {
         return bitmap;
     }
 
+    /**
+     * @return the upper left tiles of the areas of the same size surrounding the rendered area, together with their
+     * boundaries. These are the neighbouring tiles if a single tile is rendered.
+     */
+    private static Map<Tile, Rectangle> getNeighbours(RenderContext renderContext) {
+        Tile upperLeft = renderContext.rendererJob.tile;
+        Map<Tile, Rectangle> neighbours = new HashMap<>(16);
+        if (renderContext.lowerRight.equals(upperLeft)) {
+            for (Tile neighbour : upperLeft.getNeighbours()) {
+                neighbours.put(neighbour, neighbour.getBoundaryAbsolute());
+            }
+            return neighbours;
+        }
+
+        int width = renderContext.lowerRight.tileX - upperLeft.tileX + 1;
+        int height = renderContext.lowerRight.tileY - upperLeft.tileY + 1;
+        int maxTileNumber = Tile.getMaxTileNumber(upperLeft.zoomLevel);
+        for (int dy = -1; dy <= 1; ++dy) {
+            for (int dx = -1; dx <= 1; ++dx) {
+                int tileX = upperLeft.tileX + dx * width;
+                int tileY = upperLeft.tileY + dy * height;
+                if ((dx == 0 && dy == 0) || tileX < 0 || tileY < 0 || tileX > maxTileNumber || tileY > maxTileNumber) {
+                    continue;
+                }
+                Tile neighbour = new Tile(tileX, tileY, upperLeft.zoomLevel, upperLeft.tileSize);
+                Tile neighbourLowerRight = new Tile(Math.min(tileX + width - 1, maxTileNumber),
+                        Math.min(tileY + height - 1, maxTileNumber), upperLeft.zoomLevel, upperLeft.tileSize);
+                neighbours.put(neighbour, Tile.getBoundaryAbsolute(neighbour, neighbourLowerRight));
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Cuts the canvas of a metatile into tiles.
+     */
+    private Map<Tile, TileBitmap> sliceMetatile(Bitmap bitmap, RendererJob metatileJob, Tile lowerRight) {
+        Tile upperLeft = metatileJob.tile;
+        Map<Tile, TileBitmap> tiles = new LinkedHashMap<>();
+        Canvas canvas = this.graphicFactory.createCanvas();
+        try {
+            for (int tileY = upperLeft.tileY; tileY <= lowerRight.tileY; ++tileY) {
+                for (int tileX = upperLeft.tileX; tileX <= lowerRight.tileX; ++tileX) {
+                    Tile tile = new Tile(tileX, tileY, upperLeft.zoomLevel, upperLeft.tileSize);
+                    TileBitmap tileBitmap = this.graphicFactory.createTileBitmap(tile.tileSize, metatileJob.hasAlpha);
+                    tileBitmap.setTimestamp(metatileJob.mapDataStore.getDataTimestamp(tile));
+                    canvas.setBitmap(tileBitmap);
+                    canvas.drawBitmap(bitmap, (upperLeft.tileX - tileX) * tile.tileSize, (upperLeft.tileY - tileY) * tile.tileSize);
+                    tiles.put(tile, tileBitmap);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (TileBitmap tileBitmap : tiles.values()) {
+                tileBitmap.decrementRefCount();
+            }
+            throw e;
+        } finally {
+            canvas.destroy();
+        }
+        return tiles;
+    }
+
+    /**
+     * @return the start time of a stage, 0 if there is no listener.
+     */
+    private static void reportWaysDrawn(RenderMetrics renderMetrics, RenderContext renderContext) {
+        if (renderMetrics != null) {
+            renderMetrics.onWaysDrawn(renderContext.canvasRasterer.getLinesCount(), renderContext.canvasRasterer.getPathsCount());
+        }
+    }
+
+    private static long startStage(RenderMetrics renderMetrics) {
+        return renderMetrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reports the duration of a stage to the listener.
+     *
+     * @return the end time of the stage, which is the start time of the next stage.
+     */
+    private static long endStage(RenderMetrics renderMetrics, RenderMetrics.Stage stage, long start) {
+        if (renderMetrics == null) {
+            return 0;
+        }
+        final long end = System.nanoTime();
+        renderMetrics.onStage(stage, end - start);
+        return end;
+    }
+
+    /**
+     * Stores the labels of a metatile against the tiles containing their positions.
+     */
+    private static void storeMetatileLabels(TileBasedLabelStore labelStore, RenderContext renderContext) {
+        Tile upperLeft = renderContext.rendererJob.tile;
+        Map<Tile, List<MapElementContainer>> tileLabels = new HashMap<>();
+        for (int tileY = upperLeft.tileY; tileY <= renderContext.lowerRight.tileY; ++tileY) {
+            for (int tileX = upperLeft.tileX; tileX <= renderContext.lowerRight.tileX; ++tileX) {
+                tileLabels.put(new Tile(tileX, tileY, upperLeft.zoomLevel, upperLeft.tileSize), new ArrayList<MapElementContainer>());
+            }
+        }
+        for (MapElementContainer label : renderContext.getLabels()) {
+            // labels are positioned in absolute pixels, positions outside of the metatile are clamped to it
+            int tileX = (int) Math.min(Math.max(label.getPoint().x / upperLeft.tileSize, upperLeft.tileX), renderContext.lowerRight.tileX);
+            int tileY = (int) Math.min(Math.max(label.getPoint().y / upperLeft.tileSize, upperLeft.tileY), renderContext.lowerRight.tileY);
+            tileLabels.get(new Tile(tileX, tileY, upperLeft.zoomLevel, upperLeft.tileSize)).add(label);
+        }
+        for (Map.Entry<Tile, List<MapElementContainer>> entry : tileLabels.entrySet()) {
+            labelStore.storeMapItems(entry.getKey(), entry.getValue());
+        }
+    }
+
     protected void processLabels(RenderContext renderContext) {
         // if we are drawing the labels per tile, we need to establish which tile-overlapping
         // elements need to be drawn.
@@ -182,23 +445,26 @@ public class DatabaseRenderer extends StandardRenderer {
 
             if (this.labelStore instanceof MapDataStoreLabelStore) {
                 // Surrounding tiles are required to prevent non-deterministic labels and label tearing when drawing labels on tiles.
-                activeLabels.addAll(this.labelStore.getVisibleItems(renderContext.rendererJob.tile.getAboveLeft(), renderContext.rendererJob.tile.getBelowRight()));
+                activeLabels.addAll(this.labelStore.getVisibleItems(renderContext.rendererJob.tile.getAboveLeft(), renderContext.lowerRight.getBelowRight()));
 
                 LayerUtil.removeInvisibleItems(activeLabels);
 
-                labelsToDraw = LayerUtil.collisionAndContestingFreeOrdered(new ArrayList<>(activeLabels), renderContext.rendererJob.tile, Rotation.NULL_ROTATION);
+                labelsToDraw = LayerUtil.collisionAndContestingFreeOrdered(new ArrayList<>(activeLabels),
+                        Tile.getBoundaryAbsolute(renderContext.rendererJob.tile, renderContext.lowerRight), Rotation.NULL_ROTATION, true);
             } else {
                 synchronized (tileDependencies) {
                     // first we need to get the labels from the adjacent tiles if they have already been drawn
                     // as those overlapping items must also be drawn on the current tile. They must be drawn regardless
                     // of priority clashes as a part of them has alread been drawn.
-                    Set<Tile> neighbours = renderContext.rendererJob.tile.getNeighbours();
-                    Iterator<Tile> tileIterator = neighbours.iterator();
+                    // when a metatile is rendered, its neighbours are the surrounding metatiles
+                    Map<Tile, Rectangle> neighbours = getNeighbours(renderContext);
+                    Iterator<Map.Entry<Tile, Rectangle>> tileIterator = neighbours.entrySet().iterator();
                     Set<MapElementContainer> undrawableElements = new HashSet<>();
 
                     tileDependencies.addTileInProgress(renderContext.rendererJob.tile);
                     while (tileIterator.hasNext()) {
-                        Tile neighbour = tileIterator.next();
+                        Map.Entry<Tile, Rectangle> entry = tileIterator.next();
+                        Tile neighbour = entry.getKey();
 
                         if (tileDependencies.isTileInProgress(neighbour) || tileCache.containsKey(renderContext.rendererJob.otherTile(neighbour))) {
                             // if a neighbour tile has already been drawn, the elements drawn that overlap onto the
@@ -210,7 +476,7 @@ public class DatabaseRenderer extends StandardRenderer {
 
                             // but we need to remove the labels for this tile that overlap onto a tile that has been drawn
                             for (MapElementContainer current : renderContext.getLabels()) {
-                                if (current.intersects(neighbour.getBoundaryAbsolute(), Rotation.NULL_ROTATION)) {
+                                if (current.intersects(entry.getValue(), Rotation.NULL_ROTATION)) {
                                     undrawableElements.add(current);
                                 }
                             }
@@ -233,14 +499,13 @@ public class DatabaseRenderer extends StandardRenderer {
                     List<MapElementContainer> currentElementsOrdered = LayerUtil.collisionFreeOrdered(renderContext.getLabels(), Rotation.NULL_ROTATION, false);
 
                     // now we go through this list, ordered by priority, to see which can be drawn without clashing.
+                    CollisionIndex collisionIndex = new CollisionIndex(Rotation.NULL_ROTATION);
+                    collisionIndex.addAll(activeLabels);
                     Iterator<MapElementContainer> currentMapElementsIterator = currentElementsOrdered.iterator();
                     while (currentMapElementsIterator.hasNext()) {
                         MapElementContainer current = currentMapElementsIterator.next();
-                        for (MapElementContainer label : activeLabels) {
-                            if (label.clashesWith(current, Rotation.NULL_ROTATION)) {
-                                currentMapElementsIterator.remove();
-                                break;
-                            }
+                        if (collisionIndex.clashesWith(current)) {
+                            currentMapElementsIterator.remove();
                         }
                     }
 
@@ -248,10 +513,11 @@ public class DatabaseRenderer extends StandardRenderer {
 
                     // update dependencies, add to the dependencies list all the elements that overlap to the
                     // neighbouring tiles, first clearing out the cache for this relation.
-                    for (Tile tile : neighbours) {
+                    for (Map.Entry<Tile, Rectangle> entry : neighbours.entrySet()) {
+                        Tile tile = entry.getKey();
                         tileDependencies.removeTileData(renderContext.rendererJob.tile, tile);
                         for (MapElementContainer element : activeLabels) {
-                            if (element.intersects(tile.getBoundaryAbsolute(), Rotation.NULL_ROTATION)) {
+                            if (element.intersects(entry.getValue(), Rotation.NULL_ROTATION)) {
                                 tileDependencies.addOverlappingElement(renderContext.rendererJob.tile, tile, element);
                             }
                         }
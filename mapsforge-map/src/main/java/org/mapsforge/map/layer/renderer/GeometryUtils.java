@@ -56,6 +56,46 @@ final class GeometryUtils {
         return coordinates[coordinates.length / 2];
     }
 
+    /**
+     * Calculates the center of the minimum bounding rectangle for the given coordinates.
+     *
+     * @param coordinates the coordinates for which calculation should be done, as interleaved x/y pairs.
+     * @return the center coordinates of the minimum bounding rectangle.
+     */
+    static Point calculateCenterOfBoundingBox(double[] coordinates) {
+        double pointXMin = coordinates[0];
+        double pointXMax = coordinates[0];
+        double pointYMin = coordinates[1];
+        double pointYMax = coordinates[1];
+
+        for (int i = 0; i < coordinates.length; i += 2) {
+            if (coordinates[i] < pointXMin) {
+                pointXMin = coordinates[i];
+            } else if (coordinates[i] > pointXMax) {
+                pointXMax = coordinates[i];
+            }
+
+            if (coordinates[i + 1] < pointYMin) {
+                pointYMin = coordinates[i + 1];
+            } else if (coordinates[i + 1] > pointYMax) {
+                pointYMax = coordinates[i + 1];
+            }
+        }
+
+        return new Point((pointXMin + pointXMax) / 2, (pointYMax + pointYMin) / 2);
+    }
+
+    /**
+     * Calculates the center of the given coordinates.
+     *
+     * @param coordinates the coordinates for which calculation should be done, as interleaved x/y pairs.
+     * @return the center coordinates.
+     */
+    static Point calculateCenterPoint(double[] coordinates) {
+        int center = coordinates.length / 4;
+        return new Point(coordinates[2 * center], coordinates[2 * center + 1]);
+    }
+
     private GeometryUtils() {
         throw new IllegalStateException();
     }
@@ -4,6 +4,7 @@
  * Copyright 2015-2017 devemux86
  * Copyright 2016 ksaihtam
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -36,6 +37,10 @@ import java.util.logging.Logger;
 public class MapWorkerPool implements Runnable {
     private static final Logger LOGGER = Logger.getLogger(MapWorkerPool.class.getName());
 
+    /**
+     * Prints the overall render time to stdout, see {@link TileRendererLayer#setRenderMetrics} for measurements of
+     * the single rendering stages.
+     */
     public static boolean DEBUG_TIMING = false;
     private final AtomicLong debugStart = new AtomicLong(0), debugPrevStart = new AtomicLong(0);
     private final AtomicInteger concurrentJobs = new AtomicInteger();
@@ -32,11 +32,15 @@ import java.util.List;
  * pixel coordinates of the way as many ways will not actually be rendered on a
  * map. In order to save memory, after evaluation, the internally stored way is
  * released.
+ * <p/>
+ * The absolute pixel coordinates are kept in a packed form, as interleaved x/y pairs,
+ * the {@link Point} arrays are only created on demand.
  */
 public class PolylineContainer implements ShapeContainer {
 
     private Point center;
     private Point[][] coordinatesAbsolute;
+    private double[][] coordinatesAbsolutePacked;
     private Point[][] coordinatesRelativeToTile;
     private final List<Tag> tags;
     private final byte layer;
@@ -53,17 +57,20 @@ public class PolylineContainer implements ShapeContainer {
         this.lowerRight = lowerRight;
         this.layer = way.layer;
         this.way = way;
-        this.isClosedWay = LatLongUtils.isClosedWay(way.latLongs[0]);
+        this.isClosedWay = LatLongUtils.isClosedWay(way.coordinates[0]);
         if (this.way.labelPosition != null) {
             this.center = MercatorProjection.getPixelAbsolute(this.way.labelPosition, this.upperLeft.mapSize);
         }
     }
 
     public PolylineContainer(Point[] coordinates, final Tile upperLeft, final Tile lowerRight, List<Tag> tags) {
-        this.coordinatesAbsolute = new Point[1][];
+        this.coordinatesAbsolutePacked = new double[1][];
         this.coordinatesRelativeToTile = null;
-        this.coordinatesAbsolute[0] = new Point[coordinates.length];
-        System.arraycopy(coordinates, 0, coordinatesAbsolute[0], 0, coordinates.length);
+        this.coordinatesAbsolutePacked[0] = new double[2 * coordinates.length];
+        for (int i = 0; i < coordinates.length; ++i) {
+            this.coordinatesAbsolutePacked[0][2 * i] = coordinates[i].x;
+            this.coordinatesAbsolutePacked[0][2 * i + 1] = coordinates[i].y;
+        }
         this.tags = tags;
         this.upperLeft = upperLeft;
         this.lowerRight = lowerRight;
@@ -74,26 +81,24 @@ public class PolylineContainer implements ShapeContainer {
     public Point getCenterAbsolute() {
         if (this.center == null) {
             if (isClosedWay) {
-                this.center = GeometryUtils.calculateCenterOfBoundingBox(getCoordinatesAbsolute()[0]);
+                this.center = GeometryUtils.calculateCenterOfBoundingBox(getPackedCoordinatesAbsolute()[0]);
             } else {
-                this.center = GeometryUtils.calculateCenterPoint(getCoordinatesAbsolute()[0]);
+                this.center = GeometryUtils.calculateCenterPoint(getPackedCoordinatesAbsolute()[0]);
             }
         }
         return this.center;
     }
 
     public Point[][] getCoordinatesAbsolute() {
-        // deferred evaluation as some PolyLineContainers will never be drawn. However,
-        // to save memory, after computing the absolute coordinates, the way is released.
         if (coordinatesAbsolute == null) {
-            coordinatesAbsolute = new Point[way.latLongs.length][];
-            for (int i = 0; i < way.latLongs.length; ++i) {
-                coordinatesAbsolute[i] = new Point[way.latLongs[i].length];
-                for (int j = 0; j < way.latLongs[i].length; ++j) {
-                    coordinatesAbsolute[i][j] = MercatorProjection.getPixelAbsolute(way.latLongs[i][j], upperLeft.mapSize);
+            double[][] packed = getPackedCoordinatesAbsolute();
+            coordinatesAbsolute = new Point[packed.length][];
+            for (int i = 0; i < packed.length; ++i) {
+                coordinatesAbsolute[i] = new Point[packed[i].length / 2];
+                for (int j = 0; j < coordinatesAbsolute[i].length; ++j) {
+                    coordinatesAbsolute[i][j] = new Point(packed[i][2 * j], packed[i][2 * j + 1]);
                 }
             }
-            this.way = null;
         }
         return coordinatesAbsolute;
     }
@@ -101,11 +106,12 @@ public class PolylineContainer implements ShapeContainer {
     public Point[][] getCoordinatesRelativeToOrigin() {
         if (coordinatesRelativeToTile == null) {
             Point tileOrigin = upperLeft.getOrigin();
-            coordinatesRelativeToTile = new Point[getCoordinatesAbsolute().length][];
+            double[][] packed = getPackedCoordinatesAbsolute();
+            coordinatesRelativeToTile = new Point[packed.length][];
             for (int i = 0; i < coordinatesRelativeToTile.length; ++i) {
-                coordinatesRelativeToTile[i] = new Point[coordinatesAbsolute[i].length];
+                coordinatesRelativeToTile[i] = new Point[packed[i].length / 2];
                 for (int j = 0; j < coordinatesRelativeToTile[i].length; ++j) {
-                    coordinatesRelativeToTile[i][j] = coordinatesAbsolute[i][j].offset(-tileOrigin.x, -tileOrigin.y);
+                    coordinatesRelativeToTile[i][j] = new Point(packed[i][2 * j] - tileOrigin.x, packed[i][2 * j + 1] - tileOrigin.y);
                 }
             }
         }
@@ -116,6 +122,29 @@ public class PolylineContainer implements ShapeContainer {
         return layer;
     }
 
+    /**
+     * @return the absolute pixel coordinates as interleaved x/y pairs per way segment.
+     */
+    public double[][] getPackedCoordinatesAbsolute() {
+        // deferred evaluation as some PolyLineContainers will never be drawn. However,
+        // to save memory, after computing the absolute coordinates, the way is released.
+        if (coordinatesAbsolutePacked == null) {
+            long mapSize = upperLeft.mapSize;
+            double[][] packed = new double[way.coordinates.length][];
+            for (int i = 0; i < way.coordinates.length; ++i) {
+                double[] latLongs = way.coordinates[i];
+                packed[i] = new double[latLongs.length];
+                for (int j = 0; j < latLongs.length; j += 2) {
+                    packed[i][j] = MercatorProjection.longitudeToPixelX(latLongs[j + 1], mapSize);
+                    packed[i][j + 1] = MercatorProjection.latitudeToPixelY(latLongs[j], mapSize);
+                }
+            }
+            coordinatesAbsolutePacked = packed;
+            this.way = null;
+        }
+        return coordinatesAbsolutePacked;
+    }
+
     @Override
     public ShapeType getShapeType() {
         return ShapeType.POLYLINE;
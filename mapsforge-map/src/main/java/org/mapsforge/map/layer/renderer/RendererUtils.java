@@ -67,6 +67,52 @@ public class RendererUtils {
         return h;
     }
 
+    /**
+     * Computes a polyline with distance dy parallel to given coordinates.
+     * Works like {@link #parallelPath(Point[], double)} on interleaved x/y pairs.
+     */
+    public static double[] parallelPath(double[] p, double dy) {
+        int n = p.length / 2 - 1;
+        double[] u = new double[2 * n];
+        double[] h = new double[p.length];
+
+        // Generate an array u[] of unity vectors of each direction
+        for (int k = 0; k < n; ++k) {
+            double c = p[2 * k + 2] - p[2 * k];
+            double s = p[2 * k + 3] - p[2 * k + 1];
+            double l = Math.sqrt(c * c + s * s);
+            if (l != 0) {
+                u[2 * k] = c / l;
+                u[2 * k + 1] = s / l;
+            }
+
+            // Detect angles above the allowed limit - return original path in this case
+            if (k == 0) {
+                continue;
+            }
+            if (u[2 * k] * u[2 * k - 2] + u[2 * k + 1] * u[2 * k - 1] < ANGLE_LIMIT_COS) {
+                return p;
+            }
+        }
+
+        // For the start point calculate the normal
+        h[0] = p[0] - dy * u[1];
+        h[1] = p[1] + dy * u[0];
+
+        // For 1 to N-1 calculate the intersection of the offset lines
+        for (int k = 1; k < n; k++) {
+            double l = dy / (1 + u[2 * k] * u[2 * k - 2] + u[2 * k + 1] * u[2 * k - 1]);
+            h[2 * k] = p[2 * k] - l * (u[2 * k + 1] + u[2 * k - 1]);
+            h[2 * k + 1] = p[2 * k + 1] + l * (u[2 * k] + u[2 * k - 2]);
+        }
+
+        // For the end point use the normal
+        h[2 * n] = p[2 * n] - dy * u[2 * n - 1];
+        h[2 * n + 1] = p[2 * n + 1] + dy * u[2 * n - 2];
+
+        return h;
+    }
+
     private RendererUtils() {
         throw new IllegalStateException();
     }
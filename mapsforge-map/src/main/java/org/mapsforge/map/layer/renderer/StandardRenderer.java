@@ -4,6 +4,7 @@
  * Copyright 2014-2016 devemux86
  * Copyright 2017 usrusr
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -24,6 +25,7 @@ import org.mapsforge.core.model.LatLong;
 import org.mapsforge.core.model.Point;
 import org.mapsforge.core.model.Rectangle;
 import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
 import org.mapsforge.core.util.MercatorProjection;
 import org.mapsforge.core.util.Parameters;
 import org.mapsforge.map.datastore.MapDataStore;
@@ -106,7 +108,11 @@ public class StandardRenderer {
     }
 
     boolean renderBitmap(RenderContext renderContext) {
-        return !renderContext.renderTheme.hasMapBackgroundOutside() || this.mapDataStore.supportsTile(renderContext.rendererJob.tile);
+        if (renderContext.lowerRight.equals(renderContext.rendererJob.tile)) {
+            return !renderContext.renderTheme.hasMapBackgroundOutside() || this.mapDataStore.supportsTile(renderContext.rendererJob.tile);
+        }
+        return !renderContext.renderTheme.hasMapBackgroundOutside() || this.mapDataStore.supportsArea(
+                Tile.getBoundingBox(renderContext.rendererJob.tile, renderContext.lowerRight), renderContext.rendererJob.tile.zoomLevel);
     }
 
     protected void renderPointOfInterest(final RenderContext renderContext, PointOfInterest pointOfInterest) {
@@ -116,12 +122,12 @@ public class StandardRenderer {
 
     protected void renderWaterBackground(final RenderContext renderContext) {
         renderContext.setDrawingLayer((byte) 0);
-        Point[] coordinates = getTilePixelCoordinates(renderContext.rendererJob.tile.tileSize);
+        Point[] coordinates = getTilePixelCoordinates(renderContext.getWidth(), renderContext.getHeight());
         Point tileOrigin = renderContext.rendererJob.tile.getOrigin();
         for (int i = 0; i < coordinates.length; i++) {
             coordinates[i] = coordinates[i].offset(tileOrigin.x, tileOrigin.y);
         }
-        PolylineContainer way = new PolylineContainer(coordinates, renderContext.rendererJob.tile, renderContext.rendererJob.tile, Collections.singletonList(TAG_NATURAL_WATER));
+        PolylineContainer way = new PolylineContainer(coordinates, renderContext.rendererJob.tile, renderContext.lowerRight, Collections.singletonList(TAG_NATURAL_WATER));
         renderContext.renderTheme.matchClosedWay(getRenderCallback(), renderContext, way);
     }
 
@@ -154,7 +160,7 @@ public class StandardRenderer {
         }
 
         for (Way way : mapReadResult.ways) {
-            renderWay(renderContext, new PolylineContainer(way, renderContext.rendererJob.tile, renderContext.rendererJob.tile));
+            renderWay(renderContext, new PolylineContainer(way, renderContext.rendererJob.tile, renderContext.lowerRight));
         }
 
         if (mapReadResult.isWater) {
@@ -168,12 +174,12 @@ public class StandardRenderer {
         }
     }
 
-    private static Point[] getTilePixelCoordinates(int tileSize) {
+    private static Point[] getTilePixelCoordinates(int width, int height) {
         Point[] result = new Point[5];
         result[0] = new Point(0, 0);
-        result[1] = new Point(tileSize, 0);
-        result[2] = new Point(tileSize, tileSize);
-        result[3] = new Point(0, tileSize);
+        result[1] = new Point(width, 0);
+        result[2] = new Point(width, height);
+        result[3] = new Point(0, height);
         result[4] = result[0];
         return result;
     }
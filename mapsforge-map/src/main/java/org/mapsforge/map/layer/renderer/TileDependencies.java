@@ -62,6 +62,14 @@ public class TileDependencies {
         return new HashSet<MapElementContainer>(0);
     }
 
+    /**
+     * Cache maintenance operation to remove all data, e.g. when a batch of tiles has been drawn completely.
+     */
+    synchronized void clear() {
+        overlapData.clear();
+        tilesInProgress.clear();
+    }
+
     /**
      * Cache maintenance operation to remove data for a tile from the cache. This should be excuted
      * if a tile is removed from the TileCache and will be drawn again.
@@ -5,6 +5,7 @@
  * Copyright 2016 devemux86
  * Copyright 2016 ksaihtam
  * Copyright 2017 usrusr
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -33,6 +34,7 @@ import org.mapsforge.map.model.MapViewPosition;
 import org.mapsforge.map.model.common.Observer;
 import org.mapsforge.map.rendertheme.XmlRenderTheme;
 import org.mapsforge.map.rendertheme.rule.RenderThemeFuture;
+import org.mapsforge.map.util.RenderMetrics;
 
 public class TileRendererLayer extends TileLayer<RendererJob> implements Observer {
     private final DatabaseRenderer databaseRenderer;
@@ -148,6 +150,12 @@ public class TileRendererLayer extends TileLayer<RendererJob> implements Observe
         }
     }
 
+    @Override
+    public synchronized void setRenderMetrics(RenderMetrics renderMetrics) {
+        super.setRenderMetrics(renderMetrics);
+        this.databaseRenderer.setRenderMetrics(renderMetrics);
+    }
+
     public void setTextScale(float textScale) {
         this.textScale = textScale;
     }
@@ -0,0 +1,619 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.IOUtils;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.datastore.MapDataStore;
+import org.mapsforge.map.layer.cache.FileSystemTileCache;
+import org.mapsforge.map.layer.cache.TileCache;
+import org.mapsforge.map.layer.hills.HillsRenderConfig;
+import org.mapsforge.map.layer.queue.Job;
+import org.mapsforge.map.model.DisplayModel;
+import org.mapsforge.map.model.common.Observer;
+import org.mapsforge.map.rendertheme.XmlRenderTheme;
+import org.mapsforge.map.rendertheme.rule.RenderThemeFuture;
+import org.mapsforge.map.util.RenderMetrics;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A headless engine which pre-renders all tiles of a bounding box and a range of zoom levels into a {@link TileCache},
+ * e.g. a writable {@link org.mapsforge.map.layer.cache.TileStore} or a persistent
+ * {@link org.mapsforge.map.layer.cache.PackFileTileCache} large enough to hold all tiles.
+ * <p/>
+ * The tiles of a zoom level are rendered row by row by a pool of worker threads. Labels are drawn directly onto the
+ * tiles, the {@link TileDependencies} of the {@link DatabaseRenderer} make sure that labels crossing tile borders are
+ * drawn completely on all affected tiles. Label dependencies are released as soon as all neighbours of a tile have
+ * been drawn, so memory use depends on the width of the bounding box and not on the number of tiles.
+ * <p/>
+ * The progress is saved to an optional progress file as the number of completed rows of the current zoom level, a
+ * later run with the same bounding box and zoom levels continues where the previous one stopped. Labels crossing the
+ * row at which a run was resumed may be clipped, as the label dependencies are not persisted.
+ */
+public class TileSeeder {
+    private static final Logger LOGGER = Logger.getLogger(TileSeeder.class.getName());
+
+    /**
+     * Minimum interval in milliseconds between two saves of the progress file.
+     */
+    private static final long PROGRESS_INTERVAL = 1000;
+
+    private static final String PROGRESS_KEY = "key";
+    private static final String PROGRESS_ROWS = "rows";
+    private static final String PROGRESS_ZOOM_LEVEL = "zoomLevel";
+
+    /**
+     * Receives the statistics of every rendered zoom level.
+     */
+    public interface Listener {
+        /**
+         * Called from the seeding thread after a zoom level has been completed or the seeding was cancelled.
+         */
+        void onZoomLevelFinished(ZoomLevelStatistics statistics);
+    }
+
+    /**
+     * Throughput statistics of a zoom level, tiles rendered by a previous run are not included.
+     */
+    public static final class ZoomLevelStatistics {
+        public final boolean complete;
+        public final long failedTiles;
+        public final long millis;
+        public final long tiles;
+        public final byte zoomLevel;
+
+        ZoomLevelStatistics(byte zoomLevel, long tiles, long failedTiles, long millis, boolean complete) {
+            this.zoomLevel = zoomLevel;
+            this.tiles = tiles;
+            this.failedTiles = failedTiles;
+            this.millis = millis;
+            this.complete = complete;
+        }
+
+        /**
+         * @return the number of rendered tiles per second.
+         */
+        public double getTilesPerSecond() {
+            return this.tiles * 1000d / Math.max(1, this.millis);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder stringBuilder = new StringBuilder();
+            stringBuilder.append("zoomLevel=");
+            stringBuilder.append(this.zoomLevel);
+            stringBuilder.append(", tiles=");
+            stringBuilder.append(this.tiles);
+            stringBuilder.append(", failedTiles=");
+            stringBuilder.append(this.failedTiles);
+            stringBuilder.append(", millis=");
+            stringBuilder.append(this.millis);
+            stringBuilder.append(", tilesPerSecond=");
+            stringBuilder.append(Math.round(getTilesPerSecond() * 10) / 10d);
+            stringBuilder.append(", complete=");
+            stringBuilder.append(this.complete);
+            return stringBuilder.toString();
+        }
+    }
+
+    /**
+     * The state of the zoom level being rendered. Rows and columns are counted in metatiles, which are single tiles
+     * unless a metatile size is set.
+     */
+    private final class ZoomLevelSeed {
+        final int columns;
+        /**
+         * All rows before this one have been completed.
+         */
+        volatile int completedRows;
+        final AtomicLong failedTiles = new AtomicLong();
+        long lastSave;
+        final AtomicLong nextTile;
+        /**
+         * All label dependencies of the rows before this one have been released.
+         */
+        int releasedRows;
+        final int[] remainingTiles;
+        final int left;
+        /**
+         * Upper left tiles of the metatiles drawn in the rows which have not been completed yet.
+         */
+        final Set<Tile> renderedTiles = Collections.newSetFromMap(new ConcurrentHashMap<Tile, Boolean>());
+        final AtomicLong renderedTileCount = new AtomicLong();
+        final int rows;
+        final int top;
+        final byte zoomLevel;
+
+        ZoomLevelSeed(BoundingBox boundingBox, byte zoomLevel, int completedRows) {
+            this.zoomLevel = zoomLevel;
+            this.left = MercatorProjection.longitudeToTileX(boundingBox.minLongitude, zoomLevel) / metatileSize;
+            this.top = MercatorProjection.latitudeToTileY(boundingBox.maxLatitude, zoomLevel) / metatileSize;
+            this.columns = MercatorProjection.longitudeToTileX(boundingBox.maxLongitude, zoomLevel) / metatileSize - this.left + 1;
+            this.rows = MercatorProjection.latitudeToTileY(boundingBox.minLatitude, zoomLevel) / metatileSize - this.top + 1;
+
+            this.completedRows = Math.min(completedRows, this.rows);
+            this.releasedRows = this.completedRows;
+            this.remainingTiles = new int[this.rows];
+            for (int row = this.completedRows; row < this.rows; ++row) {
+                this.remainingTiles[row] = this.columns;
+            }
+            this.nextTile = new AtomicLong((long) this.completedRows * this.columns);
+            this.lastSave = System.currentTimeMillis();
+        }
+
+        /**
+         * @return the upper left tile of the metatile.
+         */
+        Tile getTile(int column, int row) {
+            return new Tile((this.left + column) * metatileSize, (this.top + row) * metatileSize, this.zoomLevel,
+                    displayModel.getTileSize());
+        }
+
+        boolean isComplete() {
+            return this.completedRows == this.rows;
+        }
+
+        /**
+         * @return true if the metatile with the given upper left tile has been drawn by this or a previous run.
+         */
+        boolean isRendered(Tile tile) {
+            if (tile.zoomLevel != this.zoomLevel) {
+                return false;
+            }
+            long column = tile.tileX / metatileSize - this.left;
+            long row = tile.tileY / metatileSize - this.top;
+            if (column < 0 || column >= this.columns || row < 0 || row >= this.rows) {
+                return false;
+            }
+            return row < this.completedRows || this.renderedTiles.contains(tile);
+        }
+
+        void render() {
+            long tileCount = (long) this.rows * this.columns;
+            while (!cancelled) {
+                long index = this.nextTile.getAndIncrement();
+                if (index >= tileCount) {
+                    return;
+                }
+                int row = (int) (index / this.columns);
+                Tile tile = getTile((int) (index % this.columns), row);
+                RendererJob rendererJob = new RendererJob(tile, mapDataStore, renderThemeFuture, displayModel, 1,
+                        false, false);
+
+                Map<Tile, TileBitmap> bitmaps = databaseRenderer.executeMetatileJob(rendererJob, metatileSize);
+                if (bitmaps == null) {
+                    LOGGER.warning("failed to render tile " + tile);
+                    databaseRenderer.removeTileInProgress(tile);
+                    this.failedTiles.incrementAndGet();
+                } else {
+                    for (TileBitmap bitmap : bitmaps.values()) {
+                        bitmap.decrementRefCount();
+                    }
+                    this.renderedTileCount.addAndGet(bitmaps.size());
+                }
+                tileFinished(row);
+            }
+        }
+
+        /**
+         * Advances the completed rows and releases the label dependencies of tiles whose neighbours have all been
+         * drawn.
+         */
+        synchronized void tileFinished(int row) {
+            if (--this.remainingTiles[row] > 0 || row != this.completedRows) {
+                return;
+            }
+            int completedRows = this.completedRows;
+            while (completedRows < this.rows && this.remainingTiles[completedRows] == 0) {
+                ++completedRows;
+            }
+            this.completedRows = completedRows;
+
+            for (int r = this.releasedRows; r < completedRows; ++r) {
+                // completed rows are covered by completedRows
+                for (int column = 0; column < this.columns; ++column) {
+                    this.renderedTiles.remove(getTile(column, r));
+                }
+                // the dependencies of a row are needed until the next row has been completed as well
+                if (r + 1 < completedRows) {
+                    synchronized (databaseRenderer.tileDependencies) {
+                        for (int column = 0; column < this.columns; ++column) {
+                            databaseRenderer.tileDependencies.removeTileData(getTile(column, r));
+                        }
+                    }
+                    this.releasedRows = r + 1;
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - this.lastSave >= PROGRESS_INTERVAL && !isComplete()) {
+                this.lastSave = now;
+                saveProgress(this.zoomLevel, completedRows);
+            }
+        }
+    }
+
+    /**
+     * The tile cache of the renderer, which answers whether neighbouring tiles have been drawn from the state of the
+     * seeding run instead of querying the target.
+     */
+    private final class SeedTileCache implements TileCache {
+        @Override
+        public boolean containsKey(Job key) {
+            ZoomLevelSeed seed = zoomLevelSeed;
+            return seed != null && seed.isRendered(key.tile);
+        }
+
+        @Override
+        public void destroy() {
+            // the target is owned by the caller
+        }
+
+        @Override
+        public TileBitmap get(Job key) {
+            return tileCache.get(key);
+        }
+
+        @Override
+        public int getCapacity() {
+            return tileCache.getCapacity();
+        }
+
+        @Override
+        public int getCapacityFirstLevel() {
+            return tileCache.getCapacityFirstLevel();
+        }
+
+        @Override
+        public TileBitmap getImmediately(Job key) {
+            return tileCache.getImmediately(key);
+        }
+
+        @Override
+        public void purge() {
+            // the target is owned by the caller
+        }
+
+        /**
+         * Called by the renderer before the tile is removed from the tiles in progress, so that the neighbours of
+         * the tile always see it as either in progress or drawn.
+         */
+        @Override
+        public void put(Job key, TileBitmap bitmap) {
+            tileCache.put(key, bitmap);
+            ZoomLevelSeed seed = zoomLevelSeed;
+            if (seed != null && key.tile.tileX % metatileSize == 0 && key.tile.tileY % metatileSize == 0) {
+                seed.renderedTiles.add(key.tile);
+            }
+        }
+
+        @Override
+        public void setWorkingSet(Set<Job> workingSet) {
+            // no-op
+        }
+
+        @Override
+        public void addObserver(Observer observer) {
+            tileCache.addObserver(observer);
+        }
+
+        @Override
+        public void removeObserver(Observer observer) {
+            tileCache.removeObserver(observer);
+        }
+    }
+
+    private volatile boolean cancelled;
+    private DatabaseRenderer databaseRenderer;
+    private final DisplayModel displayModel;
+    private final GraphicFactory graphicFactory;
+    private HillsRenderConfig hillsRenderConfig;
+    private Listener listener;
+    private final MapDataStore mapDataStore;
+    private int metatileSize = 1;
+    private File progressFile;
+    private String progressKey;
+    private RenderMetrics renderMetrics;
+    private RenderThemeFuture renderThemeFuture;
+    private final List<ZoomLevelStatistics> statistics = new ArrayList<>();
+    private final int threads;
+    private final TileCache tileCache;
+    private final XmlRenderTheme xmlRenderTheme;
+    private volatile ZoomLevelSeed zoomLevelSeed;
+
+    /**
+     * @param mapDataStore   the map data to render.
+     * @param graphicFactory the graphic factory.
+     * @param xmlRenderTheme the render theme.
+     * @param displayModel   the display model, which defines the tile size.
+     * @param tileCache      where the rendered tiles are stored.
+     * @param threads        the number of rendering threads.
+     * @throws IllegalArgumentException if the number of threads is less than one.
+     */
+    public TileSeeder(MapDataStore mapDataStore, GraphicFactory graphicFactory, XmlRenderTheme xmlRenderTheme,
+                      DisplayModel displayModel, TileCache tileCache, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.mapDataStore = mapDataStore;
+        this.graphicFactory = graphicFactory;
+        this.xmlRenderTheme = xmlRenderTheme;
+        this.displayModel = displayModel;
+        this.tileCache = tileCache;
+        this.threads = threads;
+    }
+
+    /**
+     * Stops the seeding after the tiles currently being rendered. The progress is saved and {@link #seed} returns
+     * false. A cancelled seeder cannot be restarted, a new seeder with the same progress file resumes the seeding.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return the statistics of the zoom levels rendered so far.
+     */
+    public List<ZoomLevelStatistics> getStatistics() {
+        synchronized (this.statistics) {
+            return new ArrayList<>(this.statistics);
+        }
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Renders all tiles of the bounding box for the given zoom levels and blocks until all tiles have been rendered
+     * or the seeding has been cancelled.
+     *
+     * @param boundingBox  the area to render.
+     * @param zoomLevelMin the first zoom level to render.
+     * @param zoomLevelMax the last zoom level to render.
+     * @return true if all tiles have been rendered, false if the seeding has been cancelled.
+     * @throws IllegalArgumentException if the zoom levels are invalid or the render theme cannot be parsed.
+     */
+    public boolean seed(BoundingBox boundingBox, byte zoomLevelMin, byte zoomLevelMax) {
+        if (zoomLevelMin < 0 || zoomLevelMin > zoomLevelMax) {
+            throw new IllegalArgumentException("invalid zoom levels: " + zoomLevelMin + ", " + zoomLevelMax);
+        }
+
+        this.progressKey = boundingBox + ", tileSize=" + this.displayModel.getTileSize() + ", metatileSize="
+                + this.metatileSize + ", zoomLevels="
+                + zoomLevelMin + "-" + zoomLevelMax;
+        byte resumeZoomLevel = zoomLevelMin;
+        int resumeRows = 0;
+        Properties progress = loadProgress();
+        if (progress != null) {
+            resumeZoomLevel = Byte.parseByte(progress.getProperty(PROGRESS_ZOOM_LEVEL));
+            resumeRows = Integer.parseInt(progress.getProperty(PROGRESS_ROWS));
+            LOGGER.info("resuming at zoom level " + resumeZoomLevel + ", row " + resumeRows);
+        }
+
+        this.renderThemeFuture = new RenderThemeFuture(this.graphicFactory, this.xmlRenderTheme, this.displayModel);
+        ExecutorService executorService = null;
+        try {
+            this.renderThemeFuture.run();
+            try {
+                this.renderThemeFuture.get();
+            } catch (ExecutionException e) {
+                throw new IllegalArgumentException("invalid render theme", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                return false;
+            }
+
+            this.databaseRenderer = new DatabaseRenderer(this.mapDataStore, this.graphicFactory, new SeedTileCache(),
+                    null, true, false, this.hillsRenderConfig);
+            this.databaseRenderer.setRenderMetrics(this.renderMetrics);
+            executorService = Executors.newFixedThreadPool(this.threads);
+            for (int zoomLevel = Math.max(zoomLevelMin, resumeZoomLevel); zoomLevel <= zoomLevelMax; ++zoomLevel) {
+                int completedRows = zoomLevel == resumeZoomLevel ? resumeRows : 0;
+                if (!seedZoomLevel(executorService, boundingBox, (byte) zoomLevel, completedRows)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+            this.renderThemeFuture.decrementRefCount();
+        }
+    }
+
+    /**
+     * Sets the hillshading to render, must be set before {@link #seed} is called.
+     */
+    public void setHillsRenderConfig(HillsRenderConfig hillsRenderConfig) {
+        this.hillsRenderConfig = hillsRenderConfig;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the number of tiles along each side of a metatile, must be set before {@link #seed} is called. Each
+     * metatile is read and rendered at once, see {@link DatabaseRenderer#executeMetatileJob}. The bounding box is
+     * extended to whole metatiles.
+     *
+     * @param metatileSize the metatile size, a power of two, 1 to render single tiles.
+     * @throws IllegalArgumentException if the metatile size is not a power of two.
+     */
+    public void setMetatileSize(int metatileSize) {
+        if (metatileSize < 1 || (metatileSize & (metatileSize - 1)) != 0) {
+            throw new IllegalArgumentException("metatileSize must be a power of two: " + metatileSize);
+        }
+        this.metatileSize = metatileSize;
+    }
+
+    /**
+     * Sets the listener receiving the durations of the rendering stages, must be set before {@link #seed} is called.
+     */
+    public void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+    }
+
+    /**
+     * Sets the file used to save the progress, must be set before {@link #seed} is called. The file is ignored if it
+     * was written for a different bounding box, tile size or range of zoom levels.
+     */
+    public void setProgressFile(File progressFile) {
+        this.progressFile = progressFile;
+    }
+
+    private Properties loadProgress() {
+        if (this.progressFile == null || !this.progressFile.isFile()) {
+            return null;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(this.progressFile);
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            if (!this.progressKey.equals(properties.getProperty(PROGRESS_KEY))) {
+                LOGGER.warning("ignoring progress file for a different area: " + this.progressFile);
+                return null;
+            }
+            Byte.parseByte(properties.getProperty(PROGRESS_ZOOM_LEVEL));
+            Integer.parseInt(properties.getProperty(PROGRESS_ROWS));
+            return properties;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "ignoring invalid progress file: " + this.progressFile, e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    /**
+     * Saves the number of completed rows of a zoom level after all tiles up to this point have been written.
+     */
+    private void saveProgress(byte zoomLevel, int completedRows) {
+        if (this.tileCache instanceof FileSystemTileCache) {
+            ((FileSystemTileCache) this.tileCache).flush();
+        }
+        if (this.progressFile == null) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(PROGRESS_KEY, this.progressKey);
+        properties.setProperty(PROGRESS_ZOOM_LEVEL, Byte.toString(zoomLevel));
+        properties.setProperty(PROGRESS_ROWS, Integer.toString(completedRows));
+        File tmpFile = new File(this.progressFile.getPath() + ".tmp");
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tmpFile);
+            properties.store(outputStream, null);
+            outputStream.close();
+            outputStream = null;
+            if ((this.progressFile.exists() && !this.progressFile.delete()) || !tmpFile.renameTo(this.progressFile)) {
+                LOGGER.warning("cannot write progress file: " + this.progressFile);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "cannot write progress file: " + this.progressFile, e);
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+        }
+    }
+
+    private boolean seedZoomLevel(ExecutorService executorService, BoundingBox boundingBox, byte zoomLevel,
+                                  int completedRows) {
+        final ZoomLevelSeed seed = new ZoomLevelSeed(boundingBox, zoomLevel, completedRows);
+        this.zoomLevelSeed = seed;
+        long start = System.currentTimeMillis();
+
+        List<Future<?>> futures = new ArrayList<>(this.threads);
+        for (int i = 0; i < this.threads; ++i) {
+            futures.add(executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    seed.render();
+                }
+            }));
+        }
+        // after an interrupt the workers finish their current tiles before the progress is saved
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "seeding failed", e.getCause());
+                    cancel();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean complete;
+        synchronized (seed) {
+            complete = seed.isComplete();
+            if (complete) {
+                saveProgress((byte) (zoomLevel + 1), 0);
+            } else {
+                saveProgress(zoomLevel, seed.completedRows);
+            }
+        }
+        this.databaseRenderer.tileDependencies.clear();
+        this.zoomLevelSeed = null;
+
+        ZoomLevelStatistics zoomLevelStatistics = new ZoomLevelStatistics(zoomLevel, seed.renderedTileCount.get(),
+                seed.failedTiles.get(), System.currentTimeMillis() - start, complete);
+        synchronized (this.statistics) {
+            this.statistics.add(zoomLevelStatistics);
+        }
+        LOGGER.info(zoomLevelStatistics.toString());
+        if (this.listener != null) {
+            this.listener.onZoomLevelFinished(zoomLevelStatistics);
+        }
+        return complete;
+    }
+}
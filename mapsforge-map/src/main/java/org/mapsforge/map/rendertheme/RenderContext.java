@@ -1,6 +1,7 @@
 /*
  * Copyright 2015 Ludwig M Brinckmann
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -39,6 +40,11 @@ public class RenderContext {
 
     private static final double STROKE_INCREASE = 1.5;
     private static final byte STROKE_MIN_ZOOM_LEVEL = 12;
+    /**
+     * The tile in the lower right corner of the rendered area, the tile of the renderer job is in the upper left
+     * corner. Both are the same unless a metatile is rendered.
+     */
+    public final Tile lowerRight;
     public final RendererJob rendererJob;
     public final RenderTheme renderTheme;
 
@@ -52,7 +58,15 @@ public class RenderContext {
 
 
     public RenderContext(RendererJob rendererJob, GraphicFactory graphicFactory) throws InterruptedException, ExecutionException {
+        this(rendererJob, rendererJob.tile, graphicFactory);
+    }
+
+    /**
+     * Creates a context to render the area from the tile of the renderer job to the lower right tile.
+     */
+    public RenderContext(RendererJob rendererJob, Tile lowerRight, GraphicFactory graphicFactory) throws InterruptedException, ExecutionException {
         this.rendererJob = rendererJob;
+        this.lowerRight = lowerRight;
         this.labels = new LinkedList<>();
         this.canvasRasterer = new CanvasRasterer(RenderContext.this, graphicFactory);
         this.renderTheme = rendererJob.renderThemeFuture.get();
@@ -65,6 +79,20 @@ public class RenderContext {
         this.canvasRasterer.destroy();
     }
 
+    /**
+     * @return the height of the rendered area in pixels.
+     */
+    public int getHeight() {
+        return (this.lowerRight.tileY - this.rendererJob.tile.tileY + 1) * this.rendererJob.tile.tileSize;
+    }
+
+    /**
+     * @return the width of the rendered area in pixels.
+     */
+    public int getWidth() {
+        return (this.lowerRight.tileX - this.rendererJob.tile.tileX + 1) * this.rendererJob.tile.tileSize;
+    }
+
     public void setDrawingLayer(byte layer) {
         if (layer < 0) {
             layer = 0;
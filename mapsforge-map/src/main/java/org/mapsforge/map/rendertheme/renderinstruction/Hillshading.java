@@ -2,6 +2,7 @@
  * Copyright 2017 usrusr
  * Copyright 2017 oruxman
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -92,13 +93,14 @@ public class Hillshading {
 
             final Point origin = tile.getOrigin();
 
+            // the rendered area spans several tiles if a metatile is rendered
             final double maptileLeftLon = MercatorProjection.pixelXToLongitude(origin.x, tile.mapSize);
-            double maptileRightLon = MercatorProjection.pixelXToLongitude(origin.x + tile.tileSize, tile.mapSize);
+            double maptileRightLon = MercatorProjection.pixelXToLongitude(origin.x + renderContext.getWidth(), tile.mapSize);
             if (maptileRightLon < maptileLeftLon)
                 maptileRightLon += tile.mapSize;
 
             final double maptileTopLat = MercatorProjection.pixelYToLatitude(origin.y, tile.mapSize);
-            final double maptileBottomLat = MercatorProjection.pixelYToLatitude(origin.y + tile.tileSize, tile.mapSize);
+            final double maptileBottomLat = MercatorProjection.pixelYToLatitude(origin.y + renderContext.getHeight(), tile.mapSize);
 
             final float effectiveMagnitude = Math.min(Math.max(0f, this.magnitude * hillsRenderConfig.getMagnitudeScaleFactor()), 255f) / 255f;
             final int effectiveColor = getEffectiveColor(hillsRenderConfig);
@@ -177,8 +179,8 @@ public class Hillshading {
                     // map tile subset if it fully fits inside shading tile
                     double maptileSubrectLeft = 0;
                     double maptileSubrectTop = 0;
-                    double maptileSubrectRight = tile.tileSize;
-                    double maptileSubrectBottom = tile.tileSize;
+                    double maptileSubrectRight = renderContext.getWidth();
+                    double maptileSubrectBottom = renderContext.getHeight();
 
                     final Point origin = tile.getOrigin();
 
@@ -2,6 +2,7 @@
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014-2015 Ludwig M Brinckmann
  * Copyright 2014-2019 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -17,6 +18,7 @@
 package org.mapsforge.map.rendertheme.renderinstruction;
 
 import org.mapsforge.core.graphics.*;
+import org.mapsforge.core.util.Parameters;
 import org.mapsforge.map.datastore.PointOfInterest;
 import org.mapsforge.map.layer.renderer.PolylineContainer;
 import org.mapsforge.map.model.DisplayModel;
@@ -160,8 +162,13 @@ public class Line extends RenderInstruction {
             Paint strokePaint = getStrokePaint(renderContext.rendererJob.tile.zoomLevel);
 
             if (shaderBitmap != null) {
-                strokePaint.setBitmapShader(shaderBitmap);
-                strokePaint.setBitmapShaderShift(way.getUpperLeft().getOrigin());
+                if (!strokePaint.hasBitmapShader()) {
+                    strokePaint.setBitmapShader(shaderBitmap);
+                }
+                // with multiple threads the shift is set on a copy of the paint by the CanvasRasterer
+                if (Parameters.NUMBER_OF_THREADS == 1) {
+                    strokePaint.setBitmapShaderShift(way.getUpperLeft().getOrigin());
+                }
             }
 
             Float dyScale = this.dyScaled.get(renderContext.rendererJob.tile.zoomLevel);
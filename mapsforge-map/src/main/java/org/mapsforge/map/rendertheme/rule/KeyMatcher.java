@@ -27,6 +27,10 @@ class KeyMatcher implements AttributeMatcher {
         this.keys = Utils.convertListString(keys);
     }
 
+    int[] getKeys() {
+        return this.keys;
+    }
+
     @Override
     public boolean matches(Tag tag) {
         return Utils.contains(keys, tag.keyCode);
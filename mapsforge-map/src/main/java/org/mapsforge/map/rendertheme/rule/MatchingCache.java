@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.mapsforge.core.util.LRUCache;
+import org.mapsforge.map.rendertheme.renderinstruction.RenderInstruction;
+
+import java.util.Map;
+
+/**
+ * A cache for the render instructions matching a set of tags with a fixed size and LRU policy.
+ * <p/>
+ * The cache is split into independently locked segments, so that concurrent render threads only contend when they
+ * look up keys in the same segment, and only for the duration of a single map operation.
+ *
+ * @param <K> the type of the matching cache keys.
+ */
+class MatchingCache<K> {
+    /**
+     * Number of independently locked segments.
+     */
+    private static final int SEGMENTS = 16;
+
+    private final Map<K, RenderInstruction[]>[] segments;
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newSegments(int numberOfSegments) {
+        return (Map<K, V>[]) new Map<?, ?>[numberOfSegments];
+    }
+
+    /**
+     * @param capacity the maximum number of entries in the cache.
+     */
+    MatchingCache(int capacity) {
+        int numberOfSegments = Math.max(1, Math.min(SEGMENTS, capacity / 4));
+        this.segments = newSegments(numberOfSegments);
+        for (int i = 0; i < numberOfSegments; ++i) {
+            int segmentCapacity = capacity / numberOfSegments + (i < capacity % numberOfSegments ? 1 : 0);
+            this.segments[i] = new LRUCache<>(segmentCapacity);
+        }
+    }
+
+    void clear() {
+        for (Map<K, RenderInstruction[]> segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @param key the matching cache key.
+     * @return the cached render instructions or null if the key is not cached.
+     */
+    RenderInstruction[] get(K key) {
+        Map<K, RenderInstruction[]> segment = getSegment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * @param key          the matching cache key.
+     * @param instructions the matching render instructions.
+     */
+    void put(K key, RenderInstruction[] instructions) {
+        Map<K, RenderInstruction[]> segment = getSegment(key);
+        synchronized (segment) {
+            segment.put(key, instructions);
+        }
+    }
+
+    private Map<K, RenderInstruction[]> getSegment(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.segments[(hash & Integer.MAX_VALUE) % this.segments.length];
+    }
+}
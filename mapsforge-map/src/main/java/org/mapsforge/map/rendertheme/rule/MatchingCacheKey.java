@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.util.Utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The exact key of the render instructions matching a set of tags on a zoom level.
+ * <p/>
+ * Unlike a plain hash code, two keys are only equal if their tags, zoom level and closed flag are equal, so different
+ * tag sets can never share cached render instructions. The name tag is ignored, as it does not take part in matching.
+ */
+final class MatchingCacheKey {
+    private static final String KEY_NAME = "name";
+    private static final int KEY_CODE_NAME = Utils.hashTagParameter(KEY_NAME);
+    private static final Tag[] NO_TAGS = new Tag[0];
+
+    private final Closed closed;
+    private final int hashCode;
+    private final Tag[] tags;
+    private final byte zoomLevel;
+
+    MatchingCacheKey(List<Tag> tags, byte zoomLevel, Closed closed) {
+        this.tags = filterTags(tags);
+        this.zoomLevel = zoomLevel;
+        this.closed = closed;
+        this.hashCode = calculateHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof MatchingCacheKey)) {
+            return false;
+        }
+        MatchingCacheKey other = (MatchingCacheKey) obj;
+        return this.hashCode == other.hashCode
+                && this.zoomLevel == other.zoomLevel
+                && this.closed == other.closed
+                && Arrays.equals(this.tags, other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    private int calculateHashCode() {
+        int result = 1;
+        result = 31 * result + ((this.closed == null) ? 0 : this.closed.hashCode());
+        result = 31 * result + Arrays.hashCode(this.tags);
+        result = 31 * result + this.zoomLevel;
+        return result;
+    }
+
+    private static boolean isName(Tag tag) {
+        return tag.keyCode == KEY_CODE_NAME && KEY_NAME.equals(tag.key);
+    }
+
+    private static Tag[] filterTags(List<Tag> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return NO_TAGS;
+        }
+
+        int count = 0;
+        for (int i = 0, n = tags.size(); i < n; i++) {
+            if (!isName(tags.get(i))) {
+                ++count;
+            }
+        }
+
+        Tag[] result = new Tag[count];
+        int j = 0;
+        for (int i = 0, n = tags.size(); i < n; i++) {
+            Tag tag = tags.get(i);
+            if (!isName(tag)) {
+                result[j++] = tag;
+            }
+        }
+        return result;
+    }
+}
@@ -18,9 +18,6 @@
  */
 package org.mapsforge.map.rendertheme.rule;
 
-import org.mapsforge.core.model.Tag;
-import org.mapsforge.core.util.LRUCache;
-import org.mapsforge.core.util.Utils;
 import org.mapsforge.map.datastore.PointOfInterest;
 import org.mapsforge.map.layer.hills.HillsRenderConfig;
 import org.mapsforge.map.layer.renderer.PolylineContainer;
@@ -40,7 +37,7 @@ import java.util.Map;
  */
 public class RenderTheme {
 
-    private static final int MATCHING_CACHE_SIZE = 8192;
+    private static final int MATCHING_CACHE_SIZE = 16384;
 
     private final float baseStrokeWidth;
     private final float baseTextSize;
@@ -48,12 +45,15 @@ public class RenderTheme {
     private volatile int levels;
     private final int mapBackground;
     private final int mapBackgroundOutside;
-    private final LRUCache<Integer, RenderInstruction[]> wayMatchingCache;
-    private final LRUCache<Integer, RenderInstruction[]> poiMatchingCache;
+    private final MatchingCache<MatchingCacheKey> wayMatchingCache;
+    private final MatchingCache<MatchingCacheKey> poiMatchingCache;
 
-    // Note: rulesList and hillShadings are not synchronized because it seems they are not being updated once the theme is loaded.
+    // Note: rulesList and hillShadings are not synchronized because they are not updated once the theme is loaded,
+    // the rule tree is immutable after complete() and can be matched concurrently without locks.
     private final ArrayList<Rule> rulesList; // NOPMD we need specific interface
     private final ArrayList<Hillshading> hillShadings = new ArrayList<>(); // NOPMD specific interface for trimToSize
+    // decision index over the top level rules, only built for themes with many top level rules
+    private RuleIndex ruleIndex;
 
     private final Map<Byte, Float> strokeScales = new HashMap<>();
     private final Map<Byte, Float> textScales = new HashMap<>();
@@ -65,27 +65,29 @@ public class RenderTheme {
         this.mapBackground = renderThemeBuilder.mapBackground;
         this.mapBackgroundOutside = renderThemeBuilder.mapBackgroundOutside;
         this.rulesList = new ArrayList<>();
-        this.poiMatchingCache = new LRUCache<>(MATCHING_CACHE_SIZE);
-        this.wayMatchingCache = new LRUCache<>(MATCHING_CACHE_SIZE);
+        this.poiMatchingCache = new MatchingCache<>(MATCHING_CACHE_SIZE);
+        this.wayMatchingCache = new MatchingCache<>(MATCHING_CACHE_SIZE);
     }
 
     /**
      * Must be called when this RenderTheme gets destroyed to clean up and free resources.
      */
     public void destroy() {
-        synchronized (this.poiMatchingCache) {
-            this.poiMatchingCache.clear();
-        }
-
-        synchronized (this.wayMatchingCache) {
-            this.wayMatchingCache.clear();
-        }
+        clearMatchingCaches();
 
         for (Rule r : this.rulesList) {
             r.destroy();
         }
     }
 
+    /**
+     * Removes all cached matching results, so that the next lookups evaluate the rules again.
+     */
+    void clearMatchingCaches() {
+        this.poiMatchingCache.clear();
+        this.wayMatchingCache.clear();
+    }
+
     /**
      * @return the number of distinct drawing levels required by this RenderTheme.
      */
@@ -149,12 +151,9 @@ public class RenderTheme {
      */
     public void matchNode(RenderCallback renderCallback, final RenderContext renderContext, PointOfInterest poi) {
         // check cached instructions
-        int matchingCacheKey = computeMatchingCacheKey(poi.tags, renderContext.rendererJob.tile.zoomLevel, Closed.NO);
+        MatchingCacheKey matchingCacheKey = new MatchingCacheKey(poi.tags, renderContext.rendererJob.tile.zoomLevel, Closed.NO);
 
-        final RenderInstruction[] instructions;
-        synchronized (this.poiMatchingCache) {
-            instructions = this.poiMatchingCache.get(matchingCacheKey);
-        }
+        final RenderInstruction[] instructions = this.poiMatchingCache.get(matchingCacheKey);
         if (instructions != null) {
             //noinspection ForLoopReplaceableByForEach
             for (int i = 0; i < instructions.length; ++i) {
@@ -165,15 +164,17 @@ public class RenderTheme {
 
         // cache miss
         List<RenderInstruction> matchingList = new ArrayList<>();
-        for (int i = 0, n = rulesList.size(); i < n; i++) {
-            rulesList.get(i).matchNode(renderCallback, renderContext, matchingList, poi);
+        if (this.ruleIndex != null) {
+            this.ruleIndex.matchNode(renderCallback, renderContext, matchingList, poi);
+        } else {
+            for (int i = 0, n = rulesList.size(); i < n; i++) {
+                rulesList.get(i).matchNode(renderCallback, renderContext, matchingList, poi);
+            }
         }
         RenderInstruction[] matchingListA = new RenderInstruction[matchingList.size()];
         matchingList.toArray(matchingListA);
 
-        synchronized (this.poiMatchingCache) {
-            this.poiMatchingCache.put(matchingCacheKey, matchingListA);
-        }
+        this.poiMatchingCache.put(matchingCacheKey, matchingListA);
     }
 
     /**
@@ -230,16 +231,16 @@ public class RenderTheme {
         for (int i = 0, n = this.rulesList.size(); i < n; ++i) {
             this.rulesList.get(i).onComplete();
         }
+        if (this.rulesList.size() >= RuleIndex.MIN_RULES) {
+            this.ruleIndex = new RuleIndex(this.rulesList.toArray(new Rule[0]));
+        }
     }
 
     private void matchWay(RenderCallback renderCallback, final RenderContext renderContext, Closed closed, PolylineContainer way) {
         // check cached instructions
-        int matchingCacheKey = computeMatchingCacheKey(way.getTags(), way.getUpperLeft().zoomLevel, closed);
+        MatchingCacheKey matchingCacheKey = new MatchingCacheKey(way.getTags(), way.getUpperLeft().zoomLevel, closed);
 
-        final RenderInstruction[] instructions;
-        synchronized (this.wayMatchingCache) {
-            instructions = this.wayMatchingCache.get(matchingCacheKey);
-        }
+        final RenderInstruction[] instructions = this.wayMatchingCache.get(matchingCacheKey);
         if (instructions != null) {
             //noinspection ForLoopReplaceableByForEach
             for (int i = 0; i < instructions.length; ++i) {
@@ -250,15 +251,17 @@ public class RenderTheme {
 
         // cache miss
         List<RenderInstruction> matchingList = new ArrayList<>();
-        for (int i = 0, n = rulesList.size(); i < n; i++) {
-            rulesList.get(i).matchWay(renderCallback, way, way.getUpperLeft(), closed, matchingList, renderContext);
+        if (this.ruleIndex != null) {
+            this.ruleIndex.matchWay(renderCallback, way, way.getUpperLeft(), closed, matchingList, renderContext);
+        } else {
+            for (int i = 0, n = rulesList.size(); i < n; i++) {
+                rulesList.get(i).matchWay(renderCallback, way, way.getUpperLeft(), closed, matchingList, renderContext);
+            }
         }
         RenderInstruction[] matchingListA = new RenderInstruction[matchingList.size()];
         matchingList.toArray(matchingListA);
 
-        synchronized (this.wayMatchingCache) {
-            this.wayMatchingCache.put(matchingCacheKey, matchingListA);
-        }
+        this.wayMatchingCache.put(matchingCacheKey, matchingListA);
     }
 
     public void traverseRules(Rule.RuleVisitor visitor) {
@@ -271,24 +274,4 @@ public class RenderTheme {
         for (Hillshading hillShading : hillShadings)
             hillShading.render(renderContext, hillsRenderConfig);
     }
-
-    private static final int keyCodeName = Utils.hashTagParameter("name");
-
-    /**
-     * Compute key for matching cached set of instructions.
-     */
-    private Integer computeMatchingCacheKey(List<Tag> tags, byte zoomLevel, Closed closed) {
-        int result = 1;
-        result = 31 * result + ((closed == null) ? 0 : closed.hashCode());
-        if (tags != null) {
-            for (int i = 0, n = tags.size(); i < n; i++) {
-                Tag tag = tags.get(i);
-                if (keyCodeName != tag.keyCode) {
-                    result = 31 * result + tag.hashCode();
-                }
-            }
-        }
-        result = 31 * result + zoomLevel;
-        return result;
-    }
 }
@@ -36,10 +36,8 @@ public abstract class Rule {
 
     public class RuleVisitor {
         public void apply(Rule r) {
-            synchronized (mySync) {
-                for (Rule subRule : r.subRules) {
-                    this.apply(subRule);
-                }
+            for (Rule subRule : r.subRules) {
+                this.apply(subRule);
             }
         }
     }
@@ -49,11 +47,14 @@ public abstract class Rule {
     final ElementMatcher elementMatcher;
     final byte zoomMax;
     final byte zoomMin;
-    // conversion to Array[] tested, but performance difference was not measurable
     private final ArrayList<RenderInstruction> renderInstructions; // NOSONAR NOPMD we need specific interface
     private final ArrayList<Rule> subRules; // NOSONAR NOPMD we need specific interface
 
-    private final Object mySync = new Object();
+    // immutable snapshots of the lists above taken in onComplete(), used for lock-free matching
+    private RenderInstruction[] renderInstructionArray = new RenderInstruction[0];
+    private Rule[] subRuleArray = new Rule[0];
+    // decision index over the sub rules, only built for rules with many sub rules
+    private RuleIndex subRuleIndex;
 
     Rule(RuleBuilder ruleBuilder) {
         this.cat = ruleBuilder.cat;
@@ -67,15 +68,11 @@ public abstract class Rule {
     }
 
     void addRenderingInstruction(RenderInstruction renderInstruction) {
-        synchronized (mySync) {
-            this.renderInstructions.add(renderInstruction);
-        }
+        this.renderInstructions.add(renderInstruction);
     }
 
     void addSubRule(Rule rule) {
-        synchronized (mySync) {
-            this.subRules.add(rule);
-        }
+        this.subRules.add(rule);
     }
 
     void apply(RuleVisitor v) {
@@ -83,13 +80,11 @@ public abstract class Rule {
     }
 
     void destroy() {
-        synchronized (mySync) {
-            for (RenderInstruction ri : this.renderInstructions) {
-                ri.destroy();
-            }
-            for (Rule sr : this.subRules) {
-                sr.destroy();
-            }
+        for (RenderInstruction ri : this.renderInstructions) {
+            ri.destroy();
+        }
+        for (Rule sr : this.subRules) {
+            sr.destroy();
         }
     }
 
@@ -98,66 +93,74 @@ public abstract class Rule {
     abstract boolean matchesWay(List<Tag> tags, byte zoomLevel, Closed closed);
 
     void matchNode(RenderCallback renderCallback, final RenderContext renderContext, List<RenderInstruction> matchingList, PointOfInterest pointOfInterest) {
-        synchronized (mySync) {
-            if (matchesNode(pointOfInterest.tags, renderContext.rendererJob.tile.zoomLevel)) {
-                for (int i = 0, n = this.renderInstructions.size(); i < n; ++i) {
-                    this.renderInstructions.get(i).renderNode(renderCallback, renderContext, pointOfInterest);
-                    matchingList.add(this.renderInstructions.get(i));
-                }
-                for (int i = 0, n = this.subRules.size(); i < n; ++i) {
-                    this.subRules.get(i).matchNode(renderCallback, renderContext, matchingList, pointOfInterest);
-                }
+        if (matchesNode(pointOfInterest.tags, renderContext.rendererJob.tile.zoomLevel)) {
+            final RenderInstruction[] renderInstructions = this.renderInstructionArray;
+            for (int i = 0, n = renderInstructions.length; i < n; ++i) {
+                renderInstructions[i].renderNode(renderCallback, renderContext, pointOfInterest);
+                matchingList.add(renderInstructions[i]);
+            }
+            if (this.subRuleIndex != null) {
+                this.subRuleIndex.matchNode(renderCallback, renderContext, matchingList, pointOfInterest);
+                return;
+            }
+            final Rule[] subRules = this.subRuleArray;
+            for (int i = 0, n = subRules.length; i < n; ++i) {
+                subRules[i].matchNode(renderCallback, renderContext, matchingList, pointOfInterest);
             }
         }
     }
 
     void matchWay(RenderCallback renderCallback, PolylineContainer way, Tile tile, Closed closed,
                   List<RenderInstruction> matchingList, final RenderContext renderContext) {
-        synchronized (mySync) {
-            if (matchesWay(way.getTags(), tile.zoomLevel, closed)) {
-                for (int i = 0, n = this.renderInstructions.size(); i < n; ++i) {
-                    this.renderInstructions.get(i).renderWay(renderCallback, renderContext, way);
-                    matchingList.add(this.renderInstructions.get(i));
-                }
-                for (int i = 0, n = this.subRules.size(); i < n; ++i) {
-                    this.subRules.get(i).matchWay(renderCallback, way, tile, closed, matchingList, renderContext);
-                }
+        if (matchesWay(way.getTags(), tile.zoomLevel, closed)) {
+            final RenderInstruction[] renderInstructions = this.renderInstructionArray;
+            for (int i = 0, n = renderInstructions.length; i < n; ++i) {
+                renderInstructions[i].renderWay(renderCallback, renderContext, way);
+                matchingList.add(renderInstructions[i]);
+            }
+            if (this.subRuleIndex != null) {
+                this.subRuleIndex.matchWay(renderCallback, way, tile, closed, matchingList, renderContext);
+                return;
+            }
+            final Rule[] subRules = this.subRuleArray;
+            for (int i = 0, n = subRules.length; i < n; ++i) {
+                subRules[i].matchWay(renderCallback, way, tile, closed, matchingList, renderContext);
             }
         }
     }
 
+    /**
+     * Completes this rule and its sub rules, after which the rule tree is no longer modified.
+     */
     void onComplete() {
         MATCHERS_CACHE_KEY.clear();
         MATCHERS_CACHE_VALUE.clear();
 
-        synchronized (mySync) {
-            this.renderInstructions.trimToSize();
-            this.subRules.trimToSize();
-            for (int i = 0, n = this.subRules.size(); i < n; ++i) {
-                this.subRules.get(i).onComplete();
-            }
+        this.renderInstructions.trimToSize();
+        this.subRules.trimToSize();
+        this.renderInstructionArray = this.renderInstructions.toArray(new RenderInstruction[0]);
+        this.subRuleArray = this.subRules.toArray(new Rule[0]);
+        this.subRuleIndex = this.subRuleArray.length >= RuleIndex.MIN_RULES ? new RuleIndex(this.subRuleArray) : null;
+        for (int i = 0, n = this.subRuleArray.length; i < n; ++i) {
+            this.subRuleArray[i].onComplete();
         }
     }
 
     void scaleStrokeWidth(float scaleFactor, byte zoomLevel) {
-        synchronized (mySync) {
-            for (int i = 0, n = this.renderInstructions.size(); i < n; ++i) {
-                this.renderInstructions.get(i).scaleStrokeWidth(scaleFactor, zoomLevel);
-            }
-            for (int i = 0, n = this.subRules.size(); i < n; ++i) {
-                this.subRules.get(i).scaleStrokeWidth(scaleFactor, zoomLevel);
-            }
+        for (int i = 0, n = this.renderInstructionArray.length; i < n; ++i) {
+            this.renderInstructionArray[i].scaleStrokeWidth(scaleFactor, zoomLevel);
+        }
+        for (int i = 0, n = this.subRuleArray.length; i < n; ++i) {
+            this.subRuleArray[i].scaleStrokeWidth(scaleFactor, zoomLevel);
         }
     }
 
     void scaleTextSize(float scaleFactor, byte zoomLevel) {
-        synchronized (mySync) {
-            for (int i = 0, n = this.renderInstructions.size(); i < n; ++i) {
-                this.renderInstructions.get(i).scaleTextSize(scaleFactor, zoomLevel);
-            }
-            for (int i = 0, n = this.subRules.size(); i < n; ++i) {
-                this.subRules.get(i).scaleTextSize(scaleFactor, zoomLevel);
-            }
+        for (int i = 0, n = this.renderInstructionArray.length; i < n; ++i) {
+            this.renderInstructionArray[i].scaleTextSize(scaleFactor, zoomLevel);
+        }
+        for (int i = 0, n = this.subRuleArray.length; i < n; ++i) {
+            this.subRuleArray[i].scaleTextSize(scaleFactor, zoomLevel);
         }
     }
 }
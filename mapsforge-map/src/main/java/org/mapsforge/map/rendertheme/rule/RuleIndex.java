@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.Parameters;
+import org.mapsforge.map.datastore.PointOfInterest;
+import org.mapsforge.map.layer.renderer.PolylineContainer;
+import org.mapsforge.map.rendertheme.RenderCallback;
+import org.mapsforge.map.rendertheme.RenderContext;
+import org.mapsforge.map.rendertheme.renderinstruction.RenderInstruction;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pre-compiled decision index over a list of sibling rules.
+ * <p/>
+ * For every zoom level, element type and closed flag the index knows which rules can match at all, and for every key
+ * and value code which rules require a tag with that key or value. Matching a set of tags then only visits the rules
+ * which can possibly match, in their original order, instead of evaluating all of them. The candidate rules still
+ * evaluate all their conditions, so the index only needs to be a superset of the matching rules.
+ * <p/>
+ * The sets of rules are stored as bit sets in long arrays, the key and value codes as sorted int arrays.
+ */
+final class RuleIndex {
+    /**
+     * Minimum number of rules for which an index is built, fewer rules are matched linearly.
+     */
+    static final int MIN_RULES = 16;
+
+    /**
+     * Rules which must be evaluated regardless of the tags.
+     */
+    private final long[] anyTagRules;
+    private final int[] keyCodes;
+    /**
+     * Rules which require a tag with the key code at the same position in {@link #keyCodes}.
+     */
+    private final long[][] keyRules;
+    /**
+     * Rules which match nodes, indexed by zoom level.
+     */
+    private final long[][] nodeRules;
+    private final Rule[] rules;
+    private final int[] valueCodes;
+    /**
+     * Rules which require a tag with the value code at the same position in {@link #valueCodes}.
+     */
+    private final long[][] valueRules;
+    /**
+     * Rules which match ways, indexed by closed flag and zoom level.
+     */
+    private final long[][][] wayRules;
+    /**
+     * Number of indexed zoom levels, the rules matching on higher zoom levels are the same as on the last one.
+     */
+    private final int zoomLevels;
+
+    /**
+     * @param rules the rules in their order of evaluation.
+     */
+    RuleIndex(Rule[] rules) {
+        this.rules = rules;
+        int words = (rules.length + 63) >>> 6;
+
+        int maxZoomLevel = 0;
+        for (Rule rule : rules) {
+            maxZoomLevel = Math.max(maxZoomLevel, rule.zoomMin);
+            if (rule.zoomMax < Byte.MAX_VALUE) {
+                maxZoomLevel = Math.max(maxZoomLevel, rule.zoomMax + 1);
+            }
+        }
+        this.zoomLevels = maxZoomLevel + 1;
+        this.nodeRules = new long[this.zoomLevels][words];
+        this.wayRules = new long[Closed.values().length][this.zoomLevels][words];
+
+        this.anyTagRules = new long[words];
+        Map<Integer, long[]> keyRuleMap = new HashMap<>();
+        Map<Integer, long[]> valueRuleMap = new HashMap<>();
+
+        for (int i = 0; i < rules.length; ++i) {
+            Rule rule = rules[i];
+            for (int zoomLevel = rule.zoomMin; zoomLevel <= Math.min(rule.zoomMax, this.zoomLevels - 1); ++zoomLevel) {
+                if (rule.elementMatcher.matches(Element.NODE)) {
+                    set(this.nodeRules[zoomLevel], i);
+                }
+                if (rule.elementMatcher.matches(Element.WAY)) {
+                    for (Closed closed : Closed.values()) {
+                        if (rule.closedMatcher.matches(closed)) {
+                            set(this.wayRules[closed.ordinal()][zoomLevel], i);
+                        }
+                    }
+                }
+            }
+
+            if (rule instanceof PositiveRule && ((PositiveRule) rule).keyMatcher instanceof KeyMatcher) {
+                for (int keyCode : ((KeyMatcher) ((PositiveRule) rule).keyMatcher).getKeys()) {
+                    set(getRuleSet(keyRuleMap, keyCode, words), i);
+                }
+            } else if (rule instanceof PositiveRule && ((PositiveRule) rule).valueMatcher instanceof ValueMatcher) {
+                for (int valueCode : ((ValueMatcher) ((PositiveRule) rule).valueMatcher).getValues()) {
+                    set(getRuleSet(valueRuleMap, valueCode, words), i);
+                }
+            } else {
+                // negative rules and rules matching any tag
+                set(this.anyTagRules, i);
+            }
+        }
+
+        this.keyCodes = sortedCodes(keyRuleMap);
+        this.keyRules = ruleSets(keyRuleMap, this.keyCodes);
+        this.valueCodes = sortedCodes(valueRuleMap);
+        this.valueRules = ruleSets(valueRuleMap, this.valueCodes);
+    }
+
+    /**
+     * Matches a node against the rules of this index.
+     */
+    void matchNode(RenderCallback renderCallback, final RenderContext renderContext, List<RenderInstruction> matchingList, PointOfInterest pointOfInterest) {
+        if (!Parameters.RULE_INDEX) {
+            for (int i = 0, n = this.rules.length; i < n; ++i) {
+                this.rules[i].matchNode(renderCallback, renderContext, matchingList, pointOfInterest);
+            }
+            return;
+        }
+
+        long[] candidates = getCandidates(this.nodeRules[getZoomIndex(renderContext.rendererJob.tile.zoomLevel)], pointOfInterest.tags);
+        for (int word = 0; word < candidates.length; ++word) {
+            for (long bits = candidates[word]; bits != 0; bits &= bits - 1) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                this.rules[i].matchNode(renderCallback, renderContext, matchingList, pointOfInterest);
+            }
+        }
+    }
+
+    /**
+     * Matches a way against the rules of this index.
+     */
+    void matchWay(RenderCallback renderCallback, PolylineContainer way, Tile tile, Closed closed,
+                  List<RenderInstruction> matchingList, final RenderContext renderContext) {
+        if (!Parameters.RULE_INDEX) {
+            for (int i = 0, n = this.rules.length; i < n; ++i) {
+                this.rules[i].matchWay(renderCallback, way, tile, closed, matchingList, renderContext);
+            }
+            return;
+        }
+
+        long[] candidates = getCandidates(this.wayRules[closed.ordinal()][getZoomIndex(tile.zoomLevel)], way.getTags());
+        for (int word = 0; word < candidates.length; ++word) {
+            for (long bits = candidates[word]; bits != 0; bits &= bits - 1) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                this.rules[i].matchWay(renderCallback, way, tile, closed, matchingList, renderContext);
+            }
+        }
+    }
+
+    private long[] getCandidates(long[] zoomRules, List<Tag> tags) {
+        long[] candidates = this.anyTagRules.clone();
+        for (int i = 0, n = tags.size(); i < n; ++i) {
+            Tag tag = tags.get(i);
+            int index = Arrays.binarySearch(this.keyCodes, tag.keyCode);
+            if (index >= 0) {
+                or(candidates, this.keyRules[index]);
+            }
+            index = Arrays.binarySearch(this.valueCodes, tag.valueCode);
+            if (index >= 0) {
+                or(candidates, this.valueRules[index]);
+            }
+        }
+        for (int word = 0; word < candidates.length; ++word) {
+            candidates[word] &= zoomRules[word];
+        }
+        return candidates;
+    }
+
+    private int getZoomIndex(byte zoomLevel) {
+        return Math.min(zoomLevel, this.zoomLevels - 1);
+    }
+
+    private static long[] getRuleSet(Map<Integer, long[]> map, int code, int words) {
+        long[] ruleSet = map.get(code);
+        if (ruleSet == null) {
+            ruleSet = new long[words];
+            map.put(code, ruleSet);
+        }
+        return ruleSet;
+    }
+
+    private static void or(long[] target, long[] ruleSet) {
+        for (int word = 0; word < target.length; ++word) {
+            target[word] |= ruleSet[word];
+        }
+    }
+
+    private static long[][] ruleSets(Map<Integer, long[]> map, int[] codes) {
+        long[][] ruleSets = new long[codes.length][];
+        for (int i = 0; i < codes.length; ++i) {
+            ruleSets[i] = map.get(codes[i]);
+        }
+        return ruleSets;
+    }
+
+    private static void set(long[] ruleSet, int rule) {
+        ruleSet[rule >>> 6] |= 1L << rule;
+    }
+
+    private static int[] sortedCodes(Map<Integer, long[]> map) {
+        int[] codes = new int[map.size()];
+        int i = 0;
+        for (Integer code : map.keySet()) {
+            codes[i++] = code;
+        }
+        Arrays.sort(codes);
+        return codes;
+    }
+}
@@ -27,6 +27,10 @@ class ValueMatcher implements AttributeMatcher {
         this.values = Utils.convertListString(values);
     }
 
+    int[] getValues() {
+        return this.values;
+    }
+
     @Override
     public boolean matches(Tag tag) {
         return Utils.contains(values, tag.valueCode);
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.util;
+
+import org.mapsforge.core.mapelements.MapElementContainer;
+import org.mapsforge.core.mapelements.PointTextContainer;
+import org.mapsforge.core.model.Rectangle;
+import org.mapsforge.core.model.Rotation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the clash rectangles of map elements, which answers collision queries by testing only the
+ * elements in the grid cells covered by the query instead of every element added so far.
+ * <p/>
+ * Two elements can only clash if their clash rectangles intersect, or if both are {@link PointTextContainer}s with
+ * the same text. The final decision is always delegated to {@link MapElementContainer#clashesWith}, so the result is
+ * the same as testing against every element.
+ * <p/>
+ * This class is not thread-safe.
+ */
+public final class CollisionIndex {
+    /**
+     * The side length of a grid cell in pixels, about the size of a typical label.
+     */
+    private static final int CELL_SIZE = 128;
+
+    private static long getCellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static int toCell(double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private final Map<Long, List<MapElementContainer>> cells = new HashMap<>();
+    private final Rotation rotation;
+    private final Map<String, List<MapElementContainer>> texts = new HashMap<>();
+
+    /**
+     * @param rotation the rotation under which the clash rectangles are computed.
+     */
+    public CollisionIndex(Rotation rotation) {
+        this.rotation = rotation;
+    }
+
+    /**
+     * Adds an element to the index.
+     */
+    public void add(MapElementContainer element) {
+        Rectangle rect = element.getClashRect(this.rotation);
+        if (rect != null) {
+            int maxCellX = toCell(rect.right);
+            int maxCellY = toCell(rect.bottom);
+            for (int cellX = toCell(rect.left); cellX <= maxCellX; ++cellX) {
+                for (int cellY = toCell(rect.top); cellY <= maxCellY; ++cellY) {
+                    long key = getCellKey(cellX, cellY);
+                    List<MapElementContainer> cell = this.cells.get(key);
+                    if (cell == null) {
+                        cell = new ArrayList<>(4);
+                        this.cells.put(key, cell);
+                    }
+                    cell.add(element);
+                }
+            }
+        }
+
+        if (element instanceof PointTextContainer) {
+            String text = ((PointTextContainer) element).text;
+            List<MapElementContainer> sameText = this.texts.get(text);
+            if (sameText == null) {
+                sameText = new ArrayList<>(2);
+                this.texts.put(text, sameText);
+            }
+            sameText.add(element);
+        }
+    }
+
+    /**
+     * Adds all elements to the index.
+     */
+    public void addAll(Collection<MapElementContainer> elements) {
+        for (MapElementContainer element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * @return true if any element in the index clashes with the given element.
+     */
+    public boolean clashesWith(MapElementContainer element) {
+        return clashesWith(element, false);
+    }
+
+    /**
+     * @return true if any other element in the index with the same or a higher priority clashes with the given
+     * element.
+     */
+    public boolean isContested(MapElementContainer element) {
+        return clashesWith(element, true);
+    }
+
+    private boolean clashesWith(MapElementContainer element, boolean contested) {
+        Rectangle rect = element.getClashRect(this.rotation);
+        if (rect != null && !this.cells.isEmpty()) {
+            int minCellX = toCell(rect.left);
+            int minCellY = toCell(rect.top);
+            int maxCellX = toCell(rect.right);
+            int maxCellY = toCell(rect.bottom);
+            for (int cellX = minCellX; cellX <= maxCellX; ++cellX) {
+                for (int cellY = minCellY; cellY <= maxCellY; ++cellY) {
+                    List<MapElementContainer> cell = this.cells.get(getCellKey(cellX, cellY));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0, n = cell.size(); i < n; ++i) {
+                        MapElementContainer other = cell.get(i);
+                        // an element covering several cells is only tested in the first cell shared with the query
+                        Rectangle otherRect = other.getClashRect(this.rotation);
+                        if (cellX != Math.max(minCellX, toCell(otherRect.left))
+                                || cellY != Math.max(minCellY, toCell(otherRect.top))) {
+                            continue;
+                        }
+                        if (clashes(element, other, contested)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (element instanceof PointTextContainer) {
+            List<MapElementContainer> sameText = this.texts.get(((PointTextContainer) element).text);
+            if (sameText != null) {
+                for (int i = 0, n = sameText.size(); i < n; ++i) {
+                    if (clashes(element, sameText.get(i), contested)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean clashes(MapElementContainer element, MapElementContainer other, boolean contested) {
+        if (contested && (other.getPriority() < element.getPriority() || element.equals(other))) {
+            return false;
+        }
+        return other.clashesWith(element, this.rotation);
+    }
+}
@@ -2,6 +2,7 @@
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014-2015 Ludwig M Brinckmann
  * Copyright 2024 Sublimis
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -127,15 +128,10 @@ public final class LayerUtil {
 
         // in order of display and priority, see if an item can be drawn, i.e. none of the items
         // in the currentItemsToDraw list clashes with it.
+        final CollisionIndex collisionIndex = new CollisionIndex(rotation);
         for (MapElementContainer item : input) {
-            boolean hasSpace = true;
-            for (MapElementContainer outputElement : output) {
-                if (outputElement.clashesWith(item, rotation)) {
-                    hasSpace = false;
-                    break;
-                }
-            }
-            if (hasSpace) {
+            if (!collisionIndex.clashesWith(item)) {
+                collisionIndex.add(item);
                 if (ascendingOrder) {
                     output.addFirst(item);
                 } else {
@@ -165,23 +161,27 @@ public final class LayerUtil {
      * by another label of the same or higher priority.
      */
     public static List<MapElementContainer> collisionAndContestingFreeOrdered(List<MapElementContainer> input, Tile tile, Rotation rotation, boolean ascendingOrder) {
+        return collisionAndContestingFreeOrdered(input, tile.getBoundaryAbsolute(), rotation, ascendingOrder);
+    }
+
+    /**
+     * Transforms a list of MapElements, orders it and removes those elements that overlap.
+     * Also removes labels that span beyond the given area if their position could be contested
+     * by another label of the same or higher priority.
+     */
+    public static List<MapElementContainer> collisionAndContestingFreeOrdered(List<MapElementContainer> input, Rectangle area, Rotation rotation, boolean ascendingOrder) {
         final LinkedList<MapElementContainer> output = new LinkedList<>();
 
         Collections.sort(input, Collections.reverseOrder());
 
-        final List<MapElementContainer> inputProcessed = omitContestingMultiTiledItems(input, tile, rotation);
+        final List<MapElementContainer> inputProcessed = omitContestingMultiTiledItems(input, area, rotation);
 
         // in order of display and priority, see if an item can be drawn, i.e. none of the items
         // in the currentItemsToDraw list clashes with it.
+        final CollisionIndex collisionIndex = new CollisionIndex(rotation);
         for (MapElementContainer item : inputProcessed) {
-            boolean hasSpace = true;
-            for (MapElementContainer outputElement : output) {
-                if (item.clashesWith(outputElement, rotation)) {
-                    hasSpace = false;
-                    break;
-                }
-            }
-            if (hasSpace) {
+            if (!collisionIndex.clashesWith(item)) {
+                collisionIndex.add(item);
                 if (ascendingOrder) {
                     output.addFirst(item);
                 } else {
@@ -206,26 +206,26 @@ public final class LayerUtil {
      * Omit labels that span more than one tile if their position could be contested
      * by another label of the same or higher priority.
      * <p>
-     * Note: Input is assumed to already be sorted by priority (at least).
+     * The contesting labels are looked up through a {@link CollisionIndex}, so the input does not need to be sorted.
      */
     public static List<MapElementContainer> omitContestingMultiTiledItems(Collection<MapElementContainer> input, Tile tile, Rotation rotation) {
+        return omitContestingMultiTiledItems(input, tile.getBoundaryAbsolute(), rotation);
+    }
+
+    /**
+     * Omit labels that span beyond the given area if their position could be contested
+     * by another label of the same or higher priority.
+     */
+    public static List<MapElementContainer> omitContestingMultiTiledItems(Collection<MapElementContainer> input, Rectangle tileRect, Rotation rotation) {
         final List<MapElementContainer> output = new ArrayList<>();
 
-        final Rectangle tileRect = tile.getBoundaryAbsolute();
+        final CollisionIndex collisionIndex = new CollisionIndex(rotation);
+        collisionIndex.addAll(input);
 
         for (MapElementContainer mainItem : input) {
             boolean toRetain = true;
             if (isLabelMultiTiled(mainItem.getClashRect(rotation), tileRect)) {
-                for (MapElementContainer otherItem : input) {
-                    if (otherItem.getPriority() >= mainItem.getPriority()) {
-                        if (!mainItem.equals(otherItem) && mainItem.clashesWith(otherItem, rotation)) {
-                            toRetain = false;
-                            break;
-                        }
-                    } else {
-                        break;
-                    }
-                }
+                toRetain = !collisionIndex.isContested(mainItem);
             }
             if (toRetain) {
                 output.add(mainItem);
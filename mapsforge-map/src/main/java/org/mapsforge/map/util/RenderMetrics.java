@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.util;
+
+/**
+ * Receives measurements of the tile rendering pipeline, e.g. to tune the number of rendering threads or the cache
+ * sizes. {@link RenderStatistics} aggregates them into counters and histograms.
+ * <p/>
+ * A listener is set on the components producing the measurements, usually for all of them at once through
+ * {@link org.mapsforge.map.layer.TileLayer#setRenderMetrics(RenderMetrics)}. The methods are called on the drawing,
+ * rendering and cache writer threads, so implementations must be thread-safe and must return quickly.
+ */
+public interface RenderMetrics {
+    /**
+     * The stages of rendering a tile. A metatile is measured like a single tile.
+     */
+    enum Stage {
+        /**
+         * Reading the map data of the tile.
+         */
+        READ_MAP_DATA,
+        /**
+         * Matching the map data against the render theme.
+         */
+        MATCH_THEME,
+        /**
+         * Preparing the hillshading of the tile.
+         */
+        HILLSHADING,
+        /**
+         * Drawing the ways and areas of the tile.
+         */
+        DRAW_WAYS,
+        /**
+         * Placing and drawing the labels of the tile.
+         */
+        LABELS,
+        /**
+         * Putting the rendered tile into the tile cache, including the encoding of synchronously written tiles.
+         */
+        CACHE_PUT,
+        /**
+         * Compressing a tile for the file system cache.
+         */
+        ENCODE,
+        /**
+         * The whole rendering job.
+         */
+        TOTAL
+    }
+
+    /**
+     * Called when a tile has been looked up in the tile cache for drawing.
+     *
+     * @param hit whether the tile was in the cache.
+     */
+    void onCacheLookup(boolean hit);
+
+    /**
+     * Called when queued jobs have been dropped because the job queue was full.
+     *
+     * @param count the number of dropped jobs.
+     */
+    void onJobsDropped(int count);
+
+    /**
+     * Called when a job has been taken from the job queue.
+     *
+     * @param size the number of jobs still waiting in the queue.
+     */
+    void onQueueSize(int size);
+
+    /**
+     * Called when a stage of rendering a tile has been completed.
+     *
+     * @param stage the completed stage.
+     * @param nanos the duration of the stage in nanoseconds.
+     */
+    void onStage(Stage stage, long nanos);
+
+    /**
+     * Called when the ways of a tile have been drawn.
+     *
+     * @param lines the number of ways drawn as line segments.
+     * @param paths the number of ways drawn as paths, which are needed for curves and complex styles.
+     */
+    void onWaysDrawn(int lines, int paths);
+}
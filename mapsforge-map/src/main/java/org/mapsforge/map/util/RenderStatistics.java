@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link RenderMetrics} listener aggregating the measurements into counters and a histogram per stage.
+ * <p/>
+ * Recording a measurement only updates a few atomic counters without locking or allocation, so the statistics can
+ * stay enabled in production. The histograms have one bucket per power of two nanoseconds, so percentiles are
+ * accurate to a factor of two.
+ */
+public class RenderStatistics implements RenderMetrics {
+    private static final int BUCKETS = 64;
+    private static final int STAGES = Stage.values().length;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong drawnLines = new AtomicLong();
+    private final AtomicLong drawnPaths = new AtomicLong();
+    private final AtomicLong droppedJobs = new AtomicLong();
+    private final AtomicLong maxQueueSize = new AtomicLong();
+    private final AtomicLong queueSize = new AtomicLong();
+    private final AtomicLongArray stageBuckets = new AtomicLongArray(STAGES * BUCKETS);
+    private final AtomicLongArray stageCounts = new AtomicLongArray(STAGES);
+    private final AtomicLongArray stageMaxNanos = new AtomicLongArray(STAGES);
+    private final AtomicLongArray stageTotalNanos = new AtomicLongArray(STAGES);
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private static void updateMax(AtomicLongArray max, int index, long value) {
+        long current;
+        while (value > (current = max.get(index)) && !max.compareAndSet(index, current, value)) {
+            // retry
+        }
+    }
+
+    public long getCacheHits() {
+        return this.cacheHits.get();
+    }
+
+    /**
+     * @return the share of tile cache lookups that found the tile, 0 if there were no lookups.
+     */
+    public double getCacheHitRate() {
+        long hits = this.cacheHits.get();
+        long lookups = hits + this.cacheMisses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public long getCacheMisses() {
+        return this.cacheMisses.get();
+    }
+
+    /**
+     * @return the number of ways drawn as line segments.
+     */
+    public long getDrawnLines() {
+        return this.drawnLines.get();
+    }
+
+    /**
+     * @return the number of ways drawn as paths.
+     */
+    public long getDrawnPaths() {
+        return this.drawnPaths.get();
+    }
+
+    public long getDroppedJobs() {
+        return this.droppedJobs.get();
+    }
+
+    public long getMaxQueueSize() {
+        return this.maxQueueSize.get();
+    }
+
+    /**
+     * @return the most recently reported size of the job queue.
+     */
+    public long getQueueSize() {
+        return this.queueSize.get();
+    }
+
+    public long getCount(Stage stage) {
+        return this.stageCounts.get(stage.ordinal());
+    }
+
+    public long getMaxNanos(Stage stage) {
+        return this.stageMaxNanos.get(stage.ordinal());
+    }
+
+    /**
+     * @return the average duration of the stage in nanoseconds, 0 if it has not been measured.
+     */
+    public long getMeanNanos(Stage stage) {
+        long count = getCount(stage);
+        return count == 0 ? 0 : getTotalNanos(stage) / count;
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 100.
+     * @return an upper bound of the given percentile of the durations of the stage in nanoseconds, at most twice the
+     * exact value, or 0 if the stage has not been measured.
+     */
+    public long getPercentileNanos(Stage stage, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            buckets[i] = this.stageBuckets.get(stage.ordinal() * BUCKETS + i);
+            count += buckets[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        for (int i = 0; i < BUCKETS; ++i) {
+            rank -= buckets[i];
+            if (rank <= 0) {
+                // bucket i holds durations below 2^i nanoseconds
+                return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i, getMaxNanos(stage));
+            }
+        }
+        return getMaxNanos(stage);
+    }
+
+    public long getTotalNanos(Stage stage) {
+        return this.stageTotalNanos.get(stage.ordinal());
+    }
+
+    @Override
+    public void onCacheLookup(boolean hit) {
+        if (hit) {
+            this.cacheHits.incrementAndGet();
+        } else {
+            this.cacheMisses.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onJobsDropped(int count) {
+        this.droppedJobs.addAndGet(count);
+    }
+
+    @Override
+    public void onQueueSize(int size) {
+        this.queueSize.set(size);
+        updateMax(this.maxQueueSize, size);
+    }
+
+    @Override
+    public void onStage(Stage stage, long nanos) {
+        int index = stage.ordinal();
+        long duration = Math.max(0, nanos);
+        this.stageCounts.incrementAndGet(index);
+        this.stageTotalNanos.addAndGet(index, duration);
+        updateMax(this.stageMaxNanos, index, duration);
+        this.stageBuckets.incrementAndGet(index * BUCKETS + Math.min(BUCKETS - Long.numberOfLeadingZeros(duration), BUCKETS - 1));
+    }
+
+    @Override
+    public void onWaysDrawn(int lines, int paths) {
+        this.drawnLines.addAndGet(lines);
+        this.drawnPaths.addAndGet(paths);
+    }
+
+    /**
+     * Resets all counters and histograms. Measurements recorded concurrently may be partially reset.
+     */
+    public void reset() {
+        this.cacheHits.set(0);
+        this.cacheMisses.set(0);
+        this.drawnLines.set(0);
+        this.drawnPaths.set(0);
+        this.droppedJobs.set(0);
+        this.maxQueueSize.set(0);
+        this.queueSize.set(0);
+        for (int i = 0; i < STAGES; ++i) {
+            this.stageCounts.set(i, 0);
+            this.stageMaxNanos.set(i, 0);
+            this.stageTotalNanos.set(i, 0);
+        }
+        for (int i = 0; i < STAGES * BUCKETS; ++i) {
+            this.stageBuckets.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("cacheHitRate=").append(Math.round(getCacheHitRate() * 1000) / 10.0).append('%')
+                .append(", queueSize=").append(getQueueSize())
+                .append(", maxQueueSize=").append(getMaxQueueSize())
+                .append(", droppedJobs=").append(getDroppedJobs())
+                .append(", drawnLines=").append(getDrawnLines())
+                .append(", drawnPaths=").append(getDrawnPaths());
+        for (Stage stage : Stage.values()) {
+            if (getCount(stage) == 0) {
+                continue;
+            }
+            stringBuilder.append(", ").append(stage).append("=[count=").append(getCount(stage))
+                    .append(", mean=").append(getMeanNanos(stage) / 1000).append("us")
+                    .append(", p50=").append(getPercentileNanos(stage, 50) / 1000).append("us")
+                    .append(", p99=").append(getPercentileNanos(stage, 99) / 1000).append("us")
+                    .append(", max=").append(getMaxNanos(stage) / 1000).append("us]");
+        }
+        return stringBuilder.toString();
+    }
+}
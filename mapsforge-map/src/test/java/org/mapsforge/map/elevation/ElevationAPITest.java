@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.elevation;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapsforge.map.layer.hills.DemFolderFS;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class ElevationAPITest {
+    private static final int AXIS_LEN = 40;
+    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+
+    private final File directory = new File(TMP_DIR, getClass().getSimpleName() + System.currentTimeMillis());
+
+    /**
+     * A plane rising to the east and falling to the south, continuous across the files.
+     */
+    private static double getExpectedElevation(double lat, double lon) {
+        return 1000 - 10 * (48 - lat) * AXIS_LEN + 3 * (lon - 11) * AXIS_LEN;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private void writeHgtFile(String name, int rowOffset, int columnOffset) throws IOException {
+        DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(new File(this.directory, name)));
+        for (int y = 0; y <= AXIS_LEN; ++y) {
+            for (int x = 0; x <= AXIS_LEN; ++x) {
+                outputStream.writeShort(1000 - 10 * (rowOffset + y) + 3 * (columnOffset + x));
+            }
+        }
+        outputStream.close();
+    }
+
+    @Before
+    public void beforeTest() throws IOException {
+        Assert.assertTrue(this.directory.mkdirs());
+        writeHgtFile("N47E011.hgt", 0, 0);
+        writeHgtFile("N47E012.hgt", 0, AXIS_LEN);
+        writeHgtFile("N46E011.hgt", AXIS_LEN, 0);
+    }
+
+    @After
+    public void afterTest() {
+        delete(this.directory);
+    }
+
+    @Test
+    public void memoryMappingTest() throws Exception {
+        ElevationAPI mapped = new ElevationAPI(new DemFolderFS(this.directory), true);
+        ElevationAPI converted = new ElevationAPI(new DemFolderFS(this.directory), false);
+
+        // grid points, interpolated points and points near the borders of the files
+        double[] latLon = new double[]{47.5, 11.5, 47.9, 11.05, 47.31, 11.98, 47.6, 11.999, 47.2, 12.4, 47.525, 12.0125,
+                47.01, 11.3, 46.99, 11.7, 47.4, 11.01};
+        double[] mappedOutput = new double[latLon.length / 2];
+        double[] convertedOutput = new double[latLon.length / 2];
+        for (ElevationAPI.Mode mode : ElevationAPI.Mode.values()) {
+            Assert.assertEquals(mappedOutput.length, mapped.getElevation(latLon, mappedOutput, mode));
+            Assert.assertEquals(convertedOutput.length, converted.getElevation(latLon, convertedOutput, mode));
+            for (int i = 0; i < mappedOutput.length; ++i) {
+                Assert.assertEquals(getExpectedElevation(latLon[2 * i], latLon[2 * i + 1]), mappedOutput[i], 0.01);
+                Assert.assertEquals(convertedOutput[i], mappedOutput[i], 0.01);
+            }
+        }
+        Assert.assertTrue(mapped.elevationCache.getElevationBitmap(47, 11) instanceof MappedElevationBitmap);
+        Assert.assertFalse(converted.elevationCache.getElevationBitmap(47, 11) instanceof MappedElevationBitmap);
+
+        // memory mapping is opt-in
+        ElevationAPI elevationAPI = new ElevationAPI(new DemFolderFS(this.directory));
+        Assert.assertFalse(elevationAPI.elevationCache.getElevationBitmap(47, 11) instanceof MappedElevationBitmap);
+    }
+
+    @Test
+    public void missingDataTest() {
+        ElevationAPI elevationAPI = new ElevationAPI(new DemFolderFS(this.directory));
+        Assert.assertFalse(ElevationAPI.isValid(elevationAPI.getElevation(45.5, 11.5)));
+        Assert.assertFalse(ElevationAPI.isValid(elevationAPI.getElevation(47.5, 13.5)));
+        Assert.assertTrue(ElevationAPI.isValid(elevationAPI.getElevation(47.5, 11.5)));
+    }
+}
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class LayerUtilTest {
     private static final int[] TILE_SIZES = {256, 128, 376, 512, 100};
@@ -109,4 +110,37 @@ public class LayerUtilTest {
         // Only container3 survives, although it is multi-tiled, because its position is not contested by other labels
         Assert.assertSame(list2.get(0), container3);
     }
+
+    @Test
+    public void collisionFreeOrderedMatchesPairwiseTest() {
+        final Display[] displays = {Display.ALWAYS, Display.IFSPACE, Display.ORDER};
+        final Random random = new Random(42);
+
+        for (int run = 0; run < 20; ++run) {
+            final List<MapElementContainer> input = new ArrayList<>();
+            for (int i = 0; i < 500; ++i) {
+                Point xy = new Point(random.nextInt(2000) - 1000, random.nextInt(2000) - 1000);
+                input.add(new MyDummyContainer(xy, displays[random.nextInt(displays.length)], random.nextInt(10)));
+            }
+
+            // reference: every candidate is tested against every label accepted so far
+            final List<MapElementContainer> expected = new ArrayList<>();
+            final List<MapElementContainer> sorted = new ArrayList<>(input);
+            Collections.sort(sorted, Collections.reverseOrder());
+            for (MapElementContainer item : sorted) {
+                boolean hasSpace = true;
+                for (MapElementContainer accepted : expected) {
+                    if (accepted.clashesWith(item, Rotation.NULL_ROTATION)) {
+                        hasSpace = false;
+                        break;
+                    }
+                }
+                if (hasSpace) {
+                    expected.add(item);
+                }
+            }
+
+            Assert.assertEquals(expected, LayerUtil.collisionFreeOrdered(new ArrayList<>(input), Rotation.NULL_ROTATION, false));
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.hills;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class HgtDiskCacheTest {
+    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+
+    private final File directory = new File(TMP_DIR, getClass().getSimpleName() + System.currentTimeMillis());
+    private File hgtFile;
+    private HgtFileInfo hgtFileInfo;
+
+    private static ShadingAlgorithm.RawShadingResult createRaw(int axisLen, byte value) {
+        byte[] bytes = new byte[axisLen * axisLen];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) (value + i);
+        }
+        return new ShadingAlgorithm.RawShadingResult(bytes, axisLen, axisLen, 0);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Before
+    public void beforeTest() throws IOException {
+        Assert.assertTrue(this.directory.mkdirs());
+        this.hgtFile = new File(this.directory, "N47E011.hgt");
+        FileOutputStream outputStream = new FileOutputStream(this.hgtFile);
+        outputStream.write(new byte[2 * 3 * 3]);
+        outputStream.close();
+        this.hgtFile.setLastModified(1000000);
+        this.hgtFileInfo = new HgtFileInfo(new DemFileFS(this.hgtFile), 47, 11, 48, 12, this.hgtFile.length());
+    }
+
+    @After
+    public void afterTest() {
+        delete(this.directory);
+    }
+
+    @Test
+    public void getPutTest() {
+        HgtDiskCache diskCache = new HgtDiskCache(new File(this.directory, "cache"), 1000000);
+        ShadingAlgorithm algorithm = new SimpleShadingAlgorithm();
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 1));
+
+        ShadingAlgorithm.RawShadingResult raw = createRaw(10, (byte) 7);
+        diskCache.put(this.hgtFileInfo, algorithm, 1, raw);
+        Assert.assertTrue(diskCache.getSizeBytes() > raw.bytes.length);
+
+        // a new instance reads the entries of a previous one
+        diskCache = new HgtDiskCache(new File(this.directory, "cache"), 1000000);
+        ShadingAlgorithm.RawShadingResult cached = diskCache.get(this.hgtFileInfo, new SimpleShadingAlgorithm(), 1);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals(raw.width, cached.width);
+        Assert.assertEquals(raw.height, cached.height);
+        Assert.assertEquals(raw.padding, cached.padding);
+        Assert.assertArrayEquals(raw.bytes, cached.bytes);
+
+        // other display parameters or algorithms
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 2));
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, new SimpleShadingAlgorithm(0.5, 0.5), 1));
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, new DiffuseLightShadingAlgorithm(), 1));
+
+        // the DEM file has changed
+        Assert.assertTrue(this.hgtFile.setLastModified(2000000));
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 1));
+        diskCache.put(this.hgtFileInfo, algorithm, 1, createRaw(10, (byte) 8));
+        Assert.assertEquals(8, diskCache.get(this.hgtFileInfo, algorithm, 1).bytes[0]);
+
+        diskCache.purge();
+        Assert.assertEquals(0, diskCache.getSizeBytes());
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 1));
+    }
+
+    @Test
+    public void unknownLastModifiedTest() throws IOException {
+        DemFile demFile = new DemFileFS(this.hgtFile) {
+            @Override
+            public long getLastModified() {
+                return 0;
+            }
+        };
+        HgtFileInfo hgtFileInfo = new HgtFileInfo(demFile, 47, 11, 48, 12, this.hgtFile.length());
+        HgtDiskCache diskCache = new HgtDiskCache(new File(this.directory, "cache"), 1000000);
+        ShadingAlgorithm algorithm = new SimpleShadingAlgorithm();
+        diskCache.put(hgtFileInfo, algorithm, 1, createRaw(10, (byte) 7));
+
+        // without a modification time the file is identified by its name and size
+        Assert.assertTrue(this.hgtFile.setLastModified(2000000));
+        Assert.assertNotNull(diskCache.get(hgtFileInfo, algorithm, 1));
+        FileOutputStream outputStream = new FileOutputStream(this.hgtFile, true);
+        outputStream.write(new byte[2]);
+        outputStream.close();
+        Assert.assertNull(diskCache.get(hgtFileInfo, algorithm, 1));
+    }
+
+    @Test
+    public void sizeLimitTest() {
+        HgtDiskCache diskCache = new HgtDiskCache(new File(this.directory, "cache"), 2500);
+        ShadingAlgorithm algorithm = new SimpleShadingAlgorithm();
+
+        diskCache.put(this.hgtFileInfo, algorithm, 1, createRaw(30, (byte) 1));
+        diskCache.put(this.hgtFileInfo, algorithm, 2, createRaw(30, (byte) 2));
+        Assert.assertNotNull(diskCache.get(this.hgtFileInfo, algorithm, 1));
+        Assert.assertNotNull(diskCache.get(this.hgtFileInfo, algorithm, 2));
+        for (File file : diskCache.getDirectory().listFiles()) {
+            // the entry with cache tag 2 is the least recently used one
+            file.setLastModified(file.getName().endsWith("_2" + HgtDiskCache.FILE_EXTENSION) ? 1000 : 2000);
+        }
+
+        diskCache.put(this.hgtFileInfo, algorithm, 3, createRaw(30, (byte) 3));
+        Assert.assertTrue(diskCache.getSizeBytes() <= diskCache.getMaxBytes());
+        Assert.assertNotNull(diskCache.get(this.hgtFileInfo, algorithm, 1));
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 2));
+        Assert.assertNotNull(diskCache.get(this.hgtFileInfo, algorithm, 3));
+
+        // entries larger than the cache are not stored
+        diskCache.put(this.hgtFileInfo, algorithm, 4, createRaw(60, (byte) 4));
+        Assert.assertNull(diskCache.get(this.hgtFileInfo, algorithm, 4));
+    }
+}
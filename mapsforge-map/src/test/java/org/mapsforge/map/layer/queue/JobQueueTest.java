@@ -1,6 +1,7 @@
 /*
  * Copyright 2010, 2011, 2012, 2013 mapsforge.org
  * Copyright 2014 Ludwig M Brinckmann
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -17,9 +18,16 @@ package org.mapsforge.map.layer.queue;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.MapPosition;
 import org.mapsforge.core.model.Tile;
 import org.mapsforge.map.model.FixedTileSizeDisplayModel;
 import org.mapsforge.map.model.MapViewPosition;
+import org.mapsforge.map.util.RenderStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class JobQueueTest {
 
@@ -59,4 +67,84 @@ public class JobQueueTest {
         jobQueue.remove(job3);
 
     }
+
+    @Test
+    public void capacityTest() throws InterruptedException {
+        MapViewPosition mapViewPosition = new MapViewPosition(new FixedTileSizeDisplayModel(256));
+        mapViewPosition.setMapPosition(new MapPosition(new LatLong(0, 0), (byte) 8));
+        JobQueue<Job> jobQueue = new JobQueue<Job>(mapViewPosition, new FixedTileSizeDisplayModel(256));
+        RenderStatistics renderStatistics = new RenderStatistics();
+        jobQueue.setRenderMetrics(renderStatistics);
+
+        for (int tileX = 0; tileX < 256; ++tileX) {
+            jobQueue.add(new Job(new Tile(tileX, 0, (byte) 8, TILE_SIZE), false));
+        }
+        Assert.assertEquals(256, jobQueue.size());
+
+        // scheduling keeps only the most important jobs, the map position is at the center of the world
+        Job job = jobQueue.get();
+        Assert.assertEquals(127, jobQueue.size());
+        Assert.assertTrue(Math.abs(job.tile.tileX - 128) <= 1);
+        Assert.assertEquals(128, renderStatistics.getDroppedJobs());
+        Assert.assertEquals(127, renderStatistics.getQueueSize());
+
+        // a job that was dropped can be queued again
+        Job droppedJob = new Job(new Tile(0, 0, (byte) 8, TILE_SIZE), false);
+        jobQueue.add(droppedJob);
+        Assert.assertEquals(128, jobQueue.size());
+
+        // an assigned job is not queued again until it is removed
+        jobQueue.add(job);
+        Assert.assertEquals(128, jobQueue.size());
+        jobQueue.remove(job);
+        jobQueue.add(job);
+        Assert.assertEquals(129, jobQueue.size());
+    }
+
+    @Test
+    public void wakeupTest() throws InterruptedException {
+        MapViewPosition mapViewPosition = new MapViewPosition(new FixedTileSizeDisplayModel(256));
+        final JobQueue<Job> jobQueue = new JobQueue<Job>(mapViewPosition, new FixedTileSizeDisplayModel(256));
+        final Job job1 = new Job(new Tile(0, 0, (byte) 1, TILE_SIZE), false);
+        final Job job2 = new Job(new Tile(1, 0, (byte) 1, TILE_SIZE), false);
+        final List<Job> result = Collections.synchronizedList(new ArrayList<Job>());
+
+        Thread worker = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    // blocks until a job is added, then until the first job is removed again
+                    result.add(jobQueue.get(1));
+                    result.add(jobQueue.get(1));
+                    // blocks until interrupted
+                    result.add(jobQueue.get(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.start();
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+        waitForSize(result, 1);
+        Assert.assertEquals(1, result.size());
+
+        jobQueue.remove(result.get(0));
+        waitForSize(result, 2);
+        Assert.assertEquals(2, result.size());
+        Assert.assertTrue(result.contains(job1) && result.contains(job2));
+
+        jobQueue.interrupt();
+        worker.join(10000);
+        Assert.assertFalse(worker.isAlive());
+        Assert.assertEquals(3, result.size());
+        Assert.assertNull(result.get(2));
+    }
+
+    private static void waitForSize(List<Job> list, int size) throws InterruptedException {
+        for (int i = 0; i < 1000 && list.size() < size; ++i) {
+            Thread.sleep(10);
+        }
+    }
 }
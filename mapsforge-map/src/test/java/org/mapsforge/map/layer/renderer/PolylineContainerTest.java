@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.datastore.Way;
+
+import java.util.Collections;
+
+public class PolylineContainerTest {
+    private static final LatLong[][] LAT_LONGS = {
+            {new LatLong(52.5, 13.4), new LatLong(52.51, 13.41), new LatLong(52.52, 13.39), new LatLong(52.5, 13.4)},
+            {new LatLong(52.505, 13.401), new LatLong(52.506, 13.402)}};
+
+    @Test
+    public void packedCoordinatesTest() {
+        Tile tile = new Tile(8800, 5373, (byte) 14, 256);
+        PolylineContainer container = new PolylineContainer(
+                new Way((byte) 5, Collections.<Tag>emptyList(), LAT_LONGS, null), tile, tile);
+        Assert.assertTrue(container.isClosedWay());
+
+        double[][] packed = container.getPackedCoordinatesAbsolute();
+        Point[][] absolute = container.getCoordinatesAbsolute();
+        Point[][] relative = container.getCoordinatesRelativeToOrigin();
+        Point origin = tile.getOrigin();
+        Assert.assertEquals(LAT_LONGS.length, packed.length);
+        for (int i = 0; i < LAT_LONGS.length; i++) {
+            Assert.assertEquals(2 * LAT_LONGS[i].length, packed[i].length);
+            Assert.assertEquals(LAT_LONGS[i].length, absolute[i].length);
+            for (int j = 0; j < LAT_LONGS[i].length; j++) {
+                Point expected = MercatorProjection.getPixelAbsolute(LAT_LONGS[i][j], tile.mapSize);
+                Assert.assertEquals(expected.x, packed[i][2 * j], 0);
+                Assert.assertEquals(expected.y, packed[i][2 * j + 1], 0);
+                Assert.assertEquals(expected, absolute[i][j]);
+                Assert.assertEquals(expected.offset(-origin.x, -origin.y), relative[i][j]);
+            }
+        }
+
+        // The coordinates are computed once
+        Assert.assertSame(packed, container.getPackedCoordinatesAbsolute());
+    }
+
+    @Test
+    public void pointsTest() {
+        Tile tile = new Tile(0, 0, (byte) 0, 256);
+        Point[] points = {new Point(1, 2), new Point(3, 4), new Point(5, 6)};
+        PolylineContainer container = new PolylineContainer(points, tile, tile, Collections.<Tag>emptyList());
+        Assert.assertFalse(container.isClosedWay());
+        Assert.assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, container.getPackedCoordinatesAbsolute()[0], 0);
+        Assert.assertArrayEquals(points, container.getCoordinatesAbsolute()[0]);
+        Assert.assertEquals(new Point(3, 4), container.getCenterAbsolute());
+    }
+}
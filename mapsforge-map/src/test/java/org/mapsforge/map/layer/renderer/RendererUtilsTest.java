@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.layer.renderer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.Point;
+
+import java.util.Random;
+
+public class RendererUtilsTest {
+    private static void assertSamePath(Point[] expected, double[] actual) {
+        Assert.assertEquals(2 * expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i].x, actual[2 * i], 1e-9);
+            Assert.assertEquals(expected[i].y, actual[2 * i + 1], 1e-9);
+        }
+    }
+
+    private static double[] pack(Point[] points) {
+        double[] packed = new double[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            packed[2 * i] = points[i].x;
+            packed[2 * i + 1] = points[i].y;
+        }
+        return packed;
+    }
+
+    @Test
+    public void parallelPathTest() {
+        // A straight line is shifted along its normal
+        double[] parallel = RendererUtils.parallelPath(new double[]{0, 0, 10, 0, 20, 0}, 2);
+        Assert.assertArrayEquals(new double[]{0, 2, 10, 2, 20, 2}, parallel, 1e-9);
+
+        // A right angle moves the corner diagonally
+        parallel = RendererUtils.parallelPath(new double[]{0, 0, 10, 0, 10, 10}, 1);
+        Assert.assertArrayEquals(new double[]{0, 1, 9, 1, 9, 10}, parallel, 1e-9);
+
+        // Angles above the limit keep the original path
+        double[] p = {0, 0, 10, 0, 0, 0.1};
+        Assert.assertSame(p, RendererUtils.parallelPath(p, 1));
+    }
+
+    @Test
+    public void parallelPathPackedTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            Point[] points = new Point[2 + random.nextInt(10)];
+            for (int j = 0; j < points.length; j++) {
+                points[j] = new Point(random.nextDouble() * 256, random.nextDouble() * 256);
+            }
+            // Also repeated points
+            if (points.length > 2) {
+                points[1] = points[0];
+            }
+            double dy = random.nextDouble() * 10 - 5;
+
+            assertSamePath(RendererUtils.parallelPath(points, dy), RendererUtils.parallelPath(pack(points), dy));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.rendertheme.rule;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.Tag;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MatchingCacheKeyTest {
+    @Test
+    public void equalsTest() {
+        MatchingCacheKey key1 = new MatchingCacheKey(Arrays.asList(new Tag("highway", "primary"), new Tag("name", "a")), (byte) 10, Closed.NO);
+        MatchingCacheKey key2 = new MatchingCacheKey(Arrays.asList(new Tag("highway", "primary"), new Tag("name", "b")), (byte) 10, Closed.NO);
+        MatchingCacheKey key3 = new MatchingCacheKey(Collections.singletonList(new Tag("highway", "primary")), (byte) 10, Closed.NO);
+        MatchingCacheKey key4 = new MatchingCacheKey(Collections.singletonList(new Tag("highway", "primary")), (byte) 11, Closed.NO);
+        MatchingCacheKey key5 = new MatchingCacheKey(Collections.singletonList(new Tag("highway", "primary")), (byte) 10, Closed.YES);
+        MatchingCacheKey key6 = new MatchingCacheKey(Collections.singletonList(new Tag("highway", "secondary")), (byte) 10, Closed.NO);
+
+        // the name tag is ignored
+        Assert.assertEquals(key1, key2);
+        Assert.assertEquals(key1.hashCode(), key2.hashCode());
+        Assert.assertEquals(key1, key3);
+
+        Assert.assertNotEquals(key3, key4);
+        Assert.assertNotEquals(key3, key5);
+        Assert.assertNotEquals(key3, key6);
+    }
+
+    @Test
+    public void hashCollisionTest() {
+        // "Aa" and "BB" have the same String hash code, so these tags have the same hash code
+        Tag tag1 = new Tag("k", "Aa");
+        Tag tag2 = new Tag("k", "BB");
+        Assert.assertEquals(tag1.hashCode(), tag2.hashCode());
+
+        MatchingCacheKey key1 = new MatchingCacheKey(Collections.singletonList(tag1), (byte) 10, Closed.NO);
+        MatchingCacheKey key2 = new MatchingCacheKey(Collections.singletonList(tag2), (byte) 10, Closed.NO);
+        Assert.assertEquals(key1.hashCode(), key2.hashCode());
+        Assert.assertNotEquals(key1, key2);
+    }
+}
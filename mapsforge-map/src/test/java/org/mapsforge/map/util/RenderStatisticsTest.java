@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.map.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RenderStatisticsTest {
+    @Test
+    public void countersTest() {
+        RenderStatistics renderStatistics = new RenderStatistics();
+        Assert.assertEquals(0, renderStatistics.getCacheHitRate(), 0);
+
+        renderStatistics.onCacheLookup(true);
+        renderStatistics.onCacheLookup(true);
+        renderStatistics.onCacheLookup(true);
+        renderStatistics.onCacheLookup(false);
+        Assert.assertEquals(3, renderStatistics.getCacheHits());
+        Assert.assertEquals(1, renderStatistics.getCacheMisses());
+        Assert.assertEquals(0.75, renderStatistics.getCacheHitRate(), 0);
+
+        renderStatistics.onQueueSize(20);
+        renderStatistics.onQueueSize(5);
+        Assert.assertEquals(5, renderStatistics.getQueueSize());
+        Assert.assertEquals(20, renderStatistics.getMaxQueueSize());
+
+        renderStatistics.onJobsDropped(3);
+        renderStatistics.onJobsDropped(4);
+        Assert.assertEquals(7, renderStatistics.getDroppedJobs());
+
+        renderStatistics.onWaysDrawn(10, 2);
+        renderStatistics.onWaysDrawn(5, 0);
+        Assert.assertEquals(15, renderStatistics.getDrawnLines());
+        Assert.assertEquals(2, renderStatistics.getDrawnPaths());
+
+        renderStatistics.reset();
+        Assert.assertEquals(0, renderStatistics.getCacheHits());
+        Assert.assertEquals(0, renderStatistics.getDrawnLines());
+        Assert.assertEquals(0, renderStatistics.getMaxQueueSize());
+        Assert.assertEquals(0, renderStatistics.getDroppedJobs());
+    }
+
+    @Test
+    public void stageTest() {
+        RenderStatistics renderStatistics = new RenderStatistics();
+        Assert.assertEquals(0, renderStatistics.getPercentileNanos(RenderMetrics.Stage.TOTAL, 50));
+
+        for (int i = 1; i <= 100; ++i) {
+            renderStatistics.onStage(RenderMetrics.Stage.TOTAL, i * 1000L);
+        }
+        renderStatistics.onStage(RenderMetrics.Stage.LABELS, 0);
+
+        Assert.assertEquals(100, renderStatistics.getCount(RenderMetrics.Stage.TOTAL));
+        Assert.assertEquals(5050000, renderStatistics.getTotalNanos(RenderMetrics.Stage.TOTAL));
+        Assert.assertEquals(50500, renderStatistics.getMeanNanos(RenderMetrics.Stage.TOTAL));
+        Assert.assertEquals(100000, renderStatistics.getMaxNanos(RenderMetrics.Stage.TOTAL));
+        Assert.assertEquals(1, renderStatistics.getCount(RenderMetrics.Stage.LABELS));
+        Assert.assertEquals(0, renderStatistics.getCount(RenderMetrics.Stage.READ_MAP_DATA));
+
+        // percentiles are upper bounds accurate to a factor of two
+        long median = renderStatistics.getPercentileNanos(RenderMetrics.Stage.TOTAL, 50);
+        Assert.assertTrue(median >= 50000 && median <= 100000);
+        long p99 = renderStatistics.getPercentileNanos(RenderMetrics.Stage.TOTAL, 99);
+        Assert.assertTrue(p99 >= 99000 && p99 <= 100000);
+        Assert.assertEquals(100000, renderStatistics.getPercentileNanos(RenderMetrics.Stage.TOTAL, 100));
+        Assert.assertEquals(0, renderStatistics.getPercentileNanos(RenderMetrics.Stage.LABELS, 50));
+
+        Assert.assertTrue(renderStatistics.toString().contains("TOTAL=[count=100"));
+        Assert.assertFalse(renderStatistics.toString().contains("READ_MAP_DATA"));
+
+        try {
+            renderStatistics.getPercentileNanos(RenderMetrics.Stage.TOTAL, 101);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+    }
+}
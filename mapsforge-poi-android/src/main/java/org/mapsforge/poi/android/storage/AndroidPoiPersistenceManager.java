@@ -3,6 +3,7 @@
  * Copyright 2010, 2011 Karsten Groll
  * Copyright 2015-2018 devemux86
  * Copyright 2017 Gustl22
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -31,12 +32,18 @@ import java.util.logging.Logger;
 /**
  * A {@link PoiPersistenceManager} implementation using a SQLite database via wrapper.
  * <p/>
+ * The R*Tree spatial index and the full-text search index of POI files are kept in sync on insert and remove, if the
+ * SQLite of the device provides the R*Tree and FTS5 modules. Otherwise they are left as is, so the edited POIs are
+ * not found through them on other platforms.
+ * <p/>
  * This class can only be used within Android.
  */
 class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
     private static final Logger LOGGER = Logger.getLogger(AndroidPoiPersistenceManager.class.getName());
 
     private SQLiteDatabase db = null;
+    private boolean fts;
+    private boolean rtree;
 
     /**
      * @param dbFilePath Path to SQLite file containing POI data.
@@ -94,6 +101,9 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
                 LOGGER.log(Level.SEVERE, e.toString(), e);
             }
         }
+
+        this.fts = isUsableTable(DbConstants.FIND_FTS_STATEMENT, "poi_fts");
+        this.rtree = isUsableTable(DbConstants.FIND_RTREE_STATEMENT, "poi_rtree");
     }
 
     /**
@@ -101,6 +111,7 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
      */
     private void createTables() {
         this.db.execSQL(DbConstants.DROP_METADATA_STATEMENT);
+        this.db.execSQL(DbConstants.DROP_RTREE_STATEMENT);
         this.db.execSQL(DbConstants.DROP_INDEX_IDX_LAT_STATEMENT);
         this.db.execSQL(DbConstants.DROP_INDEX_IDX_LON_STATEMENT);
         this.db.execSQL(DbConstants.DROP_INDEX_STATEMENT);
@@ -170,6 +181,71 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The words are always searched in the points of interest data, as the full-text search index of POI files
+     * requires FTS5, which is not available in the SQLite of all Android versions.
+     */
+    @Override
+    public Collection<PointOfInterest> findByText(String text, BoundingBox bb, PoiCategoryFilter filter,
+                                                  LatLong orderBy, int limit, boolean findCategories) {
+        // Clear previous results
+        this.ret.clear();
+
+        List<String> tokens = PoiTextIndex.getTokens(text);
+        if (tokens.isEmpty()) {
+            return this.ret;
+        }
+
+        // Query
+        Cursor cursor = null;
+        try {
+            String sql = AbstractPoiPersistenceManager.getSQLSearchString(filter, tokens.size(), bb != null, orderBy, false, false);
+
+            List<String> selectionArgs = new ArrayList<>();
+            if (bb != null) {
+                selectionArgs.add(String.valueOf(bb.maxLatitude));
+                selectionArgs.add(String.valueOf(bb.maxLongitude));
+                selectionArgs.add(String.valueOf(bb.minLatitude));
+                selectionArgs.add(String.valueOf(bb.minLongitude));
+            }
+            for (String token : tokens) {
+                selectionArgs.addAll(Arrays.asList(PoiTextIndex.getLikePatterns(token)));
+            }
+            if (orderBy != null) {
+                selectionArgs.add(String.valueOf(orderBy.latitude));
+                selectionArgs.add(String.valueOf(orderBy.latitude));
+                selectionArgs.add(String.valueOf(orderBy.longitude));
+                selectionArgs.add(String.valueOf(orderBy.longitude));
+            }
+            selectionArgs.add(String.valueOf(limit));
+
+            cursor = this.db.rawQuery(sql, selectionArgs.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                double lat = cursor.getDouble(1);
+                double lon = cursor.getDouble(2);
+                String data = cursor.getString(3);
+
+                this.poi = new PointOfInterest(id, lat, lon, stringToTags(data), findCategories ? findCategoriesByID(id) : null);
+                this.ret.add(this.poi);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            try {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
+        return this.ret;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -198,6 +274,12 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
                     selectionArgs.add("%" + (tag.key.equals("*") ? "" : (tag.key + "=")) + tag.value + "%");
                 }
             }
+            if (orderBy != null) {
+                selectionArgs.add(String.valueOf(orderBy.latitude));
+                selectionArgs.add(String.valueOf(orderBy.latitude));
+                selectionArgs.add(String.valueOf(orderBy.longitude));
+                selectionArgs.add(String.valueOf(orderBy.longitude));
+            }
             selectionArgs.add(String.valueOf(limit));
 
             cursor = this.db.rawQuery(sql, selectionArgs.toArray(new String[0]));
@@ -294,12 +376,33 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
                         String.valueOf(poi.getLongitude())
                 });
 
+                // POI spatial index
+                if (this.rtree) {
+                    this.db.execSQL(DbConstants.INSERT_RTREE_ENTRY_STATEMENT, new Object[]{
+                            poi.getId(),
+                            poi.getLatitude(),
+                            poi.getLatitude(),
+                            poi.getLongitude(),
+                            poi.getLongitude()
+                    });
+                }
+
                 // POI data
                 this.db.execSQL(DbConstants.INSERT_DATA_STATEMENT, new String[]{
                         String.valueOf(poi.getId()),
                         tagsToString(poi.getTags())
                 });
 
+                // POI full-text search
+                if (this.fts) {
+                    String[] columns = PoiTextIndex.getColumns(poi.getTags());
+                    this.db.execSQL(DbConstants.INSERT_FTS_STATEMENT, new Object[]{
+                            poi.getId(),
+                            columns[0],
+                            columns[1]
+                    });
+                }
+
                 // POI categories
                 for (PoiCategory cat : poi.getCategories()) {
                     this.db.execSQL(DbConstants.INSERT_CATEGORY_MAP_STATEMENT, new String[]{
@@ -321,6 +424,35 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
         return this.poiFile == null;
     }
 
+    /**
+     * @param sql   the statement counting the tables of the given name.
+     * @param table the name of the table.
+     * @return true if the table exists and can be queried, i.e. the SQLite provides the module of a virtual table.
+     */
+    private boolean isUsableTable(String sql, String table) {
+        Cursor cursor = null;
+        try {
+            cursor = this.db.rawQuery(sql, null);
+            if (!cursor.moveToNext() || cursor.getInt(0) == 0) {
+                return false;
+            }
+            cursor.close();
+            cursor = this.db.rawQuery("SELECT count(*) FROM " + table + " WHERE 0;", null);
+            return cursor.moveToNext();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, table + " is not usable: " + e.toString());
+        } finally {
+            try {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -415,6 +547,12 @@ class AndroidPoiPersistenceManager extends AbstractPoiPersistenceManager {
             this.db.execSQL(DbConstants.DELETE_INDEX_STATEMENT, new String[]{String.valueOf(poi.getId())});
             this.db.execSQL(DbConstants.DELETE_DATA_STATEMENT, new String[]{String.valueOf(poi.getId())});
             this.db.execSQL(DbConstants.DELETE_CATEGORY_MAP_STATEMENT, new String[]{String.valueOf(poi.getId())});
+            if (this.fts) {
+                this.db.execSQL(DbConstants.DELETE_FTS_STATEMENT, new Object[]{poi.getId()});
+            }
+            if (this.rtree) {
+                this.db.execSQL(DbConstants.DELETE_RTREE_STATEMENT, new Object[]{poi.getId()});
+            }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, e.toString(), e);
         }
@@ -1,6 +1,7 @@
 /*
  * Copyright 2015-2018 devemux86
  * Copyright 2017 Gustl22
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -29,22 +30,33 @@ import java.util.logging.Logger;
 /**
  * A {@link PoiPersistenceManager} implementation using a SQLite database via JDBC.
  * <p/>
+ * POI files with an R*Tree spatial index are queried through it, older POI files through the separate latitude and
+ * longitude indexes. The same goes for the full-text search index of the names and tag values.
+ * Both indexes are kept in sync on insert and remove by this class, POI files have no triggers for them, so that
+ * they can still be edited with a SQLite without the R*Tree or FTS5 module.
+ * <p/>
  * This class can only be used within AWT.
  */
 class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
     private static final Logger LOGGER = Logger.getLogger(AwtPoiPersistenceManager.class.getName());
 
     private Connection conn = null;
+    private boolean fts;
+    private boolean rtree;
 
     private PreparedStatement findCatByIDStatement = null;
     private PreparedStatement findDataByIDStatement = null;
     private PreparedStatement findLocByIDStatement = null;
     private PreparedStatement insertPoiCatStatement = null;
     private PreparedStatement insertPoiDataStatement = null;
+    private PreparedStatement insertPoiFtsStatement = null;
     private PreparedStatement insertPoiLocStatement = null;
+    private PreparedStatement insertPoiRtreeStatement = null;
     private PreparedStatement deletePoiCatStatement = null;
     private PreparedStatement deletePoiDataStatement = null;
+    private PreparedStatement deletePoiFtsStatement = null;
     private PreparedStatement deletePoiLocStatement = null;
+    private PreparedStatement deletePoiRtreeStatement = null;
     private PreparedStatement isValidDBStatement = null;
     private PreparedStatement metadataStatement = null;
 
@@ -113,6 +125,14 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             }
         }
 
+        if (this.insertPoiFtsStatement != null) {
+            try {
+                this.insertPoiFtsStatement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
         if (this.insertPoiLocStatement != null) {
             try {
                 this.insertPoiLocStatement.close();
@@ -121,6 +141,14 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             }
         }
 
+        if (this.insertPoiRtreeStatement != null) {
+            try {
+                this.insertPoiRtreeStatement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
         if (this.deletePoiCatStatement != null) {
             try {
                 this.deletePoiCatStatement.close();
@@ -137,6 +165,14 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             }
         }
 
+        if (this.deletePoiFtsStatement != null) {
+            try {
+                this.deletePoiFtsStatement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
         if (this.deletePoiLocStatement != null) {
             try {
                 this.deletePoiLocStatement.close();
@@ -145,6 +181,14 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             }
         }
 
+        if (this.deletePoiRtreeStatement != null) {
+            try {
+                this.deletePoiRtreeStatement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
         if (this.isValidDBStatement != null) {
             try {
                 this.isValidDBStatement.close();
@@ -198,6 +242,9 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
                 LOGGER.log(Level.SEVERE, e.toString(), e);
             }
         }
+
+        this.fts = hasTable(DbConstants.FIND_FTS_STATEMENT);
+        this.rtree = hasTable(DbConstants.FIND_RTREE_STATEMENT);
     }
 
     /**
@@ -207,21 +254,25 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
         Statement stmt = this.conn.createStatement();
 
         stmt.execute(DbConstants.DROP_METADATA_STATEMENT);
+        stmt.execute(DbConstants.DROP_RTREE_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_IDX_LAT_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_IDX_LON_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_STATEMENT);
         stmt.execute(DbConstants.DROP_CATEGORY_MAP_STATEMENT);
         //stmt.execute(DbConstants.DROP_DATA_IDX_STATEMENT);
+        stmt.execute(DbConstants.DROP_FTS_STATEMENT);
         stmt.execute(DbConstants.DROP_DATA_STATEMENT);
         stmt.execute(DbConstants.DROP_CATEGORIES_STATEMENT);
 
         stmt.execute(DbConstants.CREATE_CATEGORIES_STATEMENT);
         stmt.execute(DbConstants.CREATE_DATA_STATEMENT);
+        stmt.execute(DbConstants.CREATE_FTS_STATEMENT);
         //stmt.execute(DbConstants.CREATE_DATA_IDX_STATEMENT);
         stmt.execute(DbConstants.CREATE_CATEGORY_MAP_STATEMENT);
         stmt.execute(DbConstants.CREATE_INDEX_STATEMENT);
         stmt.execute(DbConstants.CREATE_INDEX_IDX_LAT_STATEMENT);
         stmt.execute(DbConstants.CREATE_INDEX_IDX_LON_STATEMENT);
+        stmt.execute(DbConstants.CREATE_RTREE_STATEMENT);
         stmt.execute(DbConstants.CREATE_METADATA_STATEMENT);
 
         stmt.close();
@@ -299,8 +350,100 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
      * {@inheritDoc}
      */
     @Override
-    public Collection<PointOfInterest> findInRect(BoundingBox bb, PoiCategoryFilter filter,
-                                                  List<Tag> patterns, LatLong orderBy, int limit, boolean findCategories) {
+    public Collection<PointOfInterest> findByText(String text, BoundingBox bb, PoiCategoryFilter filter,
+                                                  LatLong orderBy, int limit, boolean findCategories) {
+        // Clear previous results
+        this.ret.clear();
+
+        List<String> tokens = PoiTextIndex.getTokens(text);
+        if (tokens.isEmpty()) {
+            return this.ret;
+        }
+
+        // Query
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = this.conn.prepareStatement(AbstractPoiPersistenceManager.getSQLSearchString(filter, tokens.size(),
+                    bb != null, orderBy, this.rtree, this.fts));
+
+            stmt.clearParameters();
+
+            int i = 1;
+            if (bb != null) {
+                stmt.setDouble(i++, bb.maxLatitude);
+                stmt.setDouble(i++, bb.maxLongitude);
+                stmt.setDouble(i++, bb.minLatitude);
+                stmt.setDouble(i++, bb.minLongitude);
+            }
+            if (this.fts) {
+                stmt.setString(i++, PoiTextIndex.getMatchQuery(tokens));
+            } else {
+                for (String token : tokens) {
+                    for (String pattern : PoiTextIndex.getLikePatterns(token)) {
+                        stmt.setString(i++, pattern);
+                    }
+                }
+            }
+            if (orderBy != null) {
+                stmt.setDouble(i++, orderBy.latitude);
+                stmt.setDouble(i++, orderBy.latitude);
+                stmt.setDouble(i++, orderBy.longitude);
+                stmt.setDouble(i++, orderBy.longitude);
+            }
+            stmt.setInt(i, limit);
+
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                double lat = rs.getDouble(2);
+                double lon = rs.getDouble(3);
+                String data = rs.getString(4);
+
+                this.poi = new PointOfInterest(id, lat, lon, stringToTags(data), findCategories ? findCategoriesByID(id) : null);
+                this.ret.add(this.poi);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
+        return this.ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<PointOfInterest> findInRect(BoundingBox bb, final PoiCategoryFilter filter,
+                                                  final List<Tag> patterns, final LatLong orderBy, final int limit,
+                                                  final boolean findCategories) {
+        if (!this.rtree || orderBy == null || limit <= 0) {
+            return findInRect(bb.minLatitude, bb.minLongitude, bb.maxLatitude, bb.maxLongitude,
+                    filter, patterns, orderBy, limit, findCategories);
+        }
+
+        return findNearest(bb, orderBy, limit, new RectQuery() {
+            @Override
+            public List<PointOfInterest> find(double minLat, double minLon, double maxLat, double maxLon) {
+                return findInRect(minLat, minLon, maxLat, maxLon, filter, patterns, orderBy, limit, findCategories);
+            }
+        });
+    }
+
+    private List<PointOfInterest> findInRect(double minLat, double minLon, double maxLat, double maxLon,
+                                             PoiCategoryFilter filter, List<Tag> patterns,
+                                             LatLong orderBy, int limit, boolean findCategories) {
         // Clear previous results
         this.ret.clear();
 
@@ -309,14 +452,14 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
         ResultSet rs = null;
         try {
             int pSize = patterns == null ? 0 : patterns.size();
-            stmt = this.conn.prepareStatement(AbstractPoiPersistenceManager.getSQLSelectString(filter, pSize, orderBy));
+            stmt = this.conn.prepareStatement(AbstractPoiPersistenceManager.getSQLSelectString(filter, pSize, orderBy, this.rtree));
 
             stmt.clearParameters();
 
-            stmt.setDouble(1, bb.maxLatitude);
-            stmt.setDouble(2, bb.maxLongitude);
-            stmt.setDouble(3, bb.minLatitude);
-            stmt.setDouble(4, bb.minLongitude);
+            stmt.setDouble(1, maxLat);
+            stmt.setDouble(2, maxLon);
+            stmt.setDouble(3, minLat);
+            stmt.setDouble(4, minLon);
 
             int i = 0; // i is only counted, if pattern is not null
             if (pSize > 0) {
@@ -328,6 +471,12 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
                     i++;
                 }
             }
+            if (orderBy != null) {
+                stmt.setDouble(5 + i++, orderBy.latitude);
+                stmt.setDouble(5 + i++, orderBy.latitude);
+                stmt.setDouble(5 + i++, orderBy.longitude);
+                stmt.setDouble(5 + i++, orderBy.longitude);
+            }
             stmt.setInt(5 + i, limit);
 
             rs = stmt.executeQuery();
@@ -437,14 +586,17 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             if (this.insertPoiCatStatement == null) {
                 this.insertPoiCatStatement = this.conn.prepareStatement(DbConstants.INSERT_CATEGORY_MAP_STATEMENT);
             }
+            if (this.fts && this.insertPoiFtsStatement == null) {
+                this.insertPoiFtsStatement = this.conn.prepareStatement(DbConstants.INSERT_FTS_STATEMENT);
+            }
+            if (this.rtree && this.insertPoiRtreeStatement == null) {
+                this.insertPoiRtreeStatement = this.conn.prepareStatement(DbConstants.INSERT_RTREE_ENTRY_STATEMENT);
+            }
 
             this.insertPoiLocStatement.clearParameters();
             this.insertPoiDataStatement.clearParameters();
             this.insertPoiCatStatement.clearParameters();
 
-            Statement stmt = this.conn.createStatement();
-            //stmt.execute("BEGIN;");
-
             for (PointOfInterest poi : pois) {
                 // POI location
                 this.insertPoiLocStatement.setLong(1, poi.getId());
@@ -452,11 +604,30 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
                 this.insertPoiLocStatement.setDouble(3, poi.getLongitude());
                 this.insertPoiLocStatement.executeUpdate();
 
+                // POI spatial index, kept in sync here instead of with triggers
+                if (this.rtree) {
+                    this.insertPoiRtreeStatement.setLong(1, poi.getId());
+                    this.insertPoiRtreeStatement.setDouble(2, poi.getLatitude());
+                    this.insertPoiRtreeStatement.setDouble(3, poi.getLatitude());
+                    this.insertPoiRtreeStatement.setDouble(4, poi.getLongitude());
+                    this.insertPoiRtreeStatement.setDouble(5, poi.getLongitude());
+                    this.insertPoiRtreeStatement.executeUpdate();
+                }
+
                 // POI data
                 this.insertPoiDataStatement.setLong(1, poi.getId());
                 this.insertPoiDataStatement.setString(2, tagsToString(poi.getTags()));
                 this.insertPoiDataStatement.executeUpdate();
 
+                // POI full-text search
+                if (this.fts) {
+                    String[] columns = PoiTextIndex.getColumns(poi.getTags());
+                    this.insertPoiFtsStatement.setLong(1, poi.getId());
+                    this.insertPoiFtsStatement.setString(2, columns[0]);
+                    this.insertPoiFtsStatement.setString(3, columns[1]);
+                    this.insertPoiFtsStatement.executeUpdate();
+                }
+
                 // POI categories
                 for (PoiCategory cat : poi.getCategories()) {
                     this.insertPoiCatStatement.setLong(1, poi.getId());
@@ -465,11 +636,38 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
                 }
             }
 
-            stmt.execute("COMMIT;");
-            stmt.close();
+            this.conn.commit();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+    }
+
+    /**
+     * @param sql Query counting the tables of a name, e.g. the optional indexes.
+     * @return true if the database has the table.
+     */
+    private boolean hasTable(String sql) {
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = this.conn.createStatement();
+            rs = stmt.executeQuery(sql);
+            return rs.next() && rs.getInt(1) > 0;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
         }
+        return false;
     }
 
     /**
@@ -589,14 +787,17 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             if (this.deletePoiCatStatement == null) {
                 this.deletePoiCatStatement = this.conn.prepareStatement(DbConstants.DELETE_CATEGORY_MAP_STATEMENT);
             }
+            if (this.fts && this.deletePoiFtsStatement == null) {
+                this.deletePoiFtsStatement = this.conn.prepareStatement(DbConstants.DELETE_FTS_STATEMENT);
+            }
+            if (this.rtree && this.deletePoiRtreeStatement == null) {
+                this.deletePoiRtreeStatement = this.conn.prepareStatement(DbConstants.DELETE_RTREE_STATEMENT);
+            }
 
             this.deletePoiLocStatement.clearParameters();
             this.deletePoiDataStatement.clearParameters();
             this.deletePoiCatStatement.clearParameters();
 
-            Statement stmt = this.conn.createStatement();
-            //stmt.execute("BEGIN;");
-
             this.deletePoiLocStatement.setLong(1, poi.getId());
             this.deletePoiDataStatement.setLong(1, poi.getId());
             this.deletePoiCatStatement.setLong(1, poi.getId());
@@ -604,9 +805,16 @@ class AwtPoiPersistenceManager extends AbstractPoiPersistenceManager {
             this.deletePoiLocStatement.executeUpdate();
             this.deletePoiDataStatement.executeUpdate();
             this.deletePoiCatStatement.executeUpdate();
+            if (this.fts) {
+                this.deletePoiFtsStatement.setLong(1, poi.getId());
+                this.deletePoiFtsStatement.executeUpdate();
+            }
+            if (this.rtree) {
+                this.deletePoiRtreeStatement.setLong(1, poi.getId());
+                this.deletePoiRtreeStatement.executeUpdate();
+            }
 
-            stmt.execute("COMMIT;");
-            stmt.close();
+            this.conn.commit();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, e.toString(), e);
         }
@@ -1,5 +1,6 @@
 /*
  * Copyright 2015-2016 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -38,4 +39,21 @@ public class AwtPoiPersistenceManagerFactory {
                                                                  boolean readOnly) {
         return new AwtPoiPersistenceManager(poiFilePath, readOnly);
     }
+
+    /**
+     * @param poiFilePath Path to a .poi file.
+     * @return read-only {@link PoiPersistenceManager} for concurrent callers, with a connection per processor.
+     */
+    public static PoiPersistenceManager getConcurrentPoiPersistenceManager(String poiFilePath) {
+        return getConcurrentPoiPersistenceManager(poiFilePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param poiFilePath Path to a .poi file.
+     * @param connections Number of pooled connections, i.e. max number of parallel queries.
+     * @return read-only {@link PoiPersistenceManager} for concurrent callers.
+     */
+    public static PoiPersistenceManager getConcurrentPoiPersistenceManager(String poiFilePath, int connections) {
+        return new AwtPooledPoiPersistenceManager(poiFilePath, connections);
+    }
 }
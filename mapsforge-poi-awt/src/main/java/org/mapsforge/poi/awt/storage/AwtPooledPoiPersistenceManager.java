@@ -0,0 +1,585 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.awt.storage;
+
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.poi.storage.*;
+import org.sqlite.SQLiteConfig;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A read-only {@link PoiPersistenceManager} implementation for concurrent callers, using a pool of SQLite
+ * connections via JDBC.
+ * <p/>
+ * Every query borrows a connection of the pool, so queries of different threads run in parallel. Each connection
+ * caches its prepared statements by SQL, the categories of the results are loaded in one query per result and not
+ * per POI.
+ * <p/>
+ * This class can only be used within AWT.
+ */
+class AwtPooledPoiPersistenceManager extends AbstractPoiPersistenceManager {
+    private static final Logger LOGGER = Logger.getLogger(AwtPooledPoiPersistenceManager.class.getName());
+
+    /**
+     * The max number of POI ids in the category query of the results.
+     */
+    private static final int CATEGORY_IDS_MAX = 512;
+
+    /**
+     * The max number of prepared statements cached per connection.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    /**
+     * A read-only connection of the pool with its prepared statements.
+     */
+    private static final class PooledConnection {
+        private final Connection conn;
+        private final Map<String, PreparedStatement> statements;
+
+        PooledConnection(Connection conn) {
+            this.conn = conn;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(STATEMENT_CACHE_SIZE, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeStatement(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void close() {
+            for (PreparedStatement stmt : this.statements.values()) {
+                closeStatement(stmt);
+            }
+            this.statements.clear();
+            try {
+                this.conn.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+
+        PreparedStatement prepareStatement(String sql) throws SQLException {
+            PreparedStatement stmt = this.statements.get(sql);
+            if (stmt == null) {
+                stmt = this.conn.prepareStatement(sql);
+                this.statements.put(sql, stmt);
+            }
+            stmt.clearParameters();
+            return stmt;
+        }
+    }
+
+    private static void closeStatement(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+    }
+
+    private final BlockingQueue<PooledConnection> connections;
+    private volatile boolean closed;
+    private final boolean fts;
+    private final boolean rtree;
+    private final boolean valid;
+
+    /**
+     * @param dbFilePath  Path to SQLite file containing POI data.
+     * @param connections Number of pooled connections, i.e. max number of parallel queries.
+     */
+    AwtPooledPoiPersistenceManager(String dbFilePath, int connections) {
+        super();
+
+        if (connections <= 0) {
+            throw new IllegalArgumentException("invalid number of connections: " + connections);
+        }
+
+        this.connections = new ArrayBlockingQueue<>(connections);
+        try {
+            Class.forName("org.sqlite.JDBC");
+            SQLiteConfig config = new SQLiteConfig();
+            config.setReadOnly(true);
+            for (int i = 0; i < connections; i++) {
+                this.connections.add(new PooledConnection(DriverManager.getConnection("jdbc:sqlite:" + dbFilePath,
+                        config.toProperties())));
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+        this.poiFile = dbFilePath;
+
+        PooledConnection pooledConnection = this.connections.peek();
+        if (pooledConnection == null) {
+            this.fts = false;
+            this.rtree = false;
+            this.valid = false;
+            return;
+        }
+
+        this.valid = getCount(pooledConnection, DbConstants.VALID_DB_STATEMENT) == DbConstants.NUMBER_OF_TABLES;
+        this.fts = getCount(pooledConnection, DbConstants.FIND_FTS_STATEMENT) > 0;
+        this.rtree = getCount(pooledConnection, DbConstants.FIND_RTREE_STATEMENT) > 0;
+
+        // Load categories and metadata from database, later the manager is only read
+        this.categoryManager = new AwtPoiCategoryManager(pooledConnection.conn);
+        readPoiFileInfo();
+    }
+
+    private PooledConnection borrow() {
+        try {
+            while (!this.closed) {
+                PooledConnection pooledConnection = this.connections.poll(100, TimeUnit.MILLISECONDS);
+                if (pooledConnection != null) {
+                    return pooledConnection;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void release(PooledConnection pooledConnection) {
+        this.connections.add(pooledConnection);
+        if (this.closed && this.connections.remove(pooledConnection)) {
+            pooledConnection.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        // Connections in use are closed when they are released
+        PooledConnection pooledConnection;
+        while ((pooledConnection = this.connections.poll()) != null) {
+            pooledConnection.close();
+        }
+
+        this.poiFile = null;
+    }
+
+    /**
+     * @return the categories of the given POI entries, loaded in chunks of ids.
+     */
+    private Map<Long, Set<PoiCategory>> findCategoriesByIDs(PooledConnection pooledConnection,
+                                                           List<PointOfInterest> pois)
+            throws SQLException, UnknownPoiCategoryException {
+        Map<Long, Set<PoiCategory>> categories = new HashMap<>();
+        for (int start = 0; start < pois.size(); start += CATEGORY_IDS_MAX) {
+            int end = Math.min(start + CATEGORY_IDS_MAX, pois.size());
+
+            // Power of two number of parameters, so only few statements are prepared
+            int count = Integer.highestOneBit(end - start);
+            if (count < end - start) {
+                count <<= 1;
+            }
+            StringBuilder sb = new StringBuilder(DbConstants.FIND_CATEGORIES_BY_IDS_CLAUSE).append('(');
+            for (int i = 0; i < count; i++) {
+                sb.append(i == 0 ? "?" : ", ?");
+            }
+            sb.append(");");
+
+            PreparedStatement stmt = pooledConnection.prepareStatement(sb.toString());
+            for (int i = 0; i < count; i++) {
+                // Fill the remaining parameters with the last id
+                stmt.setLong(i + 1, pois.get(Math.min(start + i, end - 1)).getId());
+            }
+
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    Set<PoiCategory> set = categories.get(id);
+                    if (set == null) {
+                        set = new HashSet<>();
+                        categories.put(id, set);
+                    }
+                    set.add(this.categoryManager.getPoiCategoryByID((int) rs.getLong(2)));
+                }
+            } finally {
+                rs.close();
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * @return the given POI entries with their categories.
+     */
+    private List<PointOfInterest> findCategories(PooledConnection pooledConnection, List<PointOfInterest> pois)
+            throws SQLException, UnknownPoiCategoryException {
+        if (pois.isEmpty()) {
+            return pois;
+        }
+        Map<Long, Set<PoiCategory>> categories = findCategoriesByIDs(pooledConnection, pois);
+        List<PointOfInterest> result = new ArrayList<>(pois.size());
+        for (PointOfInterest poi : pois) {
+            Set<PoiCategory> set = categories.get(poi.getId());
+            result.add(new PointOfInterest(poi.getId(), poi.getLatitude(), poi.getLongitude(), poi.getTags(),
+                    set != null ? set : new HashSet<PoiCategory>()));
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<PointOfInterest> findByText(String text, BoundingBox bb, PoiCategoryFilter filter,
+                                                  LatLong orderBy, int limit, boolean findCategories) {
+        List<PointOfInterest> pois = new ArrayList<>();
+
+        List<String> tokens = PoiTextIndex.getTokens(text);
+        if (tokens.isEmpty()) {
+            return pois;
+        }
+
+        PooledConnection pooledConnection = borrow();
+        if (pooledConnection == null) {
+            return pois;
+        }
+        try {
+            PreparedStatement stmt = pooledConnection.prepareStatement(AbstractPoiPersistenceManager.getSQLSearchString(
+                    filter, tokens.size(), bb != null, orderBy, this.rtree, this.fts));
+
+            int i = 1;
+            if (bb != null) {
+                stmt.setDouble(i++, bb.maxLatitude);
+                stmt.setDouble(i++, bb.maxLongitude);
+                stmt.setDouble(i++, bb.minLatitude);
+                stmt.setDouble(i++, bb.minLongitude);
+            }
+            if (this.fts) {
+                stmt.setString(i++, PoiTextIndex.getMatchQuery(tokens));
+            } else {
+                for (String token : tokens) {
+                    for (String pattern : PoiTextIndex.getLikePatterns(token)) {
+                        stmt.setString(i++, pattern);
+                    }
+                }
+            }
+            if (orderBy != null) {
+                stmt.setDouble(i++, orderBy.latitude);
+                stmt.setDouble(i++, orderBy.latitude);
+                stmt.setDouble(i++, orderBy.longitude);
+                stmt.setDouble(i++, orderBy.longitude);
+            }
+            stmt.setInt(i, limit);
+
+            readPointsOfInterest(stmt, pois);
+            if (findCategories) {
+                pois = findCategories(pooledConnection, pois);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            release(pooledConnection);
+        }
+
+        return pois;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<PointOfInterest> findInRect(BoundingBox bb, final PoiCategoryFilter filter,
+                                                  final List<Tag> patterns, final LatLong orderBy, final int limit,
+                                                  boolean findCategories) {
+        List<PointOfInterest> pois = new ArrayList<>();
+
+        final PooledConnection pooledConnection = borrow();
+        if (pooledConnection == null) {
+            return pois;
+        }
+        try {
+            if (!this.rtree || orderBy == null || limit <= 0) {
+                pois = findInRect(pooledConnection, bb.minLatitude, bb.minLongitude, bb.maxLatitude, bb.maxLongitude,
+                        filter, patterns, orderBy, limit);
+            } else {
+                pois = findNearest(bb, orderBy, limit, new RectQuery() {
+                    @Override
+                    public List<PointOfInterest> find(double minLat, double minLon, double maxLat, double maxLon) {
+                        return findInRect(pooledConnection, minLat, minLon, maxLat, maxLon,
+                                filter, patterns, orderBy, limit);
+                    }
+                });
+            }
+            if (findCategories) {
+                pois = findCategories(pooledConnection, pois);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            release(pooledConnection);
+        }
+
+        return pois;
+    }
+
+    private List<PointOfInterest> findInRect(PooledConnection pooledConnection,
+                                             double minLat, double minLon, double maxLat, double maxLon,
+                                             PoiCategoryFilter filter, List<Tag> patterns,
+                                             LatLong orderBy, int limit) {
+        List<PointOfInterest> pois = new ArrayList<>();
+        try {
+            int pSize = patterns == null ? 0 : patterns.size();
+            PreparedStatement stmt = pooledConnection.prepareStatement(
+                    AbstractPoiPersistenceManager.getSQLSelectString(filter, pSize, orderBy, this.rtree));
+
+            stmt.setDouble(1, maxLat);
+            stmt.setDouble(2, maxLon);
+            stmt.setDouble(3, minLat);
+            stmt.setDouble(4, minLon);
+
+            int i = 0; // i is only counted, if pattern is not null
+            if (pSize > 0) {
+                for (Tag tag : patterns) {
+                    if (tag == null) {
+                        continue;
+                    }
+                    stmt.setString(5 + i, "%" + (tag.key.equals("*") ? "" : (tag.key + "=")) + tag.value + "%");
+                    i++;
+                }
+            }
+            if (orderBy != null) {
+                stmt.setDouble(5 + i++, orderBy.latitude);
+                stmt.setDouble(5 + i++, orderBy.latitude);
+                stmt.setDouble(5 + i++, orderBy.longitude);
+                stmt.setDouble(5 + i++, orderBy.longitude);
+            }
+            stmt.setInt(5 + i, limit);
+
+            readPointsOfInterest(stmt, pois);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+        return pois;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PointOfInterest findPointByID(long poiID) {
+        PooledConnection pooledConnection = borrow();
+        if (pooledConnection == null) {
+            return null;
+        }
+        try {
+            PreparedStatement stmt = pooledConnection.prepareStatement(DbConstants.FIND_LOCATION_BY_ID_STATEMENT);
+            stmt.setLong(1, poiID);
+            LatLong latLong = null;
+            ResultSet rs = stmt.executeQuery();
+            try {
+                if (rs.next()) {
+                    latLong = new LatLong(rs.getDouble(2), rs.getDouble(3));
+                }
+            } finally {
+                rs.close();
+            }
+            if (latLong == null) {
+                return null;
+            }
+
+            stmt = pooledConnection.prepareStatement(DbConstants.FIND_DATA_BY_ID_STATEMENT);
+            stmt.setLong(1, poiID);
+            Set<Tag> tags = new HashSet<>();
+            rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    tags.addAll(stringToTags(rs.getString(2)));
+                }
+            } finally {
+                rs.close();
+            }
+
+            List<PointOfInterest> pois = findCategories(pooledConnection, Collections.singletonList(
+                    new PointOfInterest(poiID, latLong.latitude, latLong.longitude, tags, null)));
+            return pois.get(0);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            release(pooledConnection);
+        }
+        return null;
+    }
+
+    /**
+     * @return the result count of the query, e.g. the tables of a name.
+     */
+    private static int getCount(PooledConnection pooledConnection, String sql) {
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = pooledConnection.conn.createStatement();
+            rs = stmt.executeQuery(sql);
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Not supported, the pooled connections are read-only.
+     */
+    @Override
+    public void insertPointOfInterest(PointOfInterest poi) {
+        throw new UnsupportedOperationException("read-only");
+    }
+
+    /**
+     * Not supported, the pooled connections are read-only.
+     */
+    @Override
+    public void insertPointsOfInterest(Collection<PointOfInterest> pois) {
+        throw new UnsupportedOperationException("read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isValidDataBase() {
+        return this.valid;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readPoiFileInfo() {
+        PoiFileInfoBuilder poiFileInfoBuilder = new PoiFileInfoBuilder();
+
+        PooledConnection pooledConnection = borrow();
+        if (pooledConnection == null) {
+            return;
+        }
+        try {
+            PreparedStatement stmt = pooledConnection.prepareStatement(DbConstants.FIND_METADATA_STATEMENT);
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+
+                    switch (name) {
+                        case DbConstants.METADATA_BOUNDS:
+                            String bounds = rs.getString(2);
+                            if (bounds != null) {
+                                poiFileInfoBuilder.bounds = BoundingBox.fromString(bounds);
+                            }
+                            break;
+                        case DbConstants.METADATA_COMMENT:
+                            poiFileInfoBuilder.comment = rs.getString(2);
+                            break;
+                        case DbConstants.METADATA_DATE:
+                            poiFileInfoBuilder.date = rs.getLong(2);
+                            break;
+                        case DbConstants.METADATA_LANGUAGE:
+                            poiFileInfoBuilder.language = rs.getString(2);
+                            break;
+                        case DbConstants.METADATA_VERSION:
+                            poiFileInfoBuilder.version = rs.getInt(2);
+                            break;
+                        case DbConstants.METADATA_WAYS:
+                            poiFileInfoBuilder.ways = Boolean.parseBoolean(rs.getString(2));
+                            break;
+                        case DbConstants.METADATA_WRITER:
+                            poiFileInfoBuilder.writer = rs.getString(2);
+                            break;
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        } finally {
+            release(pooledConnection);
+        }
+
+        poiFileInfo = poiFileInfoBuilder.build();
+    }
+
+    /**
+     * Reads the POI entries without categories from the result of a query.
+     */
+    private static void readPointsOfInterest(PreparedStatement stmt, List<PointOfInterest> pois) throws SQLException {
+        ResultSet rs = stmt.executeQuery();
+        try {
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                double lat = rs.getDouble(2);
+                double lon = rs.getDouble(3);
+                String data = rs.getString(4);
+
+                pois.add(new PointOfInterest(id, lat, lon, stringToTags(data), null));
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * Not supported, the pooled connections are read-only.
+     */
+    @Override
+    public void removePointOfInterest(PointOfInterest poi) {
+        throw new UnsupportedOperationException("read-only");
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.awt.storage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.poi.storage.PoiCategoryFilter;
+import org.mapsforge.poi.storage.PoiPersistenceManager;
+import org.mapsforge.poi.storage.PointOfInterest;
+import org.mapsforge.poi.storage.WhitelistPoiCategoryFilter;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class AwtPoiPersistenceManagerTest {
+    private static final int POIS = 2000;
+
+    private final List<File> files = new ArrayList<>();
+    private final List<PoiPersistenceManager> managers = new ArrayList<>();
+
+    /**
+     * Looks up the POI entries with one of the names like findByText.
+     */
+    private static List<Long> find(List<PointOfInterest> pois, Set<String> names, BoundingBox bb,
+                                   PoiCategoryFilter filter, final LatLong orderBy, int limit) {
+        List<PointOfInterest> result = new ArrayList<>();
+        for (PointOfInterest poi : pois) {
+            if (names.contains(poi.getName()) && (bb == null || bb.contains(poi.getLatLong()))
+                    && (filter == null || filter.isAcceptedCategory(poi.getCategory()))) {
+                result.add(poi);
+            }
+        }
+        if (orderBy != null) {
+            Collections.sort(result, new Comparator<PointOfInterest>() {
+                @Override
+                public int compare(PointOfInterest poi1, PointOfInterest poi2) {
+                    return Double.compare(distance(poi1, orderBy), distance(poi2, orderBy));
+                }
+            });
+        }
+        return ids(result.size() > limit ? result.subList(0, limit) : result, orderBy == null);
+    }
+
+    private static double distance(PointOfInterest poi, LatLong latLong) {
+        double lat = poi.getLatitude() - latLong.latitude;
+        double lon = poi.getLongitude() - latLong.longitude;
+        return lat * lat + lon * lon;
+    }
+
+    private static Set<String> names(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    private static List<Long> ids(Collection<PointOfInterest> pois, boolean sort) {
+        List<Long> ids = new ArrayList<>(pois.size());
+        for (PointOfInterest poi : pois) {
+            ids.add(poi.getId());
+        }
+        if (sort) {
+            Collections.sort(ids);
+        }
+        return ids;
+    }
+
+    private PoiPersistenceManager createManager(boolean rtree, boolean fts) throws Exception {
+        File file = TestUtils.createPoiFile(rtree, fts);
+        this.files.add(file);
+        PoiPersistenceManager manager = new AwtPoiPersistenceManager(file.getAbsolutePath(), false);
+        this.managers.add(manager);
+        manager.insertPointsOfInterest(TestUtils.createPois(manager.getCategoryManager(), POIS, 42));
+        return manager;
+    }
+
+    @After
+    public void tearDown() {
+        for (PoiPersistenceManager manager : this.managers) {
+            manager.close();
+        }
+        for (File file : this.files) {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * Checks the text search of both the full-text search index and the data of older POI files.
+     */
+    private static void findByText(PoiPersistenceManager manager, List<PointOfInterest> pois, String text,
+                                   Set<String> names, PoiCategoryFilter filter) {
+        BoundingBox bb = new BoundingBox(52.2, 13.2, 52.7, 13.9);
+        LatLong orderBy = new LatLong(52.5, 13.5);
+
+        Assert.assertEquals(text, find(pois, names, null, null, null, POIS),
+                ids(manager.findByText(text, null, null, null, POIS, false), true));
+        Assert.assertEquals(text, find(pois, names, bb, null, null, POIS),
+                ids(manager.findByText(text, bb, null, null, POIS, false), true));
+        Assert.assertEquals(text, find(pois, names, bb, filter, null, POIS),
+                ids(manager.findByText(text, bb, filter, null, POIS, true), true));
+        Assert.assertEquals(text, find(pois, names, null, filter, orderBy, 5),
+                ids(manager.findByText(text, null, filter, orderBy, 5, true), false));
+    }
+
+    @Test
+    public void findByTextTest() throws Exception {
+        PoiPersistenceManager fts = createManager(true, true);
+        PoiPersistenceManager like = createManager(false, false);
+        List<PointOfInterest> pois = TestUtils.createPois(fts.getCategoryManager(), POIS, 42);
+
+        WhitelistPoiCategoryFilter filter = new WhitelistPoiCategoryFilter();
+        filter.addCategory(fts.getCategoryManager().getPoiCategoryByID(TestUtils.SHOPS));
+
+        for (PoiPersistenceManager manager : Arrays.asList(fts, like)) {
+            // Prefixes of words, ignoring case
+            findByText(manager, pois, "mül", names("Bäckerei Müller", "Müllerstraße Kiosk"), filter);
+            findByText(manager, pois, "central", names("Café Central", "Central Market"), filter);
+            findByText(manager, pois, "Crêp", names("Crêperie Saint-Michel"), filter);
+            // Every word has to match
+            findByText(manager, pois, "post, off", names("Post Office"), filter);
+            // Neither the middle of words nor keys
+            findByText(manager, pois, "ntral", names(), filter);
+            findByText(manager, pois, "name", names(), filter);
+            Assert.assertTrue(manager.findByText(" - ", null, null, null, POIS, false).isEmpty());
+        }
+
+        // Diacritics and words after punctuation are found in the full-text search index only
+        findByText(fts, pois, "cafe", names("Café Central"), filter);
+        findByText(fts, pois, "BACKEREI", names("Bäckerei Müller"), filter);
+        findByText(fts, pois, "michel", names("Crêperie Saint-Michel"), filter);
+        findByText(like, pois, "cafe", names(), filter);
+        findByText(like, pois, "michel", names(), filter);
+    }
+
+    @Test
+    public void findByTextNameOnlyTest() throws Exception {
+        PoiPersistenceManager manager = createManager(false, false);
+        List<PointOfInterest> pois = TestUtils.createPois(manager.getCategoryManager(), POIS, 42);
+
+        // POI files written without all tags have the name only
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + manager.getPoiFile());
+        try {
+            PreparedStatement pStmt = conn.prepareStatement("UPDATE poi_data SET data = ? WHERE id = ?;");
+            for (PointOfInterest poi : pois) {
+                pStmt.setString(1, poi.getName());
+                pStmt.setLong(2, poi.getId());
+                pStmt.addBatch();
+            }
+            pStmt.executeBatch();
+        } finally {
+            conn.close();
+        }
+
+        WhitelistPoiCategoryFilter filter = new WhitelistPoiCategoryFilter();
+        filter.addCategory(manager.getCategoryManager().getPoiCategoryByID(TestUtils.RESTAURANTS));
+        findByText(manager, pois, "mül", names("Bäckerei Müller", "Müllerstraße Kiosk"), filter);
+        findByText(manager, pois, "zur post", names("Zur Post"), filter);
+        findByText(manager, pois, "roma", names("Pizzeria Roma"), filter);
+        findByText(manager, pois, "ntral", names(), filter);
+    }
+
+    @Test
+    public void findInRectTest() throws Exception {
+        PoiPersistenceManager rtree = createManager(true, false);
+        PoiPersistenceManager fallback = createManager(false, false);
+
+        WhitelistPoiCategoryFilter filter = new WhitelistPoiCategoryFilter();
+        filter.addCategory(rtree.getCategoryManager().getPoiCategoryByID(TestUtils.SHOPS));
+
+        Random random = new Random(43);
+        for (int i = 0; i < 100; i++) {
+            double lat = 52 + random.nextDouble() * 0.8;
+            double lon = 13 + random.nextDouble() * 0.8;
+            BoundingBox bb = new BoundingBox(lat, lon, lat + random.nextDouble() * 0.2, lon + random.nextDouble() * 0.2);
+            PoiCategoryFilter categoryFilter = i % 2 == 0 ? null : filter;
+
+            // All POI entries in the rectangle, in no particular order
+            Collection<PointOfInterest> expected = fallback.findInRect(bb, categoryFilter, null, null, POIS, true);
+            Collection<PointOfInterest> actual = rtree.findInRect(bb, categoryFilter, null, null, POIS, true);
+            Assert.assertEquals(ids(expected, true), ids(actual, true));
+
+            // The nearest POI entries
+            LatLong orderBy = new LatLong(52 + random.nextDouble(), 13 + random.nextDouble());
+            int limit = 1 + random.nextInt(10);
+            expected = fallback.findInRect(bb, categoryFilter, null, orderBy, limit, true);
+            actual = rtree.findInRect(bb, categoryFilter, null, orderBy, limit, true);
+            Assert.assertEquals(ids(expected, false), ids(actual, false));
+        }
+
+        // With patterns
+        BoundingBox bb = new BoundingBox(52, 13, 53, 14);
+        List<Tag> patterns = Collections.singletonList(new Tag("name", "Central"));
+        Collection<PointOfInterest> expected = fallback.findInRect(bb, null, patterns, null, POIS, false);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(ids(expected, true), ids(rtree.findInRect(bb, null, patterns, null, POIS, false), true));
+    }
+
+    @Test
+    public void rtreeSyncTest() throws Exception {
+        PoiPersistenceManager manager = createManager(true, false);
+        File file = new File(manager.getPoiFile());
+        Assert.assertEquals(POIS, TestUtils.count(file, "SELECT count(*) FROM poi_rtree;"));
+        // No triggers, so that the file can be edited without the R*Tree module
+        Assert.assertEquals(0, TestUtils.count(file, "SELECT count(*) FROM sqlite_master WHERE type = 'trigger';"));
+
+        // Removed POI entries are removed from the R*Tree
+        BoundingBox bb = new BoundingBox(52, 13, 53, 14);
+        List<PointOfInterest> removed = new ArrayList<>(manager.findInRect(bb, null, null, null, POIS / 2, true));
+        for (PointOfInterest poi : removed) {
+            manager.removePointOfInterest(poi);
+        }
+        Assert.assertEquals(POIS - removed.size(), TestUtils.count(file, "SELECT count(*) FROM poi_rtree;"));
+        Assert.assertEquals(0, TestUtils.count(file,
+                "SELECT count(*) FROM poi_rtree WHERE id NOT IN (SELECT id FROM poi_index);"));
+        PointOfInterest poi = removed.get(0);
+        BoundingBox poiBox = new BoundingBox(poi.getLatitude(), poi.getLongitude(), poi.getLatitude(), poi.getLongitude());
+        Assert.assertTrue(manager.findInRect(poiBox, null, null, null, 1, true).isEmpty());
+
+        // Inserted POI entries are found through the R*Tree
+        manager.insertPointOfInterest(poi);
+        Assert.assertEquals(POIS - removed.size() + 1, TestUtils.count(file, "SELECT count(*) FROM poi_rtree;"));
+        Collection<PointOfInterest> found = manager.findInRect(poiBox, null, null, null, 1, true);
+        Assert.assertEquals(Collections.singletonList(poi), new ArrayList<>(found));
+        Assert.assertEquals(poi.getCategories(), found.iterator().next().getCategories());
+        found = manager.findInRect(bb, null, null, new LatLong(poi.getLatitude(), poi.getLongitude()), 1, true);
+        Assert.assertEquals(Collections.singletonList(poi), new ArrayList<>(found));
+    }
+}
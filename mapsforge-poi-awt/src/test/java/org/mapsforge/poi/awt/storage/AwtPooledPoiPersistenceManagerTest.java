@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.awt.storage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.poi.storage.PoiCategory;
+import org.mapsforge.poi.storage.PoiCategoryFilter;
+import org.mapsforge.poi.storage.PoiPersistenceManager;
+import org.mapsforge.poi.storage.PointOfInterest;
+import org.mapsforge.poi.storage.WhitelistPoiCategoryFilter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AwtPooledPoiPersistenceManagerTest {
+    private static final String[] TEXTS = {"mül", "central", "post off", "cafe", "roma", "ntral"};
+    private static final int POIS = 2000;
+    private static final int QUERIES = 400;
+    private static final int THREADS = 8;
+
+    private File file;
+    private final Map<Long, PointOfInterest> pois = new HashMap<>();
+    private PoiPersistenceManager pooled;
+    private PoiPersistenceManager reference;
+
+    /**
+     * A query of the test, run on the reference and on the pooled persistence manager.
+     */
+    private interface Query {
+        List<PointOfInterest> run(PoiPersistenceManager manager);
+    }
+
+    private static Set<Integer> categoryIds(PointOfInterest poi) {
+        Set<Integer> ids = new HashSet<>();
+        for (PoiCategory category : poi.getCategories()) {
+            ids.add(category.getID());
+        }
+        return ids;
+    }
+
+    private static double distance(PointOfInterest poi, LatLong latLong) {
+        double lat = poi.getLatitude() - latLong.latitude;
+        double lon = poi.getLongitude() - latLong.longitude;
+        return lat * lat + lon * lon;
+    }
+
+    private static List<Long> ids(Collection<PointOfInterest> pois, boolean sort) {
+        List<Long> ids = new ArrayList<>(pois.size());
+        for (PointOfInterest poi : pois) {
+            ids.add(poi.getId());
+        }
+        if (sort) {
+            Collections.sort(ids);
+        }
+        return ids;
+    }
+
+    private static Query query(Random random, final PoiCategoryFilter filter) {
+        double lat = 52 + random.nextDouble() * 0.8;
+        double lon = 13 + random.nextDouble() * 0.8;
+        final BoundingBox bb = random.nextInt(4) == 0 ? new BoundingBox(52, 13, 53, 14)
+                : new BoundingBox(lat, lon, lat + random.nextDouble() * 0.2, lon + random.nextDouble() * 0.2);
+        final PoiCategoryFilter categoryFilter = random.nextBoolean() ? filter : null;
+        final LatLong orderBy = random.nextBoolean() ? new LatLong(52 + random.nextDouble(), 13 + random.nextDouble()) : null;
+        final int limit = orderBy != null ? 1 + random.nextInt(20) : POIS;
+        final String text = TEXTS[random.nextInt(TEXTS.length)];
+        final long id = 1 + random.nextInt(POIS);
+
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Query() {
+                    @Override
+                    public List<PointOfInterest> run(PoiPersistenceManager manager) {
+                        return new ArrayList<>(manager.findInRect(bb, categoryFilter, null, orderBy, limit, true));
+                    }
+                };
+            case 1:
+                return new Query() {
+                    @Override
+                    public List<PointOfInterest> run(PoiPersistenceManager manager) {
+                        return new ArrayList<>(manager.findByText(text, bb, categoryFilter, orderBy, limit, true));
+                    }
+                };
+            default:
+                return new Query() {
+                    @Override
+                    public List<PointOfInterest> run(PoiPersistenceManager manager) {
+                        return Collections.singletonList(manager.findPointByID(id));
+                    }
+                };
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = TestUtils.createPoiFile(true, true);
+        PoiPersistenceManager writer = AwtPoiPersistenceManagerFactory.getPoiPersistenceManager(
+                this.file.getAbsolutePath(), false);
+        List<PointOfInterest> list = TestUtils.createPois(writer.getCategoryManager(), POIS, 42);
+        writer.insertPointsOfInterest(list);
+        writer.close();
+        for (PointOfInterest poi : list) {
+            this.pois.put(poi.getId(), poi);
+        }
+
+        this.reference = AwtPoiPersistenceManagerFactory.getPoiPersistenceManager(this.file.getAbsolutePath());
+        this.pooled = AwtPoiPersistenceManagerFactory.getConcurrentPoiPersistenceManager(
+                this.file.getAbsolutePath(), THREADS / 2);
+    }
+
+    @After
+    public void tearDown() {
+        this.reference.close();
+        this.pooled.close();
+        Assert.assertTrue(this.file.delete());
+    }
+
+    @Test
+    public void concurrentQueriesTest() throws Exception {
+        WhitelistPoiCategoryFilter filter = new WhitelistPoiCategoryFilter();
+        filter.addCategory(this.reference.getCategoryManager().getPoiCategoryByID(TestUtils.SHOPS));
+
+        // The expected results of the single connection
+        Random random = new Random(43);
+        List<Query> queries = new ArrayList<>();
+        List<List<PointOfInterest>> expected = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            Query query = query(random, filter);
+            queries.add(query);
+            expected.add(query.run(this.reference));
+        }
+
+        // More threads than pooled connections
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<PointOfInterest>>> futures = new ArrayList<>();
+            for (final Query query : queries) {
+                futures.add(executorService.submit(new Callable<List<PointOfInterest>>() {
+                    @Override
+                    public List<PointOfInterest> call() {
+                        return query.run(pooled);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < QUERIES; i++) {
+                List<PointOfInterest> actual = futures.get(i).get();
+                Assert.assertEquals(ids(expected.get(i), true), ids(actual, true));
+                for (PointOfInterest poi : actual) {
+                    // The categories of the results are loaded in batches
+                    PointOfInterest inserted = this.pois.get(poi.getId());
+                    Assert.assertEquals(inserted.getLatitude(), poi.getLatitude(), 0);
+                    Assert.assertEquals(inserted.getLongitude(), poi.getLongitude(), 0);
+                    Assert.assertEquals(inserted.getTags(), poi.getTags());
+                    Assert.assertEquals(categoryIds(inserted), categoryIds(poi));
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void orderByTest() {
+        // The same statement sorts by different locations
+        BoundingBox bb = new BoundingBox(52, 13, 53, 14);
+        for (LatLong orderBy : new LatLong[]{new LatLong(52.1, 13.1), new LatLong(52.9, 13.9), new LatLong(52.5, 13.5)}) {
+            Assert.assertEquals(ids(this.reference.findInRect(bb, null, null, orderBy, 10, false), false),
+                    ids(this.pooled.findInRect(bb, null, null, orderBy, 10, false), false));
+            Assert.assertEquals(ids(this.reference.findByText("central", null, null, orderBy, 10, false), false),
+                    ids(this.pooled.findByText("central", null, null, orderBy, 10, false), false));
+            PointOfInterest nearest = this.pooled.findInRect(bb, null, null, orderBy, 1, false).iterator().next();
+            for (PointOfInterest poi : this.pois.values()) {
+                Assert.assertTrue(distance(nearest, orderBy) <= distance(poi, orderBy));
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.awt.storage;
+
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.poi.storage.DbConstants;
+import org.mapsforge.poi.storage.PoiCategory;
+import org.mapsforge.poi.storage.PoiCategoryManager;
+import org.mapsforge.poi.storage.PointOfInterest;
+import org.mapsforge.poi.storage.UnknownPoiCategoryException;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+final class TestUtils {
+    // The category tree: root > (shops > bakery, restaurants)
+    static final int BAKERY = 1;
+    static final int SHOPS = 2;
+    static final int RESTAURANTS = 3;
+    static final int ROOT = 4;
+
+    private static final String[] NAMES = {"Bäckerei Müller", "Café Central", "Crêperie Saint-Michel", "Zur Post",
+            "Müllerstraße Kiosk", "Pizzeria Roma", "Post Office", "Central Market"};
+
+    static int count(File file, String sql) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try {
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(sql);
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Creates an empty POI file with the category tree.
+     *
+     * @param rtree if the file has the R*Tree spatial index.
+     * @param fts   if the file has the full-text search index.
+     */
+    static File createPoiFile(boolean rtree, boolean fts) throws IOException, SQLException {
+        File file = File.createTempFile("poi", ".poi");
+        file.deleteOnExit();
+
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.execute(DbConstants.CREATE_CATEGORIES_STATEMENT);
+            stmt.execute(DbConstants.CREATE_DATA_STATEMENT);
+            if (fts) {
+                stmt.execute(DbConstants.CREATE_FTS_STATEMENT);
+            }
+            stmt.execute(DbConstants.CREATE_CATEGORY_MAP_STATEMENT);
+            stmt.execute(DbConstants.CREATE_INDEX_STATEMENT);
+            stmt.execute(DbConstants.CREATE_INDEX_IDX_LAT_STATEMENT);
+            stmt.execute(DbConstants.CREATE_INDEX_IDX_LON_STATEMENT);
+            if (rtree) {
+                stmt.execute(DbConstants.CREATE_RTREE_STATEMENT);
+            }
+            stmt.execute(DbConstants.CREATE_METADATA_STATEMENT);
+            stmt.close();
+
+            PreparedStatement pStmt = conn.prepareStatement(DbConstants.INSERT_CATEGORIES_STATEMENT);
+            insertCategory(pStmt, BAKERY, "Bakery", SHOPS);
+            insertCategory(pStmt, SHOPS, "Shops", ROOT);
+            insertCategory(pStmt, RESTAURANTS, "Restaurants", ROOT);
+            insertCategory(pStmt, ROOT, "root", 0);
+            pStmt.close();
+        } finally {
+            conn.close();
+        }
+        return file;
+    }
+
+    /**
+     * Creates random POI entries in the rectangle 52,13,53,14, each in one category.
+     */
+    static List<PointOfInterest> createPois(PoiCategoryManager categoryManager, int count, long seed)
+            throws UnknownPoiCategoryException {
+        int[] categories = {BAKERY, SHOPS, RESTAURANTS};
+        Random random = new Random(seed);
+        List<PointOfInterest> pois = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Set<Tag> tags = new HashSet<>();
+            tags.add(new Tag("name", NAMES[random.nextInt(NAMES.length)]));
+            tags.add(new Tag("ref", String.valueOf(i)));
+            Set<PoiCategory> category = Collections.singleton(
+                    categoryManager.getPoiCategoryByID(categories[random.nextInt(categories.length)]));
+            pois.add(new PointOfInterest(i, 52 + random.nextDouble(), 13 + random.nextDouble(), tags, category));
+        }
+        return pois;
+    }
+
+    private static void insertCategory(PreparedStatement pStmt, int id, String name, int parent) throws SQLException {
+        pStmt.setInt(1, id);
+        pStmt.setString(2, name);
+        pStmt.setInt(3, parent);
+        pStmt.executeUpdate();
+    }
+
+    private TestUtils() {
+        throw new IllegalStateException();
+    }
+}
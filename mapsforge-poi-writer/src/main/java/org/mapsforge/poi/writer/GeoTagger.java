@@ -1,6 +1,7 @@
 /*
  * Copyright 2017-2018 Gustl22
  * Copyright 2019 devemux86
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -16,11 +17,14 @@
 package org.mapsforge.poi.writer;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
-import org.mapsforge.core.model.BoundingBox;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.mapsforge.core.model.LatLong;
 import org.mapsforge.poi.storage.DbConstants;
 import org.mapsforge.poi.writer.logging.LoggerWrapper;
@@ -30,10 +34,21 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
  * GeoTagger provides location Tags from OSM-Data in Poi-Tags (especially is_in and address tags).
+ * <p/>
+ * The boundaries of a level are merged and their POIs looked up by a pool of threads, while the calling thread
+ * writes the tags in the order of the boundaries. The database is accessed by one thread at a time.
+ * <p/>
+ * The POIs of a boundary are looked up before the previous boundaries of its level are processed, so the POIs they
+ * removed as doubles are filtered out again.
  */
 class GeoTagger {
 
@@ -41,13 +56,17 @@ class GeoTagger {
 
     private PoiWriter writer;
     private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
-    private PreparedStatement pStmtInsertWayNodes = null;
     private PreparedStatement pStmtDeletePoiData = null;
     private PreparedStatement pStmtDeletePoiCategory = null;
     private PreparedStatement pStmtDeletePoiIndex = null;
     private PreparedStatement pStmtUpdateData = null;
     private PreparedStatement pStmtNodesInBox = null;
-    private PreparedStatement pStmtTagsByID = null;
+
+    // Serializes the database access of the threads
+    private final Object dbLock = new Object();
+
+    // Ids of the POIs removed as doubles, the POIs of boundaries looked up ahead may still contain them
+    private final Set<Long> removedPois = new HashSet<>();
 
     //List of Administrative Boundaries Relations
     private List<List<Relation>> administrativeBoundaries;
@@ -56,13 +75,10 @@ class GeoTagger {
     GeoTagger(PoiWriter writer) {
         this.writer = writer;
         try {
-            this.pStmtInsertWayNodes = writer.conn.prepareStatement(DbConstants.INSERT_WAYNODES_STATEMENT);
             this.pStmtDeletePoiData = writer.conn.prepareStatement(DbConstants.DELETE_DATA_STATEMENT);
             this.pStmtDeletePoiIndex = writer.conn.prepareStatement(DbConstants.DELETE_INDEX_STATEMENT);
             this.pStmtDeletePoiCategory = writer.conn.prepareStatement(DbConstants.DELETE_CATEGORY_MAP_STATEMENT);
             this.pStmtUpdateData = writer.conn.prepareStatement(DbConstants.UPDATE_DATA_STATEMENT);
-            this.pStmtNodesInBox = writer.conn.prepareStatement(DbConstants.FIND_IN_BOX_STATEMENT);
-            this.pStmtTagsByID = writer.conn.prepareStatement(DbConstants.FIND_DATA_BY_ID_STATEMENT);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -75,8 +91,6 @@ class GeoTagger {
         }
     }
 
-    private int batchCountWays = 0;
-
     void storeAdministrativeBoundaries(Way way) {
 
         Collection<Tag> tags = way.getTags();
@@ -109,28 +123,9 @@ class GeoTagger {
     }
 
     private void storeWay(Way way) {
-        int i = 0;
-        try {
-            for (WayNode wayNode : way.getWayNodes()) {
-                pStmtInsertWayNodes.setLong(1, way.getId());
-                pStmtInsertWayNodes.setLong(2, wayNode.getNodeId());
-                pStmtInsertWayNodes.setInt(3, i);
-                pStmtInsertWayNodes.addBatch();
-
-                i++;
-
-                batchCountWays++;
-                if (batchCountWays % PoiWriter.BATCH_LIMIT == 0) {
-                    pStmtInsertWayNodes.executeBatch();
-                    pStmtInsertWayNodes.clearBatch();
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        writer.writeWayNodes(way);
     }
 
-
     void filterBoundaries(Relation relation) {
         if ("boundary".equalsIgnoreCase(writer.getTagValue(relation.getTags(), "type"))) {
             String boundaryCategory = writer.getTagValue(relation.getTags(), "boundary");
@@ -161,43 +156,103 @@ class GeoTagger {
     }
 
     void processBoundaries() {
-        long nPostalBounds = 0;
-        for (Relation postalBoundary : postalBoundaries) {
-            if (writer.configuration.isProgressLogs()) {
-                if (++nPostalBounds % 10 == 0) {
-                    System.out.print("Progress: PostalBounds " + nPostalBounds + "/"
-                            + postalBoundaries.size() + " \r");
-                }
+        // Spatial index for the POIs in the boundaries, it is created again in post-processing
+        synchronized (dbLock) {
+            try {
+                writer.conn.createStatement().execute(DbConstants.DROP_RTREE_STATEMENT);
+                writer.conn.createStatement().execute(DbConstants.CREATE_RTREE_STATEMENT);
+                writer.conn.createStatement().execute(DbConstants.INSERT_RTREE_STATEMENT);
+                writer.conn.commit();
+                this.pStmtNodesInBox = writer.conn.prepareStatement(DbConstants.FIND_IN_BOX_RTREE_STATEMENT);
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-            processBoundary(postalBoundary, true);
         }
-        commit();
 
-        for (int i = administrativeBoundaries.size() - 1; i >= 0; i--) {
-            long nAdminBounds = 0;
-            List<Relation> administrativeBoundary = administrativeBoundaries.get(i);
-            for (Relation relation : administrativeBoundary) {
-                if (writer.configuration.isProgressLogs()) {
-                    if (++nAdminBounds % 10 == 0) {
-                        System.out.print("Progress: AdminLevel " + i + ": " + nAdminBounds + "/"
-                                + administrativeBoundary.size() + " \r");
+        int threads = Math.max(1, writer.configuration.getThreads());
+        // A single thread looks up the boundaries itself, ahead of their processing like the pool
+        ExecutorService executorService = threads > 1 ? Executors.newFixedThreadPool(threads)
+                : MoreExecutors.newDirectExecutorService();
+        try {
+            processBoundaries(executorService, threads, postalBoundaries, true, "PostalBounds ");
+
+            for (int i = administrativeBoundaries.size() - 1; i >= 0; i--) {
+                processBoundaries(executorService, threads, administrativeBoundaries.get(i), false,
+                        "AdminLevel " + i + ": ");
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Processes the boundaries of a level, the next level sees their tags.
+     */
+    private void processBoundaries(ExecutorService executorService, int threads, List<Relation> relations,
+                                   boolean isPostCode, String progress) {
+        long nBounds = 0;
+        Deque<Future<Boundary>> futures = new ArrayDeque<>();
+        Iterator<Relation> iterator = relations.iterator();
+        while (iterator.hasNext() || !futures.isEmpty()) {
+            // Only a few boundaries ahead, so not all of their POIs are in memory
+            while (iterator.hasNext() && futures.size() < 2 * threads) {
+                final Relation relation = iterator.next();
+                futures.add(executorService.submit(new Callable<Boundary>() {
+                    @Override
+                    public Boundary call() {
+                        return findBoundary(relation);
                     }
+                }));
+            }
+
+            Boundary boundary = null;
+            try {
+                boundary = futures.poll().get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+            if (writer.configuration.isProgressLogs()) {
+                if (++nBounds % 10 == 0) {
+                    System.out.print("Progress: " + progress + nBounds + "/" + relations.size() + " \r");
                 }
-                processBoundary(relation, false);
             }
-            commit();
+            if (boundary != null) {
+                processBoundary(boundary, isPostCode);
+            }
         }
+        commit();
     }
 
-    private void processBoundary(Relation relation, boolean isPostCode) {
+    private static class Boundary {
+        final Polygon polygon;
+        final Map<Poi, Map<String, String>> pois;
+        final Relation relation;
+
+        Boundary(Relation relation, Polygon polygon, Map<Poi, Map<String, String>> pois) {
+            this.relation = relation;
+            this.polygon = polygon;
+            this.pois = pois;
+        }
+    }
+
+    /**
+     * Merges the boundary of a relation and finds its POIs, called by the threads.
+     */
+    private Boundary findBoundary(Relation relation) {
         Coordinate[] coordinates = mergeBoundary(relation);
-        if (coordinates == null) return;
+        if (coordinates == null) return null;
 
         LOGGER.finer("Polygon created; ");
         Polygon polygon = GEOMETRY_FACTORY.createPolygon(GEOMETRY_FACTORY.createLinearRing(coordinates), null);
 
         //Get pois in bounds
-        Map<Poi, Map<String, String>> pois = getPoisInsidePolygon(polygon);
+        return new Boundary(relation, polygon, getPoisInsidePolygon(polygon));
+    }
+
+    private void processBoundary(Boundary boundary, boolean isPostCode) {
+        Relation relation = boundary.relation;
+        Polygon polygon = boundary.polygon;
+        Map<Poi, Map<String, String>> pois = boundary.pois;
 
         if (isPostCode) {
             //Remove doubles dependent on postcode
@@ -274,6 +329,12 @@ class GeoTagger {
             @SuppressWarnings("unchecked")
             Map.Entry<Poi, Map<String, String>> entry = (Map.Entry<Poi, Map<String, String>>) it.next();
 
+            if (this.removedPois.contains(entry.getKey().id)) {
+                // Removed by a previous boundary after the lookup of this one
+                it.remove();
+                continue;
+            }
+
             Map<String, String> tags = entry.getValue();
             //Only double highways are removed, you can remove second part if you want.
             if (tags.containsKey("name") && tags.containsKey("highway")) {
@@ -289,6 +350,7 @@ class GeoTagger {
                         this.pStmtDeletePoiData.addBatch();
                         this.pStmtDeletePoiIndex.addBatch();
                         this.pStmtDeletePoiCategory.addBatch();
+                        this.removedPois.add(id);
                     } catch (SQLException e) {
                         e.printStackTrace();
                     }
@@ -298,16 +360,18 @@ class GeoTagger {
                 }
             }
         }
-        try {
-            pStmtDeletePoiCategory.executeBatch();
-            pStmtDeletePoiCategory.clearBatch();
-            pStmtDeletePoiData.executeBatch();
-            pStmtDeletePoiData.clearBatch();
-            pStmtDeletePoiIndex.executeBatch();
-            pStmtDeletePoiIndex.clearBatch();
-            writer.conn.commit();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        synchronized (dbLock) {
+            try {
+                pStmtDeletePoiCategory.executeBatch();
+                pStmtDeletePoiCategory.clearBatch();
+                pStmtDeletePoiData.executeBatch();
+                pStmtDeletePoiData.clearBatch();
+                pStmtDeletePoiIndex.executeBatch();
+                pStmtDeletePoiIndex.clearBatch();
+                writer.conn.commit();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
         return pois;
     }
@@ -357,9 +421,11 @@ class GeoTagger {
 
                 batchCountRelation++;
                 if (batchCountRelation % PoiWriter.BATCH_LIMIT == 0) {
-                    pStmtUpdateData.executeBatch();
-                    pStmtUpdateData.clearBatch();
-                    writer.conn.commit();
+                    synchronized (dbLock) {
+                        pStmtUpdateData.executeBatch();
+                        pStmtUpdateData.clearBatch();
+                        writer.conn.commit();
+                    }
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -495,7 +561,7 @@ class GeoTagger {
         return coordinates;
     }
 
-    private class Poi {
+    private static class Poi {
         long id;
         double lat;
         double lon;
@@ -518,69 +584,62 @@ class GeoTagger {
     }
 
     private Map<Poi, Map<String, String>> getPoisInsidePolygon(Polygon polygon) {
-        Coordinate[] coordinates = polygon.getBoundary().getCoordinates();
-        double minLat = coordinates[0].y;
-        double minLon = coordinates[0].x;
-        BoundingBox bbox = new BoundingBox(minLat, minLon, minLat, minLon);
-        for (Coordinate coord : coordinates) {
-            bbox = bbox.extendCoordinates(coord.y, coord.x);
+        Envelope envelope = polygon.getEnvelopeInternal();
+        LOGGER.finer("Bbox: minLat: " + envelope.getMinY() + "; minLon: " + envelope.getMinX()
+                + "; maxLat: " + envelope.getMaxY() + "; maxLon: " + envelope.getMaxX() + ";");
+
+        // Read the POIs in the bounding box with their tags, the database is locked only for the query
+        List<Poi> candidates = new ArrayList<>();
+        List<String> data = new ArrayList<>();
+        synchronized (dbLock) {
+            try {
+                this.pStmtNodesInBox.setDouble(1, envelope.getMaxY()); //poi_index.lat <= ?
+                this.pStmtNodesInBox.setDouble(2, envelope.getMaxX()); //poi_index.lon <= ?
+                this.pStmtNodesInBox.setDouble(3, envelope.getMinY()); //poi_index.lat >= ?
+                this.pStmtNodesInBox.setDouble(4, envelope.getMinX()); //poi_index.lon >= ?
+
+                ResultSet rs = this.pStmtNodesInBox.executeQuery();
+                while (rs.next()) {
+                    //poi_index.id, poi_index.lat, poi_index.lon, poi_data.data
+                    candidates.add(new Poi(rs.getLong(1), rs.getDouble(2), rs.getDouble(3)));
+                    data.add(rs.getString(4));
+                }
+                rs.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
 
+        PreparedGeometry preparedPolygon = PreparedGeometryFactory.prepare(polygon);
         Map<Poi, Map<String, String>> pois = new HashMap<>();
-        LOGGER.finer("Bbox: minLat: " + bbox.minLatitude + "; minLon: " + bbox.minLongitude
-                + "; maxLat: " + bbox.maxLatitude + "; maxLon: " + bbox.maxLongitude + ";");
-        try {
-
-            this.pStmtNodesInBox.setDouble(1, bbox.maxLatitude); //poi_index.lat <= ?
-            this.pStmtNodesInBox.setDouble(2, bbox.maxLongitude); //poi_index.lon <= ?
-            this.pStmtNodesInBox.setDouble(3, bbox.minLatitude); //poi_index.lat >= ?
-            this.pStmtNodesInBox.setDouble(4, bbox.minLongitude); //poi_index.lon >= ?
-
-            ResultSet rs = this.pStmtNodesInBox.executeQuery();
-            while (rs.next()) {
-                //poi_index.id, poi_index.lat, poi_index.lon, poi_data.data, poi_categories.name
-                long id = rs.getLong(1);
-                double lat = rs.getDouble(2);
-                double lon = rs.getDouble(3);
-
-                Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(lon, lat));
-                if (!point.within(polygon)) {
-                    continue;
-                }
+        for (int i = 0; i < candidates.size(); i++) {
+            Poi poi = candidates.get(i);
+            Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(poi.lon, poi.lat));
+            if (!preparedPolygon.contains(point)) {
+                continue;
+            }
 
-                //Handle Tags
-                this.pStmtTagsByID.setLong(1, id);
-                ResultSet rsTags = pStmtTagsByID.executeQuery();
-                Map<String, String> tagmap = new HashMap<>();
-                while (rsTags.next()) {
-                    tagmap.putAll(writer.stringToTags(rsTags.getString(2)));
-                }
-                rsTags.close();
-
-                pois.put(new Poi(id, lat, lon), tagmap);
-                LOGGER.finest("Bbox: InnerNode-Id: " + id + "; Lat: " + lat + "; Lon: " + lon + ";");
-//                if (categname.equals("Cities") || categname.equals("Towns")
-//                        || categname.equals("Villages")
-//                        || categname.equals("Hamlets")) {
-//                    places.put(id, tagmap);
-//                }
+            //Handle Tags
+            Map<String, String> tagmap = new HashMap<>();
+            if (data.get(i) != null) {
+                tagmap.putAll(writer.stringToTags(data.get(i)));
             }
-            rs.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+
+            pois.put(poi, tagmap);
+            LOGGER.finest("Bbox: InnerNode-Id: " + poi.id + "; Lat: " + poi.lat + "; Lon: " + poi.lon + ";");
         }
         return pois;
     }
 
     void commit() {
-        try {
-            pStmtInsertWayNodes.executeBatch();
-            pStmtUpdateData.executeBatch();
-            pStmtInsertWayNodes.clearBatch();
-            pStmtUpdateData.clearBatch();
-            writer.conn.commit();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        synchronized (dbLock) {
+            try {
+                pStmtUpdateData.executeBatch();
+                pStmtUpdateData.clearBatch();
+                writer.conn.commit();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
     }
 }
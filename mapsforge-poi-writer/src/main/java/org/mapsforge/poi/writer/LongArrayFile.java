@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.writer;
+
+import org.mapsforge.core.util.IOUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only array of longs in a memory-mapped temporary file, so it may be much larger than the heap.
+ * <p/>
+ * The file is mapped in segments as it grows, unused pages are left to the page cache of the OS.
+ */
+class LongArrayFile implements Closeable {
+    /**
+     * 16M longs, i.e. 128 MB per mapped segment.
+     */
+    private static final int SEGMENT_SHIFT = 24;
+
+    private final FileChannel channel;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final int segmentMask;
+    private final int segmentShift;
+    private final List<LongBuffer> segments = new ArrayList<>();
+    private long size;
+
+    /**
+     * @param directory the directory of the temporary file, null for the default temporary directory.
+     * @param suffix    the suffix of the temporary file.
+     */
+    LongArrayFile(File directory, String suffix) throws IOException {
+        this(directory, suffix, SEGMENT_SHIFT);
+    }
+
+    /**
+     * @param directory    the directory of the temporary file, null for the default temporary directory.
+     * @param suffix       the suffix of the temporary file.
+     * @param segmentShift the number of longs per mapped segment, as power of two.
+     */
+    LongArrayFile(File directory, String suffix, int segmentShift) throws IOException {
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        this.file = File.createTempFile("poiwriter", suffix, directory);
+        this.file.deleteOnExit();
+        this.randomAccessFile = new RandomAccessFile(this.file, "rw");
+        this.channel = this.randomAccessFile.getChannel();
+    }
+
+    void add(long value) throws IOException {
+        int segment = (int) (this.size >>> this.segmentShift);
+        if (segment == this.segments.size()) {
+            // Mapping beyond the end of the file extends it
+            long segmentBytes = (this.segmentMask + 1L) * 8;
+            this.segments.add(this.channel.map(FileChannel.MapMode.READ_WRITE, segment * segmentBytes, segmentBytes)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer());
+        }
+        this.segments.get(segment).put((int) (this.size & this.segmentMask), value);
+        this.size++;
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    @Override
+    public void close() {
+        // The mappings are released by the garbage collector
+        this.segments.clear();
+        IOUtils.closeQuietly(this.randomAccessFile);
+        this.file.delete();
+    }
+
+    long get(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return this.segments.get((int) (index >>> this.segmentShift)).get((int) (index & this.segmentMask));
+    }
+
+    long size() {
+        return this.size;
+    }
+}
@@ -3,6 +3,7 @@
  * Copyright 2017-2018 Gustl22
  * Copyright 2019 Kamil Donoval
  * Copyright 2022 Juanjo-MC
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -30,7 +31,10 @@ import org.mapsforge.poi.writer.model.PoiWriterConfiguration;
 import org.mapsforge.poi.writer.util.ArabicNormalizer;
 import org.openstreetmap.osmosis.core.container.v0_6.EntityContainer;
 import org.openstreetmap.osmosis.core.domain.v0_6.*;
+import org.sqlite.Function;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.text.Normalizer;
 import java.text.NumberFormat;
@@ -44,6 +48,28 @@ import java.util.regex.Pattern;
  * Entities can be filtered and grouped by categories by using an XML definition.
  */
 public final class PoiWriter {
+    /**
+     * SQL function of a column of the full-text search index, built by {@link PoiTextIndex} from the POI data.
+     */
+    private final class FtsColumnFunction extends Function {
+        private final int column;
+
+        FtsColumnFunction(int column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void xFunc() throws SQLException {
+            String data = value_text(0);
+            if (configuration.isAllTags()) {
+                result(PoiTextIndex.getColumns(stringToTags(data))[this.column]);
+            } else {
+                // Only the name is written
+                result(this.column == 0 ? data : "");
+            }
+        }
+    }
+
     /**
      * Creates a new instance of a {@link PoiWriter}.
      *
@@ -66,6 +92,11 @@ public final class PoiWriter {
 
     private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
 
+    /**
+     * Node coordinates are stored with the precision of OSM, 1e-7 degrees.
+     */
+    private static final double COORDINATE_FACTOR = 1e7;
+
     private static final Pattern NAME_LANGUAGE_PATTERN = Pattern.compile("(name)(:)([a-zA-Z]{1,3}(?:[-_][a-zA-Z0-9]{1,8})*)");
     private static final Pattern NAME_NORMALIZE_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
 
@@ -97,9 +128,11 @@ public final class PoiWriter {
     private PreparedStatement pStmtCatMap = null;
     private PreparedStatement pStmtData = null;
     private PreparedStatement pStmtIndex = null;
-    private PreparedStatement pStmtNodesC = null;
-    private PreparedStatement pStmtNodesR = null;
-    private PreparedStatement pStmtWayNodesR = null;
+
+    // Temporary node and way node stores, memory-mapped
+    private SortedLongMap nodes = null;
+    private LongArrayFile wayNodes = null;
+    private SortedLongMap wayNodesIndex = null;
 
     private PoiWriter(PoiWriterConfiguration configuration, ProgressManager progressManager) {
         this.configuration = configuration;
@@ -132,6 +165,19 @@ public final class PoiWriter {
             e.printStackTrace();
         }
 
+        // Create node stores next to the output file, they may be larger than the temporary directory
+        if (this.configuration.isWays()) {
+            try {
+                File directory = this.configuration.getOutputFile().getAbsoluteFile().getParentFile();
+                this.nodes = new SortedLongMap(directory, ".nodes");
+                this.wayNodes = new LongArrayFile(directory, ".waynodes");
+                this.wayNodesIndex = new SortedLongMap(directory, ".waynodes.idx");
+            } catch (IOException e) {
+                // Ways would be missing from the output without the node stores
+                throw new RuntimeException("Could not create the node stores", e);
+            }
+        }
+
         LOGGER.info("Creating POI database...");
         this.progressManager.initProgressBar(0, 0);
         this.progressManager.setMessage("Creating POI database");
@@ -162,8 +208,19 @@ public final class PoiWriter {
      */
     public void complete() {
         if (this.configuration.isGeoTags()) {
+            // The boundaries look up the POIs in the database, including the last batch
+            try {
+                commit();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
             this.geoTagger.processBoundaries();
         }
+        if (this.nodes != null) {
+            this.nodes.close();
+            this.wayNodes.close();
+            this.wayNodesIndex.close();
+        }
         NumberFormat nfMegabyte = NumberFormat.getInstance();
         nfMegabyte.setMaximumFractionDigits(2);
 
@@ -224,45 +281,27 @@ public final class PoiWriter {
      * Find a <code>Node</code> by its ID.
      */
     LatLong findNodeByID(long id) {
-        try {
-            this.pStmtNodesR.setLong(1, id);
-
-            ResultSet rs = this.pStmtNodesR.executeQuery();
-            if (rs.next()) {
-                double lat = rs.getDouble(1);
-                double lon = rs.getDouble(2);
-
-                return new LatLong(lat, lon);
-            }
-            rs.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        long coordinates = this.nodes.get(id);
+        if (coordinates == SortedLongMap.NO_VALUE) {
+            return null;
         }
-
-        return null;
+        return new LatLong((int) (coordinates >> 32) / COORDINATE_FACTOR, (int) coordinates / COORDINATE_FACTOR);
     }
 
     /**
      * Find way nodes by its ID.
      */
     List<Long> findWayNodesByWayID(long id) {
-        try {
-            this.pStmtWayNodesR.setLong(1, id);
-
-            ResultSet rs = this.pStmtWayNodesR.executeQuery();
-            Map<Integer, Long> nodeList = new TreeMap<>();
-            while (rs.next()) {
-                // way, node, position
-                Long nodeID = rs.getLong(1);
-                Integer pos = rs.getInt(2);
-                nodeList.put(pos, nodeID);
+        List<Long> nodeList = new ArrayList<>();
+        long offset = this.wayNodesIndex.get(id);
+        if (offset != SortedLongMap.NO_VALUE) {
+            // Number of way nodes, followed by their ids
+            long count = this.wayNodes.get(offset);
+            for (long i = 1; i <= count; i++) {
+                nodeList.add(this.wayNodes.get(offset + i));
             }
-            rs.close();
-            return new ArrayList<>(nodeList.values());
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return null;
+        return nodeList;
     }
 
     /**
@@ -304,12 +343,20 @@ public final class PoiWriter {
         LOGGER.info("Post-processing...");
 
         this.conn = DriverManager.getConnection("jdbc:sqlite:" + this.configuration.getOutputFile().getAbsolutePath());
-        this.conn.createStatement().execute(DbConstants.DROP_NODES_STATEMENT);
-        this.conn.createStatement().execute(DbConstants.DROP_WAYNODES_STATEMENT);
         this.conn.createStatement().execute("VACUUM;");
         //this.conn.createStatement().execute(DbConstants.CREATE_DATA_IDX_STATEMENT);
         this.conn.createStatement().execute(DbConstants.CREATE_INDEX_IDX_LAT_STATEMENT);
         this.conn.createStatement().execute(DbConstants.CREATE_INDEX_IDX_LON_STATEMENT);
+        this.conn.createStatement().execute(DbConstants.DROP_RTREE_STATEMENT);
+        this.conn.createStatement().execute(DbConstants.CREATE_RTREE_STATEMENT);
+        // No triggers, so that the file can still be edited without the R*Tree module, e.g. on Android
+        this.conn.createStatement().execute(DbConstants.INSERT_RTREE_STATEMENT);
+        // Full-text search index of the final POI data, after geo tagging and category filtering
+        Function.create(this.conn, "poi_fts_names", new FtsColumnFunction(0));
+        Function.create(this.conn, "poi_fts_tags", new FtsColumnFunction(1));
+        this.conn.createStatement().execute("INSERT INTO poi_fts (rowid, names, tags) "
+                + "SELECT id, poi_fts_names(data), poi_fts_tags(data) FROM poi_data WHERE data IS NOT NULL;");
+        this.conn.createStatement().execute(DbConstants.OPTIMIZE_FTS_STATEMENT);
         this.conn.createStatement().execute("VACUUM;");
         this.conn.close();
     }
@@ -328,29 +375,26 @@ public final class PoiWriter {
         stmt.execute(DbConstants.DROP_WAYNODES_STATEMENT);
         stmt.execute(DbConstants.DROP_NODES_STATEMENT);
         stmt.execute(DbConstants.DROP_METADATA_STATEMENT);
+        stmt.execute(DbConstants.DROP_RTREE_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_IDX_LAT_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_IDX_LON_STATEMENT);
         stmt.execute(DbConstants.DROP_INDEX_STATEMENT);
         stmt.execute(DbConstants.DROP_CATEGORY_MAP_STATEMENT);
         //stmt.execute(DbConstants.DROP_DATA_IDX_STATEMENT);
+        stmt.execute(DbConstants.DROP_FTS_STATEMENT);
         stmt.execute(DbConstants.DROP_DATA_STATEMENT);
         stmt.execute(DbConstants.DROP_CATEGORIES_STATEMENT);
         stmt.execute(DbConstants.CREATE_CATEGORIES_STATEMENT);
         stmt.execute(DbConstants.CREATE_DATA_STATEMENT);
+        stmt.execute(DbConstants.CREATE_FTS_STATEMENT);
         stmt.execute(DbConstants.CREATE_CATEGORY_MAP_STATEMENT);
         stmt.execute(DbConstants.CREATE_INDEX_STATEMENT);
         stmt.execute(DbConstants.CREATE_METADATA_STATEMENT);
-        stmt.execute(DbConstants.CREATE_NODES_STATEMENT);
-        stmt.execute(DbConstants.CREATE_WAYNODES_STATEMENT);
 
         this.pStmtCatMap = this.conn.prepareStatement(DbConstants.INSERT_CATEGORY_MAP_STATEMENT);
         this.pStmtData = this.conn.prepareStatement(DbConstants.INSERT_DATA_STATEMENT);
         this.pStmtIndex = this.conn.prepareStatement(DbConstants.INSERT_INDEX_STATEMENT);
 
-        this.pStmtNodesC = this.conn.prepareStatement(DbConstants.INSERT_NODES_STATEMENT);
-        this.pStmtNodesR = this.conn.prepareStatement(DbConstants.FIND_NODES_STATEMENT);
-        this.pStmtWayNodesR = this.conn.prepareStatement(DbConstants.FIND_WAYNODES_BY_ID_STATEMENT);
-
         // Insert categories
         PreparedStatement pStmt = this.conn.prepareStatement(DbConstants.INSERT_CATEGORIES_STATEMENT);
         PoiCategory root = this.categoryManager.getRootCategory();
@@ -403,13 +447,6 @@ public final class PoiWriter {
                     Way way = (Way) entity;
                     if (this.nWays == 0) {
                         LOGGER.info("Processing ways...");
-                        try {
-                            // Write rest nodes
-                            this.pStmtNodesC.executeBatch();
-                            this.pStmtNodesC.clearBatch();
-                        } catch (SQLException e) {
-                            e.printStackTrace();
-                        }
                     }
                     if (this.configuration.isProgressLogs()) {
                         if (nWays % 10000 == 0) {
@@ -678,23 +715,30 @@ public final class PoiWriter {
     }
 
     /**
-     * Write a <code>Node</code> to the database.
+     * Write a <code>Node</code> to the node store.
      */
     private void writeNode(Node node) {
+        long lat = Math.round(node.getLatitude() * COORDINATE_FACTOR);
+        long lon = Math.round(node.getLongitude() * COORDINATE_FACTOR);
         try {
-            this.pStmtNodesC.setLong(1, node.getId());
-            this.pStmtNodesC.setDouble(2, node.getLatitude());
-            this.pStmtNodesC.setDouble(3, node.getLongitude());
-
-            this.pStmtNodesC.addBatch();
-
-            if (this.nNodes % BATCH_LIMIT == 0) {
-                this.pStmtNodesC.executeBatch();
+            this.nodes.put(node.getId(), (lat << 32) | (lon & 0xFFFFFFFFL));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                this.pStmtNodesC.clearBatch();
+    /**
+     * Write the way nodes of a <code>Way</code> to the way node store.
+     */
+    void writeWayNodes(Way way) {
+        try {
+            this.wayNodesIndex.put(way.getId(), this.wayNodes.size());
+            this.wayNodes.add(way.getWayNodes().size());
+            for (WayNode wayNode : way.getWayNodes()) {
+                this.wayNodes.add(wayNode.getNodeId());
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
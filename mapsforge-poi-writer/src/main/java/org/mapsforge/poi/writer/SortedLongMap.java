@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.writer;
+
+import org.mapsforge.poi.writer.logging.LoggerWrapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A map of long keys to long values for OSM entities, which are usually sorted by id.
+ * <p/>
+ * Keys and values are appended in ascending key order to a {@link LongArrayFile}, the first key of every block is
+ * kept in the heap. A lookup searches the in-heap index and then one block, i.e. one page of the file.
+ * Keys out of order are kept in the heap.
+ */
+class SortedLongMap implements Closeable {
+    private static final Logger LOGGER = LoggerWrapper.getLogger(SortedLongMap.class.getName());
+
+    /**
+     * 256 entries per block, i.e. 4 KB of the file.
+     */
+    private static final int BLOCK_SHIFT = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    /**
+     * The value of missing keys.
+     */
+    static final long NO_VALUE = Long.MIN_VALUE;
+
+    private long[] blockKeys = new long[1024];
+    private final LongArrayFile entries;
+    private long lastKey = Long.MIN_VALUE;
+    private long size;
+    private final Map<Long, Long> unsorted = new HashMap<>();
+
+    /**
+     * @param directory the directory of the temporary file, null for the default temporary directory.
+     * @param suffix    the suffix of the temporary file.
+     */
+    SortedLongMap(File directory, String suffix) throws IOException {
+        this.entries = new LongArrayFile(directory, suffix);
+    }
+
+    /**
+     * @param directory    the directory of the temporary file, null for the default temporary directory.
+     * @param suffix       the suffix of the temporary file.
+     * @param segmentShift the number of longs per mapped segment of the file, as power of two.
+     */
+    SortedLongMap(File directory, String suffix, int segmentShift) throws IOException {
+        this.entries = new LongArrayFile(directory, suffix, segmentShift);
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    @Override
+    public void close() {
+        this.entries.close();
+        this.unsorted.clear();
+    }
+
+    /**
+     * @return the value of the key or {@link #NO_VALUE}.
+     */
+    long get(long key) {
+        if (!this.unsorted.isEmpty()) {
+            Long value = this.unsorted.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (this.size == 0 || key < this.blockKeys[0] || key > this.lastKey) {
+            return NO_VALUE;
+        }
+
+        // Last block starting at or before the key
+        int block = Arrays.binarySearch(this.blockKeys, 0, (int) ((this.size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT), key);
+        if (block < 0) {
+            block = -block - 2;
+        }
+
+        long low = (long) block << BLOCK_SHIFT;
+        long high = Math.min(low + BLOCK_SIZE, this.size) - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long midKey = this.entries.get(2 * mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return this.entries.get(2 * mid + 1);
+            }
+        }
+        return NO_VALUE;
+    }
+
+    void put(long key, long value) throws IOException {
+        if (key <= this.lastKey && this.size > 0) {
+            if (this.unsorted.isEmpty()) {
+                LOGGER.warning("Input not sorted by id, keeping entities out of order in memory: " + key);
+            }
+            this.unsorted.put(key, value);
+            return;
+        }
+
+        if ((this.size & (BLOCK_SIZE - 1)) == 0) {
+            int block = (int) (this.size >>> BLOCK_SHIFT);
+            if (block == this.blockKeys.length) {
+                this.blockKeys = Arrays.copyOf(this.blockKeys, this.blockKeys.length * 2);
+            }
+            this.blockKeys[block] = key;
+        }
+        this.entries.add(key);
+        this.entries.add(value);
+        this.lastKey = key;
+        this.size++;
+    }
+}
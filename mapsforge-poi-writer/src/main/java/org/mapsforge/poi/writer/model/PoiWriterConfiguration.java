@@ -2,6 +2,7 @@
  * Copyright 2015-2017 devemux86
  * Copyright 2017-2018 Gustl22
  * Copyright 2019 Kamil Donoval
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -39,6 +40,7 @@ public class PoiWriterConfiguration {
     private String preferredLanguage;
     private boolean progressLogs;
     private URL tagMapping;
+    private int threads;
     private boolean wayFiltering;
     private boolean ways;
     private String writerVersion;
@@ -116,6 +118,13 @@ public class PoiWriterConfiguration {
         return this.tagMapping;
     }
 
+    /**
+     * @return the threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
     /**
      * @return the writer version
      */
@@ -289,6 +298,13 @@ public class PoiWriterConfiguration {
         this.progressLogs = progressLogs;
     }
 
+    /**
+     * @param threads the threads to set
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * @param wayFiltering the way filtering to set
      */
@@ -4,6 +4,7 @@
  * Copyright 2015-2017 devemux86
  * Copyright 2017-2018 Gustl22
  * Copyright 2019 Kamil Donoval
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -44,6 +45,7 @@ public class PoiWriterFactory extends TaskManagerFactory {
     private static final String PARAM_PREFERRED_LANGUAGE = "preferred-language";
     private static final String PARAM_PROGRESS_LOGS = "progress-logs";
     private static final String PARAM_TAG_MAPPING_FILE = "tag-conf-file";
+    private static final String PARAM_THREADS = "threads";
     private static final String PARAM_WAY_FILTERING = "way-filtering";
     private static final String PARAM_WAYS = "ways";
 
@@ -61,6 +63,7 @@ public class PoiWriterFactory extends TaskManagerFactory {
         configuration.setPreferredLanguage(getStringArgument(taskConfig, PARAM_PREFERRED_LANGUAGE, null));
         configuration.setProgressLogs(getBooleanArgument(taskConfig, PARAM_PROGRESS_LOGS, true));
         configuration.loadTagMappingFile(getStringArgument(taskConfig, PARAM_TAG_MAPPING_FILE, null));
+        configuration.setThreads(getIntegerArgument(taskConfig, PARAM_THREADS, 1));
         configuration.setWayFiltering(getBooleanArgument(taskConfig, PARAM_WAY_FILTERING, false));
         configuration.setWays(getBooleanArgument(taskConfig, PARAM_WAYS, true));
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.writer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mapsforge.poi.writer.logging.DummyProgressManager;
+import org.mapsforge.poi.writer.logging.LoggerWrapper;
+import org.mapsforge.poi.writer.model.PoiWriterConfiguration;
+import org.openstreetmap.osmosis.core.container.v0_6.NodeContainer;
+import org.openstreetmap.osmosis.core.container.v0_6.RelationContainer;
+import org.openstreetmap.osmosis.core.container.v0_6.WayContainer;
+import org.openstreetmap.osmosis.core.domain.v0_6.CommonEntityData;
+import org.openstreetmap.osmosis.core.domain.v0_6.EntityType;
+import org.openstreetmap.osmosis.core.domain.v0_6.Node;
+import org.openstreetmap.osmosis.core.domain.v0_6.OsmUser;
+import org.openstreetmap.osmosis.core.domain.v0_6.Relation;
+import org.openstreetmap.osmosis.core.domain.v0_6.RelationMember;
+import org.openstreetmap.osmosis.core.domain.v0_6.Tag;
+import org.openstreetmap.osmosis.core.domain.v0_6.Way;
+import org.openstreetmap.osmosis.core.domain.v0_6.WayNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class GeoTaggerTest {
+    /**
+     * Two overlapping postal code areas, {minLon, maxLon} at latitude 52 to 52.2.
+     */
+    private static final double[][] AREAS = {{13.0, 13.2}, {13.1, 13.3}};
+
+    private File file;
+
+    private static CommonEntityData data(long id, String... tags) {
+        List<Tag> list = new ArrayList<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            list.add(new Tag(tags[i], tags[i + 1]));
+        }
+        return new CommonEntityData(id, 1, new Date(0), OsmUser.NONE, 1, list);
+    }
+
+    private static int count(File file, String sql) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try {
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(sql);
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static int countInArea(File file, String name, double[] area) throws SQLException {
+        return count(file, "SELECT count(*) FROM poi_index JOIN poi_data ON poi_index.id = poi_data.id "
+                + "WHERE poi_data.data LIKE '%name=" + name + "%' AND poi_index.lat BETWEEN 52 AND 52.2 "
+                + "AND poi_index.lon BETWEEN " + area[0] + " AND " + area[1] + ";");
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        LoggerWrapper.setDefaultProgressManager(new DummyProgressManager());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = File.createTempFile("geotagger", ".poi");
+        this.file.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        Assert.assertTrue(this.file.delete());
+    }
+
+    /**
+     * Writes the POI file with the postal code areas.
+     *
+     * @param doubles longitudes of the bus stops of the same name.
+     */
+    private void write(int threads, double[] doubles) {
+        PoiWriterConfiguration configuration = new PoiWriterConfiguration();
+        configuration.loadTagMappingFile("src/main/config/poi-mapping.xml");
+        configuration.setOutputFile(this.file);
+        configuration.setAllTags(true);
+        configuration.setGeoTags(true);
+        configuration.setThreads(threads);
+        configuration.setWays(true);
+        PoiWriter writer = PoiWriter.newInstance(configuration, new DummyProgressManager());
+
+        // POIs
+        long id = 1;
+        for (double lon : doubles) {
+            writer.process(new NodeContainer(new Node(data(id++, "highway", "bus_stop", "name", "Main Street"), 52.1, lon)));
+        }
+        writer.process(new NodeContainer(new Node(data(id, "amenity", "cafe", "name", "Corner Cafe"), 52.1, 13.05)));
+
+        // Boundary nodes, ways and relations
+        for (int i = 0; i < AREAS.length; i++) {
+            long nodeId = 1000 + 10 * i;
+            writer.process(new NodeContainer(new Node(data(nodeId), 52, AREAS[i][0])));
+            writer.process(new NodeContainer(new Node(data(nodeId + 1), 52, AREAS[i][1])));
+            writer.process(new NodeContainer(new Node(data(nodeId + 2), 52.2, AREAS[i][1])));
+            writer.process(new NodeContainer(new Node(data(nodeId + 3), 52.2, AREAS[i][0])));
+        }
+        for (int i = 0; i < AREAS.length; i++) {
+            long nodeId = 1000 + 10 * i;
+            List<WayNode> wayNodes = Arrays.asList(new WayNode(nodeId), new WayNode(nodeId + 1),
+                    new WayNode(nodeId + 2), new WayNode(nodeId + 3), new WayNode(nodeId));
+            writer.process(new WayContainer(new Way(data(2000 + i), wayNodes)));
+        }
+        for (int i = 0; i < AREAS.length; i++) {
+            List<RelationMember> members = Collections.singletonList(
+                    new RelationMember(2000 + i, EntityType.Way, "outer"));
+            writer.process(new RelationContainer(new Relation(data(3000 + i, "type", "boundary",
+                    "boundary", "postal_code", "postal_code", String.valueOf(10001 + i)), members)));
+        }
+
+        writer.complete();
+    }
+
+    @Test
+    public void removeDoublePoisTest() throws SQLException {
+        // In the first area, in both areas and in the second area
+        double[] doubles = {13.05, 13.15, 13.25};
+        // With one thread, the second area is always looked up before the first one removes its doubles
+        for (int threads : new int[]{1, 4}) {
+            write(threads, doubles);
+
+            // One bus stop of the same name is kept in each area
+            Assert.assertEquals(1, countInArea(this.file, "Main Street", AREAS[0]));
+            Assert.assertEquals(1, countInArea(this.file, "Main Street", AREAS[1]));
+            Assert.assertEquals(0, count(this.file, "SELECT count(*) FROM poi_category_map "
+                    + "WHERE id NOT IN (SELECT id FROM poi_index);"));
+
+            // The postal code is written and in the full-text search index
+            Assert.assertEquals(1, count(this.file, "SELECT count(*) FROM poi_data "
+                    + "WHERE data LIKE '%name=Corner Cafe%' AND data LIKE '%addr:postcode=10001%';"));
+            Assert.assertEquals(count(this.file, "SELECT count(*) FROM poi_data;"),
+                    count(this.file, "SELECT count(*) FROM poi_fts;"));
+            Assert.assertEquals(1, count(this.file, "SELECT count(*) FROM poi_fts WHERE poi_fts MATCH 'corner 10001';"));
+
+            // The R*Tree is filled without triggers
+            Assert.assertEquals(count(this.file, "SELECT count(*) FROM poi_index;"),
+                    count(this.file, "SELECT count(*) FROM poi_rtree;"));
+            Assert.assertEquals(0, count(this.file, "SELECT count(*) FROM sqlite_master WHERE type = 'trigger';"));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.writer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class LongArrayFileTest {
+    private static long value(long index) {
+        // Negative values and values beyond int
+        return (index * 0x9E3779B97F4A7C15L) ^ index;
+    }
+
+    @Test
+    public void segmentsTest() throws IOException {
+        // 16 longs per segment
+        LongArrayFile file = new LongArrayFile(null, ".test", 4);
+        try {
+            Assert.assertEquals(0, file.size());
+            for (long i = 0; i < 100; i++) {
+                file.add(value(i));
+                Assert.assertEquals(i + 1, file.size());
+                // The last value of the previous segment and the first value of the new one
+                Assert.assertEquals(value(i), file.get(i));
+                if (i > 0) {
+                    Assert.assertEquals(value(i - 1), file.get(i - 1));
+                }
+            }
+            for (long i = 0; i < 100; i++) {
+                Assert.assertEquals(value(i), file.get(i));
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    @Test
+    public void indexOutOfBoundsTest() throws IOException {
+        LongArrayFile file = new LongArrayFile(null, ".test", 4);
+        try {
+            file.add(1);
+            for (long index : new long[]{-1, 1, 16}) {
+                try {
+                    file.get(index);
+                    Assert.fail("index " + index);
+                } catch (IndexOutOfBoundsException e) {
+                    // Expected
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    @Test
+    public void defaultSegmentTest() throws IOException {
+        LongArrayFile file = new LongArrayFile(null, ".test");
+        try {
+            for (long i = 0; i < 10000; i++) {
+                file.add(value(i));
+            }
+            for (long i = 0; i < 10000; i++) {
+                Assert.assertEquals(value(i), file.get(i));
+            }
+        } finally {
+            file.close();
+        }
+    }
+}
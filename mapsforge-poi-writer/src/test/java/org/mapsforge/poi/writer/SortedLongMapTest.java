@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.writer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mapsforge.poi.writer.logging.DummyProgressManager;
+import org.mapsforge.poi.writer.logging.LoggerWrapper;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class SortedLongMapTest {
+    /**
+     * More than the 1024 initial blocks of 256 entries.
+     */
+    private static final int ENTRIES = 300000;
+
+    private SortedLongMap map;
+
+    @BeforeClass
+    public static void setUpClass() {
+        // The warning of unsorted keys is also sent to a progress manager
+        LoggerWrapper.getLogger(SortedLongMap.class.getName(), new DummyProgressManager());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        // 128 longs per segment, so each block of 256 entries spans several segments
+        this.map = new SortedLongMap(null, ".test", 7);
+    }
+
+    @After
+    public void tearDown() {
+        this.map.close();
+    }
+
+    @Test
+    public void emptyTest() {
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(0));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(Long.MIN_VALUE));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void sortedTest() throws IOException {
+        // Every third key, so there are missing keys within each block
+        for (long i = 0; i < ENTRIES; i++) {
+            this.map.put(3 * i + 1, -i);
+        }
+
+        for (long i = 0; i < ENTRIES; i++) {
+            Assert.assertEquals(-i, this.map.get(3 * i + 1));
+            Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(3 * i));
+            Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(3 * i + 2));
+        }
+
+        // Keys outside of the range
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(Long.MIN_VALUE));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(-1));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(3L * ENTRIES + 1));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void unsortedTest() throws IOException {
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        long key = 0;
+        for (int i = 0; i < 10000; i++) {
+            // Mostly ascending, with some keys out of order
+            key += 1 + random.nextInt(10);
+            long put = random.nextInt(20) == 0 ? random.nextInt((int) key) : key;
+            long value = random.nextLong();
+            if (value == SortedLongMap.NO_VALUE) {
+                continue;
+            }
+            this.map.put(put, value);
+            expected.put(put, value);
+        }
+
+        for (long i = -1; i <= key + 1; i++) {
+            Long value = expected.get(i);
+            Assert.assertEquals(value != null ? value : SortedLongMap.NO_VALUE, this.map.get(i));
+        }
+    }
+
+    @Test
+    public void duplicateKeysTest() throws IOException {
+        this.map.put(1, 10);
+        this.map.put(2, 20);
+        this.map.put(3, 30);
+
+        // The last value of a key is kept, whether it is the last key or not
+        this.map.put(3, 31);
+        this.map.put(1, 11);
+        Assert.assertEquals(11, this.map.get(1));
+        Assert.assertEquals(20, this.map.get(2));
+        Assert.assertEquals(31, this.map.get(3));
+
+        // Sorted keys after the duplicates
+        this.map.put(4, 40);
+        Assert.assertEquals(40, this.map.get(4));
+        Assert.assertEquals(31, this.map.get(3));
+        Assert.assertEquals(SortedLongMap.NO_VALUE, this.map.get(5));
+    }
+}
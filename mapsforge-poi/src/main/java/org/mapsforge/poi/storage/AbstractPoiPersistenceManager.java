@@ -2,6 +2,7 @@
  * Copyright 2015-2017 devemux86
  * Copyright 2017 Gustl22
  * Copyright 2022 Juanjo-MC
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -28,6 +29,26 @@ import java.util.*;
  * provides functionality for accessing the SQLite database.
  */
 public abstract class AbstractPoiPersistenceManager implements PoiPersistenceManager {
+    /**
+     * Looks up POI entries in a rectangle.
+     */
+    protected interface RectQuery {
+        /**
+         * @return the POI entries in the rectangle, sorted by distance to the location of the sort.
+         */
+        List<PointOfInterest> find(double minLat, double minLon, double maxLat, double maxLon);
+    }
+
+    /**
+     * The first window of the nearest search is this fraction of the search rectangle.
+     */
+    private static final int NEAREST_WINDOW_DIVISOR = 64;
+
+    /**
+     * The minimum half size of the first window of the nearest search in degrees, about 1 m.
+     */
+    private static final double NEAREST_WINDOW_MIN = 0.00001;
+
     protected PoiCategoryManager categoryManager = null;
     protected String poiFile;
     protected PoiFileInfo poiFileInfo;
@@ -40,6 +61,16 @@ public abstract class AbstractPoiPersistenceManager implements PoiPersistenceMan
         this.ret = new ArrayList<>();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Implementations look up the POI entries with the query of
+     * {@link #getSQLSearchString(PoiCategoryFilter, int, boolean, LatLong, boolean, boolean)}.
+     */
+    @Override
+    public abstract Collection<PointOfInterest> findByText(String text, BoundingBox bb, PoiCategoryFilter filter,
+                                                           LatLong orderBy, int limit, boolean findCategories);
+
     /**
      * {@inheritDoc}
      */
@@ -55,6 +86,47 @@ public abstract class AbstractPoiPersistenceManager implements PoiPersistenceMan
         return findInRect(new BoundingBox(minLat, minLon, maxLat, maxLon), filter, patterns, orderBy, limit, findCategories);
     }
 
+    /**
+     * Incremental nearest search for a spatial index: looks up growing windows around the location of the sort,
+     * until the nearest POI entries found in a window are not farther than the border of the window.
+     *
+     * @param bb        {@link BoundingBox} specifying the rectangle.
+     * @param orderBy   {@link LatLong} location of the sort.
+     * @param limit     max number of POI entries.
+     * @param rectQuery the query of the POI entries in a window, sorted by distance and limited.
+     * @return the POI entries in the rectangle nearest to the location of the sort.
+     */
+    protected static List<PointOfInterest> findNearest(BoundingBox bb, LatLong orderBy, int limit, RectQuery rectQuery) {
+        double radius = Math.max(Math.max(bb.getLatitudeSpan(), bb.getLongitudeSpan()) / NEAREST_WINDOW_DIVISOR,
+                NEAREST_WINDOW_MIN);
+        // Start at the rectangle, if the location of the sort is outside
+        double dLat = Math.max(Math.max(bb.minLatitude - orderBy.latitude, orderBy.latitude - bb.maxLatitude), 0);
+        double dLon = Math.max(Math.max(bb.minLongitude - orderBy.longitude, orderBy.longitude - bb.maxLongitude), 0);
+        radius = Math.max(radius, Math.sqrt(dLat * dLat + dLon * dLon));
+        while (true) {
+            double minLat = Math.max(bb.minLatitude, orderBy.latitude - radius);
+            double minLon = Math.max(bb.minLongitude, orderBy.longitude - radius);
+            double maxLat = Math.min(bb.maxLatitude, orderBy.latitude + radius);
+            double maxLon = Math.min(bb.maxLongitude, orderBy.longitude + radius);
+            if (minLat == bb.minLatitude && minLon == bb.minLongitude
+                    && maxLat == bb.maxLatitude && maxLon == bb.maxLongitude) {
+                return rectQuery.find(minLat, minLon, maxLat, maxLon);
+            }
+            if (minLat <= maxLat && minLon <= maxLon) {
+                List<PointOfInterest> pois = rectQuery.find(minLat, minLon, maxLat, maxLon);
+                if (pois.size() >= limit) {
+                    PointOfInterest farthest = pois.get(pois.size() - 1);
+                    double lat = farthest.getLatitude() - orderBy.latitude;
+                    double lon = farthest.getLongitude() - orderBy.longitude;
+                    if (lat * lat + lon * lon <= radius * radius) {
+                        return pois;
+                    }
+                }
+            }
+            radius *= 2;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -88,17 +160,35 @@ public abstract class AbstractPoiPersistenceManager implements PoiPersistenceMan
      *
      * @param filter  The filter object for determining all wanted categories (may be null).
      * @param count   Count of patterns to search in points of interest data (may be 0).
-     * @param orderBy {@link LatLong} location of the sort.
+     * @param orderBy {@link LatLong} location of the sort (may be null).
+     *                Its latitude and longitude are parameters, twice each, before the limit.
      * @return The SQL query.
      */
     protected static String getSQLSelectString(PoiCategoryFilter filter, int count, LatLong orderBy) {
+        return getSQLSelectString(filter, count, orderBy, false);
+    }
+
+    /**
+     * Gets the SQL query that looks up POI entries.
+     *
+     * @param filter  The filter object for determining all wanted categories (may be null).
+     * @param count   Count of patterns to search in points of interest data (may be 0).
+     * @param orderBy {@link LatLong} location of the sort (may be null).
+     *                Its latitude and longitude are parameters, twice each, before the limit.
+     * @param rtree   If the box is looked up in the R*Tree spatial index, which older POI files do not have.
+     * @return The SQL query.
+     */
+    protected static String getSQLSelectString(PoiCategoryFilter filter, int count, LatLong orderBy, boolean rtree) {
         if (filter != null) {
-            return PoiCategoryRangeQueryGenerator.getSQLSelectString(filter, count, orderBy);
+            return PoiCategoryRangeQueryGenerator.getSQLSelectString(filter, count, orderBy, rtree);
         }
         StringBuilder sb = new StringBuilder();
         sb.append(DbConstants.FIND_IN_BOX_CLAUSE_SELECT);
+        if (rtree) {
+            sb.append(DbConstants.JOIN_RTREE_CLAUSE);
+        }
         sb.append(DbConstants.JOIN_DATA_CLAUSE);
-        sb.append(DbConstants.FIND_IN_BOX_CLAUSE_WHERE);
+        sb.append(rtree ? DbConstants.FIND_IN_BOX_RTREE_CLAUSE_WHERE : DbConstants.FIND_IN_BOX_CLAUSE_WHERE);
         for (int i = 0; i < count; i++) {
             sb.append(i == 0 ? " AND (" : " OR ");
             sb.append(DbConstants.FIND_BY_DATA_CLAUSE);
@@ -107,8 +197,63 @@ public abstract class AbstractPoiPersistenceManager implements PoiPersistenceMan
             }
         }
         if (orderBy != null) {
-            sb.append(" ORDER BY ((").append(orderBy.latitude).append(" - poi_index.lat) * (").append(orderBy.latitude).append(" - poi_index.lat))")
-                    .append(" + ((").append(orderBy.longitude).append(" - poi_index.lon) * (").append(orderBy.longitude).append(" - poi_index.lon)) ASC");
+            sb.append(DbConstants.ORDER_BY_DISTANCE_CLAUSE);
+        }
+        return sb.append(" LIMIT ?;").toString();
+    }
+
+    /**
+     * Gets the SQL query that looks up POI entries by text.
+     * <p/>
+     * Without full-text search index, each word has the parameters of {@link PoiTextIndex#getLikePatterns(String)}.
+     *
+     * @param filter  The filter object for determining all wanted categories (may be null).
+     * @param count   Count of words to search in points of interest data, without full-text search index (at least 1).
+     * @param inBox   If the POI entries are looked up in a rectangle.
+     * @param orderBy {@link LatLong} location of the sort (may be null).
+     *                Its latitude and longitude are parameters, twice each, before the limit.
+     * @param rtree   If the rectangle is looked up in the R*Tree spatial index.
+     * @param fts     If the words are looked up in the full-text search index, which older POI files do not have.
+     * @return The SQL query.
+     */
+    protected static String getSQLSearchString(PoiCategoryFilter filter, int count, boolean inBox, LatLong orderBy,
+                                               boolean rtree, boolean fts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(DbConstants.FIND_IN_BOX_CLAUSE_SELECT);
+        if (inBox && rtree) {
+            sb.append(DbConstants.JOIN_RTREE_CLAUSE);
+        }
+        if (filter != null) {
+            sb.append(DbConstants.JOIN_CATEGORY_CLAUSE);
+        }
+        sb.append(DbConstants.JOIN_DATA_CLAUSE);
+        if (fts) {
+            sb.append(DbConstants.JOIN_FTS_CLAUSE);
+        }
+        if (inBox) {
+            sb.append(rtree ? DbConstants.FIND_IN_BOX_RTREE_CLAUSE_WHERE : DbConstants.FIND_IN_BOX_CLAUSE_WHERE);
+            sb.append(" AND ");
+        } else {
+            sb.append("WHERE ");
+        }
+        if (fts) {
+            sb.append(DbConstants.FIND_BY_FTS_CLAUSE);
+        } else {
+            for (int i = 0; i < count; i++) {
+                sb.append(i == 0 ? "(" : " AND ");
+                sb.append(DbConstants.FIND_BY_DATA_WORD_CLAUSE);
+                if (i == count - 1) {
+                    sb.append(")");
+                }
+            }
+        }
+        if (filter != null) {
+            sb.append(PoiCategoryRangeQueryGenerator.getSQLWhereClauseString(filter));
+        }
+        if (orderBy != null) {
+            sb.append(DbConstants.ORDER_BY_DISTANCE_CLAUSE);
+        } else if (fts) {
+            sb.append(DbConstants.ORDER_BY_FTS_RANK_CLAUSE);
         }
         return sb.append(" LIMIT ?;").toString();
     }
@@ -1,6 +1,7 @@
 /*
  * Copyright 2015-2017 devemux86
  * Copyright 2017 Gustl22
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -22,41 +23,57 @@ public final class DbConstants {
     public static final String CREATE_CATEGORIES_STATEMENT = "CREATE TABLE poi_categories (id INTEGER, name TEXT, parent INTEGER, PRIMARY KEY (id));";
     public static final String CREATE_CATEGORY_MAP_STATEMENT = "CREATE TABLE poi_category_map (id INTEGER, category INTEGER, PRIMARY KEY (id, category)); ";
     public static final String CREATE_DATA_STATEMENT = "CREATE TABLE poi_data (id INTEGER, data TEXT, PRIMARY KEY (id));";
+    public static final String CREATE_FTS_STATEMENT = "CREATE VIRTUAL TABLE poi_fts USING fts5(names, tags, tokenize = 'unicode61 remove_diacritics 2', prefix = '1 2 3');";
     //public static final String CREATE_DATA_IDX_STATEMENT = "CREATE INDEX poi_data_idx ON poi_data (data);";
     public static final String CREATE_INDEX_STATEMENT = "CREATE TABLE poi_index (id INTEGER, lat REAL, lon REAL, PRIMARY KEY (id));";
     public static final String CREATE_INDEX_IDX_LAT_STATEMENT = "CREATE INDEX poi_index_idx_lat ON poi_index (lat);";
     public static final String CREATE_INDEX_IDX_LON_STATEMENT = "CREATE INDEX poi_index_idx_lon ON poi_index (lon);";
     public static final String CREATE_METADATA_STATEMENT = "CREATE TABLE metadata (name TEXT, value TEXT);";
     public static final String CREATE_NODES_STATEMENT = "CREATE TABLE nodes (id INTEGER, lat REAL, lon REAL, PRIMARY KEY (id));";
+    public static final String CREATE_RTREE_STATEMENT = "CREATE VIRTUAL TABLE poi_rtree USING rtree(id, min_lat, max_lat, min_lon, max_lon);";
     public static final String CREATE_WAYNODES_STATEMENT = "CREATE TABLE waynodes (way INTEGER, node INTEGER, position INTEGER, PRIMARY KEY (way, node, position));";
 
     public static final String DELETE_CATEGORY_MAP_STATEMENT = "DELETE FROM poi_category_map WHERE id = ?;";
     public static final String DELETE_DATA_STATEMENT = "DELETE FROM poi_data WHERE id = ?;";
+    public static final String DELETE_FTS_STATEMENT = "DELETE FROM poi_fts WHERE rowid = ?;";
     public static final String DELETE_INDEX_STATEMENT = "DELETE FROM poi_index WHERE id = ?;";
+    public static final String DELETE_RTREE_STATEMENT = "DELETE FROM poi_rtree WHERE id = ?;";
 
     public static final String DROP_CATEGORIES_STATEMENT = "DROP TABLE IF EXISTS poi_categories;";
     public static final String DROP_CATEGORY_MAP_STATEMENT = "DROP TABLE IF EXISTS poi_category_map;";
     public static final String DROP_DATA_STATEMENT = "DROP TABLE IF EXISTS poi_data;";
+    public static final String DROP_FTS_STATEMENT = "DROP TABLE IF EXISTS poi_fts;";
     //public static final String DROP_DATA_IDX_STATEMENT = "DROP INDEX IF EXISTS poi_data_idx;";
     public static final String DROP_INDEX_STATEMENT = "DROP TABLE IF EXISTS poi_index;";
     public static final String DROP_INDEX_IDX_LAT_STATEMENT = "DROP INDEX IF EXISTS poi_index_idx_lat;";
     public static final String DROP_INDEX_IDX_LON_STATEMENT = "DROP INDEX IF EXISTS poi_index_idx_lon;";
     public static final String DROP_METADATA_STATEMENT = "DROP TABLE IF EXISTS metadata;";
     public static final String DROP_NODES_STATEMENT = "DROP TABLE IF EXISTS nodes;";
+    public static final String DROP_RTREE_STATEMENT = "DROP TABLE IF EXISTS poi_rtree;";
     public static final String DROP_WAYNODES_STATEMENT = "DROP TABLE IF EXISTS waynodes;";
 
     public static final String JOIN_CATEGORY_CLAUSE = "JOIN poi_category_map ON poi_index.id = poi_category_map.id ";
     public static final String JOIN_DATA_CLAUSE = "JOIN poi_data ON poi_index.id = poi_data.id ";
+    public static final String JOIN_FTS_CLAUSE = "JOIN poi_fts ON poi_index.id = poi_fts.rowid ";
+    public static final String JOIN_RTREE_CLAUSE = "JOIN poi_rtree ON poi_index.id = poi_rtree.id ";
 
     public static final String FIND_BY_DATA_CLAUSE = "poi_data.data LIKE ?";
+    public static final String FIND_BY_DATA_WORD_CLAUSE = "(poi_data.data LIKE ? OR poi_data.data LIKE ? "
+            + "OR (poi_data.data LIKE ? AND poi_data.data NOT LIKE '%=%'))";
+    public static final String FIND_BY_FTS_CLAUSE = "poi_fts MATCH ?";
     public static final String FIND_CATEGORIES_BY_ID_STATEMENT =
             "SELECT poi_category_map.id, poi_category_map.category "
                     + "FROM poi_category_map "
                     + "WHERE poi_category_map.id = ?;";
+    public static final String FIND_CATEGORIES_BY_IDS_CLAUSE =
+            "SELECT poi_category_map.id, poi_category_map.category "
+                    + "FROM poi_category_map "
+                    + "WHERE poi_category_map.id IN ";
     public static final String FIND_DATA_BY_ID_STATEMENT =
             "SELECT poi_data.id, poi_data.data "
                     + "FROM poi_data "
                     + "WHERE poi_data.id = ?;";
+    public static final String FIND_FTS_STATEMENT = "SELECT count(name) FROM sqlite_master WHERE name = 'poi_fts';";
     public static final String FIND_IN_BOX_CLAUSE_SELECT =
             "SELECT poi_index.id, poi_index.lat, poi_index.lon, poi_data.data "
                     + "FROM poi_index ";
@@ -67,6 +84,18 @@ public final class DbConstants {
                     + "poi_index.lat >= ? AND "
                     + "poi_index.lon >= ?";
     public static final String FIND_IN_BOX_CLAUSE_WHERE_CATEGORY_IN = "poi_category_map.category IN (";
+    // The R*Tree stores 32-bit floats rounded outwards, so the exact coordinates are checked as well
+    public static final String FIND_IN_BOX_RTREE_CLAUSE_WHERE =
+            "WHERE "
+                    + "poi_rtree.min_lat <= ?1 AND "
+                    + "poi_rtree.min_lon <= ?2 AND "
+                    + "poi_rtree.max_lat >= ?3 AND "
+                    + "poi_rtree.max_lon >= ?4 AND "
+                    + "poi_index.lat <= ?1 AND "
+                    + "poi_index.lon <= ?2 AND "
+                    + "poi_index.lat >= ?3 AND "
+                    + "poi_index.lon >= ?4";
+    public static final String FIND_IN_BOX_RTREE_STATEMENT = FIND_IN_BOX_CLAUSE_SELECT + JOIN_RTREE_CLAUSE + JOIN_DATA_CLAUSE + FIND_IN_BOX_RTREE_CLAUSE_WHERE;
     public static final String FIND_IN_BOX_STATEMENT = FIND_IN_BOX_CLAUSE_SELECT + JOIN_DATA_CLAUSE + FIND_IN_BOX_CLAUSE_WHERE;
     public static final String FIND_LOCATION_BY_ID_STATEMENT =
             "SELECT poi_index.id, poi_index.lat, poi_index.lon "
@@ -74,16 +103,26 @@ public final class DbConstants {
                     + "WHERE poi_index.id = ?;";
     public static final String FIND_METADATA_STATEMENT = "SELECT name, value FROM metadata;";
     public static final String FIND_NODES_STATEMENT = "SELECT lat, lon FROM nodes WHERE id = ?;";
+    public static final String FIND_RTREE_STATEMENT = "SELECT count(name) FROM sqlite_master WHERE name = 'poi_rtree';";
     public static final String FIND_WAYNODES_BY_ID_STATEMENT = "SELECT node, position FROM waynodes WHERE way = ?;";
 
     public static final String INSERT_CATEGORIES_STATEMENT = "INSERT INTO poi_categories VALUES (?, ?, ?);";
     public static final String INSERT_CATEGORY_MAP_STATEMENT = "INSERT INTO poi_category_map VALUES (?, ?);";
     public static final String INSERT_DATA_STATEMENT = "INSERT INTO poi_data VALUES (?, ?);";
+    public static final String INSERT_FTS_STATEMENT = "INSERT INTO poi_fts (rowid, names, tags) VALUES (?, ?, ?);";
     public static final String INSERT_INDEX_STATEMENT = "INSERT INTO poi_index VALUES (?, ?, ?);";
     public static final String INSERT_METADATA_STATEMENT = "INSERT INTO metadata VALUES (?, ?);";
     public static final String INSERT_NODES_STATEMENT = "INSERT INTO nodes VALUES (?, ?, ?);";
+    public static final String INSERT_RTREE_ENTRY_STATEMENT = "INSERT INTO poi_rtree VALUES (?, ?, ?, ?, ?);";
+    public static final String INSERT_RTREE_STATEMENT = "INSERT INTO poi_rtree SELECT id, lat, lat, lon, lon FROM poi_index;";
     public static final String INSERT_WAYNODES_STATEMENT = "INSERT INTO waynodes VALUES (?, ?, ?);";
 
+    public static final String ORDER_BY_DISTANCE_CLAUSE =
+            " ORDER BY ((? - poi_index.lat) * (? - poi_index.lat)) + ((? - poi_index.lon) * (? - poi_index.lon)) ASC";
+    // Names weigh more than other tag values
+    public static final String ORDER_BY_FTS_RANK_CLAUSE = " ORDER BY bm25(poi_fts, 10.0, 1.0)";
+    public static final String OPTIMIZE_FTS_STATEMENT = "INSERT INTO poi_fts (poi_fts) VALUES ('optimize');";
+
     public static final String UPDATE_DATA_STATEMENT = "UPDATE poi_data SET data = ? WHERE id = ?;";
 
     public static final String METADATA_BOUNDS = "bounds";
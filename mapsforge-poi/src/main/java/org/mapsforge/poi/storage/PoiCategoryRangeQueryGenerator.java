@@ -3,6 +3,7 @@
  * Copyright 2010, 2011 Karsten Groll
  * Copyright 2015-2017 devemux86
  * Copyright 2017 Gustl22
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -36,15 +37,33 @@ public final class PoiCategoryRangeQueryGenerator {
      *
      * @param filter  The filter object for determining all wanted categories.
      * @param count   Count of patterns to search in points of interest names (may be 0).
-     * @param orderBy {@link LatLong} location of the sort.
+     * @param orderBy {@link LatLong} location of the sort (may be null).
+     *                Its latitude and longitude are parameters, twice each, before the limit.
      * @return The SQL query.
      */
     public static String getSQLSelectString(PoiCategoryFilter filter, int count, LatLong orderBy) {
+        return getSQLSelectString(filter, count, orderBy, false);
+    }
+
+    /**
+     * Gets the SQL query that looks up POI entries.
+     *
+     * @param filter  The filter object for determining all wanted categories.
+     * @param count   Count of patterns to search in points of interest names (may be 0).
+     * @param orderBy {@link LatLong} location of the sort (may be null).
+     *                Its latitude and longitude are parameters, twice each, before the limit.
+     * @param rtree   If the box is looked up in the R*Tree spatial index.
+     * @return The SQL query.
+     */
+    public static String getSQLSelectString(PoiCategoryFilter filter, int count, LatLong orderBy, boolean rtree) {
         StringBuilder sb = new StringBuilder();
         sb.append(DbConstants.FIND_IN_BOX_CLAUSE_SELECT);
+        if (rtree) {
+            sb.append(DbConstants.JOIN_RTREE_CLAUSE);
+        }
         sb.append(DbConstants.JOIN_CATEGORY_CLAUSE);
         sb.append(DbConstants.JOIN_DATA_CLAUSE);
-        sb.append(DbConstants.FIND_IN_BOX_CLAUSE_WHERE);
+        sb.append(rtree ? DbConstants.FIND_IN_BOX_RTREE_CLAUSE_WHERE : DbConstants.FIND_IN_BOX_CLAUSE_WHERE);
         sb.append(getSQLWhereClauseString(filter));
         for (int i = 0; i < count; i++) {
             sb.append(i == 0 ? " AND (" : " OR ");
@@ -54,8 +73,7 @@ public final class PoiCategoryRangeQueryGenerator {
             }
         }
         if (orderBy != null) {
-            sb.append(" ORDER BY ((").append(orderBy.latitude).append(" - poi_index.lat) * (").append(orderBy.latitude).append(" - poi_index.lat))")
-                    .append(" + ((").append(orderBy.longitude).append(" - poi_index.lon) * (").append(orderBy.longitude).append(" - poi_index.lon)) ASC");
+            sb.append(DbConstants.ORDER_BY_DISTANCE_CLAUSE);
         }
         return (sb.append(" LIMIT ?;").toString());
     }
@@ -66,7 +84,7 @@ public final class PoiCategoryRangeQueryGenerator {
      * @param filter The filter object for determining all wanted categories.
      * @return The WHERE clause.
      */
-    private static String getSQLWhereClauseString(PoiCategoryFilter filter) {
+    static String getSQLWhereClauseString(PoiCategoryFilter filter) {
         Collection<PoiCategory> superCategories = filter.getAcceptedSuperCategories();
 
         if (superCategories.isEmpty()) {
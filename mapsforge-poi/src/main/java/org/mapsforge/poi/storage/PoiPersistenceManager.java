@@ -4,6 +4,7 @@
  * Copyright 2010, 2011 Karsten Groll
  * Copyright 2015-2017 devemux86
  * Copyright 2017 Gustl22
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -58,6 +59,27 @@ public interface PoiPersistenceManager {
     Collection<PointOfInterest> findInRect(BoundingBox bb, PoiCategoryFilter filter, List<Tag> patterns,
                                            LatLong orderBy, int limit, boolean findCategories);
 
+    /**
+     * Find {@link PointOfInterest} by their names and tag values, e.g. for search-as-you-type: every word of the
+     * text has to be the start of a word of a name or of a tag value.
+     * <p/>
+     * POI files with a full-text search index are looked up in it, ignoring case and diacritics. In older POI files
+     * each word is searched in the points of interest data with the weaker matching of
+     * {@link PoiTextIndex#getLikePatterns(String)}.
+     *
+     * @param text           the search text.
+     * @param bb             {@link BoundingBox} specifying the rectangle (may be null for the whole file).
+     * @param filter         POI category filter object that helps determining whether a POI should be added to
+     *                       the set or not (may be null).
+     * @param orderBy        {@link LatLong} location of the sort (may be null to sort by relevance).
+     * @param limit          max number of {@link PointOfInterest} to be returned.
+     * @param findCategories find POI categories.
+     * @return {@link Collection} of {@link PointOfInterest} matching the text and the given
+     * {@link PoiCategoryFilter}.
+     */
+    Collection<PointOfInterest> findByText(String text, BoundingBox bb, PoiCategoryFilter filter,
+                                           LatLong orderBy, int limit, boolean findCategories);
+
     /**
      * Fetch {@link PointOfInterest} from underlying storage near a given position.
      * Only the POIs that are allowed by the {@link PoiCategoryFilter} object and matching the data
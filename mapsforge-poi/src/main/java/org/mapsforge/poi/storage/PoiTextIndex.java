@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.storage;
+
+import org.mapsforge.core.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the content of the full-text search index of POI files and the queries on it.
+ * <p/>
+ * The index has two columns: the names of a POI (all name tags, including the normalized name written by the POI
+ * writer) and the values of its other tags.
+ */
+public final class PoiTextIndex {
+    private static final Pattern TOKEN_SEPARATOR_PATTERN = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * @return the names and the other tag values of the given tags, as index columns.
+     */
+    public static String[] getColumns(Collection<Tag> tags) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (Tag tag : tags) {
+            append(tag.key, tag.value, names, values);
+        }
+        return new String[]{names.toString(), values.toString()};
+    }
+
+    /**
+     * @return the names and the other tag values of the given tags, as index columns.
+     */
+    public static String[] getColumns(Map<String, String> tags) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (Map.Entry<String, String> entry : tags.entrySet()) {
+            append(entry.getKey(), entry.getValue(), names, values);
+        }
+        return new String[]{names.toString(), values.toString()};
+    }
+
+    /**
+     * Gets the patterns of the SQL LIKE query that matches POIs with a tag value or a word of it starting with the
+     * given token, in POI files without full-text search index.
+     * <p/>
+     * Unlike the full-text search index, SQLite LIKE ignores the case of ASCII letters only and does not remove
+     * diacritics. Words are found after a space only, not after other punctuation.
+     *
+     * @param token a token of the search, see {@link #getTokens(String)}.
+     * @return the patterns of the start of a tag value, of a word after a space and of the data of POI files with the
+     * name only.
+     */
+    public static String[] getLikePatterns(String token) {
+        // Tokens have no wildcards, as they consist of letters and digits
+        return new String[]{"%=" + token + "%", "% " + token + "%", token + "%"};
+    }
+
+    /**
+     * Gets the full-text query that matches POIs with a word starting with each of the given tokens, e.g. for
+     * search-as-you-type.
+     *
+     * @param tokens the tokens of the search, see {@link #getTokens(String)}.
+     * @return the full-text query.
+     */
+    public static String getMatchQuery(List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            // Quoted, so tokens are never taken as operators
+            sb.append('"').append(token).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits a search text into words.
+     *
+     * @param text the search text.
+     * @return the words of the text, without punctuation.
+     */
+    public static List<String> getTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text != null) {
+            for (String token : TOKEN_SEPARATOR_PATTERN.split(text)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return true if the tag key is a name, e.g. {@code name}, {@code name:en}, {@code alt_name} or
+     * {@code normalized_name}.
+     */
+    public static boolean isNameKey(String key) {
+        return "name".equals(key) || key.startsWith("name:") || key.endsWith("_name") || key.contains("_name:");
+    }
+
+    private static void append(String key, String value, StringBuilder names, StringBuilder values) {
+        if (value == null || value.isEmpty() || "created_by".equals(key)) {
+            return;
+        }
+        StringBuilder sb = isNameKey(key) ? names : values;
+        if (sb.length() > 0) {
+            sb.append(' ');
+        }
+        sb.append(value);
+    }
+
+    private PoiTextIndex() {
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class FindNearestTest {
+    /**
+     * Looks up the POI entries of a list like the SQL query, sorted by distance and limited.
+     */
+    private static final class ListRectQuery implements AbstractPoiPersistenceManager.RectQuery {
+        private final LatLong orderBy;
+        private final int limit;
+        private final List<PointOfInterest> pois;
+        private int queries;
+
+        ListRectQuery(List<PointOfInterest> pois, LatLong orderBy, int limit) {
+            this.pois = pois;
+            this.orderBy = orderBy;
+            this.limit = limit;
+        }
+
+        @Override
+        public List<PointOfInterest> find(double minLat, double minLon, double maxLat, double maxLon) {
+            this.queries++;
+            List<PointOfInterest> result = new ArrayList<>();
+            for (PointOfInterest poi : this.pois) {
+                if (poi.getLatitude() >= minLat && poi.getLatitude() <= maxLat
+                        && poi.getLongitude() >= minLon && poi.getLongitude() <= maxLon) {
+                    result.add(poi);
+                }
+            }
+            Collections.sort(result, new Comparator<PointOfInterest>() {
+                @Override
+                public int compare(PointOfInterest poi1, PointOfInterest poi2) {
+                    return Double.compare(distance(poi1, orderBy), distance(poi2, orderBy));
+                }
+            });
+            return result.size() > this.limit ? result.subList(0, this.limit) : result;
+        }
+    }
+
+    private static double distance(PointOfInterest poi, LatLong latLong) {
+        double lat = poi.getLatitude() - latLong.latitude;
+        double lon = poi.getLongitude() - latLong.longitude;
+        return lat * lat + lon * lon;
+    }
+
+    @Test
+    public void findNearestTest() {
+        Random random = new Random(42);
+        List<PointOfInterest> pois = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pois.add(new PointOfInterest(i, 52 + random.nextDouble(), 13 + random.nextDouble(), (Set<Tag>) null, null));
+        }
+        BoundingBox bb = new BoundingBox(52, 13, 53, 14);
+
+        for (int i = 0; i < 100; i++) {
+            // Also outside of the rectangle
+            LatLong orderBy = new LatLong(51.5 + 2 * random.nextDouble(), 12.5 + 2 * random.nextDouble());
+            int limit = 1 + random.nextInt(20);
+
+            List<PointOfInterest> expected = new ListRectQuery(pois, orderBy, limit)
+                    .find(bb.minLatitude, bb.minLongitude, bb.maxLatitude, bb.maxLongitude);
+            List<PointOfInterest> actual = AbstractPoiPersistenceManager.findNearest(bb, orderBy, limit,
+                    new ListRectQuery(pois, orderBy, limit));
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void findNearestWindowTest() {
+        List<PointOfInterest> pois = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            pois.add(new PointOfInterest(i, 52 + i * 0.01, 13 + i * 0.01, (Set<Tag>) null, null));
+        }
+        BoundingBox bb = new BoundingBox(52, 13, 53, 14);
+        LatLong orderBy = new LatLong(52.5, 13.5);
+
+        // The nearest entries are found in a small window, without the query of the whole rectangle
+        ListRectQuery rectQuery = new ListRectQuery(pois, orderBy, 1);
+        List<PointOfInterest> actual = AbstractPoiPersistenceManager.findNearest(bb, orderBy, 1, rectQuery);
+        Assert.assertEquals(1, actual.size());
+        Assert.assertEquals(50, actual.get(0).getId());
+        Assert.assertEquals(1, rectQuery.queries);
+
+        // Fewer entries than the limit need the whole rectangle
+        rectQuery = new ListRectQuery(pois, orderBy, 1000);
+        actual = AbstractPoiPersistenceManager.findNearest(bb, orderBy, 1000, rectQuery);
+        Assert.assertEquals(100, actual.size());
+    }
+}
@@ -1,6 +1,7 @@
 /*
  * Copyright 2010, 2011, 2012 mapsforge.org
  * Copyright 2010, 2011, 2012 Karsten Groll
+ * Copyright 2026 mapsforge.org
  *
  * This program is free software: you can redistribute it and/or modify it under the
  * terms of the GNU Lesser General Public License as published by the Free Software
@@ -15,8 +16,10 @@
  */
 package org.mapsforge.poi.storage;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mapsforge.core.model.LatLong;
 
 /**
  * This class tests the {@link PoiCategoryRangeQueryGenerator} class for common use cases.
@@ -73,4 +76,27 @@ public class PoiCategoryRangeQueryGeneratorTest {
 
         // TODO add assertions
     }
+
+    /**
+     * Select categories through the R*Tree spatial index, ordered by distance.
+     *
+     * @throws UnknownPoiCategoryException if a category cannot be found by its name or ID.
+     */
+    @Test
+    public void selectWithRTree() throws UnknownPoiCategoryException {
+        PoiCategoryFilter filter = new WhitelistPoiCategoryFilter();
+        filter.addCategory(this.balancedCm.getPoiCategoryByTitle("l1_1"));
+
+        String query = PoiCategoryRangeQueryGenerator.getSQLSelectString(filter, 1, new LatLong(1, 2), true);
+        Assert.assertTrue(query.contains(DbConstants.JOIN_RTREE_CLAUSE));
+        Assert.assertTrue(query.contains(DbConstants.FIND_IN_BOX_RTREE_CLAUSE_WHERE));
+        Assert.assertTrue(query.contains(DbConstants.FIND_BY_DATA_CLAUSE));
+        // The location of the sort is a parameter, so the statement is the same for all locations
+        Assert.assertTrue(query.endsWith(DbConstants.ORDER_BY_DISTANCE_CLAUSE + " LIMIT ?;"));
+        Assert.assertEquals(query, PoiCategoryRangeQueryGenerator.getSQLSelectString(filter, 1, new LatLong(3, 4), true));
+
+        query = PoiCategoryRangeQueryGenerator.getSQLSelectString(filter, 1, new LatLong(1, 2), false);
+        Assert.assertFalse(query.contains("poi_rtree"));
+        Assert.assertTrue(query.contains(DbConstants.FIND_IN_BOX_CLAUSE_WHERE));
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.poi.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class PoiTextIndexTest {
+    @Test
+    public void getColumnsTest() {
+        Map<String, String> tags = new TreeMap<>();
+        tags.put("amenity", "cafe");
+        tags.put("created_by", "editor");
+        tags.put("cuisine", "coffee_shop");
+        tags.put("name", "Café Müller");
+        tags.put("name:en", "Mueller");
+        tags.put("normalized_name", "cafe muller");
+        tags.put("old_name", "Kaffee");
+
+        String[] columns = PoiTextIndex.getColumns(tags);
+        Assert.assertEquals("Café Müller Mueller cafe muller Kaffee", columns[0]);
+        Assert.assertEquals("cafe coffee_shop", columns[1]);
+
+        columns = PoiTextIndex.getColumns(Collections.<org.mapsforge.core.model.Tag>emptySet());
+        Assert.assertEquals("", columns[0]);
+        Assert.assertEquals("", columns[1]);
+    }
+
+    @Test
+    public void getMatchQueryTest() {
+        Assert.assertEquals(Arrays.asList("Café", "Mü"), PoiTextIndex.getTokens(" Café, \"Mü* "));
+        Assert.assertEquals(Arrays.asList("OR", "1"), PoiTextIndex.getTokens("OR-1"));
+        Assert.assertTrue(PoiTextIndex.getTokens("  ").isEmpty());
+        Assert.assertTrue(PoiTextIndex.getTokens(null).isEmpty());
+
+        Assert.assertEquals("\"Café\"* \"Mü\"*", PoiTextIndex.getMatchQuery(PoiTextIndex.getTokens("Café Mü")));
+        Assert.assertEquals("\"OR\"*", PoiTextIndex.getMatchQuery(PoiTextIndex.getTokens("OR")));
+    }
+
+    @Test
+    public void isNameKeyTest() {
+        Assert.assertTrue(PoiTextIndex.isNameKey("name"));
+        Assert.assertTrue(PoiTextIndex.isNameKey("name:de"));
+        Assert.assertTrue(PoiTextIndex.isNameKey("alt_name"));
+        Assert.assertTrue(PoiTextIndex.isNameKey("alt_name:de"));
+        Assert.assertTrue(PoiTextIndex.isNameKey("normalized_name"));
+        Assert.assertFalse(PoiTextIndex.isNameKey("names"));
+        Assert.assertFalse(PoiTextIndex.isNameKey("amenity"));
+    }
+}
@@ -94,8 +94,8 @@ public class ReverseGeocodeViewer extends DefaultTheme {
         // Filter ways
         sb.append("\n\n").append("*** WAYS ***");
         for (Way way : mapReadResult.ways) {
-            if (!LatLongUtils.isClosedWay(way.latLongs[0])
-                    || !LatLongUtils.contains(way.latLongs[0], tapLatLong)) {
+            if (!LatLongUtils.isClosedWay(way.coordinates[0])
+                    || !LatLongUtils.contains(way.getLatLongs()[0], tapLatLong)) {
                 continue;
             }
             sb.append("\n");